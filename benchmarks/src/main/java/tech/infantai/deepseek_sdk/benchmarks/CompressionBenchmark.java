@@ -0,0 +1,192 @@
+package tech.infantai.deepseek_sdk.benchmarks;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.GzipSource;
+import okio.Okio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.infantai.deepseek_sdk.client.HttpClientProvider;
+import tech.infantai.deepseek_sdk.config.GPTConfig;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.model.Message;
+import tech.infantai.deepseek_sdk.service.DeepseekAIService;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 大请求体的gzip压缩：携带检索文档的长上下文请求对本地MockWebServer的往返
+ * Gzip compression of large request bodies: long-context requests carrying a retrieved document, round-tripped
+ * against a local MockWebServer
+ *
+ * 服务端解压gzip请求体并检查其为完整的聊天请求，否则返回400，基准测试随之失败；客户端接受gzip时响应也压缩返回。
+ * bandwidthKBps限制请求体读取和响应体写出的速度，模拟跨地域链路。结束时打印传输字节数与压缩前字节数。
+ * The server inflates gzip request bodies and checks that they hold a complete chat request, answering 400 otherwise,
+ * which fails the benchmark; responses are gzip-compressed when the client accepts it. bandwidthKBps throttles
+ * reading the request body and writing the response, standing in for a cross-region link. Bytes on the wire and
+ * before compression are printed at the end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CompressionBenchmark {
+
+    /** 请求体压缩阈值（字节），0表示不压缩 / Request compression threshold in bytes, 0 to disable */
+    @Param({"0", "16384"})
+    public int requestCompressionThreshold;
+
+    /** 是否接受gzip响应 / Whether gzip responses are accepted */
+    @Param({"true"})
+    public boolean responseCompression;
+
+    /** 模拟链路的带宽（KB/s），0表示不限速 / Simulated link bandwidth in KB/s, 0 for unthrottled */
+    @Param({"0", "2048"})
+    public int bandwidthKBps;
+
+    /** 检索文档的字符数 / Characters of the retrieved document */
+    @Param({"262144"})
+    public int documentLength;
+
+    private final LongAdder requestBytes = new LongAdder();
+    private final LongAdder uncompressedRequestBytes = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    private final LongAdder uncompressedResponseBytes = new LongAdder();
+
+    private MockWebServer server;
+    private Thread drainer;
+    private DeepseekAIService service;
+    private List<Message> messages;
+
+    @Setup
+    public void setup() throws IOException {
+        String completion = Payloads.completion(2000);
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String body;
+                try {
+                    body = requestBody(request);
+                } catch (IOException e) {
+                    return badRequest("Malformed gzip body: " + e.getMessage());
+                }
+                if (!body.startsWith("{\"model\"") || !body.endsWith("}")) {
+                    return badRequest("Incomplete request body");
+                }
+                MockResponse response = new MockResponse().setHeader("Content-Type", "application/json");
+                String acceptEncoding = request.getHeader("Accept-Encoding");
+                if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                    response.setHeader("Content-Encoding", "gzip").setBody(gzip(completion));
+                } else {
+                    response.setBody(completion);
+                }
+                if (bandwidthKBps > 0) {
+                    // MockWebServer的限速同时作用于读取请求体和写出响应体
+                    response.throttleBody(bandwidthKBps * 1024L / 10, 100, TimeUnit.MILLISECONDS);
+                }
+                return response;
+            }
+        });
+        server.start();
+        drainer = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    server.takeRequest();
+                }
+            } catch (InterruptedException ignored) {
+                // 测试结束
+            }
+        }, "mockwebserver-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+
+        GPTConfig config = GPTConfig.builder()
+                .apiKey("sk-benchmark")
+                .endpoint(server.url("/").toString())
+                .model("deepseek-chat")
+                .requestCompressionThreshold(requestCompressionThreshold)
+                .responseCompression(responseCompression)
+                .instrumentation(metrics -> {
+                    requestBytes.add(metrics.getRequestBytes());
+                    uncompressedRequestBytes.add(metrics.getUncompressedRequestBytes());
+                    responseBytes.add(metrics.getResponseBytes());
+                    uncompressedResponseBytes.add(metrics.getUncompressedResponseBytes());
+                })
+                .build();
+        service = new DeepseekAIService(config);
+        messages = Arrays.asList(
+                new Message("system", "Answer using the documents below.\n\n" + Payloads.text(documentLength)),
+                new Message("user", "Summarize the documents."));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        drainer.interrupt();
+        server.shutdown();
+        HttpClientProvider.evictAll();
+        System.out.printf("%nrequest bytes: %d on the wire, %d uncompressed; response bytes: %d on the wire, %d uncompressed%n",
+                requestBytes.sum(), uncompressedRequestBytes.sum(), responseBytes.sum(), uncompressedResponseBytes.sum());
+    }
+
+    @Benchmark
+    public ChatResponse longContextRequest() throws IOException {
+        ChatResponse response = service.chatWithMessages(messages);
+        if (!response.isSuccess()) {
+            throw new IllegalStateException(response.getErrorMessage());
+        }
+        return response;
+    }
+
+    private static String requestBody(RecordedRequest request) throws IOException {
+        Buffer body = request.getBody();
+        if (!"gzip".equals(request.getHeader("Content-Encoding"))) {
+            return body.readUtf8();
+        }
+        Buffer inflated = new Buffer();
+        try (GzipSource source = new GzipSource(body)) {
+            while (source.read(inflated, 8192) != -1) {
+                // 读到gzip尾部为止，CRC或长度不符时抛出异常
+            }
+        }
+        return inflated.readUtf8();
+    }
+
+    private static Buffer gzip(String text) {
+        Buffer compressed = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(compressed))) {
+            sink.writeUtf8(text);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return compressed;
+    }
+
+    private static MockResponse badRequest(String message) {
+        return new MockResponse()
+                .setResponseCode(400)
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"error\":{\"message\":\"" + message.replace("\"", "'") + "\",\"type\":\"invalid_request_error\"}}");
+    }
+}
@@ -0,0 +1,113 @@
+package tech.infantai.deepseek_sdk.benchmarks;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.infantai.deepseek_sdk.client.HttpClientProvider;
+import tech.infantai.deepseek_sdk.config.GPTConfig;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.model.Message;
+import tech.infantai.deepseek_sdk.service.DeepseekAIService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端调用开销：DeepseekAIService.chatWithMessages对本地MockWebServer的往返
+ * End-to-end call overhead: DeepseekAIService.chatWithMessages round trips against a local MockWebServer
+ *
+ * 服务端立即返回固定响应，因此测得的是SDK自身（序列化、连接池、OkHttp、解析）的开销，
+ * 而不是模型的延迟。分别在单线程和64线程下运行。
+ * The server answers immediately with a canned response, so the numbers reflect the SDK's own overhead
+ * (serialization, connection pool, OkHttp, parsing) rather than model latency. Runs single-threaded and with 64 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    @Param({"10"})
+    public int historySize;
+
+    @Param({"200"})
+    public int contentLength;
+
+    private MockWebServer server;
+    private Thread drainer;
+    private DeepseekAIService service;
+    private List<Message> messages;
+
+    @Setup
+    public void setup() throws IOException {
+        String body = Payloads.completion(contentLength);
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(body);
+            }
+        });
+        server.start();
+        // MockWebServer会保存每个请求，持续取出以免基准测试期间内存不断增长
+        drainer = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    server.takeRequest();
+                }
+            } catch (InterruptedException ignored) {
+                // 测试结束
+            }
+        }, "mockwebserver-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+
+        GPTConfig config = GPTConfig.builder()
+                .apiKey("sk-benchmark")
+                .endpoint(server.url("/").toString())
+                .model("deepseek-chat")
+                .maxIdleConnections(128)
+                .maxRequestsPerHost(128)
+                .build();
+        service = new DeepseekAIService(config);
+        messages = Payloads.history(historySize, 500);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        drainer.interrupt();
+        server.shutdown();
+        HttpClientProvider.evictAll();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ChatResponse singleThreaded() throws IOException {
+        return service.chatWithMessages(messages);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public ChatResponse concurrent() throws IOException {
+        return service.chatWithMessages(messages);
+    }
+}
@@ -0,0 +1,86 @@
+package tech.infantai.deepseek_sdk.benchmarks;
+
+import com.fasterxml.jackson.core.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.infantai.deepseek_sdk.json.ChatCodec;
+import tech.infantai.deepseek_sdk.json.Json;
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+import tech.infantai.deepseek_sdk.model.ErrorResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应解析：小响应和大响应，以及错误响应
+ * Response parsing for small and large completions and for error bodies
+ *
+ * 与SDK一样从InputStream解析，不经过String
+ * Parses from an InputStream as the SDK does, without an intermediate String
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParsingBenchmark {
+
+    /** 回复内容的字符数：小响应约200字符，大响应约32K字符 / Reply length: ~200 chars small, ~32K chars large */
+    @Param({"200", "32768"})
+    public int contentLength;
+
+    private byte[] completion;
+    private byte[] error;
+
+    @Setup
+    public void setup() {
+        completion = Payloads.completion(contentLength).getBytes(StandardCharsets.UTF_8);
+        error = Payloads.error().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * SDK当前的写法：ChatCodec手写解析
+     * What the SDK does now: the hand-written ChatCodec
+     */
+    @Benchmark
+    public ChatCompletionResponse parseCompletion() throws IOException {
+        ChatCompletionResponse response = new ChatCompletionResponse();
+        try (JsonParser parser = ChatCodec.FACTORY.createParser(new ByteArrayInputStream(completion))) {
+            ChatCodec.readCompletion(parser, response);
+        }
+        return response;
+    }
+
+    @Benchmark
+    public ErrorResponse parseError() throws IOException {
+        try (JsonParser parser = ChatCodec.FACTORY.createParser(new ByteArrayInputStream(error))) {
+            return ChatCodec.readError(parser);
+        }
+    }
+
+    /**
+     * 对照组：ObjectMapper基于反射的数据绑定
+     * Baseline: ObjectMapper's reflective data binding
+     */
+    @Benchmark
+    public ChatCompletionResponse parseCompletionDatabind() throws IOException {
+        return Json.MAPPER.readValue(new ByteArrayInputStream(completion), ChatCompletionResponse.class);
+    }
+
+    @Benchmark
+    public ErrorResponse parseErrorDatabind() throws IOException {
+        return Json.MAPPER.readValue(new ByteArrayInputStream(error), ErrorResponse.class);
+    }
+}
@@ -0,0 +1,76 @@
+package tech.infantai.deepseek_sdk.benchmarks;
+
+import tech.infantai.deepseek_sdk.model.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试使用的请求和响应样本
+ * Request and response fixtures shared by the benchmarks
+ */
+public final class Payloads {
+    private static final String SENTENCE = "The quick brown fox jumps over the lazy dog. 敏捷的棕色狐狸跳过了懒狗。";
+
+    private Payloads() {
+    }
+
+    /**
+     * 生成指定长度的文本，中英文混合以覆盖多字节UTF-8编码
+     * Text of the given length, mixing ASCII and CJK so multi-byte UTF-8 encoding is exercised
+     */
+    public static String text(int length) {
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append(SENTENCE);
+        }
+        builder.setLength(length);
+        return builder.toString();
+    }
+
+    /**
+     * 生成一段多轮对话：一条系统消息加上交替的用户和助手消息
+     * A conversation: one system message followed by alternating user and assistant messages
+     *
+     * @param turns 消息条数（不含系统消息）
+     *              Number of messages after the system message
+     * @param messageLength 每条消息的字符数
+     *                      Characters per message
+     */
+    public static List<Message> history(int turns, int messageLength) {
+        List<Message> messages = new ArrayList<>(turns + 1);
+        messages.add(new Message("system", "You are a helpful assistant"));
+        String content = text(messageLength);
+        for (int i = 0; i < turns; i++) {
+            messages.add(new Message(i % 2 == 0 ? "user" : "assistant", content));
+        }
+        return messages;
+    }
+
+    /**
+     * 一个完整的chat completion响应
+     * A complete chat completion response
+     *
+     * @param contentLength 回复内容的字符数
+     *                      Characters in the reply
+     */
+    public static String completion(int contentLength) {
+        return "{\"id\":\"chatcmpl-bench\",\"object\":\"chat.completion\",\"created\":1700000000,\"model\":\"deepseek-chat\","
+                + "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"" + text(contentLength)
+                + "\"},\"logprobs\":null,\"finish_reason\":\"stop\"}],"
+                + "\"usage\":{\"prompt_tokens\":120,\"completion_tokens\":" + Math.max(1, contentLength / 4) + ","
+                + "\"total_tokens\":" + (120 + Math.max(1, contentLength / 4)) + ","
+                + "\"prompt_tokens_details\":{\"cached_tokens\":64},"
+                + "\"prompt_cache_hit_tokens\":64,\"prompt_cache_miss_tokens\":56},"
+                + "\"system_fingerprint\":\"fp_bench\"}";
+    }
+
+    /**
+     * 一个API错误响应
+     * An API error response
+     */
+    public static String error() {
+        return "{\"error\":{\"message\":\"Rate limit reached for requests\",\"type\":\"rate_limit_error\","
+                + "\"param\":null,\"code\":\"rate_limit_exceeded\"}}";
+    }
+}
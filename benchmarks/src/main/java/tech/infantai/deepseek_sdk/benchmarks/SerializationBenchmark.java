@@ -0,0 +1,99 @@
+package tech.infantai.deepseek_sdk.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.infantai.deepseek_sdk.json.Json;
+import tech.infantai.deepseek_sdk.json.JsonRequestBody;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChatRequest序列化：ChatCodec直接写入Okio sink，与反射序列化、先生成String再编码的对比
+ * ChatRequest serialization: ChatCodec streaming into an Okio sink versus reflective serialization and building a
+ * String and encoding it
+ *
+ * 使用 -prof gc 查看每次操作的分配量（gc.alloc.rate.norm）
+ * Run with -prof gc to see bytes allocated per operation (gc.alloc.rate.norm)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final ObjectWriter DATABIND = Json.MAPPER.writer()
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+
+    @Param({"1", "10", "100", "1000"})
+    public int historySize;
+
+    @Param({"500"})
+    public int messageLength;
+
+    private ChatRequest request;
+    private Buffer sink;
+
+    @Setup
+    public void setup() {
+        request = ChatRequest.builder()
+                .model("deepseek-chat")
+                .messages(Payloads.history(historySize, messageLength))
+                .temperature(0.0)
+                .build();
+        sink = new Buffer();
+    }
+
+    /**
+     * SDK当前的写法：JsonRequestBody直接写入sink
+     * What the SDK does now: JsonRequestBody writes straight into the sink
+     */
+    @Benchmark
+    public long streamingRequestBody() throws IOException {
+        new JsonRequestBody(request).writeTo(sink);
+        long size = sink.size();
+        sink.clear();
+        return size;
+    }
+
+    /**
+     * 对照组：ObjectMapper基于反射的序列化，同样直接写入sink
+     * Baseline: ObjectMapper's reflective serialization, also straight into the sink
+     */
+    @Benchmark
+    public long databindRequestBody() throws IOException {
+        DATABIND.writeValue(sink.outputStream(), request);
+        long size = sink.size();
+        sink.clear();
+        return size;
+    }
+
+    /**
+     * 对照组：先生成完整的String，再编码为UTF-8写入sink
+     * Baseline: build the whole String, then encode it to UTF-8 into the sink
+     */
+    @Benchmark
+    public long stringThenEncode() throws IOException {
+        String json = Json.MAPPER.writeValueAsString(request);
+        sink.write(json.getBytes(StandardCharsets.UTF_8));
+        long size = sink.size();
+        sink.clear();
+        return size;
+    }
+}
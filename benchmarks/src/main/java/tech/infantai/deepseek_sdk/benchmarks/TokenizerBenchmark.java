@@ -0,0 +1,157 @@
+package tech.infantai.deepseek_sdk.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.infantai.deepseek_sdk.model.Message;
+import tech.infantai.deepseek_sdk.tokenizer.BpeTokenizer;
+import tech.infantai.deepseek_sdk.tokenizer.CharacterTokenEstimator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 发送前的token计数：BPE分词器与按字符估算的对比
+ * Pre-send token counting: the BPE tokenizer against the character-based estimate
+ *
+ * 默认使用在内置语料上训练的小词表，便于离线运行；用-p vocabulary=/path/cl100k_base.tiktoken可以换成真实词表。
+ * 结合-prof gc查看gc.alloc.rate.norm，预热后每次计数不应随文本长度分配内存。
+ * A small vocabulary trained on a built-in corpus is used by default so the benchmark runs offline; pass
+ * -p vocabulary=/path/cl100k_base.tiktoken for a real one. With -prof gc, gc.alloc.rate.norm should not grow
+ * with the text length once warmed up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenizerBenchmark {
+    private static final String CORPUS = "Large language models read text as tokens. A tokenizer splits the input "
+            + "into pieces, and byte pair encoding merges the most frequent pairs of bytes until the vocabulary is "
+            + "full. Counting tokens before sending a request helps with rate limits, context windows and the size "
+            + "of max_tokens. The quick brown fox jumps over the lazy dog while the service answers questions about "
+            + "weather, travel, programming, history and science. 大语言模型以token为单位读取文本，分词器把输入切分成片段，"
+            + "发送前计算token数有助于限流、控制上下文长度和设置最大输出长度。敏捷的棕色狐狸跳过了懒狗。"
+            + "Numbers such as 2024, 3.14159 and 1000000 appear too, as do \"quotes\", (parentheses) and code: "
+            + "for (int i = 0; i < n; i++) { sum += values[i]; }\n\n";
+    private static final int SYNTHETIC_MERGES = 2000;
+
+    /** 词表路径，为空时使用训练的小词表 / Vocabulary path; empty for the small trained one */
+    @Param({""})
+    public String vocabulary;
+
+    /** 每条消息的字符数 / Characters per message */
+    @Param({"200", "4096"})
+    public int messageLength;
+
+    private BpeTokenizer tokenizer;
+    private List<Message> messages;
+
+    @Setup
+    public void setup() throws IOException {
+        if (vocabulary.isEmpty()) {
+            tokenizer = BpeTokenizer.fromTiktoken(new ByteArrayInputStream(syntheticVocabulary()), BpeTokenizer.CL100K_PATTERN);
+        } else {
+            tokenizer = BpeTokenizer.fromTiktoken(Paths.get(vocabulary), BpeTokenizer.CL100K_PATTERN);
+        }
+        messages = Payloads.history(10, messageLength);
+    }
+
+    @Benchmark
+    public int bpeTokenizer() {
+        return tokenizer.countTokens(messages);
+    }
+
+    @Benchmark
+    public int characterEstimate() {
+        return CharacterTokenEstimator.INSTANCE.countTokens(messages);
+    }
+
+    /**
+     * 在CORPUS和样本文本上训练一个tiktoken格式的小词表：256个单字节token加上最常见的合并
+     * Train a small tiktoken-format vocabulary on CORPUS and the fixture text: the 256 single bytes plus the most
+     * frequent merges
+     */
+    private static byte[] syntheticVocabulary() {
+        Map<String, Integer> pieces = new HashMap<>();
+        Matcher matcher = Pattern.compile(BpeTokenizer.CL100K_PATTERN, Pattern.UNICODE_CHARACTER_CLASS)
+                .matcher(CORPUS + Payloads.text(1000));
+        while (matcher.find()) {
+            pieces.merge(matcher.group(), 1, Integer::sum);
+        }
+        // 每个片段表示为符号序列，符号是用ISO-8859-1保存的字节串
+        List<List<String>> words = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        for (Map.Entry<String, Integer> piece : pieces.entrySet()) {
+            List<String> symbols = new ArrayList<>();
+            for (byte b : piece.getKey().getBytes(StandardCharsets.UTF_8)) {
+                symbols.add(new String(new byte[]{b}, StandardCharsets.ISO_8859_1));
+            }
+            words.add(symbols);
+            counts.add(piece.getValue());
+        }
+        List<String> tokens = new ArrayList<>();
+        for (int b = 0; b < 256; b++) {
+            tokens.add(new String(new byte[]{(byte) b}, StandardCharsets.ISO_8859_1));
+        }
+        for (int merge = 0; merge < SYNTHETIC_MERGES; merge++) {
+            Map<String, Integer> pairs = new HashMap<>();
+            String best = null;
+            int bestCount = 0;
+            for (int w = 0; w < words.size(); w++) {
+                List<String> symbols = words.get(w);
+                for (int i = 0; i < symbols.size() - 1; i++) {
+                    String pair = symbols.get(i) + '\0' + symbols.get(i + 1);
+                    int count = pairs.merge(pair, counts.get(w), Integer::sum);
+                    if (count > bestCount) {
+                        bestCount = count;
+                        best = pair;
+                    }
+                }
+            }
+            if (best == null) {
+                break;
+            }
+            int split = best.indexOf('\0');
+            String left = best.substring(0, split);
+            String right = best.substring(split + 1);
+            String merged = left + right;
+            if (!tokens.contains(merged)) {
+                tokens.add(merged);
+            }
+            for (List<String> symbols : words) {
+                for (int i = 0; i < symbols.size() - 1; i++) {
+                    if (symbols.get(i).equals(left) && symbols.get(i + 1).equals(right)) {
+                        symbols.set(i, merged);
+                        symbols.remove(i + 1);
+                    }
+                }
+            }
+        }
+        StringBuilder file = new StringBuilder();
+        for (int rank = 0; rank < tokens.size(); rank++) {
+            file.append(Base64.getEncoder().encodeToString(tokens.get(rank).getBytes(StandardCharsets.ISO_8859_1)))
+                    .append(' ').append(rank).append('\n');
+        }
+        return file.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,298 @@
+package tech.infantai.deepseek_sdk.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import tech.infantai.deepseek_sdk.benchmarks.Payloads;
+import tech.infantai.deepseek_sdk.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 本地模拟的OpenAI/DeepSeek兼容接口，完全离线运行
+ * A local fake of the OpenAI/DeepSeek compatible API that runs entirely offline
+ *
+ * 基于JDK自带的HttpServer，不需要额外依赖。可以配置首字节延迟分布（对数正态，按中位数和sigma设置）、
+ * 流式输出的token速度、回复长度、500错误率和429限流率。
+ * Built on the JDK's HttpServer, so no extra dependency is needed. Configurable: the time-to-first-byte distribution
+ * (log-normal, set by median and sigma), the token rate of streamed output, the reply length, and the 500 and 429 rates.
+ */
+public final class FakeProvider implements AutoCloseable {
+    private static final String CHUNK_TEXT = "tok ";
+
+    private final long latencyMedianMillis;
+    private final double latencySigma;
+    private final int completionTokens;
+    private final double tokensPerSecond;
+    private final double errorRate;
+    private final double rateLimitRate;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final byte[] completion;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    private FakeProvider(Builder builder) throws IOException {
+        this.latencyMedianMillis = builder.latencyMedianMillis;
+        this.latencySigma = builder.latencySigma;
+        this.completionTokens = builder.completionTokens;
+        this.tokensPerSecond = builder.tokensPerSecond;
+        this.errorRate = builder.errorRate;
+        this.rateLimitRate = builder.rateLimitRate;
+        this.completion = Payloads.completion(completionTokens * CHUNK_TEXT.length()).getBytes(StandardCharsets.UTF_8);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port), 1024);
+        // 每个请求在等待模拟延迟时占用一个线程，因此使用不限大小的线程池
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-provider");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 服务地址，可直接作为GPTConfig的endpoint
+     * Base URL, usable directly as GPTConfig's endpoint
+     */
+    public String url() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimited.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.incrementAndGet();
+            JsonNode request;
+            try (InputStream body = exchange.getRequestBody()) {
+                request = Json.MAPPER.readTree(body);
+            }
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < rateLimitRate) {
+                rateLimited.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendJson(exchange, 429, "{\"error\":{\"message\":\"Rate limit reached\",\"type\":\"rate_limit_error\","
+                        + "\"code\":\"rate_limit_exceeded\"}}");
+                return;
+            }
+            sleepNanos(sampleLatencyNanos());
+            if (roll < rateLimitRate + errorRate) {
+                errors.incrementAndGet();
+                sendJson(exchange, 500, "{\"error\":{\"message\":\"Internal error\",\"type\":\"server_error\","
+                        + "\"code\":\"server_error\"}}");
+                return;
+            }
+            if (request != null && request.path("stream").asBoolean(false)) {
+                stream(exchange, request.path("model").asText("deepseek-chat"));
+            } else {
+                sleepNanos(generationNanos(completionTokens));
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, completion.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(completion);
+                }
+            }
+        } catch (IOException e) {
+            // 客户端取消或超时
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * 按token速度逐个输出SSE事件，最后输出usage和[DONE]
+     * Emit one SSE event per token at the configured rate, then usage and [DONE]
+     */
+    private void stream(HttpExchange exchange, String model) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            byte[] delta = ("data: {\"id\":\"chatcmpl-fake\",\"object\":\"chat.completion.chunk\",\"created\":1700000000,"
+                    + "\"model\":\"" + model + "\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\"" + CHUNK_TEXT
+                    + "\"},\"finish_reason\":null}]}\n\n").getBytes(StandardCharsets.UTF_8);
+            long start = System.nanoTime();
+            for (int i = 0; i < completionTokens; i++) {
+                // 按绝对时间排程，避免sleep误差累积
+                long due = start + generationNanos(i);
+                sleepNanos(due - System.nanoTime());
+                out.write(delta);
+                out.flush();
+            }
+            String usage = "data: {\"id\":\"chatcmpl-fake\",\"object\":\"chat.completion.chunk\",\"created\":1700000000,"
+                    + "\"model\":\"" + model + "\",\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}],"
+                    + "\"usage\":{\"prompt_tokens\":120,\"completion_tokens\":" + completionTokens
+                    + ",\"total_tokens\":" + (120 + completionTokens) + "}}\n\ndata: [DONE]\n\n";
+            out.write(usage.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private long sampleLatencyNanos() {
+        if (latencyMedianMillis <= 0) {
+            return 0;
+        }
+        Random random = ThreadLocalRandom.current();
+        double millis = latencyMedianMillis * Math.exp(latencySigma * random.nextGaussian());
+        return (long) (millis * 1_000_000);
+    }
+
+    private long generationNanos(int tokens) {
+        return tokensPerSecond <= 0 ? 0 : (long) (tokens * 1_000_000_000L / tokensPerSecond);
+    }
+
+    private static void sleepNanos(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        while (nanos > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(nanos);
+            nanos = deadline - System.nanoTime();
+        }
+    }
+
+    /**
+     * Builder class for FakeProvider
+     * FakeProvider的构建器类
+     */
+    public static class Builder {
+        private int port;                       // 0 picks a free port / 0表示自动选择空闲端口
+        private long latencyMedianMillis = 500; // Median time to first byte / 首字节时间的中位数
+        private double latencySigma = 0.5;      // Log-normal spread; 0.5 puts p99 near 3.2x the median / 对数正态分布的离散度
+        private int completionTokens = 100;     // Tokens per reply / 每次回复的token数
+        private double tokensPerSecond = 0;     // 0 sends the whole reply at once / 0表示一次性返回
+        private double errorRate;               // Share of 500 responses / 500错误的比例
+        private double rateLimitRate;           // Share of 429 responses / 429限流的比例
+
+        /**
+         * Sets the port to listen on
+         * 设置监听端口
+         * @param port the port, 0 for any free port / 端口，0表示自动选择
+         */
+        public Builder port(int port) {
+            if (port < 0) {
+                throw new IllegalArgumentException("Port cannot be negative");
+            }
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Sets the log-normal latency before the first byte
+         * 设置首字节前的对数正态延迟
+         * @param medianMillis median latency in milliseconds / 延迟中位数（毫秒）
+         * @param sigma spread of the distribution, 0 for a fixed latency / 分布的离散度，0表示固定延迟
+         */
+        public Builder latency(long medianMillis, double sigma) {
+            if (medianMillis < 0 || sigma < 0) {
+                throw new IllegalArgumentException("Latency cannot be negative");
+            }
+            this.latencyMedianMillis = medianMillis;
+            this.latencySigma = sigma;
+            return this;
+        }
+
+        /**
+         * Sets the number of tokens in each reply
+         * 设置每次回复的token数
+         * @param completionTokens tokens per reply / 每次回复的token数
+         */
+        public Builder completionTokens(int completionTokens) {
+            if (completionTokens <= 0) {
+                throw new IllegalArgumentException("Completion tokens must be greater than 0");
+            }
+            this.completionTokens = completionTokens;
+            return this;
+        }
+
+        /**
+         * Sets the generation speed; non-streaming replies wait for the full generation time
+         * 设置生成速度；非流式回复会等待完整的生成时间
+         * @param tokensPerSecond tokens per second, 0 for instant / 每秒token数，0表示立即返回
+         */
+        public Builder tokensPerSecond(double tokensPerSecond) {
+            if (tokensPerSecond < 0) {
+                throw new IllegalArgumentException("Tokens per second cannot be negative");
+            }
+            this.tokensPerSecond = tokensPerSecond;
+            return this;
+        }
+
+        /**
+         * Sets the share of requests answered with HTTP 500
+         * 设置返回HTTP 500的请求比例
+         * @param errorRate ratio between 0 and 1 / 0到1之间的比例
+         */
+        public Builder errorRate(double errorRate) {
+            if (errorRate < 0 || errorRate > 1) {
+                throw new IllegalArgumentException("Error rate must be between 0 and 1");
+            }
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * Sets the share of requests answered with HTTP 429 and Retry-After
+         * 设置返回HTTP 429及Retry-After的请求比例
+         * @param rateLimitRate ratio between 0 and 1 / 0到1之间的比例
+         */
+        public Builder rateLimitRate(double rateLimitRate) {
+            if (rateLimitRate < 0 || rateLimitRate > 1) {
+                throw new IllegalArgumentException("Rate limit rate must be between 0 and 1");
+            }
+            this.rateLimitRate = rateLimitRate;
+            return this;
+        }
+
+        /**
+         * Starts the FakeProvider
+         * 启动FakeProvider
+         * @throws IOException if the port cannot be bound / 如果无法绑定端口
+         */
+        public FakeProvider start() throws IOException {
+            if (errorRate + rateLimitRate > 1) {
+                throw new IllegalArgumentException("Error rate plus rate limit rate must not exceed 1");
+            }
+            return new FakeProvider(this);
+        }
+    }
+}
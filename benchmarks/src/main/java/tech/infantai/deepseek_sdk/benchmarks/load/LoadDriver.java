@@ -0,0 +1,434 @@
+package tech.infantai.deepseek_sdk.benchmarks.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import tech.infantai.deepseek_sdk.exception.ApiException;
+import tech.infantai.deepseek_sdk.model.ChatCompletionChunk;
+import tech.infantai.deepseek_sdk.model.Message;
+import tech.infantai.deepseek_sdk.service.AbstractAIService;
+import tech.infantai.deepseek_sdk.service.StreamListener;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 对AbstractAIService的实现施加负载并收集延迟分布
+ * Drives load through an AbstractAIService implementation and collects the latency distribution
+ *
+ * 两种模式：
+ * 1. 封闭模型（concurrency）：N个线程各自循环调用，吞吐由服务端延迟决定；
+ * 2. 开放模型（qps）：按固定速率发出请求，不等待前一个请求完成。延迟从计划发出的时间开始计算，
+ *    因此客户端排队（连接池、dispatcher限制）造成的等待也会计入，避免协调遗漏（coordinated omission）。
+ * Two modes:
+ * 1. Closed model (concurrency): N threads call in a loop, so throughput is bounded by server latency;
+ * 2. Open model (qps): requests start at a fixed rate regardless of completions. Latency is measured from the
+ *    intended start time, so client-side queueing (connection pool, dispatcher limits) is counted and
+ *    coordinated omission is avoided.
+ */
+public final class LoadDriver {
+    private static final long SAMPLE_INTERVAL_MILLIS = 100;
+
+    private final AbstractAIService service;
+    private final List<Message> messages;
+    private final int concurrency;
+    private final double qps;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final boolean stream;
+    private final int maxOutstanding;
+
+    private final Histogram latency = new ConcurrentHistogram(3);
+    private final Histogram timeToFirstToken = new ConcurrentHistogram(3);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    private LoadDriver(Builder builder) {
+        this.service = builder.service;
+        this.messages = builder.messages;
+        this.concurrency = builder.concurrency;
+        this.qps = builder.qps;
+        this.warmupNanos = builder.warmupNanos;
+        this.durationNanos = builder.durationNanos;
+        this.stream = builder.stream;
+        this.maxOutstanding = builder.maxOutstanding;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 运行预热和测量阶段，返回测量阶段的结果。预热阶段的请求不计入结果
+     * Runs the warmup and measurement phases and reports on the measurement phase; warmup requests are not recorded
+     */
+    public LoadReport run() throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long start = System.nanoTime();
+        long measureStart = start + warmupNanos;
+        long end = measureStart + durationNanos;
+
+        ResourceSampler sampler = new ResourceSampler(measureStart, end);
+        sampler.start();
+        if (qps > 0) {
+            runOpen(start, measureStart, end);
+        } else {
+            runClosed(measureStart, end);
+        }
+        sampler.join();
+
+        Map<String, Long> errorCounts = new HashMap<>();
+        for (Map.Entry<String, LongAdder> error : errors.entrySet()) {
+            errorCounts.put(error.getKey(), error.getValue().sum());
+        }
+        return new LoadReport(durationNanos, completed.sum(), dropped.sum(), errorCounts,
+                latency, stream ? timeToFirstToken : null,
+                sampler.startThreads, Math.max(sampler.peakThreads, threads.getThreadCount()),
+                sampler.peakHeapBytes, sampler.gcCount(), sampler.gcMillis());
+    }
+
+    /**
+     * 封闭模型：每个工作线程发出请求，等待完成后立即发出下一个
+     * Closed model: each worker issues a request and sends the next one as soon as it completes
+     */
+    private void runClosed(long measureStart, long end) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    long startedAt = System.nanoTime();
+                    callBlocking(startedAt, startedAt >= measureStart);
+                }
+            }, "load-worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    /**
+     * 开放模型：按计划时间发出请求。非流式请求使用异步接口，流式请求在线程池中阻塞执行
+     * Open model: requests start on schedule. Non-streamed requests use the async API,
+     * streamed ones run blocking on a pool
+     */
+    private void runOpen(long start, long measureStart, long end) throws InterruptedException {
+        long intervalNanos = (long) (1e9 / qps);
+        AtomicInteger outstanding = new AtomicInteger();
+        ExecutorService streamPool = stream ? Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "load-stream");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        try {
+            for (long i = 0; ; i++) {
+                long intended = start + i * intervalNanos;
+                if (intended >= end) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                boolean record = intended >= measureStart;
+                if (outstanding.get() >= maxOutstanding) {
+                    if (record) {
+                        dropped.increment();
+                    }
+                    continue;
+                }
+                outstanding.incrementAndGet();
+                if (streamPool != null) {
+                    streamPool.execute(() -> {
+                        try {
+                            callBlocking(intended, record);
+                        } finally {
+                            outstanding.decrementAndGet();
+                        }
+                    });
+                } else {
+                    service.chatWithMessagesAsync(messages).whenComplete((response, failure) -> {
+                        outstanding.decrementAndGet();
+                        if (record) {
+                            recordResult(intended, failure);
+                        }
+                    });
+                }
+            }
+            // 等待已发出的请求完成，最长再等一个测量周期
+            long drainDeadline = System.nanoTime() + durationNanos;
+            while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            if (streamPool != null) {
+                streamPool.shutdownNow();
+            }
+        }
+    }
+
+    private void callBlocking(long startedAt, boolean record) {
+        Throwable failure = null;
+        try {
+            if (stream) {
+                FirstTokenListener listener = new FirstTokenListener();
+                service.chatWithMessagesStream(messages, listener);
+                if (record && listener.firstTokenAt != 0) {
+                    timeToFirstToken.recordValue(toMicros(listener.firstTokenAt - startedAt));
+                }
+            } else {
+                service.chatWithMessages(messages);
+            }
+        } catch (Exception e) {
+            failure = e;
+        }
+        if (record) {
+            recordResult(startedAt, failure);
+        }
+    }
+
+    private void recordResult(long startedAt, Throwable failure) {
+        if (failure == null) {
+            latency.recordValue(toMicros(System.nanoTime() - startedAt));
+            completed.increment();
+        } else {
+            errors.computeIfAbsent(errorKind(failure), kind -> new LongAdder()).increment();
+        }
+    }
+
+    private static String errorKind(Throwable failure) {
+        while ((failure instanceof CompletionException || failure instanceof ExecutionException)
+                && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        if (failure instanceof ApiException) {
+            return "http_" + ((ApiException) failure).getStatusCode();
+        }
+        return failure.getClass().getSimpleName();
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    private static final class FirstTokenListener implements StreamListener {
+        private long firstTokenAt;
+
+        @Override
+        public void onDelta(String content, ChatCompletionChunk chunk) {
+            if (firstTokenAt == 0) {
+                firstTokenAt = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * 定期采样线程数和堆使用量，只统计测量阶段
+     * Samples thread count and heap usage periodically, during the measurement phase only
+     */
+    private static final class ResourceSampler extends Thread {
+        private final long measureStart;
+        private final long end;
+        private final AtomicLong gcCountAtStart = new AtomicLong();
+        private final AtomicLong gcMillisAtStart = new AtomicLong();
+        private volatile int startThreads;
+        private volatile int peakThreads;
+        private volatile long peakHeapBytes;
+
+        ResourceSampler(long measureStart, long end) {
+            super("load-sampler");
+            setDaemon(true);
+            this.measureStart = measureStart;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            LockSupport.parkNanos(measureStart - System.nanoTime());
+            startThreads = threads.getThreadCount();
+            gcCountAtStart.set(totalGcCount());
+            gcMillisAtStart.set(totalGcMillis());
+            while (System.nanoTime() < end) {
+                peakThreads = Math.max(peakThreads, threads.getThreadCount());
+                peakHeapBytes = Math.max(peakHeapBytes,
+                        ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(SAMPLE_INTERVAL_MILLIS));
+            }
+        }
+
+        long gcCount() {
+            return totalGcCount() - gcCountAtStart.get();
+        }
+
+        long gcMillis() {
+            return totalGcMillis() - gcMillisAtStart.get();
+        }
+
+        private static long totalGcCount() {
+            long total = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                total += Math.max(0, gc.getCollectionCount());
+            }
+            return total;
+        }
+
+        private static long totalGcMillis() {
+            long total = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                total += Math.max(0, gc.getCollectionTime());
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Builder class for LoadDriver
+     * LoadDriver的构建器类
+     */
+    public static class Builder {
+        private AbstractAIService service;
+        private List<Message> messages;
+        private int concurrency = 16;                               // Default 16 workers / 默认16个工作线程
+        private double qps;                                         // 0 selects the closed model / 0表示使用封闭模型
+        private long warmupNanos = TimeUnit.SECONDS.toNanos(5);     // Default 5s warmup / 默认预热5秒
+        private long durationNanos = TimeUnit.SECONDS.toNanos(30);  // Default 30s measurement / 默认测量30秒
+        private boolean stream;                                     // Default non-streaming / 默认非流式
+        private int maxOutstanding = 10000;                         // Open model cap on in-flight requests / 开放模型下未完成请求的上限
+
+        /**
+         * Sets the service under test
+         * 设置被测服务
+         * @param service the service / 服务
+         */
+        public Builder service(AbstractAIService service) {
+            if (service == null) {
+                throw new IllegalArgumentException("Service cannot be null");
+            }
+            this.service = service;
+            return this;
+        }
+
+        /**
+         * Sets the messages sent with every request
+         * 设置每个请求发送的消息
+         * @param messages the messages / 消息列表
+         */
+        public Builder messages(List<Message> messages) {
+            if (messages == null || messages.isEmpty()) {
+                throw new IllegalArgumentException("Messages cannot be null or empty");
+            }
+            this.messages = messages;
+            return this;
+        }
+
+        /**
+         * Uses the closed model with the given number of workers
+         * 使用封闭模型，设置工作线程数
+         * @param concurrency number of workers / 工作线程数
+         */
+        public Builder concurrency(int concurrency) {
+            if (concurrency <= 0) {
+                throw new IllegalArgumentException("Concurrency must be greater than 0");
+            }
+            this.concurrency = concurrency;
+            this.qps = 0;
+            return this;
+        }
+
+        /**
+         * Uses the open model with the given arrival rate
+         * 使用开放模型，设置到达速率
+         * @param qps requests per second / 每秒请求数
+         */
+        public Builder qps(double qps) {
+            if (qps <= 0) {
+                throw new IllegalArgumentException("QPS must be greater than 0");
+            }
+            this.qps = qps;
+            return this;
+        }
+
+        /**
+         * Sets the warmup period, whose requests are not recorded
+         * 设置预热时长，预热期间的请求不计入结果
+         * @param warmup warmup length / 预热时长
+         * @param unit time unit / 时间单位
+         */
+        public Builder warmup(long warmup, TimeUnit unit) {
+            if (warmup < 0) {
+                throw new IllegalArgumentException("Warmup cannot be negative");
+            }
+            this.warmupNanos = unit.toNanos(warmup);
+            return this;
+        }
+
+        /**
+         * Sets the measurement period
+         * 设置测量时长
+         * @param duration measurement length / 测量时长
+         * @param unit time unit / 时间单位
+         */
+        public Builder duration(long duration, TimeUnit unit) {
+            if (duration <= 0) {
+                throw new IllegalArgumentException("Duration must be greater than 0");
+            }
+            this.durationNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Sets whether to use the streaming API and record time to first token
+         * 设置是否使用流式接口并记录首token时间
+         * @param stream whether to stream / 是否流式
+         */
+        public Builder stream(boolean stream) {
+            this.stream = stream;
+            return this;
+        }
+
+        /**
+         * Sets the open model cap on in-flight requests; requests over the cap are counted as dropped
+         * 设置开放模型下未完成请求的上限，超过上限的请求计为丢弃
+         * @param maxOutstanding the cap / 上限
+         */
+        public Builder maxOutstanding(int maxOutstanding) {
+            if (maxOutstanding <= 0) {
+                throw new IllegalArgumentException("Max outstanding must be greater than 0");
+            }
+            this.maxOutstanding = maxOutstanding;
+            return this;
+        }
+
+        /**
+         * Builds the LoadDriver
+         * 构建LoadDriver
+         */
+        public LoadDriver build() {
+            if (service == null) {
+                throw new IllegalArgumentException("Service must be set");
+            }
+            if (messages == null) {
+                throw new IllegalArgumentException("Messages must be set");
+            }
+            return new LoadDriver(this);
+        }
+    }
+}
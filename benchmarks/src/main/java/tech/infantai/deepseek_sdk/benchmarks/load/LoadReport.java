@@ -0,0 +1,135 @@
+package tech.infantai.deepseek_sdk.benchmarks.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 一次压测的结果：吞吐、延迟分位数、错误分类以及线程和堆的使用情况
+ * Result of one load run: throughput, latency percentiles, errors by kind, and thread and heap usage
+ *
+ * 延迟以微秒记录在HdrHistogram中
+ * Latencies are recorded in microseconds in HdrHistogram
+ */
+public final class LoadReport {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final long durationNanos;
+    private final long completed;
+    private final long dropped;
+    private final Map<String, Long> errors;
+    private final Histogram latency;
+    private final Histogram timeToFirstToken;
+    private final int startThreads;
+    private final int peakThreads;
+    private final long peakHeapBytes;
+    private final long gcCount;
+    private final long gcMillis;
+
+    LoadReport(long durationNanos, long completed, long dropped, Map<String, Long> errors,
+               Histogram latency, Histogram timeToFirstToken, int startThreads, int peakThreads,
+               long peakHeapBytes, long gcCount, long gcMillis) {
+        this.durationNanos = durationNanos;
+        this.completed = completed;
+        this.dropped = dropped;
+        this.errors = Collections.unmodifiableMap(new TreeMap<>(errors));
+        this.latency = latency;
+        this.timeToFirstToken = timeToFirstToken;
+        this.startThreads = startThreads;
+        this.peakThreads = peakThreads;
+        this.peakHeapBytes = peakHeapBytes;
+        this.gcCount = gcCount;
+        this.gcMillis = gcMillis;
+    }
+
+    /**
+     * 每秒成功完成的请求数
+     * Successful requests per second
+     */
+    public double getThroughput() {
+        return durationNanos == 0 ? 0 : completed * 1e9 / durationNanos;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * 开放模型下因未完成请求过多而没有发出的请求数
+     * Requests not sent in the open model because too many were already outstanding
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * 按类型统计的失败次数，例如 http_429、SocketTimeoutException
+     * Failures by kind, e.g. http_429 or SocketTimeoutException
+     */
+    public Map<String, Long> getErrors() {
+        return errors;
+    }
+
+    /**
+     * 成功请求的端到端延迟（微秒）
+     * End-to-end latency of successful requests, in microseconds
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * 流式请求的首token时间（微秒），非流式时为null
+     * Time to first token of streamed requests in microseconds, null when not streaming
+     */
+    public Histogram getTimeToFirstToken() {
+        return timeToFirstToken;
+    }
+
+    public int getPeakThreads() {
+        return peakThreads;
+    }
+
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    public void print(PrintStream out) {
+        long failed = 0;
+        for (long count : errors.values()) {
+            failed += count;
+        }
+        out.printf("duration      %.1f s%n", durationNanos / 1e9);
+        out.printf("throughput    %.1f req/s (%d ok, %d failed, %d dropped)%n", getThroughput(), completed, failed, dropped);
+        printHistogram(out, "latency", latency);
+        if (timeToFirstToken != null) {
+            printHistogram(out, "ttft", timeToFirstToken);
+        }
+        for (Map.Entry<String, Long> error : errors.entrySet()) {
+            out.printf("error         %-28s %d%n", error.getKey(), error.getValue());
+        }
+        out.printf("threads       %d at start, %d peak%n", startThreads, peakThreads);
+        out.printf("heap          %.1f MB peak used%n", peakHeapBytes / (1024.0 * 1024.0));
+        out.printf("gc            %d collections, %d ms%n", gcCount, gcMillis);
+    }
+
+    private static void printHistogram(PrintStream out, String name, Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            out.printf("%-13s no samples%n", name);
+            return;
+        }
+        StringBuilder line = new StringBuilder(String.format("%-13s mean %.1f ms", name, histogram.getMean() / 1000.0));
+        for (double percentile : PERCENTILES) {
+            line.append(String.format(", p%s %.1f ms", format(percentile), histogram.getValueAtPercentile(percentile) / 1000.0));
+        }
+        line.append(String.format(", max %.1f ms", histogram.getMaxValue() / 1000.0));
+        out.println(line);
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
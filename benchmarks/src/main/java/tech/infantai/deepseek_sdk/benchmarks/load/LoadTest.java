@@ -0,0 +1,99 @@
+package tech.infantai.deepseek_sdk.benchmarks.load;
+
+import tech.infantai.deepseek_sdk.benchmarks.Payloads;
+import tech.infantai.deepseek_sdk.client.HttpClientProvider;
+import tech.infantai.deepseek_sdk.config.GPTConfig;
+import tech.infantai.deepseek_sdk.config.RetryPolicy;
+import tech.infantai.deepseek_sdk.service.DeepseekAIService;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 命令行入口：启动FakeProvider，用DeepseekAIService对其施加负载并打印报告
+ * Command line entry point: starts a FakeProvider, drives DeepseekAIService against it and prints the report
+ *
+ * 参数均为 --name=value 形式，见 benchmarks/README.md
+ * All options take the form --name=value, see benchmarks/README.md
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        FakeProvider.Builder providerBuilder = FakeProvider.builder()
+                .latency(longOption(options, "latency-ms", 500), doubleOption(options, "latency-sigma", 0.5))
+                .completionTokens(intOption(options, "tokens", 100))
+                .tokensPerSecond(doubleOption(options, "tokens-per-second", 0))
+                .errorRate(doubleOption(options, "error-rate", 0))
+                .rateLimitRate(doubleOption(options, "rate-limit-rate", 0));
+
+        try (FakeProvider provider = providerBuilder.start()) {
+            int maxRequests = intOption(options, "max-requests", 256);
+            GPTConfig config = GPTConfig.builder()
+                    .apiKey("sk-load-test")
+                    .endpoint(provider.url())
+                    .model("deepseek-chat")
+                    .readTimeout(intOption(options, "read-timeout", 60))
+                    .maxIdleConnections(maxRequests)
+                    .maxRequests(maxRequests)
+                    .maxRequestsPerHost(maxRequests)
+                    .retryPolicy(RetryPolicy.builder().maxAttempts(intOption(options, "attempts", 1)).build())
+                    .build();
+            DeepseekAIService service = new DeepseekAIService(config);
+
+            LoadDriver.Builder driver = LoadDriver.builder()
+                    .service(service)
+                    .messages(Payloads.history(intOption(options, "history", 10), 500))
+                    .warmup(longOption(options, "warmup", 5), TimeUnit.SECONDS)
+                    .duration(longOption(options, "duration", 30), TimeUnit.SECONDS)
+                    .stream(Boolean.parseBoolean(options.getOrDefault("stream", "false")));
+            if (options.containsKey("qps")) {
+                driver.qps(doubleOption(options, "qps", 0));
+            } else {
+                driver.concurrency(intOption(options, "concurrency", 16));
+            }
+
+            LoadReport report = driver.build().run();
+            report.print(System.out);
+            System.out.printf("provider      %d requests, %d injected 500, %d injected 429%n",
+                    provider.getRequestCount(), provider.getErrorCount(), provider.getRateLimitedCount());
+        } finally {
+            HttpClientProvider.evictAll();
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static long longOption(Map<String, String> options, String name, long defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    private static double doubleOption(Map<String, String> options, String name, double defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
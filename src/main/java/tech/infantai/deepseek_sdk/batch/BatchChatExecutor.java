@@ -0,0 +1,213 @@
+package tech.infantai.deepseek_sdk.batch;
+
+import tech.infantai.deepseek_sdk.exception.ApiException;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.model.ErrorResponse;
+import tech.infantai.deepseek_sdk.model.Message;
+import tech.infantai.deepseek_sdk.service.AbstractAIService;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 批量聊天执行器，以有限的并发数执行大量相互独立的请求
+ * Batch chat executor running many independent requests with bounded concurrency
+ *
+ * 请求通过服务的异步接口发出，等待响应时不占用线程；结果按输入顺序返回，
+ * 单项失败不会影响其他项，而是以isSuccess()为false的ChatResponse返回。
+ * Requests go through the service's async API, so no thread is held while waiting for a response.
+ * Results come back in input order; a failed item does not affect the others and is reported
+ * as a ChatResponse whose isSuccess() is false.
+ *
+ * 并发数应不大于GPTConfig中的maxRequestsPerHost，否则多出的请求会在OkHttp的Dispatcher中排队。
+ * Keep maxConcurrency at or below GPTConfig's maxRequestsPerHost, otherwise the surplus waits in the OkHttp dispatcher queue.
+ */
+public class BatchChatExecutor {
+    static final String ERROR_TYPE = "client_error";
+
+    private final AbstractAIService service;
+    private final int maxConcurrency;
+    private final BatchProgressListener progressListener;
+
+    private BatchChatExecutor(Builder builder) {
+        this.service = builder.service;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.progressListener = builder.progressListener;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 批量执行，阻塞直到全部完成
+     * Run the batch, blocking until every item has finished
+     *
+     * @param conversations 每一项为一次独立请求的消息列表
+     *                      One message list per independent request
+     * @return 按输入顺序排列的结果
+     *         Results in input order
+     * @throws InterruptedException 如果等待过程中线程被中断，未完成的请求会被取消
+     *                              if interrupted while waiting; outstanding requests are cancelled
+     */
+    public List<ChatResponse> execute(List<List<Message>> conversations) throws InterruptedException {
+        if (conversations == null) {
+            throw new IllegalArgumentException("Conversations cannot be null");
+        }
+        return run(conversations.iterator(), conversations.size());
+    }
+
+    /**
+     * 批量执行一个Stream，按需读取，不会预先把整个输入载入内存
+     * Run the batch over a Stream, pulling items only as concurrency permits
+     *
+     * @param conversations 每一项为一次独立请求的消息列表
+     *                      One message list per independent request
+     * @return 按输入顺序排列的结果
+     *         Results in input order
+     * @throws InterruptedException 如果等待过程中线程被中断，未完成的请求会被取消
+     *                              if interrupted while waiting; outstanding requests are cancelled
+     */
+    public List<ChatResponse> execute(Stream<List<Message>> conversations) throws InterruptedException {
+        if (conversations == null) {
+            throw new IllegalArgumentException("Conversations cannot be null");
+        }
+        return run(conversations.iterator(), -1);
+    }
+
+    private List<ChatResponse> run(Iterator<List<Message>> conversations, int total) throws InterruptedException {
+        Semaphore permits = new Semaphore(maxConcurrency);
+        AtomicInteger completed = new AtomicInteger();
+        List<CompletableFuture<ChatResponse>> calls = total >= 0 ? new ArrayList<>(total) : new ArrayList<>();
+        List<CompletableFuture<ChatResponse>> futures = total >= 0 ? new ArrayList<>(total) : new ArrayList<>();
+
+        try {
+            int index = 0;
+            while (conversations.hasNext()) {
+                List<Message> messages = conversations.next();
+                permits.acquire();
+                CompletableFuture<ChatResponse> call = send(messages);
+                calls.add(call);
+                futures.add(track(call, index++, permits, completed, total));
+            }
+
+            List<ChatResponse> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<ChatResponse> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            // 取消底层请求，释放连接
+            calls.forEach(call -> call.cancel(true));
+            throw e;
+        } catch (ExecutionException e) {
+            // track()已经把所有失败转换成了ChatResponse，这里不会发生
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private CompletableFuture<ChatResponse> send(List<Message> messages) {
+        try {
+            return service.chatWithMessagesAsync(messages);
+        } catch (RuntimeException e) {
+            // 例如消息列表为空导致的参数校验失败
+            CompletableFuture<ChatResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    private CompletableFuture<ChatResponse> track(CompletableFuture<ChatResponse> call, int index, Semaphore permits,
+                                                  AtomicInteger completed, int total) {
+        return call
+                .handle((response, failure) -> failure == null ? response : toErrorResponse(failure))
+                .whenComplete((response, failure) -> {
+                    permits.release();
+                    int done = completed.incrementAndGet();
+                    if (progressListener != null && response != null) {
+                        progressListener.onProgress(index, response, done, total);
+                    }
+                });
+    }
+
+    /**
+     * 将异常转换为失败的ChatResponse
+     * Convert a failure into an unsuccessful ChatResponse
+     */
+    static ChatResponse toErrorResponse(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof ApiException && ((ApiException) cause).getErrorResponse() != null) {
+            // 优先使用服务端返回的错误信息
+            return new ChatResponse(((ApiException) cause).getErrorResponse());
+        }
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+        return new ChatResponse(ErrorResponse.of(message, ERROR_TYPE, cause.getClass().getSimpleName()));
+    }
+
+    /**
+     * Builder class for BatchChatExecutor
+     * BatchChatExecutor的构建器类
+     */
+    public static class Builder {
+        private AbstractAIService service;
+        private int maxConcurrency = 5;   // Default max in-flight requests / 默认最大并发请求数
+        private BatchProgressListener progressListener;
+
+        /**
+         * Sets the service used to send requests
+         * 设置发送请求的服务
+         * @param service The AI service / AI服务
+         * @throws IllegalArgumentException if service is null / 如果服务为空则抛出异常
+         */
+        public Builder service(AbstractAIService service) {
+            if (service == null) {
+                throw new IllegalArgumentException("Service cannot be null");
+            }
+            this.service = service;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests in flight at once
+         * 设置同时进行中的最大请求数
+         * @param maxConcurrency max in-flight requests / 最大并发请求数
+         * @throws IllegalArgumentException if the value is less than or equal to 0 / 如果值小于等于0则抛出异常
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency <= 0) {
+                throw new IllegalArgumentException("Max concurrency must be greater than 0");
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Sets an optional progress listener
+         * 设置可选的进度回调
+         * @param progressListener The progress listener / 进度回调
+         */
+        public Builder progressListener(BatchProgressListener progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * Builds the BatchChatExecutor instance
+         * 构建BatchChatExecutor实例
+         * @throws IllegalArgumentException if required parameters are missing / 如果缺少必要参数则抛出异常
+         */
+        public BatchChatExecutor build() {
+            if (service == null) {
+                throw new IllegalArgumentException("Service must be set");
+            }
+            return new BatchChatExecutor(this);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package tech.infantai.deepseek_sdk.batch;
+
+/**
+ * 一次JSONL批处理运行的结果统计
+ * Counts from one run of the JSONL batch processor
+ */
+public final class BatchFileSummary {
+    private final long lines;
+    private final long skipped;
+    private final long succeeded;
+    private final long failed;
+
+    BatchFileSummary(long lines, long skipped, long succeeded, long failed) {
+        this.lines = lines;
+        this.skipped = skipped;
+        this.succeeded = succeeded;
+        this.failed = failed;
+    }
+
+    /**
+     * 输入文件的总行数，包括空行
+     * Lines in the input file, blank lines included
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    /**
+     * 检查点中已完成、本次跳过的行数
+     * Lines already completed according to the checkpoint and skipped by this run
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * 本次成功的行数
+     * Lines that succeeded in this run
+     */
+    public long getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * 本次失败的行数，失败信息写在输出文件中
+     * Lines that failed in this run; the errors are written to the output file
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchFileSummary{lines=" + lines + ", skipped=" + skipped + ", succeeded=" + succeeded
+                + ", failed=" + failed + '}';
+    }
+}
@@ -0,0 +1,28 @@
+package tech.infantai.deepseek_sdk.batch;
+
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+
+/**
+ * 批量执行进度回调
+ * Progress callback for batch execution
+ *
+ * 回调可能在多个线程上并发执行，实现需要线程安全
+ * Callbacks may run concurrently on several threads, so implementations must be thread-safe
+ */
+public interface BatchProgressListener {
+
+    /**
+     * 每完成一项时调用
+     * Called every time an item finishes
+     *
+     * @param index 该项在输入中的位置
+     *              The position of the item in the input
+     * @param response 该项的结果，失败时isSuccess()为false
+     *                 The item's result; isSuccess() is false on failure
+     * @param completed 已完成的项数
+     *                  Number of items finished so far
+     * @param total 总项数，输入为Stream时为-1
+     *              Total number of items, or -1 when the input is a Stream
+     */
+    void onProgress(int index, ChatResponse response, int completed, int total);
+}
@@ -0,0 +1,85 @@
+package tech.infantai.deepseek_sdk.batch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 记录已完成行号的位图，每行占1位，一千万行约1.2MB
+ * Bitmap of completed line numbers, one bit per line: about 1.2MB for ten million lines
+ *
+ * 不是线程安全的，由调用方加锁
+ * Not thread-safe; callers hold a lock
+ */
+final class CompletionBitmap {
+    private long[] words;
+    private long count;
+
+    CompletionBitmap() {
+        this.words = new long[1024];
+    }
+
+    private CompletionBitmap(long[] words, long count) {
+        this.words = words;
+        this.count = count;
+    }
+
+    boolean get(long line) {
+        int word = (int) (line >>> 6);
+        return word < words.length && (words[word] & (1L << line)) != 0;
+    }
+
+    void set(long line) {
+        int word = (int) (line >>> 6);
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        }
+        long bit = 1L << line;
+        if ((words[word] & bit) == 0) {
+            words[word] |= bit;
+            count++;
+        }
+    }
+
+    /**
+     * 已置位的行数
+     * Number of lines set
+     */
+    long count() {
+        return count;
+    }
+
+    CompletionBitmap copy() {
+        return new CompletionBitmap(words.clone(), count);
+    }
+
+    /**
+     * 写出位图，末尾全为0的字不写出
+     * Write the bitmap, leaving out trailing all-zero words
+     */
+    void writeTo(DataOutput out) throws IOException {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        out.writeLong(count);
+        out.writeInt(length);
+        for (int i = 0; i < length; i++) {
+            out.writeLong(words[i]);
+        }
+    }
+
+    static CompletionBitmap readFrom(DataInput in) throws IOException {
+        long count = in.readLong();
+        int length = in.readInt();
+        if (count < 0 || length < 0) {
+            throw new IOException("Corrupt checkpoint bitmap");
+        }
+        long[] words = new long[Math.max(length, 1024)];
+        for (int i = 0; i < length; i++) {
+            words[i] = in.readLong();
+        }
+        return new CompletionBitmap(words, count);
+    }
+}
@@ -0,0 +1,621 @@
+package tech.infantai.deepseek_sdk.batch;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import tech.infantai.deepseek_sdk.json.ChatCodec;
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.model.ErrorResponse;
+import tech.infantai.deepseek_sdk.model.Message;
+import tech.infantai.deepseek_sdk.service.AbstractAIService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * JSONL文件批处理器：逐行读取请求、并发调用、把结果写入JSONL，并通过检查点支持中断后续跑
+ * JSONL batch processor: reads one request per line, calls the service concurrently, writes results as JSONL and
+ * keeps a checkpoint so an interrupted job resumes where it stopped
+ *
+ * 输入的每一行是一个JSON对象，包含messages，可选custom_id、model、temperature和max_tokens，例如：
+ * Each input line is a JSON object holding messages and optionally custom_id, model, temperature and max_tokens:
+ *
+ *     {"custom_id": "q-1", "messages": [{"role": "user", "content": "Hello"}]}
+ *
+ * 每完成一行输出一行（按完成顺序，不是输入顺序），用line和custom_id对应输入：
+ * Every finished line produces one output line, in completion order rather than input order; line and custom_id
+ * tie it back to the input:
+ *
+ *     {"line": 0, "custom_id": "q-1", "content": "Hi!", "usage": {"prompt_tokens": 9, ...}}
+ *     {"line": 1, "custom_id": "q-2", "error": {"message": "...", "type": "...", "code": "..."}}
+ *
+ * 输入通过内存映射按窗口读取，不会整体载入内存；结果经过缓冲区批量写入文件通道。检查点记录已完成行号的位图和
+ * 对应的输出文件长度，每完成checkpointInterval行在输出fsync之后原子替换。重新运行时输出文件会截断到检查点记录的
+ * 长度，位图中的行直接跳过，因此每行在输出中恰好出现一次。失败的行同样记为完成，错误写在输出中。
+ * The input is read through memory-mapped windows and never loaded whole; results go through a buffer into the file
+ * channel. The checkpoint holds a bitmap of completed line numbers plus the matching output length, and is replaced
+ * atomically after the output is fsynced, every checkpointInterval lines. A rerun truncates the output to the
+ * recorded length and skips the lines in the bitmap, so each line appears in the output exactly once. Failed lines
+ * count as completed too; their errors are in the output.
+ *
+ * 检查点通过输入的大小、修改时间以及开头和末尾各1MB的CRC32识别输入，输入被修改或重新生成时拒绝续跑。
+ * The checkpoint identifies the input by its size, modification time and a CRC32 of its first and last megabyte,
+ * and refuses to resume once the input has been edited or regenerated.
+ *
+ * 检查点默认与输出文件同目录，名为"输出文件名.checkpoint"。要从头重跑，删除检查点即可。
+ * The checkpoint defaults to "output name.checkpoint" next to the output. Delete it to start over.
+ */
+public class JsonlBatchProcessor {
+    private static final int CHECKPOINT_MAGIC = 0x44534243;
+    private static final int CHECKPOINT_VERSION = 2;
+    /** 只记录输入大小的旧版检查点 / Older checkpoints that record only the input size */
+    private static final int CHECKPOINT_VERSION_SIZE_ONLY = 1;
+    private static final int FINGERPRINT_BYTES = 1024 * 1024;
+    private static final int MAP_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int OUTPUT_BUFFER_SIZE = 1024 * 1024;
+
+    private final AbstractAIService service;
+    private final int maxConcurrency;
+    private final int checkpointInterval;
+    private final BatchProgressListener progressListener;
+
+    private JsonlBatchProcessor(Builder builder) {
+        this.service = builder.service;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.checkpointInterval = builder.checkpointInterval;
+        this.progressListener = builder.progressListener;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 处理输入文件，使用默认检查点路径，阻塞直到全部完成
+     * Process the input file with the default checkpoint path, blocking until every line has finished
+     *
+     * @param input 输入JSONL文件
+     *              The input JSONL file
+     * @param output 输出JSONL文件
+     *               The output JSONL file
+     * @return 本次运行的统计
+     *         Counts for this run
+     * @throws IOException 如果读写文件失败，或检查点与输入不匹配
+     *                     if reading or writing fails, or the checkpoint does not match the input
+     * @throws InterruptedException 如果等待过程中线程被中断；未完成的请求会被取消，已完成的部分写入检查点
+     *                              if interrupted while waiting; outstanding requests are cancelled and finished
+     *                              lines are checkpointed
+     */
+    public BatchFileSummary process(Path input, Path output) throws IOException, InterruptedException {
+        if (output == null) {
+            throw new IllegalArgumentException("Output cannot be null");
+        }
+        return process(input, output, output.resolveSibling(output.getFileName() + ".checkpoint"));
+    }
+
+    /**
+     * 处理输入文件，阻塞直到全部完成
+     * Process the input file, blocking until every line has finished
+     *
+     * @param input 输入JSONL文件
+     *              The input JSONL file
+     * @param output 输出JSONL文件
+     *               The output JSONL file
+     * @param checkpoint 检查点文件
+     *                   The checkpoint file
+     * @return 本次运行的统计
+     *         Counts for this run
+     * @throws IOException 如果读写文件失败，或检查点与输入不匹配
+     *                     if reading or writing fails, or the checkpoint does not match the input
+     * @throws InterruptedException 如果等待过程中线程被中断；未完成的请求会被取消，已完成的部分写入检查点
+     *                              if interrupted while waiting; outstanding requests are cancelled and finished
+     *                              lines are checkpointed
+     */
+    public BatchFileSummary process(Path input, Path output, Path checkpoint) throws IOException, InterruptedException {
+        if (input == null || output == null || checkpoint == null) {
+            throw new IllegalArgumentException("Input, output and checkpoint cannot be null");
+        }
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            Run run = new Run(in.size(), Files.getLastModifiedTime(input).toMillis(), fingerprint(in), out, checkpoint);
+            run.restore();
+            return run.execute(new MappedLineReader(in, MAP_WINDOW_SIZE));
+        }
+    }
+
+    /**
+     * 输入开头和末尾各FINGERPRINT_BYTES字节的CRC32，用于发现大小不变的修改
+     * CRC32 of the first and last FINGERPRINT_BYTES of the input, to catch edits that keep its size
+     */
+    private static long fingerprint(FileChannel input) throws IOException {
+        long size = input.size();
+        CRC32 crc = new CRC32();
+        long head = Math.min(size, FINGERPRINT_BYTES);
+        if (head > 0) {
+            crc.update(input.map(FileChannel.MapMode.READ_ONLY, 0, head));
+        }
+        long tailStart = Math.max(head, size - FINGERPRINT_BYTES);
+        if (size > tailStart) {
+            crc.update(input.map(FileChannel.MapMode.READ_ONLY, tailStart, size - tailStart));
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * 一次运行的状态；输出缓冲区、位图和计数都由lock保护
+     * State of one run; the output buffer, bitmap and counts are guarded by lock
+     */
+    private class Run {
+        private final long inputSize;
+        private final long inputModifiedMillis;
+        private final long inputFingerprint;
+        private final FileChannel output;
+        private final Path checkpoint;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+        private final Set<CompletableFuture<ChatResponse>> inFlight = ConcurrentHashMap.newKeySet();
+
+        /** 检查点中已完成的行，只读，读取线程据此跳过 / Lines completed per the checkpoint; read-only, used for skipping */
+        private CompletionBitmap restored = new CompletionBitmap();
+        private CompletionBitmap completed;
+        private long succeeded;
+        private long failed;
+        private int sinceCheckpoint;
+        private boolean stopped;
+        private IOException failure;
+
+        Run(long inputSize, long inputModifiedMillis, long inputFingerprint, FileChannel output, Path checkpoint) {
+            this.inputSize = inputSize;
+            this.inputModifiedMillis = inputModifiedMillis;
+            this.inputFingerprint = inputFingerprint;
+            this.output = output;
+            this.checkpoint = checkpoint;
+        }
+
+        /**
+         * 读取检查点，把输出截断到检查点记录的长度；没有检查点时从头开始
+         * Load the checkpoint and truncate the output to the length it records; start from scratch without one
+         */
+        void restore() throws IOException {
+            long outputLength = 0;
+            if (Files.exists(checkpoint)) {
+                try (DataInputStream data = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+                    if (data.readInt() != CHECKPOINT_MAGIC) {
+                        throw new IOException("Not a batch checkpoint: " + checkpoint);
+                    }
+                    int version = data.readInt();
+                    if (version != CHECKPOINT_VERSION && version != CHECKPOINT_VERSION_SIZE_ONLY) {
+                        throw new IOException("Unsupported batch checkpoint version " + version + ": " + checkpoint);
+                    }
+                    boolean sameInput = data.readLong() == inputSize;
+                    if (version == CHECKPOINT_VERSION) {
+                        sameInput &= data.readLong() == inputModifiedMillis;
+                        sameInput &= data.readLong() == inputFingerprint;
+                    }
+                    if (!sameInput) {
+                        throw new IOException("Checkpoint " + checkpoint + " was written for a different input");
+                    }
+                    outputLength = data.readLong();
+                    restored = CompletionBitmap.readFrom(data);
+                }
+                if (output.size() < outputLength) {
+                    throw new IOException("Output is shorter than checkpoint " + checkpoint + " records");
+                }
+            }
+            output.truncate(outputLength);
+            output.position(outputLength);
+            completed = restored.copy();
+        }
+
+        BatchFileSummary execute(MappedLineReader reader) throws IOException, InterruptedException {
+            Semaphore permits = new Semaphore(maxConcurrency);
+            byte[] scratch = new byte[8192];
+            try {
+                while (reader.next()) {
+                    long line = reader.line();
+                    if (restored.get(line) || reader.isBlank()) {
+                        continue;
+                    }
+                    int length = reader.length();
+                    if (scratch.length < length) {
+                        scratch = new byte[Math.max(length, scratch.length * 2)];
+                    }
+                    reader.copyTo(scratch);
+
+                    BatchLine request;
+                    try {
+                        request = parseLine(scratch, length);
+                    } catch (JsonProcessingException | IllegalArgumentException e) {
+                        // 无法解析的行不发送请求，直接记为失败
+                        complete(line, null, BatchChatExecutor.toErrorResponse(e));
+                        continue;
+                    }
+                    permits.acquire();
+                    if (failureOrNull() != null) {
+                        permits.release();
+                        break;
+                    }
+                    send(line, request, permits);
+                }
+                // 等待所有进行中的请求完成
+                permits.acquire(maxConcurrency);
+            } catch (InterruptedException e) {
+                try {
+                    stop();
+                } catch (IOException io) {
+                    e.addSuppressed(io);
+                }
+                throw e;
+            }
+
+            lock.lock();
+            try {
+                if (failure != null) {
+                    throw failure;
+                }
+                saveCheckpoint();
+                return new BatchFileSummary(reader.line() + 1, restored.count(), succeeded, failed);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void send(long line, BatchLine request, Semaphore permits) {
+            CompletableFuture<ChatResponse> call;
+            try {
+                call = service.chatAsync(request.chatRequest);
+            } catch (RuntimeException e) {
+                call = new CompletableFuture<>();
+                call.completeExceptionally(e);
+            }
+            inFlight.add(call);
+            CompletableFuture<ChatResponse> sent = call;
+            call.handle((response, error) -> error == null ? response : BatchChatExecutor.toErrorResponse(error))
+                    .whenComplete((response, error) -> {
+                        inFlight.remove(sent);
+                        try {
+                            complete(line, request.customId, response);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+        }
+
+        /**
+         * 写出一行结果并标记为完成；编码在锁外进行
+         * Write one result and mark its line completed; encoding happens outside the lock
+         */
+        private void complete(long line, String customId, ChatResponse response) {
+            byte[] encoded;
+            try {
+                encoded = encodeResult(line, customId, response);
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            long done;
+            lock.lock();
+            try {
+                if (stopped || failure != null) {
+                    return;
+                }
+                if (buffer.remaining() < encoded.length) {
+                    flushBuffer();
+                }
+                if (encoded.length > buffer.capacity()) {
+                    writeFully(ByteBuffer.wrap(encoded));
+                } else {
+                    buffer.put(encoded);
+                }
+                completed.set(line);
+                if (response.isSuccess()) {
+                    succeeded++;
+                } else {
+                    failed++;
+                }
+                done = succeeded + failed;
+                if (++sinceCheckpoint >= checkpointInterval) {
+                    saveCheckpoint();
+                }
+            } catch (IOException e) {
+                failure = e;
+                return;
+            } finally {
+                lock.unlock();
+            }
+            if (progressListener != null) {
+                progressListener.onProgress((int) line, response, (int) done, -1);
+            }
+        }
+
+        private IOException failureOrNull() {
+            lock.lock();
+            try {
+                return failure;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void fail(IOException e) {
+            lock.lock();
+            try {
+                if (failure == null) {
+                    failure = e;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 中断时取消进行中的请求，保存已完成的部分
+         * On interruption, cancel outstanding requests and checkpoint what has finished
+         */
+        private void stop() throws IOException {
+            lock.lock();
+            try {
+                stopped = true;
+                if (failure == null) {
+                    saveCheckpoint();
+                }
+            } finally {
+                lock.unlock();
+            }
+            inFlight.forEach(call -> call.cancel(true));
+        }
+
+        /**
+         * 先把输出落盘，再原子替换检查点，检查点记录的内容总是已经写入输出
+         * Make the output durable first, then replace the checkpoint atomically, so the checkpoint never gets ahead
+         * of the output
+         */
+        private void saveCheckpoint() throws IOException {
+            flushBuffer();
+            output.force(false);
+            Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+                data.writeInt(CHECKPOINT_MAGIC);
+                data.writeInt(CHECKPOINT_VERSION);
+                data.writeLong(inputSize);
+                data.writeLong(inputModifiedMillis);
+                data.writeLong(inputFingerprint);
+                data.writeLong(output.position());
+                completed.writeTo(data);
+                data.flush();
+                channel.force(false);
+            }
+            try {
+                Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING);
+            }
+            sinceCheckpoint = 0;
+        }
+
+        private void flushBuffer() throws IOException {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                output.write(source);
+            }
+        }
+    }
+
+    /**
+     * 输入中的一行
+     * One input line
+     */
+    private static final class BatchLine {
+        private final String customId;
+        private final ChatRequest chatRequest;
+
+        BatchLine(String customId, ChatRequest chatRequest) {
+            this.customId = customId;
+            this.chatRequest = chatRequest;
+        }
+    }
+
+    private static BatchLine parseLine(byte[] data, int length) throws IOException {
+        try (JsonParser parser = ChatCodec.FACTORY.createParser(data, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Line is not a JSON object");
+            }
+            ChatRequest.Builder builder = ChatRequest.builder();
+            String customId = null;
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "custom_id":
+                        customId = parser.getValueAsString();
+                        break;
+                    case "model":
+                        builder.model(parser.getValueAsString());
+                        break;
+                    case "messages":
+                        builder.messages(readMessages(parser));
+                        break;
+                    case "temperature":
+                        if (token != JsonToken.VALUE_NULL) {
+                            builder.temperature(parser.getValueAsDouble());
+                        }
+                        break;
+                    case "max_tokens":
+                        if (token != JsonToken.VALUE_NULL) {
+                            builder.maxTokens(parser.getValueAsInt());
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return new BatchLine(customId, builder.build());
+        }
+    }
+
+    private static List<Message> readMessages(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Messages must be a JSON array");
+        }
+        List<Message> messages = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            Message message = ChatCodec.readMessage(parser);
+            if (message == null) {
+                throw new IllegalArgumentException("Message must be a JSON object");
+            }
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private static byte[] encodeResult(long line, String customId, ChatResponse response) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = ChatCodec.FACTORY.createGenerator(bytes)) {
+            generator.writeStartObject();
+            generator.writeNumberField("line", line);
+            if (customId != null) {
+                generator.writeStringField("custom_id", customId);
+            }
+            if (response.isSuccess()) {
+                generator.writeStringField("content", response.getContent());
+                ChatCompletionResponse raw = response.getRawResponse();
+                if (raw != null && raw.getUsage() != null) {
+                    ChatCompletionResponse.Usage usage = raw.getUsage();
+                    generator.writeObjectFieldStart("usage");
+                    writeIntField(generator, "prompt_tokens", usage.getPromptTokens());
+                    writeIntField(generator, "completion_tokens", usage.getCompletionTokens());
+                    writeIntField(generator, "total_tokens", usage.getTotalTokens());
+                    generator.writeEndObject();
+                }
+            } else if (response.getErrorResponse() != null && response.getErrorResponse().getError() != null) {
+                ErrorResponse.Error error = response.getErrorResponse().getError();
+                generator.writeObjectFieldStart("error");
+                if (error.getMessage() != null) {
+                    generator.writeStringField("message", error.getMessage());
+                }
+                if (error.getType() != null) {
+                    generator.writeStringField("type", error.getType());
+                }
+                if (error.getCode() != null) {
+                    generator.writeStringField("code", error.getCode());
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+        bytes.write('\n');
+        return bytes.toByteArray();
+    }
+
+    private static void writeIntField(JsonGenerator generator, String name, Integer value) throws IOException {
+        if (value != null) {
+            generator.writeNumberField(name, value);
+        }
+    }
+
+    /**
+     * Builder class for JsonlBatchProcessor
+     * JsonlBatchProcessor的构建器类
+     */
+    public static class Builder {
+        private AbstractAIService service;
+        private int maxConcurrency = 5;         // Default max in-flight requests / 默认最大并发请求数
+        private int checkpointInterval = 1000;  // Default lines between checkpoints / 默认每1000行保存一次检查点
+        private BatchProgressListener progressListener;
+
+        /**
+         * Sets the service used to send requests
+         * 设置发送请求的服务
+         * @param service The AI service / AI服务
+         * @throws IllegalArgumentException if service is null / 如果服务为空则抛出异常
+         */
+        public Builder service(AbstractAIService service) {
+            if (service == null) {
+                throw new IllegalArgumentException("Service cannot be null");
+            }
+            this.service = service;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests in flight at once
+         * 设置同时进行中的最大请求数
+         * @param maxConcurrency max in-flight requests / 最大并发请求数
+         * @throws IllegalArgumentException if the value is less than or equal to 0 / 如果值小于等于0则抛出异常
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency <= 0) {
+                throw new IllegalArgumentException("Max concurrency must be greater than 0");
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Sets how many completed lines trigger a checkpoint; smaller values redo less work after a crash but fsync
+         * more often
+         * 设置每完成多少行保存一次检查点；值越小崩溃后重做的越少，但fsync越频繁
+         * @param checkpointInterval lines between checkpoints / 两次检查点之间的行数
+         * @throws IllegalArgumentException if the value is less than or equal to 0 / 如果值小于等于0则抛出异常
+         */
+        public Builder checkpointInterval(int checkpointInterval) {
+            if (checkpointInterval <= 0) {
+                throw new IllegalArgumentException("Checkpoint interval must be greater than 0");
+            }
+            this.checkpointInterval = checkpointInterval;
+            return this;
+        }
+
+        /**
+         * Sets an optional progress listener; index is the line number and total is -1
+         * 设置可选的进度回调，index为行号，total为-1
+         * @param progressListener The progress listener / 进度回调
+         */
+        public Builder progressListener(BatchProgressListener progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * Builds the JsonlBatchProcessor instance
+         * 构建JsonlBatchProcessor实例
+         * @throws IllegalArgumentException if required parameters are missing / 如果缺少必要参数则抛出异常
+         */
+        public JsonlBatchProcessor build() {
+            if (service == null) {
+                throw new IllegalArgumentException("Service must be set");
+            }
+            return new JsonlBatchProcessor(this);
+        }
+    }
+}
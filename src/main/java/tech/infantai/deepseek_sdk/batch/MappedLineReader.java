@@ -0,0 +1,136 @@
+package tech.infantai.deepseek_sdk.batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 通过内存映射按窗口逐行读取文件，内存占用与文件大小无关
+ * Reads a file line by line through memory-mapped windows, so memory use does not depend on the file size
+ *
+ * 每次映射一个窗口，读到窗口末尾时从当前行的开头重新映射；超过窗口大小的行会扩大窗口。
+ * 行以'\n'结尾，末尾的'\r'会被去掉，最后一行可以没有换行符。
+ * One window is mapped at a time and remapped from the start of the current line when the end is reached;
+ * a line longer than the window widens it. Lines end with '\n', a trailing '\r' is dropped, and the last line
+ * may lack a newline.
+ *
+ * 不是线程安全的
+ * Not thread-safe
+ */
+final class MappedLineReader {
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int position;
+    private long line = -1;
+    private int lineStart;
+    private int lineEnd;
+
+    /**
+     * @param channel 只读打开的文件
+     *                The file, opened for reading
+     * @param windowSize 映射窗口的字节数
+     *                   Bytes mapped per window
+     */
+    MappedLineReader(FileChannel channel, int windowSize) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * 前进到下一行
+     * Advance to the next line
+     *
+     * @return 到达文件末尾时返回false
+     *         false at the end of the file
+     */
+    boolean next() throws IOException {
+        if (window == null) {
+            if (size == 0) {
+                return false;
+            }
+            map(0, windowSize);
+        }
+        while (true) {
+            int limit = window.limit();
+            for (int i = position; i < limit; i++) {
+                if (window.get(i) == '\n') {
+                    setLine(position, i);
+                    position = i + 1;
+                    return true;
+                }
+            }
+            long windowEnd = windowStart + limit;
+            if (windowEnd >= size) {
+                if (position >= limit) {
+                    return false;
+                }
+                // 最后一行没有换行符
+                setLine(position, limit);
+                position = limit;
+                return true;
+            }
+            // 当前行跨过了窗口末尾：从行首重新映射，整个窗口都是这一行时扩大窗口
+            int remaining = limit - position;
+            int length = remaining < limit ? windowSize : (int) Math.min(Integer.MAX_VALUE, (long) limit * 2);
+            map(windowStart + position, Math.max(length, remaining + 1));
+        }
+    }
+
+    private void map(long start, int length) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(length, size - start));
+        position = 0;
+    }
+
+    private void setLine(int start, int end) {
+        line++;
+        lineStart = start;
+        lineEnd = end > start && window.get(end - 1) == '\r' ? end - 1 : end;
+    }
+
+    /**
+     * 当前行的行号，从0开始
+     * Zero-based number of the current line
+     */
+    long line() {
+        return line;
+    }
+
+    /**
+     * 当前行的字节数，不含换行符
+     * Length of the current line in bytes, without the line terminator
+     */
+    int length() {
+        return lineEnd - lineStart;
+    }
+
+    /**
+     * 当前行是否只包含空白
+     * Whether the current line holds nothing but whitespace
+     */
+    boolean isBlank() {
+        for (int i = lineStart; i < lineEnd; i++) {
+            byte b = window.get(i);
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 把当前行复制到buffer开头，buffer至少为length()字节
+     * Copy the current line to the start of buffer, which holds at least length() bytes
+     */
+    void copyTo(byte[] buffer) {
+        ByteBuffer view = window.duplicate();
+        view.position(lineStart);
+        view.get(buffer, 0, lineEnd - lineStart);
+    }
+}
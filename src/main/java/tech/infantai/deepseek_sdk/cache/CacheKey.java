@@ -0,0 +1,97 @@
+package tech.infantai.deepseek_sdk.cache;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import tech.infantai.deepseek_sdk.json.Json;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.model.Message;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 计算聊天请求的规范化哈希
+ * Computes the canonical hash of a chat request
+ *
+ * 参与哈希的内容按固定顺序写出：endpoint、模型、采样参数和每条消息的角色与内容。
+ * 流式选项等不影响结果的字段不参与计算，因此同一个请求无论如何构建都得到相同的键。
+ * The hashed content is written in a fixed order: endpoint, model, sampling parameters and the role and content of
+ * every message. Fields that do not affect the result, such as stream options, are left out, so the same request
+ * yields the same key however it was built.
+ */
+public final class CacheKey {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private CacheKey() {
+    }
+
+    /**
+     * 计算缓存键
+     * Compute the cache key
+     *
+     * @param endpoint API地址，不同提供商的相同请求互不影响
+     *                 The API endpoint, so identical requests to different providers do not collide
+     * @param chatRequest 已确定模型的聊天请求
+     *                    A chat request whose model is already resolved
+     * @return 十六进制的SHA-256
+     *         Hex-encoded SHA-256
+     */
+    public static String of(String endpoint, ChatRequest chatRequest) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        // 直接把JSON写进摘要，不生成中间字符串
+        try (JsonGenerator generator = Json.MAPPER.getFactory().createGenerator(new DigestStream(digest))) {
+            generator.writeStartObject();
+            generator.writeStringField("endpoint", endpoint);
+            generator.writeStringField("model", chatRequest.getModel());
+            if (chatRequest.getTemperature() != null) {
+                generator.writeNumberField("temperature", chatRequest.getTemperature());
+            }
+            if (chatRequest.getMaxTokens() != null) {
+                generator.writeNumberField("max_tokens", chatRequest.getMaxTokens());
+            }
+            generator.writeArrayFieldStart("messages");
+            for (Message message : chatRequest.getMessages()) {
+                generator.writeStartObject();
+                generator.writeStringField("role", message.getRole());
+                generator.writeStringField("content", message.getContent());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] hash = digest.digest();
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    private static final class DigestStream extends OutputStream {
+        private final MessageDigest digest;
+
+        DigestStream(MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public void write(int b) {
+            digest.update((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            digest.update(b, off, len);
+        }
+    }
+}
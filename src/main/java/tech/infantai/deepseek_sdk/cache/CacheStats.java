@@ -0,0 +1,72 @@
+package tech.infantai.deepseek_sdk.cache;
+
+/**
+ * 缓存统计快照
+ * A snapshot of cache statistics
+ */
+public final class CacheStats {
+    private final long hitCount;
+    private final long diskHitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final int size;
+
+    CacheStats(long hitCount, long diskHitCount, long missCount, long evictionCount, int size) {
+        this.hitCount = hitCount;
+        this.diskHitCount = diskHitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    /**
+     * 命中次数，包括磁盘命中
+     * Number of hits, including disk hits
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * 内存未命中但磁盘命中的次数
+     * Number of hits served from disk after a memory miss
+     */
+    public long getDiskHitCount() {
+        return diskHitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * 因容量不足被淘汰的内存条目数
+     * Number of memory entries evicted for capacity
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 当前内存中的条目数
+     * Number of entries currently held in memory
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * 命中率，没有请求时为0
+     * Hit rate, 0 when there were no lookups
+     */
+    public double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hits=" + hitCount + ", diskHits=" + diskHitCount + ", misses=" + missCount
+                + ", evictions=" + evictionCount + ", size=" + size + '}';
+    }
+}
@@ -0,0 +1,328 @@
+package tech.infantai.deepseek_sdk.cache;
+
+import tech.infantai.deepseek_sdk.json.Json;
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 本地响应缓存：按LRU淘汰的内存层，加上可选的磁盘层
+ * Local response cache: an LRU memory tier plus an optional disk tier
+ *
+ * 内存层按条目数限制大小，超出时淘汰最久未使用的条目。设置目录后，每个响应还会以JSON文件的形式写入磁盘，
+ * 进程重启后仍可命中，适合反复运行的批处理任务。两层都遵守同一个TTL。
+ * The memory tier is bounded by entry count and evicts the least recently used entry. When a directory is set,
+ * every response is also written to disk as a JSON file and survives restarts, which suits recurring batch jobs.
+ * Both tiers honour the same TTL.
+ *
+ * 命中时返回的是缓存中的同一个对象，调用方不应修改它
+ * A hit returns the cached instance itself; callers must not modify it
+ */
+public final class LocalResponseCache implements ResponseCache {
+    private static final String FILE_SUFFIX = ".json";
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, CacheEntry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private LocalResponseCache(Builder builder) {
+        this.maxEntries = builder.maxEntries;
+        this.ttlMillis = builder.ttlMillis;
+        this.directory = builder.directory;
+        this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public ChatCompletionResponse get(String key) {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            CacheEntry entry = entries.get(key);
+            if (entry != null) {
+                if (!entry.isExpired(now)) {
+                    hits.increment();
+                    return entry.response;
+                }
+                entries.remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        CacheEntry entry = directory == null ? null : readFromDisk(key, now);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        diskHits.increment();
+        lock.lock();
+        try {
+            entries.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+        return entry.response;
+    }
+
+    @Override
+    public void put(String key, ChatCompletionResponse response) {
+        if (key == null || response == null) {
+            return;
+        }
+        CacheEntry entry = new CacheEntry(response, ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : 0);
+        lock.lock();
+        try {
+            entries.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+        if (directory != null) {
+            writeToDisk(key, entry);
+        }
+    }
+
+    /**
+     * 移除指定请求的缓存
+     * Remove the cached response for a key
+     */
+    public void invalidate(String key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+        if (directory != null) {
+            deleteQuietly(fileOf(key));
+        }
+    }
+
+    /**
+     * 清空内存层和磁盘层
+     * Clear both the memory and the disk tier
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+        if (directory != null) {
+            forEachFile(LocalResponseCache::deleteQuietly);
+        }
+    }
+
+    /**
+     * 删除磁盘上已过期的文件，构建时会自动执行一次
+     * Delete expired files from disk; runs once automatically when the cache is built
+     */
+    public void purgeExpired() {
+        if (directory == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        forEachFile(file -> {
+            CacheEntry entry = read(file);
+            if (entry == null || entry.isExpired(now)) {
+                deleteQuietly(file);
+            }
+        });
+    }
+
+    /**
+     * 获取统计快照
+     * Get a statistics snapshot
+     */
+    public CacheStats stats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        return new CacheStats(hits.sum(), diskHits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private CacheEntry readFromDisk(String key, long now) {
+        Path file = fileOf(key);
+        CacheEntry entry = read(file);
+        if (entry != null && entry.isExpired(now)) {
+            deleteQuietly(file);
+            return null;
+        }
+        return entry;
+    }
+
+    private CacheEntry read(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            CacheEntry entry = Json.MAPPER.readValue(in, CacheEntry.class);
+            return entry != null && entry.response != null ? entry : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            // 损坏或写了一半的文件当作未命中
+            deleteQuietly(file);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, CacheEntry entry) {
+        // 先写临时文件再原子替换，读取方不会看到写了一半的文件
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, key, ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                Json.MAPPER.writeValue(out, entry);
+            }
+            Files.move(temp, fileOf(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // 磁盘层是尽力而为的，写入失败不影响请求
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    private Path fileOf(String key) {
+        return directory.resolve(key + FILE_SUFFIX);
+    }
+
+    private void forEachFile(Consumer<Path> action) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                action.accept(file);
+            }
+        } catch (IOException ignored) {
+            // 目录不可读时跳过
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // 下次清理时再删除
+        }
+    }
+
+    /**
+     * 缓存条目，也是磁盘文件的格式
+     * A cache entry; also the on-disk file format
+     */
+    static final class CacheEntry {
+        private ChatCompletionResponse response;
+        private long expiresAt; // 过期时间（epoch毫秒），0表示不过期
+
+        private CacheEntry() {
+        }
+
+        CacheEntry(ChatCompletionResponse response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt > 0 && now >= expiresAt;
+        }
+    }
+
+    /**
+     * Builder class for LocalResponseCache
+     * LocalResponseCache的构建器类
+     */
+    public static class Builder {
+        private int maxEntries = 1000;       // Default memory capacity / 默认内存容量
+        private long ttlMillis = 3600000;    // Default TTL: 1 hour / 默认过期时间：1小时
+        private Path directory;              // Disk tier directory, null for memory only / 磁盘层目录，为null时只使用内存
+
+        /**
+         * Sets the maximum number of entries kept in memory
+         * 设置内存中保留的最大条目数
+         * @param maxEntries maximum entries / 最大条目数
+         * @throws IllegalArgumentException if the value is less than or equal to 0 / 如果值小于等于0则抛出异常
+         */
+        public Builder maxEntries(int maxEntries) {
+            if (maxEntries <= 0) {
+                throw new IllegalArgumentException("Max entries must be greater than 0");
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Sets how long a response stays valid
+         * 设置响应的有效期
+         * @param ttlMillis time to live in milliseconds, 0 for no expiry / 有效期（毫秒），0表示不过期
+         * @throws IllegalArgumentException if the value is negative / 如果值小于0则抛出异常
+         */
+        public Builder ttlMillis(long ttlMillis) {
+            if (ttlMillis < 0) {
+                throw new IllegalArgumentException("TTL cannot be negative");
+            }
+            this.ttlMillis = ttlMillis;
+            return this;
+        }
+
+        /**
+         * Enables the disk tier in the given directory, created if missing
+         * 在指定目录启用磁盘层，目录不存在时自动创建
+         * @param directory The cache directory, null for memory only / 缓存目录，为null时只使用内存
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Builds the LocalResponseCache instance
+         * 构建LocalResponseCache实例
+         * @throws IllegalArgumentException if the directory cannot be created / 如果无法创建目录则抛出异常
+         */
+        public LocalResponseCache build() {
+            if (directory != null) {
+                try {
+                    Files.createDirectories(directory);
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Cannot create cache directory " + directory, e);
+                }
+            }
+            LocalResponseCache cache = new LocalResponseCache(this);
+            cache.purgeExpired();
+            return cache;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package tech.infantai.deepseek_sdk.cache;
+
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+
+/**
+ * 聊天响应缓存
+ * Cache of chat completion responses
+ *
+ * 通过GPTConfig.Builder#responseCache启用后，非流式请求会先按请求的规范化哈希（见CacheKey）查询缓存，
+ * 只有成功的响应会被写入。默认只有temperature为0的确定性请求使用缓存，采样请求需开启cacheSampledResponses。
+ * 实现必须是线程安全的。
+ * When enabled through GPTConfig.Builder#responseCache, non-streaming requests first look up the canonical hash of
+ * the request (see CacheKey); only successful responses are stored. By default only deterministic requests, with
+ * temperature 0, use the cache; sampled requests need cacheSampledResponses. Implementations must be thread-safe.
+ */
+public interface ResponseCache {
+
+    /**
+     * 查询缓存
+     * Look up a cached response
+     *
+     * @param key 请求的缓存键
+     *            The cache key of the request
+     * @return 缓存的响应，不存在或已过期时返回null
+     *         The cached response, or null when absent or expired
+     */
+    ChatCompletionResponse get(String key);
+
+    /**
+     * 写入缓存
+     * Store a response
+     *
+     * @param key 请求的缓存键
+     *            The cache key of the request
+     * @param response 成功的响应
+     *                 A successful response
+     */
+    void put(String key, ChatCompletionResponse response);
+}
@@ -1,32 +1,22 @@
 package tech.infantai.deepseek_sdk.client;
 
 import tech.infantai.deepseek_sdk.config.GPTConfig;
+import tech.infantai.deepseek_sdk.json.JsonRequestBody;
 import okhttp3.*;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
 
 public class GPTClient {
     private final GPTConfig config;
     private final OkHttpClient httpClient;
-    private final ObjectMapper objectMapper;
     
     public GPTClient(GPTConfig config) {
         this.config = config;
-        this.httpClient = new OkHttpClient.Builder()
-            .connectTimeout(config.getConnectTimeout(), TimeUnit.SECONDS)
-            .readTimeout(config.getReadTimeout(), TimeUnit.SECONDS)
-            .writeTimeout(config.getReadTimeout(), TimeUnit.SECONDS)
-            .build();
-        this.objectMapper = new ObjectMapper();
+        this.httpClient = HttpClientProvider.get(config);
     }
     
     public String chat(String prompt) throws IOException {
-        RequestBody body = RequestBody.create(
-            MediaType.parse("application/json"),
-            createRequestBody(prompt)
-        );
+        RequestBody body = new JsonRequestBody(new ChatRequest(config.getModel(), prompt));
         
         Request request = new Request.Builder()
             .url(config.getEndpoint())
@@ -42,10 +32,6 @@ public class GPTClient {
         }
     }
     
-    private String createRequestBody(String prompt) throws IOException {
-        return objectMapper.writeValueAsString(new ChatRequest(config.getModel(), prompt));
-    }
-    
     private String parseResponse(String responseBody) throws IOException {
         // 根据不同的 API 响应格式进行解析
         // 这里需要根据具体使用的 API 来实现
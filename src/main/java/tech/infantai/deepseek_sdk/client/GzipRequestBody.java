@@ -0,0 +1,76 @@
+package tech.infantai.deepseek_sdk.client;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.GzipSink;
+import okio.Okio;
+
+import java.io.IOException;
+
+/**
+ * 写出时用gzip压缩的请求体，需要同时设置Content-Encoding: gzip请求头
+ * A request body compressed with gzip as it is written; the request must also carry Content-Encoding: gzip
+ *
+ * 被包装的请求体直接写入GzipSink，压缩后的数据边生成边写入连接，不会在内存中保留完整的压缩副本。
+ * 压缩后的长度事先未知，HTTP/1.1下使用chunked传输。
+ * The wrapped body writes straight into a GzipSink, so compressed bytes reach the connection as they are produced and
+ * no full compressed copy is kept in memory. The compressed length is not known up front, so HTTP/1.1 uses chunked
+ * transfer encoding.
+ */
+public final class GzipRequestBody extends RequestBody {
+    private final RequestBody delegate;
+    private volatile long uncompressedBytes = -1;
+
+    /**
+     * @param delegate 要压缩的请求体
+     *                 The body to compress
+     */
+    public GzipRequestBody(RequestBody delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate cannot be null");
+        }
+        this.delegate = delegate;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return delegate.contentType();
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return delegate.isOneShot();
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        long[] written = new long[1];
+        BufferedSink gzipSink = Okio.buffer(new ForwardingSink(new GzipSink(sink)) {
+            @Override
+            public void write(Buffer source, long byteCount) throws IOException {
+                written[0] += byteCount;
+                super.write(source, byteCount);
+            }
+        });
+        delegate.writeTo(gzipSink);
+        // 关闭时写出gzip尾部；OkHttp允许关闭请求体的sink
+        gzipSink.close();
+        uncompressedBytes = written[0];
+    }
+
+    /**
+     * 最近一次写出的压缩前字节数，尚未写出时为-1
+     * Uncompressed size of the most recent write, or -1 before the first one
+     */
+    public long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+}
@@ -0,0 +1,101 @@
+package tech.infantai.deepseek_sdk.client;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import tech.infantai.deepseek_sdk.config.GPTConfig;
+import tech.infantai.deepseek_sdk.util.VirtualThreads;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 共享的HTTP传输层
+ * Shared HTTP transport for all services and clients
+ *
+ * 指向同一端点的所有服务实例共用一个ConnectionPool和Dispatcher，
+ * 只有超时等调用级别的设置会派生出新的OkHttpClient（OkHttpClient.newBuilder()派生的客户端共享连接池和线程池）。
+ * All service instances pointing at the same endpoint share one ConnectionPool and Dispatcher.
+ * Per-call settings such as timeouts derive a lightweight client through OkHttpClient.newBuilder(),
+ * which keeps sharing the pool and the dispatcher threads.
+ */
+public final class HttpClientProvider {
+    private static final List<Protocol> HTTP_2 = Collections.unmodifiableList(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+    private static final List<Protocol> HTTP_1_1 = Collections.singletonList(Protocol.HTTP_1_1);
+
+    // 端点 + 连接池配置 -> 持有连接池和Dispatcher的客户端
+    private static final ConcurrentMap<String, OkHttpClient> POOLED_CLIENTS = new ConcurrentHashMap<>();
+    // 端点 + 连接池配置 + 超时配置 -> 派生客户端
+    private static final ConcurrentMap<String, OkHttpClient> CLIENTS = new ConcurrentHashMap<>();
+
+    private HttpClientProvider() {
+    }
+
+    /**
+     * 获取与配置对应的共享OkHttpClient
+     * Get the shared OkHttpClient for the given configuration
+     *
+     * @param config 配置
+     *               The configuration
+     * @return 共享的OkHttpClient
+     *         The shared OkHttpClient
+     */
+    public static OkHttpClient get(GPTConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("GPTConfig cannot be null");
+        }
+        String poolKey = poolKey(config);
+        String clientKey = poolKey + '|' + config.getConnectTimeout() + '|' + config.getReadTimeout() + '|' + config.getWriteTimeout()
+                + '|' + config.getCallTimeoutMillis();
+        return CLIENTS.computeIfAbsent(clientKey, key -> POOLED_CLIENTS.computeIfAbsent(poolKey, k -> createPooledClient(config))
+                .newBuilder()
+                .connectTimeout(config.getConnectTimeout(), TimeUnit.SECONDS)
+                .readTimeout(config.getReadTimeout(), TimeUnit.SECONDS)
+                .writeTimeout(config.getWriteTimeout(), TimeUnit.SECONDS)
+                .callTimeout(config.getCallTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .build());
+    }
+
+    /**
+     * 关闭所有共享连接，通常在应用退出时调用
+     * Close all idle pooled connections, usually on application shutdown
+     */
+    public static void evictAll() {
+        for (OkHttpClient client : POOLED_CLIENTS.values()) {
+            client.connectionPool().evictAll();
+        }
+    }
+
+    private static OkHttpClient createPooledClient(GPTConfig config) {
+        // 虚拟线程下每个异步调用一个线程，线程数不再需要调优；并发上限仍由maxRequests/maxRequestsPerHost控制
+        Dispatcher dispatcher = config.isVirtualThreads() && VirtualThreads.isSupported()
+                ? new Dispatcher(VirtualThreads.newExecutor("deepseek-sdk-okhttp"))
+                : new Dispatcher();
+        dispatcher.setMaxRequests(config.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(config.getMaxRequestsPerHost());
+        return new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(config.getMaxIdleConnections(), config.getKeepAliveDuration(), TimeUnit.SECONDS))
+                .dispatcher(dispatcher)
+                .protocols(config.isPreferHttp2() ? HTTP_2 : HTTP_1_1)
+                .build();
+    }
+
+    /**
+     * 以端点的scheme://host:port作为连接池的键，同一主机的不同路径共享连接
+     * Pools are keyed by the endpoint origin so that different paths on one host share connections
+     */
+    private static String poolKey(GPTConfig config) {
+        HttpUrl url = HttpUrl.parse(config.getEndpoint());
+        String origin = url == null
+                ? config.getEndpoint()
+                : url.scheme() + "://" + url.host() + ':' + url.port();
+        return origin + '|' + config.getMaxIdleConnections() + '|' + config.getKeepAliveDuration()
+                + '|' + config.getMaxRequests() + '|' + config.getMaxRequestsPerHost() + '|' + config.isPreferHttp2() + '|' + config.isVirtualThreads();
+    }
+}
@@ -1,27 +1,113 @@
 package tech.infantai.deepseek_sdk.config;
 
 import org.apache.commons.lang3.StringUtils;
+import tech.infantai.deepseek_sdk.cache.ResponseCache;
+import tech.infantai.deepseek_sdk.metrics.ChatInstrumentation;
+import tech.infantai.deepseek_sdk.ratelimit.RateLimiter;
+import tech.infantai.deepseek_sdk.resilience.Bulkhead;
+import tech.infantai.deepseek_sdk.resilience.CircuitBreaker;
+import tech.infantai.deepseek_sdk.tokenizer.CharacterTokenEstimator;
+import tech.infantai.deepseek_sdk.tokenizer.TokenEstimator;
 
-public class GPTConfig {
-    private String apiKey;
-    private String endpoint;
-    private String model;
-    private int connectTimeout = 60; // 连接超时时间（秒）
-    private int readTimeout = 60;    // 读取超时时间（秒）
-    private int writeTimeout = 60;   // 写入超时时间（秒）
+/**
+ * SDK配置，通过Builder构建后不可变，可以在多个线程和服务实例之间安全共享
+ * SDK configuration; immutable once built, so it can be shared freely across threads and services
+ */
+public final class GPTConfig {
+    private final String apiKey;
+    private final String endpoint;
+    private final String model;
+    private final int connectTimeout; // 连接超时时间（秒）
+    private final int readTimeout;    // 读取超时时间（秒）
+    private final int writeTimeout;   // 写入超时时间（秒）
+    private final int maxIdleConnections;     // 连接池最大空闲连接数
+    private final long keepAliveDuration;     // 空闲连接保活时间（秒）
+    private final int maxRequests;            // 异步请求最大并发数
+    private final int maxRequestsPerHost;     // 每个主机的异步请求最大并发数
+    private final boolean preferHttp2;        // 是否优先使用HTTP/2
+    private final RateLimiter rateLimiter;    // 客户端限流器，可为null
+    private final RetryPolicy retryPolicy;    // 重试策略
+    private final ResponseCache responseCache; // 响应缓存，可为null
+    private final boolean cacheSampledResponses; // 是否也缓存temperature不为0的采样请求
+    private final boolean singleFlight;   // 是否合并相同的进行中请求
+    private final ChatInstrumentation instrumentation; // 调用度量回调，可为null
+    private final boolean virtualThreads; // 是否在虚拟线程上运行OkHttp调度器
+    private final CircuitBreaker circuitBreaker; // 熔断器，可为null
+    private final Bulkhead bulkhead; // 并发隔舱，可为null
+    private final long callTimeoutMillis; // 单次调用的总超时（毫秒），0表示不限制
+    private final long firstTokenTimeoutMillis; // 流式输出首个事件的超时（毫秒），0表示不限制
+    private final TokenEstimator tokenEstimator; // 发送前估算token数的方式
+    private final int requestCompressionThreshold; // 请求体达到该字节数时使用gzip压缩，0表示不压缩
+    private final boolean responseCompression; // 是否接受gzip压缩的响应
     
     // 私有构造函数
     private GPTConfig(Builder builder) {
         this.apiKey = builder.apiKey;
         this.endpoint = builder.endpoint;
         this.model = builder.model;
+        this.connectTimeout = builder.connectTimeout;
+        this.readTimeout = builder.readTimeout;
+        this.writeTimeout = builder.writeTimeout;
+        this.maxIdleConnections = builder.maxIdleConnections;
+        this.keepAliveDuration = builder.keepAliveDuration;
+        this.maxRequests = builder.maxRequests;
+        this.maxRequestsPerHost = builder.maxRequestsPerHost;
+        this.preferHttp2 = builder.preferHttp2;
+        this.rateLimiter = builder.rateLimiter;
+        this.retryPolicy = builder.retryPolicy;
+        this.responseCache = builder.responseCache;
+        this.cacheSampledResponses = builder.cacheSampledResponses;
+        this.singleFlight = builder.singleFlight;
+        this.instrumentation = builder.instrumentation;
+        this.virtualThreads = builder.virtualThreads;
+        this.circuitBreaker = builder.circuitBreaker;
+        this.bulkhead = builder.bulkhead;
+        this.callTimeoutMillis = builder.callTimeoutMillis;
+        this.firstTokenTimeoutMillis = builder.firstTokenTimeoutMillis;
+        this.tokenEstimator = builder.tokenEstimator;
+        this.requestCompressionThreshold = builder.requestCompressionThreshold;
+        this.responseCompression = builder.responseCompression;
     }
 
     public static Builder builder() {
         return new Builder();
     }
 
-    // Getters and Setters
+    /**
+     * 以当前配置为基础创建Builder，用于派生新的配置
+     * Create a builder pre-populated with this configuration, for deriving a modified copy
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.apiKey = apiKey;
+        builder.endpoint = endpoint;
+        builder.model = model;
+        builder.connectTimeout = connectTimeout;
+        builder.readTimeout = readTimeout;
+        builder.writeTimeout = writeTimeout;
+        builder.maxIdleConnections = maxIdleConnections;
+        builder.keepAliveDuration = keepAliveDuration;
+        builder.maxRequests = maxRequests;
+        builder.maxRequestsPerHost = maxRequestsPerHost;
+        builder.preferHttp2 = preferHttp2;
+        builder.rateLimiter = rateLimiter;
+        builder.retryPolicy = retryPolicy;
+        builder.responseCache = responseCache;
+        builder.cacheSampledResponses = cacheSampledResponses;
+        builder.singleFlight = singleFlight;
+        builder.instrumentation = instrumentation;
+        builder.virtualThreads = virtualThreads;
+        builder.circuitBreaker = circuitBreaker;
+        builder.bulkhead = bulkhead;
+        builder.callTimeoutMillis = callTimeoutMillis;
+        builder.firstTokenTimeoutMillis = firstTokenTimeoutMillis;
+        builder.tokenEstimator = tokenEstimator;
+        builder.requestCompressionThreshold = requestCompressionThreshold;
+        builder.responseCompression = responseCompression;
+        return builder;
+    }
+
+    // Getters
     public String getApiKey() {
         return apiKey;
     }
@@ -38,63 +124,90 @@ public class GPTConfig {
         return connectTimeout;
     }
     
-    public void setConnectTimeout(int connectTimeout) {
-        if (connectTimeout <= 0) {
-            throw new IllegalArgumentException("Connect timeout must be greater than 0");
-        }
-        this.connectTimeout = connectTimeout;
-    }
-    
     public int getReadTimeout() {
         return readTimeout;
     }
     
-    public void setReadTimeout(int readTimeout) {
-        if (readTimeout <= 0) {
-            throw new IllegalArgumentException("Read timeout must be greater than 0");
-        }
-        this.readTimeout = readTimeout;
-    }
-    
     public int getWriteTimeout() {
         return writeTimeout;
     }
     
-    public void setWriteTimeout(int writeTimeout) {
-        if (writeTimeout <= 0) {
-            throw new IllegalArgumentException("Write timeout must be greater than 0");
-        }
-        this.writeTimeout = writeTimeout;
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
     }
     
-    public void setModel(String model) {
-        if (StringUtils.isBlank(model)) {
-            throw new IllegalArgumentException("Model cannot be null or empty");
-        }
-        this.model = model;
+    public long getKeepAliveDuration() {
+        return keepAliveDuration;
     }
     
-    // 链式调用方法
-    public GPTConfig withConnectTimeout(int connectTimeout) {
-        setConnectTimeout(connectTimeout);
-        return this;
+    public int getMaxRequests() {
+        return maxRequests;
     }
     
-    public GPTConfig withReadTimeout(int readTimeout) {
-        setReadTimeout(readTimeout);
-        return this;
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
     }
     
-    public GPTConfig withWriteTimeout(int writeTimeout) {
-        setWriteTimeout(writeTimeout);
-        return this;
+    public boolean isPreferHttp2() {
+        return preferHttp2;
     }
     
-    public GPTConfig withModel(String model) {
-        setModel(model);
-        return this;
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
     }
-
+    
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+    
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+    
+    public boolean isCacheSampledResponses() {
+        return cacheSampledResponses;
+    }
+    
+    public boolean isSingleFlight() {
+        return singleFlight;
+    }
+    
+    public ChatInstrumentation getInstrumentation() {
+        return instrumentation;
+    }
+    
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+    
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+    
+    public long getCallTimeoutMillis() {
+        return callTimeoutMillis;
+    }
+    
+    public long getFirstTokenTimeoutMillis() {
+        return firstTokenTimeoutMillis;
+    }
+    
+    public TokenEstimator getTokenEstimator() {
+        return tokenEstimator;
+    }
+    
+    public int getRequestCompressionThreshold() {
+        return requestCompressionThreshold;
+    }
+    
+    public boolean isResponseCompression() {
+        return responseCompression;
+    }
+    
     /**
      * Builder class for GPTConfig
      * GPTConfig的构建器类
@@ -106,6 +219,25 @@ public class GPTConfig {
         private int connectTimeout = 60;  // Default connection timeout (seconds) / 默认连接超时时间（秒）
         private int readTimeout = 60;     // Default read timeout (seconds) / 默认读取超时时间（秒）
         private int writeTimeout = 60;    // Default write timeout (seconds) / 默认写入超时时间（秒）
+        private int maxIdleConnections = 5;   // Default idle connections kept in the pool / 默认连接池最大空闲连接数
+        private long keepAliveDuration = 300; // Default keep-alive of idle connections (seconds) / 默认空闲连接保活时间（秒）
+        private int maxRequests = 64;         // Default max concurrent async requests / 默认异步请求最大并发数
+        private int maxRequestsPerHost = 5;   // Default max concurrent async requests per host / 默认每个主机的异步请求最大并发数
+        private boolean preferHttp2 = true;   // Negotiate HTTP/2 when the server supports it / 服务端支持时优先使用HTTP/2
+        private RateLimiter rateLimiter;      // Optional client-side rate limiter / 可选的客户端限流器
+        private RetryPolicy retryPolicy = RetryPolicy.NONE;  // No retries by default / 默认不重试
+        private ResponseCache responseCache;  // Optional response cache / 可选的响应缓存
+        private boolean cacheSampledResponses; // Only deterministic requests are cached by default / 默认只缓存确定性请求
+        private boolean singleFlight;        // Coalescing is off by default / 默认不合并请求
+        private ChatInstrumentation instrumentation; // Optional call instrumentation / 可选的调用度量回调
+        private boolean virtualThreads; // Platform threads by default / 默认使用平台线程
+        private CircuitBreaker circuitBreaker; // Optional circuit breaker / 可选的熔断器
+        private Bulkhead bulkhead; // Optional bulkhead / 可选的并发隔舱
+        private long callTimeoutMillis; // No call timeout by default / 默认不限制单次调用总时长
+        private long firstTokenTimeoutMillis; // No first-token timeout by default / 默认不限制首个token的等待时间
+        private TokenEstimator tokenEstimator = CharacterTokenEstimator.INSTANCE; // Default rough character-based estimate / 默认按字符数粗略估算
+        private int requestCompressionThreshold; // Request compression is off by default / 默认不压缩请求体
+        private boolean responseCompression = true; // Accept gzip responses by default / 默认接受gzip压缩的响应
         
         /**
          * Sets the API key
@@ -191,6 +323,244 @@ public class GPTConfig {
             return this;
         }
         
+        /**
+         * Sets the maximum number of idle connections kept in the shared pool
+         * 设置共享连接池的最大空闲连接数
+         * @param maxIdleConnections max idle connections / 最大空闲连接数
+         * @throws IllegalArgumentException if the value is negative / 如果值小于0则抛出异常
+         */
+        public Builder maxIdleConnections(int maxIdleConnections) {
+            if (maxIdleConnections < 0) {
+                throw new IllegalArgumentException("Max idle connections cannot be negative");
+            }
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+        
+        /**
+         * Sets how long idle connections are kept alive in the shared pool
+         * 设置共享连接池中空闲连接的保活时间
+         * @param keepAliveDuration keep-alive in seconds / 保活时间（秒）
+         * @throws IllegalArgumentException if the value is less than or equal to 0 / 如果值小于等于0则抛出异常
+         */
+        public Builder keepAliveDuration(long keepAliveDuration) {
+            if (keepAliveDuration <= 0) {
+                throw new IllegalArgumentException("Keep-alive duration must be greater than 0");
+            }
+            this.keepAliveDuration = keepAliveDuration;
+            return this;
+        }
+        
+        /**
+         * Sets the maximum number of concurrent asynchronous requests
+         * 设置异步请求的最大并发数
+         * @param maxRequests max concurrent requests / 最大并发请求数
+         * @throws IllegalArgumentException if the value is less than or equal to 0 / 如果值小于等于0则抛出异常
+         */
+        public Builder maxRequests(int maxRequests) {
+            if (maxRequests <= 0) {
+                throw new IllegalArgumentException("Max requests must be greater than 0");
+            }
+            this.maxRequests = maxRequests;
+            return this;
+        }
+        
+        /**
+         * Sets the maximum number of concurrent asynchronous requests to a single host
+         * 设置单个主机的异步请求最大并发数
+         * @param maxRequestsPerHost max concurrent requests per host / 每个主机的最大并发请求数
+         * @throws IllegalArgumentException if the value is less than or equal to 0 / 如果值小于等于0则抛出异常
+         */
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            if (maxRequestsPerHost <= 0) {
+                throw new IllegalArgumentException("Max requests per host must be greater than 0");
+            }
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+        
+        /**
+         * Sets whether HTTP/2 should be negotiated when the server supports it
+         * 设置服务端支持时是否优先使用HTTP/2
+         * @param preferHttp2 false to force HTTP/1.1 / 为false时强制使用HTTP/1.1
+         */
+        public Builder preferHttp2(boolean preferHttp2) {
+            this.preferHttp2 = preferHttp2;
+            return this;
+        }
+        
+        /**
+         * Sets a client-side rate limiter applied before every request
+         * 设置在每次请求前生效的客户端限流器
+         * @param rateLimiter The rate limiter, null to disable / 限流器，为null时不限流
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+        
+        /**
+         * Sets the retry policy for transient failures
+         * 设置瞬时故障的重试策略
+         * @param retryPolicy The retry policy / 重试策略
+         * @throws IllegalArgumentException if retryPolicy is null / 如果重试策略为空则抛出异常
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            if (retryPolicy == null) {
+                throw new IllegalArgumentException("Retry policy cannot be null");
+            }
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+        
+        /**
+         * Sets a response cache consulted before non-streaming requests. Only deterministic requests, those with
+         * temperature 0, are cached unless cacheSampledResponses is enabled
+         * 设置非流式请求前查询的响应缓存。默认只缓存temperature为0的确定性请求，除非开启cacheSampledResponses
+         * @param responseCache The response cache, null to disable / 响应缓存，为null时不缓存
+         */
+        public Builder responseCache(ResponseCache responseCache) {
+            this.responseCache = responseCache;
+            return this;
+        }
+        
+        /**
+         * Also caches sampled requests, whose temperature is unset or not 0. Repeated prompts then return the same
+         * answer for the whole TTL instead of a fresh sample
+         * 设置是否也缓存采样请求（temperature未设置或不为0），开启后相同的提示词在TTL内总是返回同一个回答，不再重新采样
+         * @param cacheSampledResponses true to cache sampled requests too / 为true时同样缓存采样请求
+         */
+        public Builder cacheSampledResponses(boolean cacheSampledResponses) {
+            this.cacheSampledResponses = cacheSampledResponses;
+            return this;
+        }
+        
+        /**
+         * Coalesces concurrent identical non-streaming requests into one upstream call whose response every caller shares
+         * 设置是否把同时进行的相同非流式请求合并为一次上游调用，所有调用方共享同一个响应
+         * Coalesced calls, including synchronous ones, run on the OkHttp dispatcher and count against maxRequestsPerHost
+         * 合并后的调用（包括同步调用）在OkHttp调度器上执行，受maxRequestsPerHost限制
+         * @param singleFlight true to coalesce identical requests / 为true时合并相同的请求
+         */
+        public Builder singleFlight(boolean singleFlight) {
+            this.singleFlight = singleFlight;
+            return this;
+        }
+        
+        /**
+         * Sets the instrumentation notified at the end of every chat call
+         * 设置每次聊天调用结束时接收度量数据的回调
+         * @param instrumentation The instrumentation, null to disable / 度量回调，为null时不采集
+         */
+        public Builder instrumentation(ChatInstrumentation instrumentation) {
+            this.instrumentation = instrumentation;
+            return this;
+        }
+        
+        /**
+         * Runs the OkHttp dispatcher on virtual threads (JDK 21+); ignored on older JDKs
+         * 设置是否在虚拟线程上运行OkHttp调度器（JDK 21+），旧版本JDK上忽略
+         * Synchronous calls already run on the caller's thread, so calling them from virtual threads needs no setting
+         * 同步调用在调用方线程上执行，从虚拟线程中调用无需任何设置
+         * @param virtualThreads true to use virtual threads / 为true时使用虚拟线程
+         */
+        public Builder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+        
+        /**
+         * Sets the circuit breaker guarding calls, keyed by endpoint and model
+         * 设置保护调用的熔断器，按端点和模型分别统计
+         * @param circuitBreaker The circuit breaker, null to disable / 熔断器，为null时不启用
+         */
+        public Builder circuitBreaker(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+        
+        /**
+         * Sets the bulkhead capping concurrent calls, keyed by endpoint and model
+         * 设置限制并发调用数的隔舱，按端点和模型分别限制
+         * @param bulkhead The bulkhead, null to disable / 并发隔舱，为null时不限制
+         */
+        public Builder bulkhead(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+            return this;
+        }
+        
+        /**
+         * Sets OkHttp's call timeout: the limit on one complete attempt, from DNS to the last byte of the response
+         * 设置OkHttp的callTimeout，即一次尝试从DNS解析到读完响应的总时长上限
+         * @param callTimeoutMillis Timeout in milliseconds, 0 for none / 超时（毫秒），0表示不限制
+         * @throws IllegalArgumentException if callTimeoutMillis is negative / 如果超时为负数则抛出异常
+         */
+        public Builder callTimeoutMillis(long callTimeoutMillis) {
+            if (callTimeoutMillis < 0) {
+                throw new IllegalArgumentException("Call timeout cannot be negative");
+            }
+            this.callTimeoutMillis = callTimeoutMillis;
+            return this;
+        }
+        
+        /**
+         * Sets how long a stream may take to deliver its first event; the attempt then fails with
+         * SocketTimeoutException and is retried if the retry policy allows
+         * 设置流式输出等待首个事件的超时，超时后本次尝试以SocketTimeoutException失败，重试策略允许时会重试
+         * @param firstTokenTimeoutMillis Timeout in milliseconds, 0 for none / 超时（毫秒），0表示不限制
+         * @throws IllegalArgumentException if firstTokenTimeoutMillis is negative / 如果超时为负数则抛出异常
+         */
+        public Builder firstTokenTimeoutMillis(long firstTokenTimeoutMillis) {
+            if (firstTokenTimeoutMillis < 0) {
+                throw new IllegalArgumentException("First token timeout cannot be negative");
+            }
+            this.firstTokenTimeoutMillis = firstTokenTimeoutMillis;
+            return this;
+        }
+        
+        /**
+         * Sets how tokens are counted before a request is sent, e.g. a BpeTokenizer for exact counts;
+         * also used by TokenBucketRateLimiter unless it has its own
+         * 设置发送前计算token数的方式，例如使用BpeTokenizer得到精确值；TokenBucketRateLimiter未单独设置时也使用它
+         * @param tokenEstimator The token estimator / token估算器
+         * @throws IllegalArgumentException if tokenEstimator is null / 如果估算器为空则抛出异常
+         */
+        public Builder tokenEstimator(TokenEstimator tokenEstimator) {
+            if (tokenEstimator == null) {
+                throw new IllegalArgumentException("Token estimator cannot be null");
+            }
+            this.tokenEstimator = tokenEstimator;
+            return this;
+        }
+        
+        /**
+         * Compresses request bodies of at least this many bytes with gzip (Content-Encoding: gzip). The size is the
+         * UTF-8 length of the message contents, known before the body is serialized. Only enable it for endpoints or
+         * gateways that accept compressed requests
+         * 请求体达到该字节数时使用gzip压缩（Content-Encoding: gzip），大小按消息内容的UTF-8字节数计算，在序列化之前即可得到。
+         * 仅在端点或网关支持压缩请求时开启
+         * @param requestCompressionThreshold Threshold in bytes, 0 to disable / 阈值（字节），0表示不压缩
+         * @throws IllegalArgumentException if requestCompressionThreshold is negative / 如果阈值为负数则抛出异常
+         */
+        public Builder requestCompressionThreshold(int requestCompressionThreshold) {
+            if (requestCompressionThreshold < 0) {
+                throw new IllegalArgumentException("Request compression threshold cannot be negative");
+            }
+            this.requestCompressionThreshold = requestCompressionThreshold;
+            return this;
+        }
+        
+        /**
+         * Sets whether gzip responses are accepted. When enabled OkHttp sends Accept-Encoding: gzip and decompresses
+         * transparently; when disabled the SDK asks for Accept-Encoding: identity
+         * 设置是否接受gzip压缩的响应。开启时OkHttp发送Accept-Encoding: gzip并自动解压；关闭时请求Accept-Encoding: identity
+         * @param responseCompression true to accept gzip responses / 是否接受gzip压缩的响应
+         */
+        public Builder responseCompression(boolean responseCompression) {
+            this.responseCompression = responseCompression;
+            return this;
+        }
+        
         /**
          * Builds the GPTConfig instance
          * 构建GPTConfig实例
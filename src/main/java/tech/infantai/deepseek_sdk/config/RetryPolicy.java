@@ -0,0 +1,341 @@
+package tech.infantai.deepseek_sdk.config;
+
+import tech.infantai.deepseek_sdk.exception.ApiException;
+import tech.infantai.deepseek_sdk.model.ErrorResponse;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 重试策略：指数退避、随机抖动、Retry-After以及跨所有尝试的总超时
+ * Retry policy: exponential backoff with jitter, Retry-After handling and a total deadline across attempts
+ *
+ * 错误按HTTP状态码以及已解析的ErrorResponse中的code/type分类，不做字符串匹配。
+ * Errors are classified by HTTP status and by the code/type of the parsed ErrorResponse, never by string matching.
+ */
+public final class RetryPolicy {
+    /** 不重试 / Never retry */
+    public static final RetryPolicy NONE = builder().maxAttempts(1).build();
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final double jitter;
+    private final long totalTimeoutMillis;
+    private final boolean respectRetryAfter;
+    private final Set<Integer> retryableStatusCodes;
+    private final Set<String> retryableErrorCodes;
+    private final Set<String> retryableErrorTypes;
+    private final Set<String> nonRetryableErrorCodes;
+    private final List<Class<? extends IOException>> retryableExceptions;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.baseDelayMillis = builder.baseDelayMillis;
+        this.maxDelayMillis = builder.maxDelayMillis;
+        this.jitter = builder.jitter;
+        this.totalTimeoutMillis = builder.totalTimeoutMillis;
+        this.respectRetryAfter = builder.respectRetryAfter;
+        this.retryableStatusCodes = Collections.unmodifiableSet(new HashSet<>(builder.retryableStatusCodes));
+        this.retryableErrorCodes = Collections.unmodifiableSet(new HashSet<>(builder.retryableErrorCodes));
+        this.retryableErrorTypes = Collections.unmodifiableSet(new HashSet<>(builder.retryableErrorTypes));
+        this.nonRetryableErrorCodes = Collections.unmodifiableSet(new HashSet<>(builder.nonRetryableErrorCodes));
+        this.retryableExceptions = Collections.unmodifiableList(Arrays.asList(builder.retryableExceptions));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getTotalTimeoutMillis() {
+        return totalTimeoutMillis;
+    }
+
+    /**
+     * 计算剩余的总超时预算
+     * Remaining budget of the total deadline
+     *
+     * @param elapsedMillis 自第一次尝试开始经过的毫秒数
+     *                      Milliseconds since the first attempt started
+     * @return 剩余毫秒数，未设置总超时时返回0
+     *         Remaining milliseconds, or 0 when no total deadline is set
+     */
+    public long remainingMillis(long elapsedMillis) {
+        if (totalTimeoutMillis <= 0) {
+            return 0;
+        }
+        return Math.max(1, totalTimeoutMillis - elapsedMillis);
+    }
+
+    /**
+     * 计算下一次重试前的等待时间
+     * Compute the delay before the next attempt
+     *
+     * @param attempt 刚刚失败的是第几次尝试，从1开始
+     *                The 1-based number of the attempt that just failed
+     * @param elapsedMillis 自第一次尝试开始经过的毫秒数
+     *                      Milliseconds since the first attempt started
+     * @param failure 抛出的异常，可为null
+     *                The exception thrown, may be null
+     * @param error 2xx响应中携带的错误，可为null
+     *              An error carried in a 2xx response body, may be null
+     * @return 等待毫秒数，不应重试时返回-1
+     *         Milliseconds to wait, or -1 if the call must not be retried
+     */
+    public long nextDelayMillis(int attempt, long elapsedMillis, IOException failure, ErrorResponse error) {
+        if (attempt >= maxAttempts) {
+            return -1;
+        }
+        long retryAfterMillis = -1;
+        if (failure != null) {
+            if (!isRetryable(failure)) {
+                return -1;
+            }
+            if (failure instanceof ApiException) {
+                retryAfterMillis = ((ApiException) failure).getRetryAfterMillis();
+            }
+        } else if (!isRetryable(error)) {
+            return -1;
+        }
+
+        long delay = backoffMillis(attempt);
+        if (respectRetryAfter && retryAfterMillis >= 0) {
+            if (retryAfterMillis > maxDelayMillis) {
+                // 服务端要求的等待超过上限，例如Retry-After: 3600；提前重试多半再次被拒绝，直接返回错误交给调用方
+                return -1;
+            }
+            delay = retryAfterMillis;
+        }
+        if (totalTimeoutMillis > 0 && elapsedMillis + delay >= totalTimeoutMillis) {
+            // 等待后已没有剩余预算，不再重试
+            return -1;
+        }
+        return delay;
+    }
+
+    /**
+     * 判断异常是否可以重试
+     * Whether a failure is retryable
+     */
+    public boolean isRetryable(IOException failure) {
+        if (failure instanceof ApiException) {
+            ApiException apiException = (ApiException) failure;
+            ErrorResponse error = apiException.getErrorResponse();
+            if (error != null && error.getError() != null && nonRetryableErrorCodes.contains(error.getError().getCode())) {
+                return false;
+            }
+            return retryableStatusCodes.contains(apiException.getStatusCode()) || isRetryable(error);
+        }
+        for (Class<? extends IOException> type : retryableExceptions) {
+            if (type.isInstance(failure)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断错误响应是否可以重试
+     * Whether an error response is retryable
+     */
+    public boolean isRetryable(ErrorResponse error) {
+        if (error == null || error.getError() == null) {
+            return false;
+        }
+        String code = error.getError().getCode();
+        if (nonRetryableErrorCodes.contains(code)) {
+            return false;
+        }
+        return retryableErrorCodes.contains(code) || retryableErrorTypes.contains(error.getError().getType());
+    }
+
+    /**
+     * 指数退避加随机抖动
+     * Exponential backoff with jitter
+     */
+    private long backoffMillis(int attempt) {
+        long exponential = baseDelayMillis << Math.min(attempt - 1, 30);
+        long delay = exponential <= 0 ? maxDelayMillis : Math.min(maxDelayMillis, exponential);
+        if (jitter <= 0) {
+            return delay;
+        }
+        return (long) (delay * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    /**
+     * Builder class for RetryPolicy
+     * RetryPolicy的构建器类
+     */
+    public static class Builder {
+        private int maxAttempts = 3;              // Default attempts including the first / 默认尝试次数（含第一次）
+        private long baseDelayMillis = 500;       // Default initial backoff / 默认初始退避时间
+        private long maxDelayMillis = 30000;      // Default backoff cap / 默认最大退避时间
+        private double jitter = 0.5;              // Default share of the delay that is randomised / 默认随机抖动比例
+        private long totalTimeoutMillis;          // 0 means no total deadline / 0表示不限制总时长
+        private boolean respectRetryAfter = true;
+        private Set<Integer> retryableStatusCodes = new HashSet<>(Arrays.asList(408, 429, 500, 502, 503, 504));
+        private Set<String> retryableErrorCodes = new HashSet<>(Arrays.asList("rate_limit_exceeded", "server_error"));
+        private Set<String> retryableErrorTypes = new HashSet<>(Arrays.asList("server_error", "rate_limit_error"));
+        private Set<String> nonRetryableErrorCodes = new HashSet<>(Collections.singletonList("insufficient_quota"));
+        @SuppressWarnings("unchecked")
+        private Class<? extends IOException>[] retryableExceptions = new Class[]{
+                SocketTimeoutException.class, ConnectException.class, SocketException.class};
+
+        /**
+         * Sets the maximum number of attempts, including the first one
+         * 设置最大尝试次数（含第一次）
+         * @param maxAttempts max attempts / 最大尝试次数
+         * @throws IllegalArgumentException if the value is less than 1 / 如果值小于1则抛出异常
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("Max attempts must be at least 1");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the initial backoff delay, doubled after every attempt
+         * 设置初始退避时间，每次尝试后翻倍
+         * @param baseDelayMillis initial delay in milliseconds / 初始退避时间（毫秒）
+         * @throws IllegalArgumentException if the value is negative / 如果值小于0则抛出异常
+         */
+        public Builder baseDelayMillis(long baseDelayMillis) {
+            if (baseDelayMillis < 0) {
+                throw new IllegalArgumentException("Base delay cannot be negative");
+            }
+            this.baseDelayMillis = baseDelayMillis;
+            return this;
+        }
+
+        /**
+         * Sets the upper bound of the backoff delay; a Retry-After beyond it ends the retries
+         * 设置退避时间上限，Retry-After超过上限时不再重试
+         * @param maxDelayMillis max delay in milliseconds / 最大退避时间（毫秒）
+         * @throws IllegalArgumentException if the value is negative / 如果值小于0则抛出异常
+         */
+        public Builder maxDelayMillis(long maxDelayMillis) {
+            if (maxDelayMillis < 0) {
+                throw new IllegalArgumentException("Max delay cannot be negative");
+            }
+            this.maxDelayMillis = maxDelayMillis;
+            return this;
+        }
+
+        /**
+         * Sets the share of each delay that is randomised, 0 for none and 1 for full jitter
+         * 设置退避时间中随机化的比例，0为不抖动，1为完全抖动
+         * @param jitter jitter between 0 and 1 / 0到1之间的抖动比例
+         * @throws IllegalArgumentException if the value is outside [0, 1] / 如果值不在[0, 1]之间则抛出异常
+         */
+        public Builder jitter(double jitter) {
+            if (jitter < 0 || jitter > 1) {
+                throw new IllegalArgumentException("Jitter must be between 0 and 1");
+            }
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Sets a deadline across all attempts, including backoff delays
+         * 设置所有尝试（含退避等待）的总超时
+         * @param totalTimeoutMillis total deadline in milliseconds, 0 for none / 总超时（毫秒），0表示不限制
+         * @throws IllegalArgumentException if the value is negative / 如果值小于0则抛出异常
+         */
+        public Builder totalTimeoutMillis(long totalTimeoutMillis) {
+            if (totalTimeoutMillis < 0) {
+                throw new IllegalArgumentException("Total timeout cannot be negative");
+            }
+            this.totalTimeoutMillis = totalTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * Sets whether a Retry-After header replaces the computed backoff; when it asks for longer than maxDelayMillis
+         * the call is not retried and the error, carrying the Retry-After, goes back to the caller
+         * 设置是否使用Retry-After头代替计算出的退避时间；要求的等待超过maxDelayMillis时不再重试，
+         * 携带Retry-After的错误直接返回给调用方
+         * @param respectRetryAfter true to honour Retry-After / 为true时遵循Retry-After
+         */
+        public Builder respectRetryAfter(boolean respectRetryAfter) {
+            this.respectRetryAfter = respectRetryAfter;
+            return this;
+        }
+
+        /**
+         * Sets the HTTP status codes that are retried
+         * 设置可重试的HTTP状态码
+         * @param statusCodes retryable status codes / 可重试的状态码
+         */
+        public Builder retryableStatusCodes(Integer... statusCodes) {
+            this.retryableStatusCodes = new HashSet<>(Arrays.asList(statusCodes));
+            return this;
+        }
+
+        /**
+         * Sets the ErrorResponse codes that are retried
+         * 设置可重试的错误码
+         * @param errorCodes retryable error codes / 可重试的错误码
+         */
+        public Builder retryableErrorCodes(String... errorCodes) {
+            this.retryableErrorCodes = new HashSet<>(Arrays.asList(errorCodes));
+            return this;
+        }
+
+        /**
+         * Sets the ErrorResponse types that are retried
+         * 设置可重试的错误类型
+         * @param errorTypes retryable error types / 可重试的错误类型
+         */
+        public Builder retryableErrorTypes(String... errorTypes) {
+            this.retryableErrorTypes = new HashSet<>(Arrays.asList(errorTypes));
+            return this;
+        }
+
+        /**
+         * Sets ErrorResponse codes that are never retried, even with a retryable status such as 429
+         * 设置不可重试的错误码，即使状态码可重试（如429）也不会重试
+         * @param errorCodes non-retryable error codes / 不可重试的错误码
+         */
+        public Builder nonRetryableErrorCodes(String... errorCodes) {
+            this.nonRetryableErrorCodes = new HashSet<>(Arrays.asList(errorCodes));
+            return this;
+        }
+
+        /**
+         * Sets the I/O exception types that are retried
+         * 设置可重试的IO异常类型
+         * @param exceptions retryable exception types / 可重试的异常类型
+         */
+        @SafeVarargs
+        public final Builder retryableExceptions(Class<? extends IOException>... exceptions) {
+            this.retryableExceptions = exceptions.clone();
+            return this;
+        }
+
+        /**
+         * Builds the RetryPolicy instance
+         * 构建RetryPolicy实例
+         * @throws IllegalArgumentException if maxDelay is smaller than baseDelay / 如果最大退避时间小于初始退避时间则抛出异常
+         */
+        public RetryPolicy build() {
+            if (maxDelayMillis < baseDelayMillis) {
+                throw new IllegalArgumentException("Max delay must not be smaller than base delay");
+            }
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package tech.infantai.deepseek_sdk.conversation;
+
+import org.apache.commons.lang3.StringUtils;
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.model.Message;
+import tech.infantai.deepseek_sdk.service.AbstractAIService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 多轮对话会话，保持请求前缀稳定以命中服务端的前缀缓存
+ * A multi-turn conversation that keeps the request prefix stable so the server-side prefix cache is hit
+ *
+ * DeepSeek等提供商会缓存与之前请求相同的前缀，命中部分的延迟和费用都更低。只要前缀有一个字节不同，
+ * 之后的内容就全部无法命中。本类因此保证：系统提示固定在第一条且不可修改；消息只追加，不重排、不修改；
+ * 每次请求按同样的顺序序列化同样的消息对象；模型和采样参数在会话内保持不变。
+ * Providers such as DeepSeek cache prompt prefixes shared with earlier requests, and the cached part is cheaper and
+ * faster. A single differing byte invalidates everything after it, so this class guarantees that the system prompt
+ * is fixed in first position, messages are only ever appended (never reordered or edited), the same message objects
+ * are serialized in the same order on every request, and model and sampling parameters stay fixed for the session.
+ *
+ * 默认保留全部历史。长会话可以配置ConversationMemory把历史限制在token预算内，每轮开始前按需压缩；
+ * 每次裁剪都会改变前缀，之后的若干轮重新命中缓存。
+ * By default the whole history is kept. Long sessions can bound it with a ConversationMemory, compacted as needed
+ * before each turn; every cut changes the prefix once, and the following turns hit the cache again.
+ *
+ * 会话中的轮次必须依次进行；上一轮完成前发起新一轮会抛出IllegalStateException
+ * Turns are sequential; starting one while another is in flight throws IllegalStateException
+ */
+public class Conversation {
+    private final AbstractAIService service;
+    private final String model;
+    private final Double temperature;
+    private final Integer maxTokens;
+    private final List<Message> messages = new ArrayList<>();
+    private final ConversationMemory memory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean turnInFlight = new AtomicBoolean();
+    private final AtomicLong turns = new AtomicLong();
+    private final AtomicLong promptTokens = new AtomicLong();
+    private final AtomicLong cacheHitTokens = new AtomicLong();
+    private final AtomicLong cacheMissTokens = new AtomicLong();
+
+    private Conversation(Builder builder) {
+        this.service = builder.service;
+        this.model = builder.model;
+        this.temperature = builder.temperature;
+        this.maxTokens = builder.maxTokens;
+        this.memory = builder.memory;
+        if (memory != null) {
+            if (builder.systemPrompt != null) {
+                memory.pin(new Message("system", builder.systemPrompt));
+            }
+            builder.history.forEach(memory::add);
+            return;
+        }
+        if (builder.systemPrompt != null) {
+            messages.add(new Message("system", builder.systemPrompt));
+        }
+        messages.addAll(builder.history);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 发送一条用户消息，成功后把用户消息和回复追加到会话中
+     * Send a user message; on success both it and the reply are appended to the conversation
+     *
+     * 请求失败时会话保持不变，可以直接重试
+     * On failure the conversation is left unchanged, so the turn can simply be retried
+     *
+     * @param userMessage 用户消息
+     *                    The user message
+     * @return ChatResponse
+     * @throws IOException 如果API调用失败
+     *                     if the API call fails
+     */
+    public ChatResponse send(String userMessage) throws IOException {
+        Message message = new Message("user", userMessage);
+        beginTurn();
+        try {
+            if (memory != null) {
+                memory.compact();
+            }
+            ChatResponse response = service.chat(buildRequest(message));
+            completeTurn(message, response);
+            return response;
+        } finally {
+            turnInFlight.set(false);
+        }
+    }
+
+    /**
+     * 异步发送一条用户消息
+     * Send a user message asynchronously
+     *
+     * @param userMessage 用户消息
+     *                    The user message
+     * @return 可取消的CompletableFuture，取消后会话保持不变
+     *         A cancellable future; the conversation is left unchanged when cancelled
+     */
+    public CompletableFuture<ChatResponse> sendAsync(String userMessage) {
+        Message message = new Message("user", userMessage);
+        beginTurn();
+        CompletableFuture<ChatResponse> call;
+        try {
+            call = memory == null ? service.chatAsync(buildRequest(message)) : chatAfterCompaction(message);
+        } catch (RuntimeException e) {
+            turnInFlight.set(false);
+            throw e;
+        }
+        // 会话状态更新完成后才完成返回的Future，调用方可以在回调中直接发起下一轮
+        CompletableFuture<ChatResponse> result = new CompletableFuture<ChatResponse>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                call.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        call.whenComplete((response, failure) -> {
+            try {
+                if (failure == null) {
+                    completeTurn(message, response);
+                }
+            } finally {
+                turnInFlight.set(false);
+            }
+            if (failure != null) {
+                result.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure);
+            } else {
+                result.complete(response);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 追加一条消息，例如从存储中恢复的历史或工具调用的结果
+     * Append a message, e.g. restored history or a tool result
+     *
+     * @param message 消息
+     *                The message
+     */
+    public void append(Message message) {
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+        beginTurn();
+        lock.lock();
+        try {
+            if (memory != null) {
+                memory.add(message);
+            } else {
+                messages.add(message);
+            }
+        } finally {
+            lock.unlock();
+            turnInFlight.set(false);
+        }
+    }
+
+    /**
+     * 获取当前的消息列表（只读副本）
+     * Get the current messages as a read-only snapshot
+     */
+    public List<Message> getMessages() {
+        if (memory != null) {
+            return memory.getMessages();
+        }
+        lock.lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(messages));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 已完成的轮次
+     * Number of completed turns
+     */
+    public long getTurns() {
+        return turns.get();
+    }
+
+    /**
+     * 累计的输入token数
+     * Cumulative prompt tokens
+     */
+    public long getPromptTokens() {
+        return promptTokens.get();
+    }
+
+    /**
+     * 累计命中前缀缓存的输入token数
+     * Cumulative prompt tokens served from the prefix cache
+     */
+    public long getCacheHitTokens() {
+        return cacheHitTokens.get();
+    }
+
+    /**
+     * 累计未命中前缀缓存的输入token数
+     * Cumulative prompt tokens that missed the prefix cache
+     */
+    public long getCacheMissTokens() {
+        return cacheMissTokens.get();
+    }
+
+    /**
+     * 会话的前缀缓存命中率，尚无用量数据时为0
+     * Prefix cache hit ratio of the session, 0 until usage has been reported
+     */
+    public double getCacheHitRatio() {
+        long hit = cacheHitTokens.get();
+        long total = hit + cacheMissTokens.get();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    private void beginTurn() {
+        if (!turnInFlight.compareAndSet(false, true)) {
+            throw new IllegalStateException("Another turn of this conversation is still in progress");
+        }
+    }
+
+    /**
+     * 先异步压缩历史，再发起本轮调用；取消返回的Future会取消正在进行的一步
+     * Compact the history asynchronously, then start the turn; cancelling the returned future cancels whichever
+     * step is in flight
+     */
+    private CompletableFuture<ChatResponse> chatAfterCompaction(Message userMessage) {
+        CompletableFuture<Void> compaction = memory.compactAsync();
+        if (compaction.isDone()) {
+            return service.chatAsync(buildRequest(userMessage));
+        }
+        AtomicReference<CompletableFuture<ChatResponse>> chat = new AtomicReference<>();
+        CompletableFuture<ChatResponse> result = new CompletableFuture<ChatResponse>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                compaction.cancel(mayInterruptIfRunning);
+                CompletableFuture<ChatResponse> inFlight = chat.get();
+                if (inFlight != null) {
+                    inFlight.cancel(mayInterruptIfRunning);
+                }
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        compaction.whenComplete((ignored, failure) -> {
+            if (result.isDone()) {
+                return;
+            }
+            CompletableFuture<ChatResponse> inFlight;
+            try {
+                inFlight = service.chatAsync(buildRequest(userMessage));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            chat.set(inFlight);
+            if (result.isCancelled()) {
+                inFlight.cancel(true);
+                return;
+            }
+            inFlight.whenComplete((response, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(response);
+                }
+            });
+        });
+        return result;
+    }
+
+    private ChatRequest buildRequest(Message userMessage) {
+        List<Message> prompt;
+        if (memory != null) {
+            List<Message> history = memory.getMessages();
+            prompt = new ArrayList<>(history.size() + 1);
+            prompt.addAll(history);
+        } else {
+            lock.lock();
+            try {
+                prompt = new ArrayList<>(messages.size() + 1);
+                prompt.addAll(messages);
+            } finally {
+                lock.unlock();
+            }
+        }
+        prompt.add(userMessage);
+        ChatRequest.Builder builder = ChatRequest.builder()
+                .messages(prompt)
+                .temperature(temperature)
+                .maxTokens(maxTokens);
+        if (model != null) {
+            builder.model(model);
+        }
+        return builder.build();
+    }
+
+    private void completeTurn(Message userMessage, ChatResponse response) {
+        if (response == null || !response.isSuccess() || StringUtils.isBlank(response.getContent())) {
+            return;
+        }
+        // 只追加回复的正文，保证下一轮的前缀与服务端看到的完全一致
+        lock.lock();
+        try {
+            if (memory != null) {
+                memory.add(userMessage);
+                memory.add(new Message("assistant", response.getContent()));
+            } else {
+                messages.add(userMessage);
+                messages.add(new Message("assistant", response.getContent()));
+            }
+        } finally {
+            lock.unlock();
+        }
+        turns.incrementAndGet();
+        recordUsage(response.getRawResponse() == null ? null : response.getRawResponse().getUsage());
+    }
+
+    /**
+     * DeepSeek返回prompt_cache_hit_tokens/prompt_cache_miss_tokens，OpenAI返回prompt_tokens_details.cached_tokens
+     * DeepSeek reports prompt_cache_hit/miss_tokens while OpenAI reports prompt_tokens_details.cached_tokens
+     */
+    private void recordUsage(ChatCompletionResponse.Usage usage) {
+        if (usage == null) {
+            return;
+        }
+        long prompt = usage.getPromptTokens() == null ? 0 : usage.getPromptTokens();
+        long hit;
+        if (usage.getPromptCacheHitTokens() != null) {
+            hit = usage.getPromptCacheHitTokens();
+        } else if (usage.getPromptTokensDetails() != null && usage.getPromptTokensDetails().getCachedTokens() != null) {
+            hit = usage.getPromptTokensDetails().getCachedTokens();
+        } else {
+            hit = 0;
+        }
+        long miss = usage.getPromptCacheMissTokens() != null ? usage.getPromptCacheMissTokens() : Math.max(0, prompt - hit);
+        promptTokens.addAndGet(prompt);
+        cacheHitTokens.addAndGet(hit);
+        cacheMissTokens.addAndGet(miss);
+    }
+
+    /**
+     * Builder class for Conversation
+     * Conversation的构建器类
+     */
+    public static class Builder {
+        private AbstractAIService service;
+        private String systemPrompt;
+        private String model;                 // Null uses the service's configured model / 为null时使用服务配置的模型
+        private Double temperature;           // Fixed for the whole session / 在整个会话中保持不变
+        private Integer maxTokens;            // Fixed for the whole session / 在整个会话中保持不变
+        private final List<Message> history = new ArrayList<>();
+        private ConversationMemory memory;    // Null keeps the whole history / 为null时保留全部历史
+
+        /**
+         * Sets the service used for every turn
+         * 设置每一轮使用的服务
+         * @param service The chat service / 聊天服务
+         * @throws IllegalArgumentException if service is null / 如果服务为空则抛出异常
+         */
+        public Builder service(AbstractAIService service) {
+            if (service == null) {
+                throw new IllegalArgumentException("Service cannot be null");
+            }
+            this.service = service;
+            return this;
+        }
+
+        /**
+         * Sets the system prompt, which stays the first message for the whole session
+         * 设置系统提示，在整个会话中始终是第一条消息
+         * @param systemPrompt The system prompt / 系统提示
+         * @throws IllegalArgumentException if systemPrompt is null or empty / 如果系统提示为空则抛出异常
+         */
+        public Builder systemPrompt(String systemPrompt) {
+            if (StringUtils.isBlank(systemPrompt)) {
+                throw new IllegalArgumentException("System prompt cannot be null or empty");
+            }
+            this.systemPrompt = systemPrompt;
+            return this;
+        }
+
+        /**
+         * Sets the model for the session
+         * 设置会话使用的模型
+         * @param model The model name / 模型名称
+         * @throws IllegalArgumentException if model is null or empty / 如果模型为空则抛出异常
+         */
+        public Builder model(String model) {
+            if (StringUtils.isBlank(model)) {
+                throw new IllegalArgumentException("Model cannot be null or empty");
+            }
+            this.model = model;
+            return this;
+        }
+
+        /**
+         * Sets the temperature for the session
+         * 设置会话的温度参数
+         * @param temperature The temperature value / 温度值
+         */
+        public Builder temperature(Double temperature) {
+            this.temperature = temperature;
+            return this;
+        }
+
+        /**
+         * Sets the maximum tokens per reply
+         * 设置每次回复的最大标记数
+         * @param maxTokens The maximum number of tokens / 最大标记数
+         * @throws IllegalArgumentException if maxTokens is less than or equal to 0 / 如果最大标记数小于等于0则抛出异常
+         */
+        public Builder maxTokens(Integer maxTokens) {
+            if (maxTokens != null && maxTokens <= 0) {
+                throw new IllegalArgumentException("Max tokens must be greater than 0");
+            }
+            this.maxTokens = maxTokens;
+            return this;
+        }
+
+        /**
+         * Restores earlier messages after the system prompt, e.g. a saved session
+         * 在系统提示之后恢复之前的消息，例如保存的会话
+         * @param messages The earlier messages in order / 按顺序排列的历史消息
+         * @throws IllegalArgumentException if messages is null / 如果消息列表为空则抛出异常
+         */
+        public Builder history(List<Message> messages) {
+            if (messages == null) {
+                throw new IllegalArgumentException("Messages cannot be null");
+            }
+            this.history.addAll(messages);
+            return this;
+        }
+
+        /**
+         * Bounds the history with a token budget
+         * 使用token预算限制历史
+         * @param memory The memory holding the history; not to be shared between conversations / 保存历史的记忆，不可在会话之间共用
+         * @throws IllegalArgumentException if memory is null / 如果记忆为空则抛出异常
+         */
+        public Builder memory(ConversationMemory memory) {
+            if (memory == null) {
+                throw new IllegalArgumentException("Memory cannot be null");
+            }
+            this.memory = memory;
+            return this;
+        }
+
+        /**
+         * Builds the Conversation instance
+         * 构建Conversation实例
+         * @throws IllegalArgumentException if required parameters are missing / 如果缺少必要参数则抛出异常
+         */
+        public Conversation build() {
+            if (service == null) {
+                throw new IllegalArgumentException("Service must be set");
+            }
+            return new Conversation(this);
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package tech.infantai.deepseek_sdk.conversation;
+
+import org.apache.commons.lang3.StringUtils;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.model.Message;
+import tech.infantai.deepseek_sdk.service.AbstractAIService;
+import tech.infantai.deepseek_sdk.tokenizer.CharacterTokenEstimator;
+import tech.infantai.deepseek_sdk.tokenizer.TokenEstimator;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按token预算保存的对话历史
+ * Conversation history held within a token budget
+ *
+ * 固定消息（如系统提示）始终保留在最前面。历史超过maxTokens时，最早的轮次被移出，直到降到targetTokens以下：
+ * 未配置摘要服务时直接丢弃（滑动窗口），配置后由该服务把它们连同之前的摘要压缩为一条摘要消息。
+ * 一次移出到targetTokens而不是刚好低于maxTokens，使请求前缀在多轮之间保持不变，仍能命中服务端的前缀缓存。
+ * Pinned messages such as the system prompt always stay first. Once the history exceeds maxTokens the oldest turns
+ * are moved out until it is back under targetTokens: dropped outright (sliding window) when no summarizer is set,
+ * otherwise compacted by the summarizer, together with any earlier summary, into a single summary message.
+ * Evicting down to targetTokens rather than just below maxTokens keeps the request prefix unchanged for several
+ * turns in a row, so the server-side prefix cache keeps hitting.
+ *
+ * 每条消息的token数在加入时估算一次并缓存，不会在每轮请求时重新计算
+ * Each message is estimated once when added; nothing is recounted on later turns
+ */
+public class ConversationMemory {
+    private static final String SUMMARY_PREFIX = "Summary of the earlier conversation:\n";
+
+    private final int maxTokens;
+    private final int targetTokens;
+    private final TokenEstimator tokenEstimator;
+    private final AbstractAIService summarizer;
+    private final String summaryPrompt;
+    private final int summaryMaxTokens;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Entry> pinned = new ArrayList<>();
+    private final List<Entry> window = new ArrayList<>();
+    private Entry summary;
+    private int tokens;
+    private long totalTokens;
+    private boolean compacting;
+    private long evictedMessages;
+    private long evictedTokens;
+    private long summaries;
+    private long summarizedTokens;
+    private long summaryTokens;
+    private long summaryFailures;
+
+    private ConversationMemory(Builder builder) {
+        this.maxTokens = builder.maxTokens;
+        this.targetTokens = builder.targetTokens > 0 ? builder.targetTokens : builder.maxTokens * 3 / 4;
+        this.tokenEstimator = builder.tokenEstimator;
+        this.summarizer = builder.summarizer;
+        this.summaryPrompt = builder.summaryPrompt;
+        this.summaryMaxTokens = builder.summaryMaxTokens;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 添加一条固定消息，永远不会被移出
+     * Add a pinned message, which is never moved out
+     *
+     * @param message 消息，通常是系统提示
+     *                The message, usually the system prompt
+     */
+    public void pin(Message message) {
+        Entry entry = newEntry(message);
+        lock.lock();
+        try {
+            pinned.add(entry);
+            tokens += entry.tokens;
+            totalTokens += entry.tokens;
+            evictIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 追加一条消息；未配置摘要服务时超出预算的部分立即按滑动窗口丢弃
+     * Append a message; without a summarizer, anything over budget is dropped at once by the sliding window
+     *
+     * @param message 消息
+     *                The message
+     */
+    public void add(Message message) {
+        Entry entry = newEntry(message);
+        lock.lock();
+        try {
+            window.add(entry);
+            tokens += entry.tokens;
+            totalTokens += entry.tokens;
+            evictIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前保留的消息：固定消息、摘要（如有）、最近的轮次（只读副本）
+     * The retained messages: pinned ones, the summary if any, then the recent turns (read-only snapshot)
+     */
+    public List<Message> getMessages() {
+        lock.lock();
+        try {
+            List<Message> messages = new ArrayList<>(pinned.size() + window.size() + 1);
+            for (Entry entry : pinned) {
+                messages.add(entry.message);
+            }
+            if (summary != null) {
+                messages.add(summary.message);
+            }
+            for (Entry entry : window) {
+                messages.add(entry.message);
+            }
+            return Collections.unmodifiableList(messages);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前保留的token数（估算）
+     * Estimated tokens currently retained
+     */
+    public int getTokenCount() {
+        lock.lock();
+        try {
+            return tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 是否需要调用摘要服务压缩历史
+     * Whether the history is over budget and waiting for the summarizer
+     */
+    public boolean needsCompaction() {
+        lock.lock();
+        try {
+            return summarizer != null && !compacting && tokens > maxTokens && victimCount() > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 在调用线程上用摘要服务压缩历史，不需要时立即返回
+     * Compact the history with the summarizer on the calling thread; returns at once when nothing needs doing
+     *
+     * 摘要失败时改为直接丢弃最早的轮次，保证历史回到预算之内
+     * If summarization fails the oldest turns are dropped instead, so the history is back within budget either way
+     */
+    public void compact() {
+        List<Entry> victims = beginCompaction();
+        if (victims == null) {
+            return;
+        }
+        ChatResponse response = null;
+        try {
+            response = summarizer.chat(summaryRequest(victims));
+        } catch (InterruptedIOException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            // 按失败处理，见finishCompaction
+        }
+        finishCompaction(victims, response);
+    }
+
+    /**
+     * 异步压缩历史，不需要时返回已完成的Future
+     * Compact the history asynchronously; returns a completed future when nothing needs doing
+     *
+     * @return 压缩完成（包括失败后改为丢弃）时完成的Future，取消会取消摘要请求并保持历史不变
+     *         A future completed once compaction, or the fallback after a failure, is done. Cancelling it cancels
+     *         the summary call and leaves the history unchanged
+     */
+    public CompletableFuture<Void> compactAsync() {
+        List<Entry> victims = beginCompaction();
+        if (victims == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<ChatResponse> call;
+        try {
+            call = summarizer.chatAsync(summaryRequest(victims));
+        } catch (RuntimeException e) {
+            finishCompaction(victims, null);
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> done = new CompletableFuture<Void>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                call.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        call.whenComplete((response, failure) -> {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            if (cause instanceof CancellationException) {
+                abortCompaction();
+            } else {
+                finishCompaction(victims, response);
+            }
+            done.complete(null);
+        });
+        return done;
+    }
+
+    /**
+     * 清空历史和摘要，保留固定消息
+     * Clear the history and the summary, keeping pinned messages
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            window.clear();
+            summary = null;
+            tokens = 0;
+            for (Entry entry : pinned) {
+                tokens += entry.tokens;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取统计快照
+     * Get a snapshot of the statistics
+     */
+    public MemoryStats getStats() {
+        lock.lock();
+        try {
+            return new MemoryStats(tokens, totalTokens, evictedMessages, evictedTokens, summaries,
+                    summarizedTokens, summaryTokens, summaryFailures);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry newEntry(Message message) {
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+        return new Entry(message, tokenEstimator.countTokens(Collections.singletonList(message)));
+    }
+
+    /**
+     * 仅滑动窗口模式：超出预算时丢弃最早的轮次（调用方持有锁）
+     * Sliding window only: drop the oldest turns once over budget (caller holds the lock)
+     */
+    private void evictIfNeeded() {
+        if (summarizer != null || tokens <= maxTokens) {
+            return;
+        }
+        drop(victimCount());
+    }
+
+    /**
+     * 需要移出的消息数：从最早的消息开始，直到降到targetTokens以下且剩余部分从一条用户消息开始；
+     * 最后一轮总是保留（调用方持有锁）
+     * How many messages to move out: from the oldest, until the rest is under targetTokens and starts with a user
+     * message. The last turn is always kept (caller holds the lock)
+     */
+    private int victimCount() {
+        int lastTurn = window.size() - 1;
+        while (lastTurn > 0 && !isUser(window.get(lastTurn))) {
+            lastTurn--;
+        }
+        long remaining = tokens;
+        int count = 0;
+        while (count < lastTurn && (remaining > targetTokens || !isUser(window.get(count)))) {
+            remaining -= window.get(count).tokens;
+            count++;
+        }
+        return count;
+    }
+
+    private void drop(int count) {
+        for (int i = 0; i < count; i++) {
+            Entry entry = window.remove(0);
+            tokens -= entry.tokens;
+            evictedMessages++;
+            evictedTokens += entry.tokens;
+        }
+    }
+
+    private List<Entry> beginCompaction() {
+        lock.lock();
+        try {
+            if (summarizer == null || compacting || tokens <= maxTokens) {
+                return null;
+            }
+            int count = victimCount();
+            if (count == 0) {
+                return null;
+            }
+            compacting = true;
+            List<Entry> victims = new ArrayList<>(count + 1);
+            if (summary != null) {
+                victims.add(summary);
+            }
+            victims.addAll(window.subList(0, count));
+            return victims;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void abortCompaction() {
+        lock.lock();
+        try {
+            compacting = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 用摘要替换被移出的消息；response不成功时改为直接丢弃
+     * Replace the moved-out messages with the summary, or drop them when the response is unusable
+     */
+    private void finishCompaction(List<Entry> victims, ChatResponse response) {
+        lock.lock();
+        try {
+            compacting = false;
+            Entry previous = victims.get(0) == summary ? summary : null;
+            int count = previous == null ? victims.size() : victims.size() - 1;
+            // 压缩期间历史被清空时放弃本次结果
+            if (window.size() < count || (count > 0 && window.get(0) != victims.get(victims.size() - count))) {
+                return;
+            }
+            if (response == null || !response.isSuccess() || StringUtils.isBlank(response.getContent())) {
+                summaryFailures++;
+                drop(count);
+                return;
+            }
+            int replaced = 0;
+            for (Entry entry : victims) {
+                replaced += entry.tokens;
+            }
+            for (int i = 0; i < count; i++) {
+                window.remove(0);
+            }
+            summary = newEntry(new Message("system", SUMMARY_PREFIX + response.getContent()));
+            tokens += summary.tokens - replaced;
+            summaries++;
+            summarizedTokens += replaced;
+            summaryTokens += summary.tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ChatRequest summaryRequest(List<Entry> victims) {
+        StringBuilder transcript = new StringBuilder();
+        for (Entry entry : victims) {
+            transcript.append(entry.message.getRole()).append(": ").append(entry.message.getContent()).append("\n\n");
+        }
+        return ChatRequest.builder()
+                .messages(Arrays.asList(new Message("system", summaryPrompt),
+                        new Message("user", transcript.toString().trim())))
+                .maxTokens(summaryMaxTokens)
+                .build();
+    }
+
+    private static boolean isUser(Entry entry) {
+        return "user".equals(entry.message.getRole());
+    }
+
+    private static final class Entry {
+        private final Message message;
+        private final int tokens;
+
+        Entry(Message message, int tokens) {
+            this.message = message;
+            this.tokens = tokens;
+        }
+    }
+
+    /**
+     * Builder class for ConversationMemory
+     * ConversationMemory的构建器类
+     */
+    public static class Builder {
+        private int maxTokens;
+        private int targetTokens;                   // Default 3/4 of maxTokens / 默认为maxTokens的3/4
+        private TokenEstimator tokenEstimator = CharacterTokenEstimator.INSTANCE;
+        private AbstractAIService summarizer;       // Null for a plain sliding window / 为null时仅使用滑动窗口
+        private String summaryPrompt = "Summarize the conversation below in a few sentences. Keep names, facts, "
+                + "decisions and open questions; leave out pleasantries.";
+        private int summaryMaxTokens = 512;         // Default 512 tokens / 默认512个token
+
+        /**
+         * Sets the token budget of the history, pinned messages included
+         * 设置历史的token预算，包括固定消息
+         * @param maxTokens The budget / token预算
+         * @throws IllegalArgumentException if maxTokens is less than or equal to 0 / 如果预算小于等于0则抛出异常
+         */
+        public Builder maxTokens(int maxTokens) {
+            if (maxTokens <= 0) {
+                throw new IllegalArgumentException("Max tokens must be greater than 0");
+            }
+            this.maxTokens = maxTokens;
+            return this;
+        }
+
+        /**
+         * Sets how far the history is cut back once it exceeds the budget
+         * 设置超出预算后历史裁剪到的大小
+         * @param targetTokens Tokens left after eviction / 裁剪后保留的token数
+         * @throws IllegalArgumentException if targetTokens is less than or equal to 0 / 如果小于等于0则抛出异常
+         */
+        public Builder targetTokens(int targetTokens) {
+            if (targetTokens <= 0) {
+                throw new IllegalArgumentException("Target tokens must be greater than 0");
+            }
+            this.targetTokens = targetTokens;
+            return this;
+        }
+
+        /**
+         * Sets the estimator used to count message tokens
+         * 设置计算消息token数的估算器
+         * @param tokenEstimator The estimator / 估算器
+         * @throws IllegalArgumentException if tokenEstimator is null / 如果估算器为空则抛出异常
+         */
+        public Builder tokenEstimator(TokenEstimator tokenEstimator) {
+            if (tokenEstimator == null) {
+                throw new IllegalArgumentException("Token estimator cannot be null");
+            }
+            this.tokenEstimator = tokenEstimator;
+            return this;
+        }
+
+        /**
+         * Summarizes evicted turns with the given service instead of dropping them
+         * 使用指定服务为移出的轮次生成摘要，而不是直接丢弃
+         * @param summarizer The chat service, usually the conversation's own / 聊天服务，通常就是会话使用的服务
+         * @throws IllegalArgumentException if summarizer is null / 如果服务为空则抛出异常
+         */
+        public Builder summarizer(AbstractAIService summarizer) {
+            if (summarizer == null) {
+                throw new IllegalArgumentException("Summarizer cannot be null");
+            }
+            this.summarizer = summarizer;
+            return this;
+        }
+
+        /**
+         * Sets the system prompt of summary requests
+         * 设置摘要请求的系统提示
+         * @param summaryPrompt The prompt / 提示
+         * @throws IllegalArgumentException if summaryPrompt is null or empty / 如果提示为空则抛出异常
+         */
+        public Builder summaryPrompt(String summaryPrompt) {
+            if (StringUtils.isBlank(summaryPrompt)) {
+                throw new IllegalArgumentException("Summary prompt cannot be null or empty");
+            }
+            this.summaryPrompt = summaryPrompt;
+            return this;
+        }
+
+        /**
+         * Sets the maximum length of a summary
+         * 设置摘要的最大token数
+         * @param summaryMaxTokens The maximum number of tokens / 最大token数
+         * @throws IllegalArgumentException if summaryMaxTokens is less than or equal to 0 / 如果小于等于0则抛出异常
+         */
+        public Builder summaryMaxTokens(int summaryMaxTokens) {
+            if (summaryMaxTokens <= 0) {
+                throw new IllegalArgumentException("Summary max tokens must be greater than 0");
+            }
+            this.summaryMaxTokens = summaryMaxTokens;
+            return this;
+        }
+
+        /**
+         * Builds the ConversationMemory instance
+         * 构建ConversationMemory实例
+         * @throws IllegalArgumentException if required parameters are missing / 如果缺少必要参数则抛出异常
+         */
+        public ConversationMemory build() {
+            if (maxTokens <= 0) {
+                throw new IllegalArgumentException("Max tokens must be set");
+            }
+            if (targetTokens > maxTokens) {
+                throw new IllegalArgumentException("Target tokens cannot exceed max tokens");
+            }
+            return new ConversationMemory(this);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package tech.infantai.deepseek_sdk.conversation;
+
+/**
+ * 会话记忆的统计快照，token数均为估算值
+ * A snapshot of conversation memory statistics; all token counts are estimates
+ */
+public final class MemoryStats {
+    private final int retainedTokens;
+    private final long totalTokens;
+    private final long evictedMessages;
+    private final long evictedTokens;
+    private final long summaries;
+    private final long summarizedTokens;
+    private final long summaryTokens;
+    private final long summaryFailures;
+
+    MemoryStats(int retainedTokens, long totalTokens, long evictedMessages, long evictedTokens, long summaries,
+                long summarizedTokens, long summaryTokens, long summaryFailures) {
+        this.retainedTokens = retainedTokens;
+        this.totalTokens = totalTokens;
+        this.evictedMessages = evictedMessages;
+        this.evictedTokens = evictedTokens;
+        this.summaries = summaries;
+        this.summarizedTokens = summarizedTokens;
+        this.summaryTokens = summaryTokens;
+        this.summaryFailures = summaryFailures;
+    }
+
+    /**
+     * 当前保留的token数，即下一轮请求携带的历史大小
+     * Tokens currently retained, i.e. the history the next request carries
+     */
+    public int getRetainedTokens() {
+        return retainedTokens;
+    }
+
+    /**
+     * 不做任何裁剪时历史应有的token数
+     * Tokens the history would hold if nothing had been dropped
+     */
+    public long getTotalTokens() {
+        return totalTokens;
+    }
+
+    /**
+     * 被滑动窗口直接丢弃的消息数
+     * Messages dropped outright by the sliding window
+     */
+    public long getEvictedMessages() {
+        return evictedMessages;
+    }
+
+    /**
+     * 滑动窗口节省的token数
+     * Tokens saved by the sliding window
+     */
+    public long getEvictedTokens() {
+        return evictedTokens;
+    }
+
+    /**
+     * 生成摘要的次数
+     * Number of summaries produced
+     */
+    public long getSummaries() {
+        return summaries;
+    }
+
+    /**
+     * 被摘要替换的token数，包括之前的摘要
+     * Tokens replaced by summaries, earlier summaries included
+     */
+    public long getSummarizedTokens() {
+        return summarizedTokens;
+    }
+
+    /**
+     * 生成的摘要本身的token数
+     * Tokens of the summaries produced
+     */
+    public long getSummaryTokens() {
+        return summaryTokens;
+    }
+
+    /**
+     * 摘要节省的token数（被替换的减去摘要本身的）
+     * Tokens saved by summarization: those replaced minus the summaries themselves
+     */
+    public long getSummarySavedTokens() {
+        return Math.max(0, summarizedTokens - summaryTokens);
+    }
+
+    /**
+     * 摘要失败、改为直接丢弃的次数
+     * Times summarization failed and the oldest messages were dropped instead
+     */
+    public long getSummaryFailures() {
+        return summaryFailures;
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryStats{retainedTokens=" + retainedTokens
+                + ", totalTokens=" + totalTokens
+                + ", evictedMessages=" + evictedMessages
+                + ", evictedTokens=" + evictedTokens
+                + ", summaries=" + summaries
+                + ", summarySavedTokens=" + getSummarySavedTokens()
+                + ", summaryFailures=" + summaryFailures + '}';
+    }
+}
@@ -0,0 +1,75 @@
+package tech.infantai.deepseek_sdk.exception;
+
+import tech.infantai.deepseek_sdk.model.ErrorResponse;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * API返回非2xx状态码时抛出，携带状态码、解析后的错误响应和Retry-After
+ * Thrown when the API answers with a non-2xx status; carries the status code, the parsed error body and Retry-After
+ */
+public class ApiException extends IOException {
+    private final int statusCode;
+    private final ErrorResponse errorResponse;
+    private final long retryAfterMillis;
+
+    /**
+     * @param message 异常信息
+     *                The exception message
+     * @param statusCode HTTP状态码
+     *                   The HTTP status code
+     * @param errorResponse 解析后的错误响应，响应体不是错误JSON时为null
+     *                      The parsed error body, or null if the body was not an error JSON
+     * @param retryAfterMillis Retry-After头对应的毫秒数，没有时为-1
+     *                         Retry-After in milliseconds, or -1 if absent
+     */
+    public ApiException(String message, int statusCode, ErrorResponse errorResponse, long retryAfterMillis) {
+        super(message);
+        this.statusCode = statusCode;
+        this.errorResponse = errorResponse;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public ErrorResponse getErrorResponse() {
+        return errorResponse;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * 解析Retry-After头，支持秒数和HTTP日期两种格式
+     * Parse a Retry-After header in either delta-seconds or HTTP-date form
+     *
+     * @param header Retry-After头的值，可为null
+     *               The header value, may be null
+     * @return 毫秒数，无法解析时返回-1
+     *         Milliseconds to wait, or -1 if absent or unparseable
+     */
+    public static long parseRetryAfterMillis(String header) {
+        if (header == null || header.trim().isEmpty()) {
+            return -1;
+        }
+        String value = header.trim();
+        try {
+            return Math.max(0, (long) (Double.parseDouble(value) * 1000));
+        } catch (NumberFormatException ignored) {
+            // 不是秒数，尝试按HTTP日期解析
+        }
+        try {
+            Instant at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return Math.max(0, at.toEpochMilli() - System.currentTimeMillis());
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package tech.infantai.deepseek_sdk.exception;
+
+import java.io.InterruptedIOException;
+
+/**
+ * 请求的截止时间已过、无法再发出请求或重试时抛出
+ * Thrown when a request's deadline has passed before the call, or a retry, could be made
+ *
+ * 调用进行中超时由OkHttp抛出InterruptedIOException("timeout")
+ * A deadline that expires while a call is in flight surfaces as OkHttp's InterruptedIOException("timeout")
+ */
+public class DeadlineExceededException extends InterruptedIOException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,166 @@
+package tech.infantai.deepseek_sdk.hedge;
+
+/**
+ * 对冲请求策略
+ * Hedged request policy
+ *
+ * 请求在对冲延迟内未完成时发出一个副本，先完成者胜出。延迟默认取近期延迟的百分位数，
+ * 样本不足时使用初始延迟；对冲请求数不会超过总请求数的maxHedgeRatio。
+ * When a request has not finished within the hedge delay, a duplicate is sent and whichever finishes first wins.
+ * The delay defaults to a percentile of recent latencies, falling back to the initial delay until enough samples
+ * are collected; hedges never exceed maxHedgeRatio of all requests.
+ */
+public final class HedgePolicy {
+    private final long delayMillis;
+    private final double percentile;
+    private final long initialDelayMillis;
+    private final int minSamples;
+    private final int windowSize;
+    private final double maxHedgeRatio;
+
+    private HedgePolicy(Builder builder) {
+        this.delayMillis = builder.delayMillis;
+        this.percentile = builder.percentile;
+        this.initialDelayMillis = builder.initialDelayMillis;
+        this.minSamples = builder.minSamples;
+        this.windowSize = builder.windowSize;
+        this.maxHedgeRatio = builder.maxHedgeRatio;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public long getDelayMillis() {
+        return delayMillis;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public long getInitialDelayMillis() {
+        return initialDelayMillis;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public double getMaxHedgeRatio() {
+        return maxHedgeRatio;
+    }
+
+    /**
+     * Builder class for HedgePolicy
+     * HedgePolicy的构建器类
+     */
+    public static class Builder {
+        private long delayMillis;               // 0 means percentile-based / 0表示按百分位数计算
+        private double percentile = 95;         // Default latency percentile / 默认延迟百分位数
+        private long initialDelayMillis = 10000; // Delay used until enough samples exist / 样本不足时使用的延迟
+        private int minSamples = 50;            // Samples needed before the percentile is used / 使用百分位数所需的最少样本数
+        private int windowSize = 1000;          // Recent latencies kept / 保留的近期延迟样本数
+        private double maxHedgeRatio = 0.05;    // Default hedge budget: 5% extra requests / 默认对冲预算：额外5%的请求
+
+        /**
+         * Sets a fixed hedge delay instead of a percentile-based one
+         * 设置固定的对冲延迟，代替按百分位数计算
+         * @param delayMillis fixed delay in milliseconds, 0 for percentile-based / 固定延迟（毫秒），0表示按百分位数计算
+         * @throws IllegalArgumentException if the value is negative / 如果值小于0则抛出异常
+         */
+        public Builder delayMillis(long delayMillis) {
+            if (delayMillis < 0) {
+                throw new IllegalArgumentException("Delay cannot be negative");
+            }
+            this.delayMillis = delayMillis;
+            return this;
+        }
+
+        /**
+         * Sets the latency percentile used as the hedge delay
+         * 设置作为对冲延迟的延迟百分位数
+         * @param percentile percentile between 0 (exclusive) and 100 / 0（不含）到100之间的百分位数
+         * @throws IllegalArgumentException if the value is out of range / 如果值超出范围则抛出异常
+         */
+        public Builder percentile(double percentile) {
+            if (percentile <= 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be in (0, 100]");
+            }
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * Sets the delay used until enough latency samples have been collected
+         * 设置样本不足时使用的对冲延迟
+         * @param initialDelayMillis delay in milliseconds / 延迟（毫秒）
+         * @throws IllegalArgumentException if the value is negative / 如果值小于0则抛出异常
+         */
+        public Builder initialDelayMillis(long initialDelayMillis) {
+            if (initialDelayMillis < 0) {
+                throw new IllegalArgumentException("Initial delay cannot be negative");
+            }
+            this.initialDelayMillis = initialDelayMillis;
+            return this;
+        }
+
+        /**
+         * Sets how many samples are needed before the percentile is trusted
+         * 设置使用百分位数所需的最少样本数
+         * @param minSamples minimum samples / 最少样本数
+         * @throws IllegalArgumentException if the value is less than 1 / 如果值小于1则抛出异常
+         */
+        public Builder minSamples(int minSamples) {
+            if (minSamples < 1) {
+                throw new IllegalArgumentException("Min samples must be at least 1");
+            }
+            this.minSamples = minSamples;
+            return this;
+        }
+
+        /**
+         * Sets how many recent latencies are kept for the percentile
+         * 设置计算百分位数时保留的近期样本数
+         * @param windowSize window size / 样本窗口大小
+         * @throws IllegalArgumentException if the value is less than 1 / 如果值小于1则抛出异常
+         */
+        public Builder windowSize(int windowSize) {
+            if (windowSize < 1) {
+                throw new IllegalArgumentException("Window size must be at least 1");
+            }
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Caps hedged requests as a share of all requests
+         * 设置对冲请求占总请求数的上限
+         * @param maxHedgeRatio ratio between 0 and 1 / 0到1之间的比例
+         * @throws IllegalArgumentException if the value is outside [0, 1] / 如果值不在[0, 1]之间则抛出异常
+         */
+        public Builder maxHedgeRatio(double maxHedgeRatio) {
+            if (maxHedgeRatio < 0 || maxHedgeRatio > 1) {
+                throw new IllegalArgumentException("Max hedge ratio must be between 0 and 1");
+            }
+            this.maxHedgeRatio = maxHedgeRatio;
+            return this;
+        }
+
+        /**
+         * Builds the HedgePolicy instance
+         * 构建HedgePolicy实例
+         * @throws IllegalArgumentException if minSamples exceeds windowSize / 如果最少样本数大于窗口大小则抛出异常
+         */
+        public HedgePolicy build() {
+            if (minSamples > windowSize) {
+                throw new IllegalArgumentException("Min samples must not exceed window size");
+            }
+            return new HedgePolicy(this);
+        }
+    }
+}
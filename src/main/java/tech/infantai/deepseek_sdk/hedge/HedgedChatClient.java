@@ -0,0 +1,345 @@
+package tech.infantai.deepseek_sdk.hedge;
+
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.model.Message;
+import tech.infantai.deepseek_sdk.service.AbstractAIService;
+import tech.infantai.deepseek_sdk.util.Deadline;
+import tech.infantai.deepseek_sdk.util.Schedulers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 对冲请求客户端，用于削减长尾延迟
+ * Hedged-request client for cutting tail latency
+ *
+ * 请求先发往primary；如果在对冲延迟内没有完成且预算允许，再向secondary发出一个相同的请求，
+ * 先成功的结果胜出，另一个请求的OkHttp Call会被取消。secondary可以是同一个服务，也可以是另一家提供商，
+ * 例如DeepseekAIService和OpenAIService互为对冲。
+ * A request first goes to the primary service. If it has not finished within the hedge delay and the budget allows,
+ * a duplicate is sent to the secondary; the first successful result wins and the other OkHttp Call is cancelled.
+ * The secondary may be the same service or another provider, e.g. DeepseekAIService hedged by OpenAIService.
+ *
+ * 跨提供商对冲时，请求中不要指定模型，由各服务使用各自配置的默认模型
+ * When hedging across providers leave the model unset so that each service uses its own configured model
+ *
+ * 对冲请求不参与相同请求合并（singleFlight）。secondary默认就是primary，合并会让对冲请求直接加入进行中的主请求，
+ * 既占用对冲预算又不能缩短延迟。主请求照常参与合并。
+ * Hedged duplicates stay out of single-flight coalescing. The secondary defaults to the primary, where coalescing
+ * would simply join the primary call in flight, spending hedge budget without cutting any latency. The primary call
+ * is coalesced as usual.
+ */
+public class HedgedChatClient {
+    private final AbstractAIService primary;
+    private final AbstractAIService secondary;
+    private final HedgePolicy policy;
+    private final LatencyTracker latencyTracker;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    private HedgedChatClient(Builder builder) {
+        this.primary = builder.primary;
+        this.secondary = builder.secondary != null ? builder.secondary : builder.primary;
+        this.policy = builder.policy;
+        this.latencyTracker = new LatencyTracker(builder.policy);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 使用自定义消息列表发起对冲请求
+     * Send a hedged request with a custom message list
+     *
+     * @param messages 消息列表
+     *                 List of messages to send
+     * @return 可取消的CompletableFuture，取消时会取消所有进行中的请求
+     *         A cancellable future; cancelling it cancels every call in flight
+     */
+    public CompletableFuture<ChatResponse> chatWithMessagesAsync(List<Message> messages) {
+        if (messages == null || messages.isEmpty()) {
+            throw new IllegalArgumentException("Messages cannot be null or empty");
+        }
+        // 不指定模型，由各服务使用各自配置的默认模型
+        return execute(ChatRequest.builder().messages(messages).build());
+    }
+
+    /**
+     * 使用调用方构建的请求发起对冲请求
+     * Send a hedged request built by the caller
+     *
+     * @param chatRequest 聊天请求
+     *                    The chat request
+     * @return 可取消的CompletableFuture，取消时会取消所有进行中的请求
+     *         A cancellable future; cancelling it cancels every call in flight
+     */
+    public CompletableFuture<ChatResponse> chatAsync(ChatRequest chatRequest) {
+        if (chatRequest == null) {
+            throw new IllegalArgumentException("ChatRequest cannot be null");
+        }
+        // 总超时换算成一个截止时间，主请求和对冲请求共享，对冲请求不会重新计时
+        return execute(chatRequest.withAbsoluteDeadline());
+    }
+
+    /**
+     * 同步发起对冲请求
+     * Send a hedged request and wait for the result
+     *
+     * @param messages 消息列表
+     *                 List of messages to send
+     * @return ChatResponse
+     * @throws IOException 如果所有请求都失败
+     *                     if every call failed
+     */
+    public ChatResponse chatWithMessages(List<Message> messages) throws IOException {
+        CompletableFuture<ChatResponse> future = chatWithMessagesAsync(messages);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for hedged request");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * 总请求数
+     * Number of requests sent through this client
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * 发出的对冲请求数
+     * Number of hedged duplicates sent
+     */
+    public long getHedgeCount() {
+        return hedges.get();
+    }
+
+    /**
+     * 对冲请求胜出的次数
+     * Number of times the hedged duplicate won
+     */
+    public long getHedgeWinCount() {
+        return hedgeWins.get();
+    }
+
+    private CompletableFuture<ChatResponse> execute(ChatRequest chatRequest) {
+        requests.incrementAndGet();
+        HedgedFuture result = new HedgedFuture();
+        result.launch(primary, chatRequest, false);
+        if (!result.isDone()) {
+            // 发起对冲请求可能在限流器或舱壁上等待，交给launcher执行，不占用定时器线程
+            ScheduledFuture<?> timer = Schedulers.shared().schedule(() -> {
+                try {
+                    Schedulers.launcher().execute(() -> hedge(result, chatRequest));
+                } catch (RejectedExecutionException e) {
+                    // launcher已满，放弃这次对冲，主请求不受影响
+                }
+            }, latencyTracker.delayMillis(), TimeUnit.MILLISECONDS);
+            result.whenComplete((response, failure) -> timer.cancel(false));
+        }
+        return result;
+    }
+
+    /**
+     * 定时器到期后在launcher上发起对冲请求
+     * Send the hedged duplicate on the launcher once the timer fires
+     */
+    private void hedge(HedgedFuture result, ChatRequest chatRequest) {
+        // 截止时间已过时不再对冲，对冲请求只会立即失败
+        Deadline deadline = chatRequest.getDeadline();
+        if (!result.isDone() && (deadline == null || !deadline.isExpired()) && tryAcquireHedge()) {
+            result.launch(secondary, duplicate(chatRequest), true);
+        }
+    }
+
+    /**
+     * 对冲请求的副本，不与进行中的主请求合并
+     * The hedged duplicate, kept from joining the primary call in flight
+     */
+    private static ChatRequest duplicate(ChatRequest chatRequest) {
+        ChatRequest duplicate = chatRequest.copy();
+        duplicate.setSkipSingleFlight(true);
+        return duplicate;
+    }
+
+    /**
+     * 对冲预算：对冲请求数不超过总请求数的maxHedgeRatio
+     * Hedge budget: hedges stay within maxHedgeRatio of all requests
+     */
+    private boolean tryAcquireHedge() {
+        while (true) {
+            long current = hedges.get();
+            if (current + 1 > requests.get() * policy.getMaxHedgeRatio()) {
+                return false;
+            }
+            if (hedges.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 汇总主请求和对冲请求的Future
+     * Future combining the primary call and its hedge
+     */
+    private class HedgedFuture extends CompletableFuture<ChatResponse> {
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicReference<CompletableFuture<ChatResponse>> primaryCall = new AtomicReference<>();
+        private final AtomicReference<CompletableFuture<ChatResponse>> hedgeCall = new AtomicReference<>();
+        private final AtomicReference<Object> firstFailure = new AtomicReference<>();
+
+        void launch(AbstractAIService service, ChatRequest chatRequest, boolean hedge) {
+            outstanding.incrementAndGet();
+            long startNanos = System.nanoTime();
+            CompletableFuture<ChatResponse> future;
+            try {
+                future = service.chatAsync(chatRequest);
+            } catch (RuntimeException e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            (hedge ? hedgeCall : primaryCall).set(future);
+            if (isDone()) {
+                // 对冲请求发出时结果已经确定
+                future.cancel(true);
+                return;
+            }
+            future.whenComplete((response, failure) -> onComplete(response, failure, hedge, startNanos));
+        }
+
+        private void onComplete(ChatResponse response, Throwable failure, boolean hedge, long startNanos) {
+            boolean success = failure == null && response != null && response.isSuccess();
+            if (success) {
+                latencyTracker.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                if (complete(response)) {
+                    if (hedge) {
+                        hedgeWins.incrementAndGet();
+                    }
+                    cancelCall(hedge ? primaryCall : hedgeCall);
+                }
+                return;
+            }
+            if (!(failure instanceof CancellationException)) {
+                // 优先返回主请求的失败
+                Object outcome = failure != null ? failure : response;
+                if (!hedge || firstFailure.get() == null) {
+                    firstFailure.set(outcome);
+                }
+            }
+            if (outstanding.decrementAndGet() == 0 && !isDone()) {
+                Object outcome = firstFailure.get();
+                if (outcome instanceof ChatResponse) {
+                    complete((ChatResponse) outcome);
+                } else if (outcome instanceof Throwable) {
+                    Throwable cause = outcome instanceof CompletionException && ((Throwable) outcome).getCause() != null
+                            ? ((Throwable) outcome).getCause() : (Throwable) outcome;
+                    completeExceptionally(cause);
+                } else {
+                    completeExceptionally(new CancellationException("All hedged calls were cancelled"));
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            cancelCall(primaryCall);
+            cancelCall(hedgeCall);
+            return cancelled;
+        }
+
+        private void cancelCall(AtomicReference<CompletableFuture<ChatResponse>> call) {
+            CompletableFuture<ChatResponse> future = call.get();
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Builder class for HedgedChatClient
+     * HedgedChatClient的构建器类
+     */
+    public static class Builder {
+        private AbstractAIService primary;
+        private AbstractAIService secondary;
+        private HedgePolicy policy = HedgePolicy.builder().build();
+
+        /**
+         * Sets the service every request is sent to first
+         * 设置请求首先发往的服务
+         * @param primary The primary service / 主服务
+         * @throws IllegalArgumentException if primary is null / 如果主服务为空则抛出异常
+         */
+        public Builder primary(AbstractAIService primary) {
+            if (primary == null) {
+                throw new IllegalArgumentException("Primary service cannot be null");
+            }
+            this.primary = primary;
+            return this;
+        }
+
+        /**
+         * Sets the service hedged duplicates go to; defaults to the primary
+         * 设置对冲请求发往的服务，默认与主服务相同
+         * @param secondary The secondary service / 对冲服务
+         */
+        public Builder secondary(AbstractAIService secondary) {
+            this.secondary = secondary;
+            return this;
+        }
+
+        /**
+         * Sets the hedge policy
+         * 设置对冲策略
+         * @param policy The hedge policy / 对冲策略
+         * @throws IllegalArgumentException if policy is null / 如果策略为空则抛出异常
+         */
+        public Builder policy(HedgePolicy policy) {
+            if (policy == null) {
+                throw new IllegalArgumentException("Hedge policy cannot be null");
+            }
+            this.policy = policy;
+            return this;
+        }
+
+        /**
+         * Builds the HedgedChatClient instance
+         * 构建HedgedChatClient实例
+         * @throws IllegalArgumentException if required parameters are missing / 如果缺少必要参数则抛出异常
+         */
+        public HedgedChatClient build() {
+            if (primary == null) {
+                throw new IllegalArgumentException("Primary service must be set");
+            }
+            return new HedgedChatClient(this);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package tech.infantai.deepseek_sdk.hedge;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 记录近期延迟并计算百分位数，用于确定对冲延迟
+ * Keeps recent latencies and derives the hedge delay from a percentile
+ *
+ * 百分位数每收集一定数量的新样本才重新计算一次，读取时没有加锁开销
+ * The percentile is only recomputed after a batch of new samples, so reads are lock-free
+ */
+class LatencyTracker {
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final HedgePolicy policy;
+    private final long[] window;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int next;
+    private int size;
+    private int sinceRecompute;
+    private volatile long delayMillis;
+
+    LatencyTracker(HedgePolicy policy) {
+        this.policy = policy;
+        this.window = new long[policy.getWindowSize()];
+        this.delayMillis = policy.getDelayMillis() > 0 ? policy.getDelayMillis() : policy.getInitialDelayMillis();
+    }
+
+    /**
+     * 记录一次成功请求的延迟
+     * Record the latency of a successful call
+     */
+    void record(long latencyMillis) {
+        if (policy.getDelayMillis() > 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            window[next] = latencyMillis;
+            next = (next + 1) % window.length;
+            if (size < window.length) {
+                size++;
+            }
+            if (size >= policy.getMinSamples() && ++sinceRecompute >= Math.min(RECOMPUTE_EVERY, policy.getMinSamples())) {
+                sinceRecompute = 0;
+                long[] sorted = Arrays.copyOf(window, size);
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(policy.getPercentile() / 100 * size) - 1;
+                delayMillis = sorted[Math.max(0, Math.min(size - 1, index))];
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前的对冲延迟
+     * The current hedge delay
+     */
+    long delayMillis() {
+        return delayMillis;
+    }
+}
@@ -0,0 +1,568 @@
+package tech.infantai.deepseek_sdk.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import tech.infantai.deepseek_sdk.model.ChatCompletionChunk;
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.model.ErrorResponse;
+import tech.infantai.deepseek_sdk.model.Message;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 聊天接口的手写JSON编解码，直接使用Jackson的流式API
+ * Hand-written JSON codec for the chat endpoint, built directly on Jackson's streaming API
+ *
+ * 每次调用都会经过的模型（ChatRequest、ChatCompletionResponse、ChatCompletionChunk、ErrorResponse）在这里
+ * 显式列出snake_case字段名，运行时不使用反射、不生成字节码，也不需要ObjectMapper为每个类型构建序列化器，
+ * 因此首次调用没有预热开销，也适合GraalVM native-image。字段名与Json.MAPPER的输出完全一致，未知字段直接跳过。
+ * The models every call goes through (ChatRequest, ChatCompletionResponse, ChatCompletionChunk, ErrorResponse)
+ * list their snake_case wire names explicitly here: no reflection or bytecode generation at runtime and no
+ * per-type serializers for ObjectMapper to build, so the first call pays no warm-up and the code works under
+ * GraalVM native-image. The wire names match Json.MAPPER's output exactly; unknown fields are skipped.
+ *
+ * 模型新增字段时需要同时更新这里
+ * Fields added to these models must be added here as well
+ */
+public final class ChatCodec {
+    /** 与Json.MAPPER共享缓冲区回收的工厂 / Factory shared with Json.MAPPER, including its buffer recycling */
+    public static final JsonFactory FACTORY = Json.MAPPER.getFactory();
+
+    // 预先编码的字段名，写出时不必每次转义和编码
+    private static final SerializableString MODEL = new SerializedString("model");
+    private static final SerializableString MESSAGES = new SerializedString("messages");
+    private static final SerializableString ROLE = new SerializedString("role");
+    private static final SerializableString CONTENT = new SerializedString("content");
+    private static final SerializableString TEMPERATURE = new SerializedString("temperature");
+    private static final SerializableString MAX_TOKENS = new SerializedString("max_tokens");
+    private static final SerializableString SYSTEM_FINGERPRINT = new SerializedString("system_fingerprint");
+    private static final SerializableString STREAM = new SerializedString("stream");
+    private static final SerializableString STREAM_OPTIONS = new SerializedString("stream_options");
+    private static final SerializableString INCLUDE_USAGE = new SerializedString("include_usage");
+
+    private ChatCodec() {
+    }
+
+    /**
+     * 写出聊天请求，字段顺序与Json.MAPPER相同：模型和消息在前，多轮对话的请求前缀保持稳定
+     * Write a chat request in the same field order as Json.MAPPER: model and messages first, so the request
+     * prefix stays stable across turns
+     *
+     * @param request 聊天请求
+     *                The chat request
+     * @param generator JSON生成器，调用方负责关闭
+     *                  The JSON generator, closed by the caller
+     * @throws IOException 如果写出失败
+     *                     if writing fails
+     */
+    public static void writeRequest(ChatRequest request, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        if (request.getModel() != null) {
+            generator.writeFieldName(MODEL);
+            generator.writeString(request.getModel());
+        }
+        if (request.getMessages() != null) {
+            generator.writeFieldName(MESSAGES);
+            generator.writeStartArray();
+            for (Message message : request.getMessages()) {
+                writeMessage(message, generator);
+            }
+            generator.writeEndArray();
+        }
+        if (request.getTemperature() != null) {
+            generator.writeFieldName(TEMPERATURE);
+            generator.writeNumber(request.getTemperature());
+        }
+        if (request.getMaxTokens() != null) {
+            generator.writeFieldName(MAX_TOKENS);
+            generator.writeNumber(request.getMaxTokens());
+        }
+        if (request.getSystemFingerprint() != null) {
+            generator.writeFieldName(SYSTEM_FINGERPRINT);
+            generator.writeString(request.getSystemFingerprint());
+        }
+        if (request.getStream() != null) {
+            generator.writeFieldName(STREAM);
+            generator.writeBoolean(request.getStream());
+        }
+        if (request.getStreamOptions() != null) {
+            generator.writeFieldName(STREAM_OPTIONS);
+            generator.writeStartObject();
+            if (request.getStreamOptions().getIncludeUsage() != null) {
+                generator.writeFieldName(INCLUDE_USAGE);
+                generator.writeBoolean(request.getStreamOptions().getIncludeUsage());
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeMessage(Message message, JsonGenerator generator) throws IOException {
+        if (message == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        if (message.getRole() != null) {
+            generator.writeFieldName(ROLE);
+            generator.writeString(message.getRole());
+        }
+        if (message.getContent() != null) {
+            generator.writeFieldName(CONTENT);
+            generator.writeString(message.getContent());
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * 读取响应体，正常字段写入completion；响应体是错误时返回ErrorResponse，否则返回null
+     * Read a response body into completion; returns the ErrorResponse if the body is an error, null otherwise
+     *
+     * 正常响应和错误响应一次解析完成，无需先构建JSON树
+     * A completion and an error are told apart in one pass, without building a JSON tree first
+     *
+     * @param parser 位于对象开始处或尚未读取的解析器
+     *               A parser positioned at the start of the object, or not yet advanced
+     * @param completion 接收正常字段的对象
+     *                   Receives the success fields
+     * @return 错误响应，没有error字段时为null
+     *         The error response, null when there is no error field
+     * @throws IOException 如果JSON格式错误
+     *                     if the JSON is malformed
+     */
+    public static ErrorResponse readCompletion(JsonParser parser, ChatCompletionResponse completion) throws IOException {
+        startObject(parser);
+        ErrorResponse.Error error = null;
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "id":
+                    completion.setId(readString(parser));
+                    break;
+                case "object":
+                    completion.setObject(readString(parser));
+                    break;
+                case "created":
+                    completion.setCreated(readLong(parser));
+                    break;
+                case "model":
+                    completion.setModel(readString(parser));
+                    break;
+                case "choices":
+                    completion.setChoices(readChoices(parser));
+                    break;
+                case "usage":
+                    completion.setUsage(readUsage(parser));
+                    break;
+                case "system_fingerprint":
+                    completion.setSystemFingerprint(readString(parser));
+                    break;
+                case "error":
+                    error = readErrorBody(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return toErrorResponse(error);
+    }
+
+    /**
+     * 读取一个SSE事件中的数据块，作用同readCompletion
+     * Read the chunk carried by one SSE event; see readCompletion
+     *
+     * @param parser 位于对象开始处或尚未读取的解析器
+     *               A parser positioned at the start of the object, or not yet advanced
+     * @param chunk 接收正常字段的对象
+     *              Receives the success fields
+     * @return 错误响应，没有error字段时为null
+     *         The error response, null when there is no error field
+     * @throws IOException 如果JSON格式错误
+     *                     if the JSON is malformed
+     */
+    public static ErrorResponse readChunk(JsonParser parser, ChatCompletionChunk chunk) throws IOException {
+        startObject(parser);
+        ErrorResponse.Error error = null;
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "id":
+                    chunk.setId(readString(parser));
+                    break;
+                case "object":
+                    chunk.setObject(readString(parser));
+                    break;
+                case "created":
+                    chunk.setCreated(readLong(parser));
+                    break;
+                case "model":
+                    chunk.setModel(readString(parser));
+                    break;
+                case "choices":
+                    chunk.setChoices(readChunkChoices(parser));
+                    break;
+                case "usage":
+                    chunk.setUsage(readUsage(parser));
+                    break;
+                case "system_fingerprint":
+                    chunk.setSystemFingerprint(readString(parser));
+                    break;
+                case "error":
+                    error = readErrorBody(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return toErrorResponse(error);
+    }
+
+    /**
+     * 读取错误响应体
+     * Read an error response body
+     *
+     * @param parser 位于对象开始处或尚未读取的解析器
+     *               A parser positioned at the start of the object, or not yet advanced
+     * @return 错误响应，没有error字段时为null
+     *         The error response, null when there is no error field
+     * @throws IOException 如果JSON格式错误
+     *                     if the JSON is malformed
+     */
+    public static ErrorResponse readError(JsonParser parser) throws IOException {
+        startObject(parser);
+        ErrorResponse.Error error = null;
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            if ("error".equals(field)) {
+                error = readErrorBody(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return toErrorResponse(error);
+    }
+
+    private static void startObject(JsonParser parser) throws IOException {
+        JsonToken token = parser.hasCurrentToken() ? parser.currentToken() : parser.nextToken();
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a JSON object but found " + token);
+        }
+    }
+
+    private static ErrorResponse toErrorResponse(ErrorResponse.Error error) {
+        if (error == null) {
+            return null;
+        }
+        ErrorResponse errorResponse = new ErrorResponse();
+        errorResponse.setError(error);
+        return errorResponse;
+    }
+
+    private static List<ChatCompletionResponse.Choice> readChoices(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<ChatCompletionResponse.Choice> choices = new ArrayList<>(1);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                choices.add(null);
+                continue;
+            }
+            ChatCompletionResponse.Choice choice = new ChatCompletionResponse.Choice();
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                parser.nextToken();
+                switch (field) {
+                    case "index":
+                        choice.setIndex(readInteger(parser));
+                        break;
+                    case "message":
+                        choice.setMessage(readMessage(parser));
+                        break;
+                    case "logprobs":
+                        choice.setLogprobs(readAny(parser));
+                        break;
+                    case "finish_reason":
+                        choice.setFinishReason(readString(parser));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            choices.add(choice);
+        }
+        return choices;
+    }
+
+    private static List<ChatCompletionChunk.Choice> readChunkChoices(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<ChatCompletionChunk.Choice> choices = new ArrayList<>(1);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                choices.add(null);
+                continue;
+            }
+            ChatCompletionChunk.Choice choice = new ChatCompletionChunk.Choice();
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                parser.nextToken();
+                switch (field) {
+                    case "index":
+                        choice.setIndex(readInteger(parser));
+                        break;
+                    case "delta":
+                        choice.setDelta(readDelta(parser));
+                        break;
+                    case "logprobs":
+                        choice.setLogprobs(readAny(parser));
+                        break;
+                    case "finish_reason":
+                        choice.setFinishReason(readString(parser));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            choices.add(choice);
+        }
+        return choices;
+    }
+
+    /**
+     * 读取一条消息，未知字段跳过，值不是对象时返回null
+     * Read one message, skipping unknown fields; returns null when the value is not an object
+     *
+     * @param parser 位于消息值处的解析器
+     *               A parser positioned at the message value
+     * @return 消息
+     *         The message
+     * @throws IOException 如果JSON格式错误
+     *                     if the JSON is malformed
+     */
+    public static Message readMessage(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String role = null;
+        String content = null;
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "role":
+                    role = readString(parser);
+                    break;
+                case "content":
+                    content = readString(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        // 助手消息的内容可以为空或null，不能走校验参数的构造函数
+        return Message.parsed(role, content);
+    }
+
+    private static ChatCompletionChunk.Delta readDelta(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        ChatCompletionChunk.Delta delta = new ChatCompletionChunk.Delta();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "role":
+                    delta.setRole(readString(parser));
+                    break;
+                case "content":
+                    delta.setContent(readString(parser));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return delta;
+    }
+
+    private static ChatCompletionResponse.Usage readUsage(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        ChatCompletionResponse.Usage usage = new ChatCompletionResponse.Usage();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "prompt_tokens":
+                    usage.setPromptTokens(readInteger(parser));
+                    break;
+                case "completion_tokens":
+                    usage.setCompletionTokens(readInteger(parser));
+                    break;
+                case "total_tokens":
+                    usage.setTotalTokens(readInteger(parser));
+                    break;
+                case "prompt_tokens_details":
+                    usage.setPromptTokensDetails(readPromptTokensDetails(parser));
+                    break;
+                case "prompt_cache_hit_tokens":
+                    usage.setPromptCacheHitTokens(readInteger(parser));
+                    break;
+                case "prompt_cache_miss_tokens":
+                    usage.setPromptCacheMissTokens(readInteger(parser));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return usage;
+    }
+
+    private static ChatCompletionResponse.Usage.PromptTokensDetails readPromptTokensDetails(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        ChatCompletionResponse.Usage.PromptTokensDetails details = new ChatCompletionResponse.Usage.PromptTokensDetails();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            if ("cached_tokens".equals(field)) {
+                details.setCachedTokens(readInteger(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return details;
+    }
+
+    private static ErrorResponse.Error readErrorBody(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        ErrorResponse.Error error = new ErrorResponse.Error();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "message":
+                    error.setMessage(readString(parser));
+                    break;
+                case "type":
+                    error.setType(readString(parser));
+                    break;
+                case "param":
+                    error.setParam(readAny(parser));
+                    break;
+                case "code":
+                    error.setCode(readString(parser));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return error;
+    }
+
+    /**
+     * 读取标量为字符串，数字和布尔值按文本读取（例如数字形式的错误码），对象和数组跳过
+     * Read a scalar as a string; numbers and booleans keep their text (e.g. numeric error codes), objects and
+     * arrays are skipped
+     */
+    private static String readString(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        if (token == JsonToken.VALUE_NULL || !token.isScalarValue()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getText();
+    }
+
+    private static Integer readInteger(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getIntValue();
+        }
+        if (token == JsonToken.VALUE_NULL || !token.isScalarValue()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getValueAsInt();
+    }
+
+    private static Long readLong(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        if (token == JsonToken.VALUE_NULL || !token.isScalarValue()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getValueAsLong();
+    }
+
+    /**
+     * 读取任意JSON值，得到的类型与ObjectMapper读取到Object时相同：Map、List、String、Number、Boolean或null
+     * Read any JSON value into the same types ObjectMapper produces for Object: Map, List, String, Number,
+     * Boolean or null
+     */
+    private static Object readAny(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case START_OBJECT: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                String field;
+                while ((field = parser.nextFieldName()) != null) {
+                    parser.nextToken();
+                    map.put(field, readAny(parser));
+                }
+                return map;
+            }
+            case START_ARRAY: {
+                List<Object> list = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    list.add(readAny(parser));
+                }
+                return list;
+            }
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package tech.infantai.deepseek_sdk.json;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+
+/**
+ * SDK统一使用的JSON配置
+ * The single JSON configuration used throughout the SDK
+ *
+ * 字段名按API的snake_case映射（如maxTokens -> max_tokens），忽略未知字段，不输出null值。
+ * Field names map to the API's snake_case (e.g. maxTokens -> max_tokens), unknown fields are ignored
+ * and null values are omitted.
+ */
+public final class Json {
+    /** 线程安全的共享ObjectMapper / Thread-safe shared ObjectMapper */
+    public static final ObjectMapper MAPPER = new ObjectMapper()
+            .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private Json() {
+    }
+}
@@ -0,0 +1,67 @@
+package tech.infantai.deepseek_sdk.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+
+import java.io.IOException;
+
+/**
+ * 把对象直接序列化到OkHttp输出流的请求体
+ * A request body that serializes an object straight into the OkHttp sink
+ *
+ * 不会先生成完整的String或byte[]：Jackson在线程复用的缓冲区中编码UTF-8，再写入Okio的池化segment，
+ * 因此编码过程的额外内存与对话历史长度无关。请求体长度未知，HTTP/1.1下使用chunked传输。
+ * No intermediate String or byte[] is built: Jackson encodes UTF-8 into its recycled per-thread buffer and
+ * hands it to Okio's pooled segments, so encoding allocates nothing proportional to the conversation history.
+ * The length is unknown up front, so HTTP/1.1 uses chunked transfer encoding.
+ *
+ * 每次writeTo都会重新序列化，OkHttp重试或重定向时可以再次写出
+ * Every writeTo re-serializes the value, so the body can be replayed on OkHttp retries and redirects
+ *
+ * ChatRequest使用ChatCodec编码，其他对象使用Json.MAPPER
+ * A ChatRequest is encoded by ChatCodec, anything else by Json.MAPPER
+ */
+public final class JsonRequestBody extends RequestBody {
+    public static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    /** ObjectWriter线程安全，可以复用；不关闭也不flush底层sink / Thread-safe and reusable; never closes or flushes the sink */
+    private static final ObjectWriter WRITER = Json.MAPPER.writer()
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+
+    private final Object value;
+
+    /**
+     * @param value 要序列化的对象
+     *              The object to serialize
+     */
+    public JsonRequestBody(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null");
+        }
+        this.value = value;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        if (value instanceof ChatRequest) {
+            // 聊天请求走手写编码，不经过ObjectMapper的反射序列化器
+            try (JsonGenerator generator = ChatCodec.FACTORY.createGenerator(sink.outputStream())) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+                ChatCodec.writeRequest((ChatRequest) value, generator);
+            }
+            return;
+        }
+        WRITER.writeValue(sink.outputStream(), value);
+    }
+}
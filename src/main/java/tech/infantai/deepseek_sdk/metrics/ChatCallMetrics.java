@@ -0,0 +1,328 @@
+package tech.infantai.deepseek_sdk.metrics;
+
+import tech.infantai.deepseek_sdk.exception.ApiException;
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+
+/**
+ * 一次聊天调用的度量数据
+ * Measurements of one chat call
+ *
+ * 由SDK在调用过程中填写（网络阶段由MetricsEventListener记录），调用结束后交给ChatInstrumentation。
+ * 重试时各阶段的耗时和字节数会累加，首字节时间取最后一次尝试。只有配置了ChatInstrumentation时才会创建。
+ * Filled in by the SDK while the call runs (network phases by MetricsEventListener) and handed to ChatInstrumentation
+ * when it ends. Across retries phase durations and byte counts accumulate, while time to first byte is taken from the
+ * last attempt. Only created when a ChatInstrumentation is configured.
+ */
+public final class ChatCallMetrics {
+    private final String model;
+    private final boolean streaming;
+    private final long startNanos = System.nanoTime();
+
+    private boolean cacheHit;
+    private int attempts;
+    private int statusCode;
+    private boolean success;
+    private Throwable failure;
+    private long totalNanos;
+    private long timeToFirstByteNanos;
+    private long dnsNanos;
+    private long connectNanos;
+    private long tlsNanos;
+    private long requestBodyNanos;
+    private long parseNanos;
+    private long requestBytes;
+    private long responseBytes;
+    private long uncompressedRequestBytes;
+    private long uncompressedResponseBytes;
+    private boolean requestCompressed;
+    private boolean responseCompressed;
+    private int promptTokens;
+    private int completionTokens;
+    private int cacheHitTokens;
+
+    // 当前尝试中各阶段的开始时间
+    private long attemptStartNanos;
+    private long dnsStartNanos;
+    private long connectStartNanos;
+    private long tlsStartNanos;
+    private long requestBodyStartNanos;
+
+    /**
+     * @param model 请求的模型
+     *              The requested model
+     * @param streaming 是否为流式请求
+     *                  Whether the call is a streaming request
+     */
+    public ChatCallMetrics(String model, boolean streaming) {
+        this.model = model;
+        this.streaming = streaming;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * 是否由响应缓存直接返回，此时没有网络阶段的数据
+     * Whether the response cache served the call, in which case there are no network measurements
+     */
+    public boolean isCacheHit() {
+        return cacheHit;
+    }
+
+    /**
+     * HTTP尝试次数，重试次数为attempts - 1
+     * Number of HTTP attempts; retries are attempts - 1
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public int getRetries() {
+        return Math.max(0, attempts - 1);
+    }
+
+    /**
+     * 最后一次响应的HTTP状态码，没有收到响应时为0
+     * HTTP status of the last response, 0 when none was received
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * 调用抛出的异常，没有时为null
+     * The exception the call failed with, or null
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * 从发起最后一次尝试到收到响应头的时间
+     * Time from starting the last attempt to receiving the response headers
+     */
+    public long getTimeToFirstByteNanos() {
+        return timeToFirstByteNanos;
+    }
+
+    public long getDnsNanos() {
+        return dnsNanos;
+    }
+
+    /**
+     * 建立TCP连接的时间，包括TLS握手；复用连接时为0
+     * Time spent connecting, including the TLS handshake; 0 when a pooled connection was reused
+     */
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    public long getTlsNanos() {
+        return tlsNanos;
+    }
+
+    /**
+     * 写出请求体的时间；请求体在写出时序列化，因此包含序列化时间
+     * Time spent writing the request body; the body is serialized while written, so this includes serialization
+     */
+    public long getRequestBodyNanos() {
+        return requestBodyNanos;
+    }
+
+    /**
+     * 读取并解析响应体的时间；响应是流式解析的，因此包含读取网络数据的时间
+     * Time spent reading and parsing the response body; parsing is streamed, so this includes reading from the network
+     */
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * 实际发送的请求体字节数，压缩时为压缩后的大小
+     * Request body bytes sent on the wire; the compressed size when compression was used
+     */
+    public long getRequestBytes() {
+        return requestBytes;
+    }
+
+    /**
+     * 实际收到的响应体字节数，压缩时为压缩后的大小
+     * Response body bytes received on the wire; the compressed size when the response was compressed
+     */
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * 压缩前的请求体字节数，未压缩时与getRequestBytes()相同
+     * Request body bytes before compression; equal to getRequestBytes() when nothing was compressed
+     */
+    public long getUncompressedRequestBytes() {
+        return uncompressedRequestBytes;
+    }
+
+    /**
+     * 解压后的响应体字节数，未压缩时与getResponseBytes()相同
+     * Response body bytes after decompression; equal to getResponseBytes() when nothing was compressed
+     */
+    public long getUncompressedResponseBytes() {
+        return uncompressedResponseBytes;
+    }
+
+    /**
+     * 请求体是否使用了gzip压缩
+     * Whether the request body was gzip-compressed
+     */
+    public boolean isRequestCompressed() {
+        return requestCompressed;
+    }
+
+    /**
+     * 最后一次响应是否为gzip压缩
+     * Whether the last response was gzip-compressed
+     */
+    public boolean isResponseCompressed() {
+        return responseCompressed;
+    }
+
+    public int getPromptTokens() {
+        return promptTokens;
+    }
+
+    public int getCompletionTokens() {
+        return completionTokens;
+    }
+
+    /**
+     * 命中服务端前缀缓存的输入token数
+     * Prompt tokens served from the provider's prefix cache
+     */
+    public int getCacheHitTokens() {
+        return cacheHitTokens;
+    }
+
+    // ---- 以下方法由SDK在调用过程中通过MetricsEventListener和MetricsRecorder调用 / The methods below are called by the SDK
+    // while the call runs, through MetricsEventListener and MetricsRecorder ----
+
+    void cacheHit() {
+        this.cacheHit = true;
+    }
+
+    void parsed(long nanos) {
+        this.parseNanos += nanos;
+    }
+
+    /**
+     * 记录从压缩响应中解压出的字节数
+     * Record bytes decompressed from a compressed response
+     */
+    void decompressed(long bytes) {
+        this.uncompressedResponseBytes += bytes;
+    }
+
+    void attemptStart() {
+        attempts++;
+        attemptStartNanos = System.nanoTime();
+    }
+
+    void dnsStart() {
+        dnsStartNanos = System.nanoTime();
+    }
+
+    void dnsEnd() {
+        dnsNanos += System.nanoTime() - dnsStartNanos;
+    }
+
+    void connectStart() {
+        connectStartNanos = System.nanoTime();
+    }
+
+    void connectEnd() {
+        connectNanos += System.nanoTime() - connectStartNanos;
+    }
+
+    void tlsStart() {
+        tlsStartNanos = System.nanoTime();
+    }
+
+    void tlsEnd() {
+        tlsNanos += System.nanoTime() - tlsStartNanos;
+    }
+
+    void requestBodyStart() {
+        requestBodyStartNanos = System.nanoTime();
+    }
+
+    /**
+     * @param bytes 写出的字节数
+     *              Bytes written
+     * @param uncompressedBytes 压缩前的字节数，未压缩时为-1
+     *                          Bytes before compression, -1 when not compressed
+     */
+    void requestBodyEnd(long bytes, long uncompressedBytes) {
+        requestBodyNanos += System.nanoTime() - requestBodyStartNanos;
+        requestBytes += bytes;
+        requestCompressed = uncompressedBytes >= 0;
+        uncompressedRequestBytes += requestCompressed ? uncompressedBytes : bytes;
+    }
+
+    void responseHeadersStart() {
+        timeToFirstByteNanos = System.nanoTime() - attemptStartNanos;
+    }
+
+    void responseHeadersEnd(int code, boolean compressed) {
+        statusCode = code;
+        responseCompressed = compressed;
+    }
+
+    void responseBodyEnd(long bytes) {
+        responseBytes += bytes;
+        if (!responseCompressed) {
+            // 压缩的响应由SDK在读取时通过decompressed()计数
+            uncompressedResponseBytes += bytes;
+        }
+    }
+
+    /**
+     * 记录调用结果并结束计时
+     * Record the outcome and stop the clock
+     *
+     * @param response 调用结果，失败时为null
+     *                 The result, null on failure
+     * @param failure 调用抛出的异常，成功时为null
+     *                The exception, null on success
+     */
+    void finish(ChatResponse response, Throwable failure) {
+        this.totalNanos = System.nanoTime() - startNanos;
+        this.failure = failure;
+        this.success = failure == null && response != null && response.isSuccess();
+        if (failure instanceof ApiException && statusCode == 0) {
+            statusCode = ((ApiException) failure).getStatusCode();
+        }
+        ChatCompletionResponse raw = response == null ? null : response.getRawResponse();
+        ChatCompletionResponse.Usage usage = raw == null ? null : raw.getUsage();
+        if (usage != null) {
+            promptTokens = usage.getPromptTokens() == null ? 0 : usage.getPromptTokens();
+            completionTokens = usage.getCompletionTokens() == null ? 0 : usage.getCompletionTokens();
+            if (usage.getPromptCacheHitTokens() != null) {
+                cacheHitTokens = usage.getPromptCacheHitTokens();
+            } else if (usage.getPromptTokensDetails() != null && usage.getPromptTokensDetails().getCachedTokens() != null) {
+                cacheHitTokens = usage.getPromptTokensDetails().getCachedTokens();
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package tech.infantai.deepseek_sdk.metrics;
+
+/**
+ * 聊天调用的度量回调
+ * Instrumentation callback for chat calls
+ *
+ * 通过GPTConfig.Builder#instrumentation启用。未配置时SDK不会创建任何度量对象，也不会安装EventListener，
+ * 热路径上没有额外开销。回调在完成调用的线程上执行，应当尽快返回；抛出的异常会被忽略。
+ * Enabled through GPTConfig.Builder#instrumentation. When none is configured the SDK creates no measurement objects
+ * and installs no EventListener, so the hot path pays nothing. The callback runs on the thread that completes the
+ * call and should return quickly; exceptions it throws are ignored.
+ */
+public interface ChatInstrumentation {
+
+    /**
+     * 一次调用结束（成功、失败或缓存命中）
+     * A call has ended, successfully, with a failure or from the response cache
+     *
+     * @param metrics 本次调用的度量数据
+     *                Measurements of the call
+     */
+    void onCallComplete(ChatCallMetrics metrics);
+}
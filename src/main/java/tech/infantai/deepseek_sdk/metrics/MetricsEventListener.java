@@ -0,0 +1,143 @@
+package tech.infantai.deepseek_sdk.metrics;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import tech.infantai.deepseek_sdk.client.GzipRequestBody;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * 把OkHttp的网络事件（DNS、连接、TLS、请求体、首字节、响应体）记录到请求携带的ChatCallMetrics中
+ * Bridges OkHttp network events (DNS, connect, TLS, request body, first byte, response body) into the
+ * ChatCallMetrics carried as a tag on the request
+ *
+ * 监听器本身无状态，可以在多个客户端之间共享；没有携带ChatCallMetrics的请求会被直接忽略。
+ * 配置了ChatInstrumentation时服务会自动安装它；使用自定义OkHttpClient时也可以手动安装。
+ * The listener is stateless and can be shared between clients; requests without a ChatCallMetrics tag are ignored.
+ * Services install it automatically when a ChatInstrumentation is configured; it can also be installed by hand on a
+ * custom OkHttpClient.
+ */
+public final class MetricsEventListener extends EventListener {
+    public static final MetricsEventListener INSTANCE = new MetricsEventListener();
+
+    private MetricsEventListener() {
+    }
+
+    private static ChatCallMetrics metrics(Call call) {
+        return call.request().tag(ChatCallMetrics.class);
+    }
+
+    @Override
+    public void callStart(Call call) {
+        ChatCallMetrics metrics = metrics(call);
+        if (metrics != null) {
+            metrics.attemptStart();
+        }
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        ChatCallMetrics metrics = metrics(call);
+        if (metrics != null) {
+            metrics.dnsStart();
+        }
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        ChatCallMetrics metrics = metrics(call);
+        if (metrics != null) {
+            metrics.dnsEnd();
+        }
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        ChatCallMetrics metrics = metrics(call);
+        if (metrics != null) {
+            metrics.connectStart();
+        }
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        ChatCallMetrics metrics = metrics(call);
+        if (metrics != null) {
+            metrics.tlsStart();
+        }
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        ChatCallMetrics metrics = metrics(call);
+        if (metrics != null) {
+            metrics.tlsEnd();
+        }
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        ChatCallMetrics metrics = metrics(call);
+        if (metrics != null) {
+            metrics.connectEnd();
+        }
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol, IOException ioe) {
+        ChatCallMetrics metrics = metrics(call);
+        if (metrics != null) {
+            metrics.connectEnd();
+        }
+    }
+
+    @Override
+    public void requestBodyStart(Call call) {
+        ChatCallMetrics metrics = metrics(call);
+        if (metrics != null) {
+            metrics.requestBodyStart();
+        }
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        ChatCallMetrics metrics = metrics(call);
+        if (metrics != null) {
+            RequestBody body = call.request().body();
+            metrics.requestBodyEnd(byteCount, body instanceof GzipRequestBody ? ((GzipRequestBody) body).getUncompressedBytes() : -1);
+        }
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        ChatCallMetrics metrics = metrics(call);
+        if (metrics != null) {
+            metrics.responseHeadersStart();
+        }
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        ChatCallMetrics metrics = metrics(call);
+        if (metrics != null) {
+            // 网络层的响应头，OkHttp透明解压前Content-Encoding仍然存在
+            metrics.responseHeadersEnd(response.code(), "gzip".equalsIgnoreCase(response.header("Content-Encoding")));
+        }
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        ChatCallMetrics metrics = metrics(call);
+        if (metrics != null) {
+            metrics.responseBodyEnd(byteCount);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package tech.infantai.deepseek_sdk.metrics;
+
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+
+/**
+ * SDK内部使用的ChatCallMetrics写入入口，不属于公开API
+ * The SDK's internal entry point for filling in ChatCallMetrics; not part of the public API
+ *
+ * 网络阶段由同一个包中的MetricsEventListener记录，其余阶段由服务通过这里记录，
+ * 这样ChatCallMetrics对ChatInstrumentation来说是只读的。
+ * Network phases are recorded by MetricsEventListener in this package and the rest by the services through this
+ * class, so that ChatCallMetrics stays read-only to a ChatInstrumentation.
+ */
+public final class MetricsRecorder {
+
+    private MetricsRecorder() {
+    }
+
+    /**
+     * 标记调用由响应缓存直接返回
+     * Mark the call as served by the response cache
+     */
+    public static void cacheHit(ChatCallMetrics metrics) {
+        metrics.cacheHit();
+    }
+
+    /**
+     * 累加读取并解析响应体的时间
+     * Add time spent reading and parsing a response body
+     */
+    public static void parsed(ChatCallMetrics metrics, long nanos) {
+        metrics.parsed(nanos);
+    }
+
+    /**
+     * 累加从压缩响应中解压出的字节数
+     * Add bytes decompressed from a compressed response
+     */
+    public static void decompressed(ChatCallMetrics metrics, long bytes) {
+        metrics.decompressed(bytes);
+    }
+
+    /**
+     * 记录调用结果并结束计时
+     * Record the outcome and stop the clock
+     *
+     * @param response 调用结果，失败时为null
+     *                 The result, null on failure
+     * @param failure 调用抛出的异常，成功时为null
+     *                The exception, null on success
+     */
+    public static void finish(ChatCallMetrics metrics, ChatResponse response, Throwable failure) {
+        metrics.finish(response, failure);
+    }
+}
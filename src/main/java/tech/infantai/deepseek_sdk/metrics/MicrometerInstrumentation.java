@@ -0,0 +1,115 @@
+package tech.infantai.deepseek_sdk.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把调用度量发布到Micrometer
+ * Publishes call measurements to Micrometer
+ *
+ * micrometer-core是可选依赖，使用本类时需要自行引入。所有计时器都发布百分位直方图，可以直接计算p99。
+ * 标签：model、status（HTTP状态码，缓存命中为cache，无响应为none）、outcome（success/error）。
+ * micrometer-core is an optional dependency that callers add themselves. Every timer publishes a percentile
+ * histogram, so p99 can be computed directly. Tags: model, status (HTTP status, "cache" for cache hits, "none" when
+ * no response arrived) and outcome (success/error).
+ *
+ * 指标 / Meters:
+ * prefix.calls             总耗时 / total latency
+ * prefix.ttfb              首字节时间 / time to first byte
+ * prefix.dns, .connect, .tls  连接建立各阶段 / connection setup phases
+ * prefix.request.write     请求序列化及写出 / request serialization and write
+ * prefix.response.parse    响应读取及解析 / response read and parse
+ * prefix.request.bytes, prefix.response.bytes  请求和响应的传输大小 / request and response sizes on the wire
+ * prefix.request.bytes.uncompressed, prefix.response.bytes.uncompressed  压缩前的大小 / sizes before compression
+ * prefix.retries           重试次数 / retries
+ * prefix.tokens            token数，type为prompt、completion或cache_hit / tokens, type prompt, completion or cache_hit
+ */
+public class MicrometerInstrumentation implements ChatInstrumentation {
+    private final MeterRegistry registry;
+    private final String prefix;
+
+    /**
+     * 使用默认前缀deepseek.chat
+     * Uses the default prefix "deepseek.chat"
+     *
+     * @param registry Micrometer注册表
+     *                 The Micrometer registry
+     */
+    public MicrometerInstrumentation(MeterRegistry registry) {
+        this(registry, "deepseek.chat");
+    }
+
+    /**
+     * @param registry Micrometer注册表
+     *                 The Micrometer registry
+     * @param prefix 指标名前缀
+     *               Meter name prefix
+     */
+    public MicrometerInstrumentation(MeterRegistry registry, String prefix) {
+        if (registry == null) {
+            throw new IllegalArgumentException("MeterRegistry cannot be null");
+        }
+        if (prefix == null || prefix.isEmpty()) {
+            throw new IllegalArgumentException("Prefix cannot be null or empty");
+        }
+        this.registry = registry;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public void onCallComplete(ChatCallMetrics metrics) {
+        String model = metrics.getModel() == null ? "unknown" : metrics.getModel();
+        String status = metrics.isCacheHit() ? "cache"
+                : metrics.getStatusCode() > 0 ? Integer.toString(metrics.getStatusCode()) : "none";
+        Tags tags = Tags.of("model", model, "status", status, "outcome", metrics.isSuccess() ? "success" : "error");
+
+        timer("calls", tags).record(metrics.getTotalNanos(), TimeUnit.NANOSECONDS);
+        if (!metrics.isCacheHit()) {
+            Tags modelTags = Tags.of("model", model);
+            if (metrics.getTimeToFirstByteNanos() > 0) {
+                timer("ttfb", modelTags).record(metrics.getTimeToFirstByteNanos(), TimeUnit.NANOSECONDS);
+            }
+            recordIfPositive("dns", modelTags, metrics.getDnsNanos());
+            recordIfPositive("connect", modelTags, metrics.getConnectNanos());
+            recordIfPositive("tls", modelTags, metrics.getTlsNanos());
+            recordIfPositive("request.write", modelTags, metrics.getRequestBodyNanos());
+            recordIfPositive("response.parse", modelTags, metrics.getParseNanos());
+            summary("request.bytes", modelTags).record(metrics.getRequestBytes());
+            summary("response.bytes", modelTags).record(metrics.getResponseBytes());
+            summary("request.bytes.uncompressed", modelTags).record(metrics.getUncompressedRequestBytes());
+            summary("response.bytes.uncompressed", modelTags).record(metrics.getUncompressedResponseBytes());
+            if (metrics.getRetries() > 0) {
+                Counter.builder(prefix + ".retries").tags(modelTags).register(registry).increment(metrics.getRetries());
+            }
+            tokens(model, "prompt", metrics.getPromptTokens());
+            tokens(model, "completion", metrics.getCompletionTokens());
+            tokens(model, "cache_hit", metrics.getCacheHitTokens());
+        }
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(prefix + "." + name).tags(tags).publishPercentileHistogram().register(registry);
+    }
+
+    private DistributionSummary summary(String name, Tags tags) {
+        return DistributionSummary.builder(prefix + "." + name).baseUnit("bytes").tags(tags)
+                .publishPercentileHistogram().register(registry);
+    }
+
+    private void recordIfPositive(String name, Tags tags, long nanos) {
+        if (nanos > 0) {
+            timer(name, tags).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void tokens(String model, String type, int count) {
+        if (count > 0) {
+            Counter.builder(prefix + ".tokens").tags("model", model, "type", type).register(registry).increment(count);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package tech.infantai.deepseek_sdk.model;
+
+import java.util.List;
+
+/**
+ * 流式响应中的单个数据块 (object = "chat.completion.chunk")
+ * A single chunk of a streamed chat completion (object = "chat.completion.chunk")
+ */
+public class ChatCompletionChunk {
+    private String id;
+    private String object;
+    private Long created;
+    private String model;
+    private List<Choice> choices;
+    private ChatCompletionResponse.Usage usage;  // 仅在最后一个数据块中出现
+    private String systemFingerprint;
+
+    // 增量选择结果内部类
+    public static class Choice {
+        private Integer index;
+        private Delta delta;
+        private Object logprobs;  // 使用Object因为它可能为null
+        private String finishReason;
+
+        // Getters and Setters
+        public Integer getIndex() {
+            return index;
+        }
+
+        public void setIndex(Integer index) {
+            this.index = index;
+        }
+
+        public Delta getDelta() {
+            return delta;
+        }
+
+        public void setDelta(Delta delta) {
+            this.delta = delta;
+        }
+
+        public Object getLogprobs() {
+            return logprobs;
+        }
+
+        public void setLogprobs(Object logprobs) {
+            this.logprobs = logprobs;
+        }
+
+        public String getFinishReason() {
+            return finishReason;
+        }
+
+        public void setFinishReason(String finishReason) {
+            this.finishReason = finishReason;
+        }
+    }
+
+    // 增量消息内部类，role只在第一个数据块中出现
+    public static class Delta {
+        private String role;
+        private String content;
+
+        public String getRole() {
+            return role;
+        }
+
+        public void setRole(String role) {
+            this.role = role;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public void setContent(String content) {
+            this.content = content;
+        }
+    }
+
+    // Getters and Setters for main class
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getObject() {
+        return object;
+    }
+
+    public void setObject(String object) {
+        this.object = object;
+    }
+
+    public Long getCreated() {
+        return created;
+    }
+
+    public void setCreated(Long created) {
+        this.created = created;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public List<Choice> getChoices() {
+        return choices;
+    }
+
+    public void setChoices(List<Choice> choices) {
+        this.choices = choices;
+    }
+
+    public ChatCompletionResponse.Usage getUsage() {
+        return usage;
+    }
+
+    public void setUsage(ChatCompletionResponse.Usage usage) {
+        this.usage = usage;
+    }
+
+    public String getSystemFingerprint() {
+        return systemFingerprint;
+    }
+
+    public void setSystemFingerprint(String systemFingerprint) {
+        this.systemFingerprint = systemFingerprint;
+    }
+}
@@ -2,8 +2,14 @@ package tech.infantai.deepseek_sdk.model;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import org.apache.commons.lang3.StringUtils;
+import tech.infantai.deepseek_sdk.util.Deadline;
 
+// 消息紧跟在模型之后输出，多轮对话的请求前缀保持稳定
+@JsonPropertyOrder({"model", "messages"})
 public class ChatRequest {
     private String model;
     private List<Message> messages;
@@ -13,6 +19,36 @@ public class ChatRequest {
     private Integer promptCacheMissTokens;
     private String systemFingerprint;
     private Message message;
+    private Boolean stream;
+    private StreamOptions streamOptions;
+    @JsonIgnore
+    private boolean skipCache;
+    @JsonIgnore
+    private boolean skipSingleFlight;
+    @JsonIgnore
+    private long timeoutMillis;
+    @JsonIgnore
+    private Deadline deadline;
+
+    /**
+     * 流式输出选项
+     * Options for streaming responses
+     */
+    public static class StreamOptions {
+        private Boolean includeUsage;
+
+        public StreamOptions(Boolean includeUsage) {
+            this.includeUsage = includeUsage;
+        }
+
+        public Boolean getIncludeUsage() {
+            return includeUsage;
+        }
+
+        public void setIncludeUsage(Boolean includeUsage) {
+            this.includeUsage = includeUsage;
+        }
+    }
 
     public ChatRequest(String model) {
         this.model = model;
@@ -61,18 +97,42 @@ public class ChatRequest {
         this.maxTokens = maxTokens;
     }
 
+    /**
+     * @deprecated 这是响应中的用量字段，不是请求参数，也不会被发送；请使用ChatCompletionResponse.Usage
+     *             This is a usage field of the response, not a request parameter, and is never sent;
+     *             use ChatCompletionResponse.Usage instead
+     */
+    @Deprecated
+    @JsonIgnore
     public Integer getPromptCacheHitTokens() {
         return promptCacheHitTokens;
     }
 
+    /**
+     * @deprecated 见 {@link #getPromptCacheHitTokens()}
+     *             See {@link #getPromptCacheHitTokens()}
+     */
+    @Deprecated
     public void setPromptCacheHitTokens(Integer promptCacheHitTokens) {
         this.promptCacheHitTokens = promptCacheHitTokens;
     }
 
+    /**
+     * @deprecated 这是响应中的用量字段，不是请求参数，也不会被发送；请使用ChatCompletionResponse.Usage
+     *             This is a usage field of the response, not a request parameter, and is never sent;
+     *             use ChatCompletionResponse.Usage instead
+     */
+    @Deprecated
+    @JsonIgnore
     public Integer getPromptCacheMissTokens() {
         return promptCacheMissTokens;
     }
 
+    /**
+     * @deprecated 见 {@link #getPromptCacheMissTokens()}
+     *             See {@link #getPromptCacheMissTokens()}
+     */
+    @Deprecated
     public void setPromptCacheMissTokens(Integer promptCacheMissTokens) {
         this.promptCacheMissTokens = promptCacheMissTokens;
     }
@@ -85,10 +145,151 @@ public class ChatRequest {
         this.systemFingerprint = systemFingerprint;
     }
 
+    @JsonIgnore
     public Message getMessage() {
         return message;
     }
 
+    public Boolean getStream() {
+        return stream;
+    }
+
+    public void setStream(Boolean stream) {
+        this.stream = stream;
+    }
+
+    public StreamOptions getStreamOptions() {
+        return streamOptions;
+    }
+
+    public void setStreamOptions(StreamOptions streamOptions) {
+        this.streamOptions = streamOptions;
+    }
+
+    /**
+     * 是否跳过响应缓存
+     * Whether this request bypasses the response cache
+     */
+    public boolean isSkipCache() {
+        return skipCache;
+    }
+
+    public void setSkipCache(boolean skipCache) {
+        this.skipCache = skipCache;
+    }
+
+    /**
+     * 是否不与相同的进行中请求合并
+     * Whether this request stays out of single-flight coalescing
+     */
+    public boolean isSkipSingleFlight() {
+        return skipSingleFlight;
+    }
+
+    public void setSkipSingleFlight(boolean skipSingleFlight) {
+        this.skipSingleFlight = skipSingleFlight;
+    }
+
+    /**
+     * 本次请求的总超时（毫秒，包括重试），从发起调用时开始计算，0表示不限制
+     * Overall timeout of this request in milliseconds, retries included, counted from when the call starts; 0 for none
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 调用方传入的截止时间，可为null
+     * Deadline passed down by the caller, may be null
+     */
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * 判断是否为流式请求
+     * Whether this request asks for a server-sent-event stream
+     * @return true if stream is enabled / 启用流式输出时返回true
+     */
+    @JsonIgnore
+    public boolean isStreaming() {
+        return Boolean.TRUE.equals(stream);
+    }
+
+    /**
+     * 创建使用指定模型的副本，原请求不受影响
+     * Create a copy of this request that targets another model; this request is left untouched
+     *
+     * @param model 模型名称
+     *              The model name
+     * @return 新的ChatRequest
+     *         A new ChatRequest
+     * @throws IllegalArgumentException if model is null or empty / 如果模型为空则抛出异常
+     */
+    public ChatRequest withModel(String model) {
+        if (StringUtils.isBlank(model)) {
+            throw new IllegalArgumentException("Model cannot be null or empty");
+        }
+        ChatRequest copy = copy();
+        copy.model = model;
+        return copy;
+    }
+
+    /**
+     * 把总超时换算成从现在起的绝对截止时间，原请求不受影响；没有设置总超时时返回自身
+     * Turn the overall timeout into an absolute deadline counted from now, leaving this request untouched;
+     * returns this request when no timeout is set
+     *
+     * 同一个请求会依次或同时发往多个服务时使用，所有尝试共享调用方的一份时间预算，而不是每个服务各自重新计时
+     * For clients that send one request to several services in turn or at once, so every attempt shares the
+     * caller's single budget instead of each service restarting the clock
+     *
+     * @return 带绝对截止时间、不带总超时的ChatRequest
+     *         A ChatRequest carrying an absolute deadline and no timeout
+     */
+    public ChatRequest withAbsoluteDeadline() {
+        if (timeoutMillis <= 0) {
+            return this;
+        }
+        ChatRequest copy = copy();
+        copy.deadline = Deadline.after(timeoutMillis, TimeUnit.MILLISECONDS).min(deadline);
+        copy.timeoutMillis = 0;
+        return copy;
+    }
+
+    /**
+     * 创建副本，原请求不受影响；消息列表被复制，消息对象本身共享
+     * Create a copy of this request, leaving this one untouched; the message list is copied, the messages are shared
+     *
+     * @return 新的ChatRequest
+     *         A new ChatRequest
+     */
+    public ChatRequest copy() {
+        ChatRequest copy = new ChatRequest(model);
+        copy.messages = new ArrayList<>(messages);
+        copy.temperature = temperature;
+        copy.maxTokens = maxTokens;
+        copy.promptCacheHitTokens = promptCacheHitTokens;
+        copy.promptCacheMissTokens = promptCacheMissTokens;
+        copy.systemFingerprint = systemFingerprint;
+        copy.message = message;
+        copy.stream = stream;
+        copy.streamOptions = streamOptions;
+        copy.skipCache = skipCache;
+        copy.skipSingleFlight = skipSingleFlight;
+        copy.timeoutMillis = timeoutMillis;
+        copy.deadline = deadline;
+        return copy;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -100,11 +301,15 @@ public class ChatRequest {
     public static class Builder {
         private String model;
         private Message message;
+        private List<Message> messages;
         private Double temperature;    // Temperature for response generation / 响应生成的温度参数
         private Integer maxTokens;     // Maximum tokens in response / 响应中的最大标记数
-        private Integer promptCacheHitTokens;    // Cache hit tokens / 缓存命中的标记数
-        private Integer promptCacheMissTokens;   // Cache miss tokens / 缓存未命中的标记数
         private String systemFingerprint;        // System fingerprint / 系统指纹
+        private Boolean stream;                  // Stream the response / 是否流式输出
+        private boolean skipCache;               // Bypass the response cache / 是否跳过响应缓存
+        private boolean skipSingleFlight;        // Stay out of coalescing / 是否不参与相同请求合并
+        private long timeoutMillis;              // No per-request timeout by default / 默认不限制单个请求的总时长
+        private Deadline deadline;               // Deadline passed down by the caller / 调用方传入的截止时间
         
         /**
          * Sets the message
@@ -121,8 +326,22 @@ public class ChatRequest {
         }
         
         /**
-         * Sets the model name
-         * 设置模型名称
+         * Sets the full message list, e.g. a multi-turn conversation
+         * 设置完整的消息列表，例如多轮对话
+         * @param messages The messages in order / 按顺序排列的消息
+         * @throws IllegalArgumentException if messages is null or empty / 如果消息列表为空则抛出异常
+         */
+        public Builder messages(List<Message> messages) {
+            if (messages == null || messages.isEmpty()) {
+                throw new IllegalArgumentException("Messages cannot be null or empty");
+            }
+            this.messages = new ArrayList<>(messages);
+            return this;
+        }
+        
+        /**
+         * Sets the model name; when omitted the service falls back to the configured model
+         * 设置模型名称；未设置时由服务使用配置中的默认模型
          * @param model The model name / 模型名称
          * @throws IllegalArgumentException if model is null or empty / 如果模型为空则抛出异常
          */
@@ -158,28 +377,87 @@ public class ChatRequest {
             return this;
         }
         
+        /**
+         * Enables or disables streaming output; streaming requests must be sent with chatStream, chat and chatAsync
+         * reject them
+         * 设置是否流式输出，流式请求需通过chatStream发送，chat和chatAsync会拒绝
+         * @param stream true to receive the response as server-sent events / 为true时以SSE流的形式返回
+         */
+        public Builder stream(Boolean stream) {
+            this.stream = stream;
+            return this;
+        }
+        
+        /**
+         * Bypasses the configured response cache for this request, e.g. when sampling must stay random
+         * 设置本次请求跳过响应缓存，例如需要保持随机采样时
+         * @param skipCache true to neither read nor write the cache / 为true时既不读取也不写入缓存
+         */
+        public Builder skipCache(boolean skipCache) {
+            this.skipCache = skipCache;
+            return this;
+        }
+        
+        /**
+         * Keeps this request out of single-flight coalescing, so it always makes its own upstream call
+         * 设置本次请求不与相同的进行中请求合并，总是单独调用上游接口
+         * @param skipSingleFlight true to never join a call in flight / 为true时不加入进行中的调用
+         */
+        public Builder skipSingleFlight(boolean skipSingleFlight) {
+            this.skipSingleFlight = skipSingleFlight;
+            return this;
+        }
+        
+        /**
+         * Sets the overall timeout of this request, retries included; the call fails once it is used up
+         * 设置本次请求的总超时（包括重试），超时后调用失败
+         * @param timeoutMillis Timeout in milliseconds, 0 for none / 超时（毫秒），0表示不限制
+         */
+        public Builder timeoutMillis(long timeoutMillis) {
+            if (timeoutMillis < 0) {
+                throw new IllegalArgumentException("Timeout cannot be negative");
+            }
+            this.timeoutMillis = timeoutMillis;
+            return this;
+        }
+        
+        /**
+         * Sets a deadline propagated from the caller; combined with timeoutMillis the earlier one wins
+         * 设置调用方传入的截止时间，与timeoutMillis同时设置时以较早者为准
+         * @param deadline The deadline, null for none / 截止时间，为null时不限制
+         */
+        public Builder deadline(Deadline deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+        
         /**
          * Builds the ChatRequest instance
          * 构建ChatRequest实例
          * @throws IllegalArgumentException if required parameters are missing / 如果缺少必要参数则抛出异常
          */
         public ChatRequest build() {
-            if (message == null) {
+            if (message == null && messages == null) {
                 throw new IllegalArgumentException("Message must be set");
             }
-            if (StringUtils.isBlank(model)) {
-                throw new IllegalArgumentException("Model must be set");
-            }
             
             ChatRequest request = new ChatRequest(model);
             request.message = message;
             request.temperature = temperature;
             request.maxTokens = maxTokens;
-            request.promptCacheHitTokens = promptCacheHitTokens;
-            request.promptCacheMissTokens = promptCacheMissTokens;
             request.systemFingerprint = systemFingerprint;
+            request.stream = stream;
+            request.skipCache = skipCache;
+            request.skipSingleFlight = skipSingleFlight;
+            request.timeoutMillis = timeoutMillis;
+            request.deadline = deadline;
             request.messages = new ArrayList<>();
-            request.messages.add(message);
+            if (messages != null) {
+                request.messages.addAll(messages);
+            }
+            if (message != null) {
+                request.messages.add(message);
+            }
             
             return request;
         }
@@ -3,6 +3,28 @@ package tech.infantai.deepseek_sdk.model;
 public class ErrorResponse {
     private Error error;
 
+    /**
+     * 为客户端侧的失败（如网络异常）创建错误响应
+     * Create an error response for a failure raised on the client side, e.g. a network error
+     *
+     * @param message 错误信息
+     *                The error message
+     * @param type 错误类型
+     *             The error type
+     * @param code 错误码
+     *             The error code
+     * @return ErrorResponse
+     */
+    public static ErrorResponse of(String message, String type, String code) {
+        Error error = new Error();
+        error.setMessage(message);
+        error.setType(type);
+        error.setCode(code);
+        ErrorResponse response = new ErrorResponse();
+        response.setError(error);
+        return response;
+    }
+
     public static class Error {
         private String message;
         private String type;
@@ -1,11 +1,17 @@
 package tech.infantai.deepseek_sdk.model;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import org.apache.commons.lang3.StringUtils;
 
+@JsonPropertyOrder({"role", "content"})
 public class Message {
     private String role;
     private String content;
 
+    /** 供JSON反序列化使用 / Used by JSON deserialization */
+    private Message() {
+    }
+
     /**
      * Creates a new Message instance
      * 创建新的Message实例
@@ -24,6 +30,25 @@ public class Message {
         this.content = content;
     }
 
+    /**
+     * 不做校验地创建消息，仅用于解析服务端返回的消息
+     * Creates a message without validation, only for messages decoded from a server response
+     *
+     * 服务端可以合法地返回内容为空、null或只有空白的助手消息，例如finish_reason为length或只有工具调用时，
+     * 这些消息不能因为构造函数的校验而变成解析异常。
+     * The server may legitimately return an assistant message whose content is empty, null or whitespace, for example
+     * with finish_reason=length or tool calls only; such messages must not turn into parse failures.
+     * @param role The role as received, may be null / 服务端返回的角色，可以为null
+     * @param content The content as received, may be null or empty / 服务端返回的内容，可以为null或空
+     * @return The message / 消息
+     */
+    public static Message parsed(String role, String content) {
+        Message message = new Message();
+        message.role = role;
+        message.content = content;
+        return message;
+    }
+
     // Getters and Setters
     public String getRole() {
         return role;
@@ -0,0 +1,24 @@
+package tech.infantai.deepseek_sdk.ratelimit;
+
+import java.io.IOException;
+
+/**
+ * 客户端限流拒绝请求时抛出
+ * Thrown when the client-side rate limiter rejects a request
+ */
+public class RateLimitExceededException extends IOException {
+    private final long retryAfterMillis;
+
+    public RateLimitExceededException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * 预计需要等待多久才能获得配额（毫秒）
+     * How long until quota is expected to be available, in milliseconds
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,90 @@
+package tech.infantai.deepseek_sdk.ratelimit;
+
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.tokenizer.TokenEstimator;
+
+import java.io.IOException;
+
+/**
+ * 客户端限流器，在请求发出前调用
+ * Client-side rate limiter, consulted before every request is sent
+ *
+ * key由API密钥和模型组成，同一key下的所有请求共享配额
+ * The key combines API key and model; all requests with the same key share one quota
+ */
+public interface RateLimiter {
+
+    /**
+     * 为一次请求申请配额
+     * Acquire quota for one request
+     *
+     * @param key 限流键
+     *            The rate limit key
+     * @param request 即将发送的请求
+     *                The request about to be sent
+     * @param maxWaitMillis 调用方最多还能等待的时间，通常是截止时间的剩余部分；实际等待取它与限流器自身上限的较小值
+     *                      The longest the caller can still wait, usually what is left before its deadline; the
+     *                      limiter waits no longer than the smaller of this and its own maximum
+     * @return 预占的token数，需在请求结束后传给release
+     *         The number of tokens reserved, to be passed to release once the call finishes
+     * @throws IOException 如果配额不足且不允许等待或等待时间不够（RateLimitExceededException）
+     *                     if there is no quota and waiting is not allowed or would take too long
+     *                     (RateLimitExceededException)
+     */
+    int acquire(String key, ChatRequest request, long maxWaitMillis) throws IOException;
+
+    /**
+     * 使用服务配置的token估算器为一次请求申请配额；SDK发送请求时调用此方法
+     * Acquire quota for one request, estimating its tokens with the service's configured estimator; this is what
+     * the SDK calls when sending a request
+     *
+     * 默认忽略估算器，自行估算的实现无需覆盖
+     * The default ignores the estimator, so implementations that estimate on their own need not override it
+     *
+     * @param tokenEstimator 服务配置中的token估算器
+     *                       The token estimator from the service's configuration
+     * @see #acquire(String, ChatRequest, long)
+     */
+    default int acquire(String key, ChatRequest request, TokenEstimator tokenEstimator, long maxWaitMillis)
+            throws IOException {
+        return acquire(key, request, maxWaitMillis);
+    }
+
+    /**
+     * 为一次重试计入一次请求，不等待配额
+     * Count one retry against the request quota without waiting for it
+     *
+     * 重试同样是发往上游的请求，应当计入RPM；重试之间已有退避等待，因此这里不阻塞，配额不足时形成欠账。默认不做任何事
+     * A retry is a real upstream request and counts towards RPM. Retries are already spaced out by the backoff,
+     * so this never blocks; when quota is short the bucket goes into debt instead. The default does nothing
+     *
+     * @param key 限流键
+     *            The rate limit key
+     */
+    default void acquireRetry(String key) {
+    }
+
+    /**
+     * 为一次没有截止时间的请求申请配额
+     * Acquire quota for one request that has no deadline
+     *
+     * @see #acquire(String, ChatRequest, long)
+     */
+    default int acquire(String key, ChatRequest request) throws IOException {
+        return acquire(key, request, Long.MAX_VALUE);
+    }
+
+    /**
+     * 请求结束后按实际用量校正预占的token
+     * Reconcile the reservation with the actual usage once the call has finished
+     *
+     * @param key 限流键
+     *            The rate limit key
+     * @param reservedTokens acquire返回的预占token数
+     *                       The tokens returned by acquire
+     * @param usage 实际用量，请求失败时为null
+     *              The actual usage, or null if the call failed
+     */
+    void release(String key, int reservedTokens, ChatCompletionResponse.Usage usage);
+}
@@ -0,0 +1,309 @@
+package tech.infantai.deepseek_sdk.ratelimit;
+
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.tokenizer.CharacterTokenEstimator;
+import tech.infantai.deepseek_sdk.tokenizer.TokenEstimator;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于令牌桶的限流器，按key分别限制每分钟请求数（RPM）和每分钟token数（TPM）
+ * Token-bucket rate limiter enforcing requests-per-minute (RPM) and tokens-per-minute (TPM) per key
+ *
+ * 发送前按估算值预占token，响应返回后按usage中的实际值多退少补，
+ * 因此实际用量超出估算时会形成欠账，由后续的补充抵消。
+ * Tokens are reserved from an estimate before sending and reconciled with the actual usage afterwards;
+ * when the actual usage exceeds the estimate the bucket goes into debt that later refills pay off.
+ *
+ * 重试通过acquireRetry计入请求次数；未显式设置估算器时使用服务配置中的估算器（GPTConfig.tokenEstimator）
+ * Retries are counted through acquireRetry. Unless an estimator is set explicitly, tokens are estimated with the
+ * one from the service's configuration (GPTConfig.tokenEstimator)
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+
+    /**
+     * 配额不足时的行为
+     * Behaviour when quota is exhausted
+     */
+    public enum Mode {
+        /** 等待直到获得配额或超过最长等待时间 / Wait until quota frees up or the max wait elapses */
+        BLOCK,
+        /** 立即抛出RateLimitExceededException / Throw RateLimitExceededException immediately */
+        FAIL_FAST
+    }
+
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final int requestsPerMinute;
+    private final int tokensPerMinute;
+    private final Mode mode;
+    private final long maxWaitNanos;
+    private final TokenEstimator tokenEstimator;
+    private final ConcurrentMap<String, Buckets> buckets = new ConcurrentHashMap<>();
+
+    private TokenBucketRateLimiter(Builder builder) {
+        this.requestsPerMinute = builder.requestsPerMinute;
+        this.tokensPerMinute = builder.tokensPerMinute;
+        this.mode = builder.mode;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(builder.maxWaitMillis);
+        this.tokenEstimator = builder.tokenEstimator;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public int acquire(String key, ChatRequest request, long maxWaitMillis) throws IOException {
+        return acquire(key, request, CharacterTokenEstimator.INSTANCE, maxWaitMillis);
+    }
+
+    @Override
+    public int acquire(String key, ChatRequest request, TokenEstimator tokenEstimator, long maxWaitMillis)
+            throws IOException {
+        int estimated = estimateTokens(request, this.tokenEstimator != null ? this.tokenEstimator : tokenEstimator);
+        // 单个请求超过桶容量时按容量预占，否则永远无法满足
+        int reserved = tokensPerMinute > 0 ? Math.min(estimated, tokensPerMinute) : estimated;
+        Buckets bucket = buckets.computeIfAbsent(key, k -> new Buckets());
+        // 不超过调用方的截止时间，避免在限流器中等到截止时间之后才失败
+        long deadline = System.nanoTime() + Math.min(maxWaitNanos, TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMillis)));
+
+        while (true) {
+            long waitNanos = bucket.tryAcquire(reserved);
+            if (waitNanos == 0) {
+                return reserved;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (mode == Mode.FAIL_FAST || waitNanos > remaining) {
+                throw new RateLimitExceededException("Client-side rate limit exceeded for " + request.getModel(),
+                        TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for rate limit");
+            }
+        }
+    }
+
+    @Override
+    public void acquireRetry(String key) {
+        buckets.computeIfAbsent(key, k -> new Buckets()).chargeRequest();
+    }
+
+    @Override
+    public void release(String key, int reservedTokens, ChatCompletionResponse.Usage usage) {
+        Buckets bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        if (usage == null || usage.getTotalTokens() == null) {
+            // 请求失败，归还预占的token，请求次数不退还
+            bucket.adjustTokens(reservedTokens);
+        } else {
+            bucket.adjustTokens(reservedTokens - usage.getTotalTokens());
+        }
+    }
+
+    /**
+     * 估算本次请求消耗的token：提示词估算值加上maxTokens
+     * Estimate the tokens a request will consume: the prompt estimate plus maxTokens
+     */
+    private static int estimateTokens(ChatRequest request, TokenEstimator tokenEstimator) {
+        long tokens = tokenEstimator.countTokens(request.getMessages());
+        if (request.getMaxTokens() != null) {
+            tokens += request.getMaxTokens();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, tokens);
+    }
+
+    /**
+     * 单个key的请求桶和token桶
+     * Request and token buckets for one key
+     */
+    private class Buckets {
+        private final ReentrantLock lock = new ReentrantLock();
+        private double requests = requestsPerMinute;
+        private double tokens = tokensPerMinute;
+        private long lastRefillNanos = System.nanoTime();
+
+        /**
+         * 尝试获取配额
+         * Try to take quota
+         *
+         * @return 0表示成功，否则为预计需要等待的纳秒数
+         *         0 on success, otherwise the estimated nanoseconds to wait
+         */
+        long tryAcquire(int reservedTokens) {
+            lock.lock();
+            try {
+                refill();
+                boolean requestOk = requestsPerMinute <= 0 || requests >= 1;
+                boolean tokenOk = tokensPerMinute <= 0 || tokens >= reservedTokens;
+                if (requestOk && tokenOk) {
+                    if (requestsPerMinute > 0) {
+                        requests -= 1;
+                    }
+                    if (tokensPerMinute > 0) {
+                        tokens -= reservedTokens;
+                    }
+                    return 0;
+                }
+                long wait = 1;
+                if (!requestOk) {
+                    wait = Math.max(wait, (long) Math.ceil((1 - requests) * NANOS_PER_MINUTE / requestsPerMinute));
+                }
+                if (!tokenOk) {
+                    wait = Math.max(wait, (long) Math.ceil((reservedTokens - tokens) * NANOS_PER_MINUTE / tokensPerMinute));
+                }
+                return wait;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 不等待地扣除一次请求，可以扣成负数
+         * Take one request without waiting, possibly going negative
+         */
+        void chargeRequest() {
+            if (requestsPerMinute <= 0) {
+                return;
+            }
+            lock.lock();
+            try {
+                refill();
+                requests -= 1;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void adjustTokens(int delta) {
+            if (tokensPerMinute <= 0 || delta == 0) {
+                return;
+            }
+            lock.lock();
+            try {
+                refill();
+                tokens = Math.min(tokensPerMinute, tokens + delta);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            long elapsed = now - lastRefillNanos;
+            lastRefillNanos = now;
+            if (requestsPerMinute > 0) {
+                requests = Math.min(requestsPerMinute, requests + (double) elapsed * requestsPerMinute / NANOS_PER_MINUTE);
+            }
+            if (tokensPerMinute > 0) {
+                tokens = Math.min(tokensPerMinute, tokens + (double) elapsed * tokensPerMinute / NANOS_PER_MINUTE);
+            }
+        }
+    }
+
+    /**
+     * Builder class for TokenBucketRateLimiter
+     * TokenBucketRateLimiter的构建器类
+     */
+    public static class Builder {
+        private int requestsPerMinute;     // 0 means unlimited / 0表示不限制
+        private int tokensPerMinute;       // 0 means unlimited / 0表示不限制
+        private Mode mode = Mode.BLOCK;
+        private long maxWaitMillis = 60000;  // Default max wait in BLOCK mode / BLOCK模式下的默认最长等待时间
+        private TokenEstimator tokenEstimator;      // Default the service's configured estimator / 默认使用服务配置的估算器
+
+        /**
+         * Sets the requests-per-minute limit
+         * 设置每分钟请求数上限
+         * @param requestsPerMinute RPM, 0 for unlimited / 每分钟请求数，0表示不限制
+         * @throws IllegalArgumentException if the value is negative / 如果值小于0则抛出异常
+         */
+        public Builder requestsPerMinute(int requestsPerMinute) {
+            if (requestsPerMinute < 0) {
+                throw new IllegalArgumentException("Requests per minute cannot be negative");
+            }
+            this.requestsPerMinute = requestsPerMinute;
+            return this;
+        }
+
+        /**
+         * Sets the tokens-per-minute limit
+         * 设置每分钟token数上限
+         * @param tokensPerMinute TPM, 0 for unlimited / 每分钟token数，0表示不限制
+         * @throws IllegalArgumentException if the value is negative / 如果值小于0则抛出异常
+         */
+        public Builder tokensPerMinute(int tokensPerMinute) {
+            if (tokensPerMinute < 0) {
+                throw new IllegalArgumentException("Tokens per minute cannot be negative");
+            }
+            this.tokensPerMinute = tokensPerMinute;
+            return this;
+        }
+
+        /**
+         * Sets whether callers wait for quota or fail immediately
+         * 设置配额不足时等待还是立即失败
+         * @param mode BLOCK or FAIL_FAST / 等待或立即失败
+         * @throws IllegalArgumentException if mode is null / 如果mode为空则抛出异常
+         */
+        public Builder mode(Mode mode) {
+            if (mode == null) {
+                throw new IllegalArgumentException("Mode cannot be null");
+            }
+            this.mode = mode;
+            return this;
+        }
+
+        /**
+         * Sets the longest a caller may wait in BLOCK mode
+         * 设置BLOCK模式下的最长等待时间
+         * @param maxWaitMillis max wait in milliseconds / 最长等待时间（毫秒）
+         * @throws IllegalArgumentException if the value is negative / 如果值小于0则抛出异常
+         */
+        public Builder maxWaitMillis(long maxWaitMillis) {
+            if (maxWaitMillis < 0) {
+                throw new IllegalArgumentException("Max wait cannot be negative");
+            }
+            this.maxWaitMillis = maxWaitMillis;
+            return this;
+        }
+
+        /**
+         * Sets the estimator used for the pre-send token reservation, overriding the one from the service's
+         * configuration
+         * 设置发送前预占token时使用的估算器，覆盖服务配置中的估算器
+         * @param tokenEstimator The token estimator / token估算器
+         * @throws IllegalArgumentException if tokenEstimator is null / 如果估算器为空则抛出异常
+         */
+        public Builder tokenEstimator(TokenEstimator tokenEstimator) {
+            if (tokenEstimator == null) {
+                throw new IllegalArgumentException("Token estimator cannot be null");
+            }
+            this.tokenEstimator = tokenEstimator;
+            return this;
+        }
+
+        /**
+         * Builds the TokenBucketRateLimiter instance
+         * 构建TokenBucketRateLimiter实例
+         * @throws IllegalArgumentException if no limit is set / 如果未设置任何限制则抛出异常
+         */
+        public TokenBucketRateLimiter build() {
+            if (requestsPerMinute == 0 && tokensPerMinute == 0) {
+                throw new IllegalArgumentException("At least one of requests per minute or tokens per minute must be set");
+            }
+            return new TokenBucketRateLimiter(this);
+        }
+    }
+}
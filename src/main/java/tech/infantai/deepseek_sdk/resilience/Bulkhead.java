@@ -0,0 +1,191 @@
+package tech.infantai.deepseek_sdk.resilience;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 并发隔舱，按键（端点 + 模型）分别限制同时进行的调用数
+ * Concurrency bulkhead capping the calls in flight per key (endpoint + model)
+ *
+ * 没有空闲名额时，最多maxWaitingCalls个调用可以等待maxWaitMillis，其余立即以BulkheadFullException失败。
+ * 这样上游变慢时，等待它的线程数有上限，不会拖垮应用的其他部分。
+ * When no slot is free, up to maxWaitingCalls calls may wait for maxWaitMillis and the rest fail at once with
+ * BulkheadFullException. A slow upstream can then only hold a bounded number of threads.
+ *
+ * 异步调用同样在调用线程上等待名额，与BLOCK模式的限流器一致
+ * Async calls wait for a slot on the calling thread too, like a rate limiter in BLOCK mode
+ */
+public class Bulkhead {
+    private final int maxConcurrentCalls;
+    private final int maxWaitingCalls;
+    private final long maxWaitMillis;
+    private final ConcurrentMap<String, Compartment> compartments = new ConcurrentHashMap<>();
+
+    private Bulkhead(Builder builder) {
+        this.maxConcurrentCalls = builder.maxConcurrentCalls;
+        this.maxWaitingCalls = builder.maxWaitingCalls;
+        this.maxWaitMillis = builder.maxWaitMillis;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 获取一个名额，必要时按配置等待
+     * Take a slot, waiting as configured if none is free
+     *
+     * @param key 隔舱键
+     *            The bulkhead key
+     * @throws BulkheadFullException 没有名额且无法等待或等待超时
+     *                               if no slot is free and the call cannot wait or waited too long
+     * @throws InterruptedIOException 等待时被中断
+     *                                if interrupted while waiting
+     */
+    public void acquire(String key) throws BulkheadFullException, InterruptedIOException {
+        acquire(key, Long.MAX_VALUE);
+    }
+
+    /**
+     * 获取一个名额，最多等待配置的时间与调用方剩余时间中的较小值
+     * Take a slot, waiting no longer than the smaller of the configured wait and the time the caller has left
+     *
+     * @param key 隔舱键
+     *            The bulkhead key
+     * @param maxWaitMillis 调用方最多还能等待的时间，通常是截止时间的剩余部分
+     *                      The longest the caller can still wait, usually what is left before its deadline
+     * @throws BulkheadFullException 没有名额且无法等待或等待超时
+     *                               if no slot is free and the call cannot wait or waited too long
+     * @throws InterruptedIOException 等待时被中断
+     *                                if interrupted while waiting
+     */
+    public void acquire(String key, long maxWaitMillis) throws BulkheadFullException, InterruptedIOException {
+        Compartment compartment = compartment(key);
+        if (compartment.permits.tryAcquire()) {
+            return;
+        }
+        long waitMillis = Math.min(this.maxWaitMillis, maxWaitMillis);
+        if (waitMillis <= 0 || compartment.waiting.incrementAndGet() > maxWaitingCalls) {
+            if (waitMillis > 0) {
+                compartment.waiting.decrementAndGet();
+            }
+            compartment.rejected.increment();
+            throw new BulkheadFullException(key);
+        }
+        try {
+            if (!compartment.permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) {
+                compartment.rejected.increment();
+                throw new BulkheadFullException(key);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for bulkhead " + key);
+        } finally {
+            compartment.waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * 归还名额
+     * Return a slot
+     */
+    public void release(String key) {
+        compartment(key).permits.release();
+    }
+
+    /**
+     * 进行中的调用数
+     * Calls currently holding a slot
+     */
+    public int getActiveCalls(String key) {
+        Compartment compartment = compartments.get(key);
+        return compartment == null ? 0 : maxConcurrentCalls - compartment.permits.availablePermits();
+    }
+
+    /**
+     * 正在等待名额的调用数
+     * Calls currently waiting for a slot
+     */
+    public int getWaitingCalls(String key) {
+        Compartment compartment = compartments.get(key);
+        return compartment == null ? 0 : compartment.waiting.get();
+    }
+
+    /**
+     * 累计被拒绝的调用数
+     * Total calls rejected so far
+     */
+    public long getRejectedCount(String key) {
+        Compartment compartment = compartments.get(key);
+        return compartment == null ? 0 : compartment.rejected.sum();
+    }
+
+    private Compartment compartment(String key) {
+        return compartments.computeIfAbsent(key, k -> new Compartment(maxConcurrentCalls));
+    }
+
+    private static final class Compartment {
+        private final Semaphore permits;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final LongAdder rejected = new LongAdder();
+
+        Compartment(int maxConcurrentCalls) {
+            // 公平模式，等待的调用按到达顺序获得名额
+            this.permits = new Semaphore(maxConcurrentCalls, true);
+        }
+    }
+
+    /**
+     * Builder class for Bulkhead
+     * Bulkhead的构建器类
+     */
+    public static class Builder {
+        private int maxConcurrentCalls = 25; // Default 25 calls in flight per key / 默认每个键最多25个进行中的调用
+        private int maxWaitingCalls;         // No waiting by default / 默认不等待
+        private long maxWaitMillis;          // No waiting by default / 默认不等待
+
+        /**
+         * Sets the maximum number of calls in flight per key
+         * 设置每个键最多同时进行的调用数
+         * @param maxConcurrentCalls Calls in flight / 同时进行的调用数
+         */
+        public Builder maxConcurrentCalls(int maxConcurrentCalls) {
+            if (maxConcurrentCalls <= 0) {
+                throw new IllegalArgumentException("Max concurrent calls must be greater than 0");
+            }
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            return this;
+        }
+
+        /**
+         * Lets up to maxWaitingCalls calls wait up to maxWaitMillis for a slot
+         * 允许最多maxWaitingCalls个调用等待名额，最长等待maxWaitMillis
+         * @param maxWaitingCalls Size of the wait queue / 等待队列长度
+         * @param maxWaitMillis Longest wait in milliseconds / 最长等待时间（毫秒）
+         */
+        public Builder waitQueue(int maxWaitingCalls, long maxWaitMillis) {
+            if (maxWaitingCalls <= 0) {
+                throw new IllegalArgumentException("Max waiting calls must be greater than 0");
+            }
+            if (maxWaitMillis <= 0) {
+                throw new IllegalArgumentException("Max wait time must be greater than 0");
+            }
+            this.maxWaitingCalls = maxWaitingCalls;
+            this.maxWaitMillis = maxWaitMillis;
+            return this;
+        }
+
+        /**
+         * Builds the Bulkhead instance
+         * 构建Bulkhead实例
+         */
+        public Bulkhead build() {
+            return new Bulkhead(this);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package tech.infantai.deepseek_sdk.resilience;
+
+import java.io.IOException;
+
+/**
+ * 隔舱已满时拒绝请求抛出
+ * Thrown when a bulkhead has no free slot and the call cannot wait for one
+ */
+public class BulkheadFullException extends IOException {
+    private final String key;
+
+    public BulkheadFullException(String key) {
+        super("Bulkhead is full for " + key);
+        this.key = key;
+    }
+
+    /**
+     * 隔舱键（端点 + 模型）
+     * The bulkhead key (endpoint + model)
+     */
+    public String getKey() {
+        return key;
+    }
+}
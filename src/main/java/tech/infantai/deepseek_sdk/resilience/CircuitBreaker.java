@@ -0,0 +1,393 @@
+package tech.infantai.deepseek_sdk.resilience;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 熔断器，按键（端点 + 模型）分别统计
+ * Circuit breaker keeping separate state per key (endpoint + model)
+ *
+ * 在最近windowSize次调用中，失败率或慢调用率达到阈值时打开，打开期间立即拒绝请求；
+ * openDuration之后进入半开状态，放行halfOpenCalls个探测请求，全部完成后根据结果决定关闭或重新打开。
+ * Opens when the failure rate or the slow-call rate over the last windowSize calls reaches its threshold,
+ * and rejects calls immediately while open. After openDuration it turns half-open and lets halfOpenCalls probes
+ * through; once they have all finished it either closes or opens again depending on their outcome.
+ *
+ * 同一个实例可以通过GPTConfig在多个服务之间共享，共享时键相同的调用共用一个熔断状态
+ * One instance can be shared between services through GPTConfig; calls with the same key then share one circuit
+ */
+public class CircuitBreaker {
+
+    /**
+     * 熔断器状态
+     * Circuit state
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final CircuitBreakerListener listener;
+    private final ConcurrentMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    private CircuitBreaker(Builder builder) {
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(builder.slowCallDurationMillis);
+        this.windowSize = builder.windowSize;
+        this.minimumCalls = Math.min(builder.minimumCalls, builder.windowSize);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(builder.openDurationMillis);
+        this.halfOpenCalls = builder.halfOpenCalls;
+        this.listener = builder.listener;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 申请调用许可
+     * Ask for permission to make a call
+     *
+     * @param key 熔断键
+     *            The circuit key
+     * @return 许可，调用结束后传给recordSuccess/recordFailure/release
+     *         A permit to pass to recordSuccess/recordFailure/release when the call ends
+     * @throws CircuitBreakerOpenException 熔断器打开或半开探测名额已满
+     *                                     if the circuit is open or all half-open probes are taken
+     */
+    public long acquire(String key) throws CircuitBreakerOpenException {
+        return circuit(key).acquire();
+    }
+
+    /**
+     * 记录一次成功调用；耗时超过慢调用阈值时计为慢调用
+     * Record a successful call; it counts as slow when it took longer than the slow-call threshold
+     *
+     * @param durationNanos 调用耗时，0表示不参与慢调用统计
+     *                      Call duration, 0 to keep it out of the slow-call rate
+     */
+    public void recordSuccess(String key, long permit, long durationNanos) {
+        circuit(key).record(permit, isSlow(durationNanos) ? SLOW : 0);
+    }
+
+    /**
+     * 记录一次失败调用
+     * Record a failed call
+     */
+    public void recordFailure(String key, long permit, long durationNanos) {
+        circuit(key).record(permit, (byte) (FAILURE | (isSlow(durationNanos) ? SLOW : 0)));
+    }
+
+    /**
+     * 归还许可而不记录结果，例如调用被取消或在发出前被拒绝
+     * Return a permit without recording an outcome, e.g. when the call was cancelled or rejected before it was sent
+     */
+    public void release(String key, long permit) {
+        circuit(key).release(permit);
+    }
+
+    /**
+     * 获取某个键的当前状态，从未调用过的键为CLOSED
+     * Current state of a key; keys never called are CLOSED
+     */
+    public State getState(String key) {
+        Circuit circuit = circuits.get(key);
+        return circuit == null ? State.CLOSED : circuit.state;
+    }
+
+    /**
+     * 所有键的当前状态
+     * Current state of every key
+     */
+    public Map<String, State> getStates() {
+        Map<String, State> states = new TreeMap<>();
+        for (Circuit circuit : circuits.values()) {
+            states.put(circuit.key, circuit.state);
+        }
+        return Collections.unmodifiableMap(states);
+    }
+
+    private boolean isSlow(long durationNanos) {
+        return slowCallDurationNanos > 0 && durationNanos >= slowCallDurationNanos;
+    }
+
+    private Circuit circuit(String key) {
+        return circuits.computeIfAbsent(key, Circuit::new);
+    }
+
+    private void notify(String key, List<State[]> transitions) {
+        if (listener == null) {
+            return;
+        }
+        for (State[] transition : transitions) {
+            try {
+                listener.onStateChange(key, transition[0], transition[1]);
+            } catch (RuntimeException ignored) {
+                // 回调不能影响业务调用
+            }
+        }
+    }
+
+    /**
+     * 单个键的熔断状态。许可中带有状态的代数，状态切换后旧许可的结果被忽略
+     * Circuit of one key. Permits carry the generation they were issued in,
+     * so results of permits from before a transition are ignored
+     */
+    private final class Circuit {
+        private final String key;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final byte[] outcomes = new byte[windowSize];
+        private volatile State state = State.CLOSED;
+        private long generation;
+        private int next;
+        private int size;
+        private int failures;
+        private int slowCalls;
+        private long openedAtNanos;
+        private int probesIssued;
+        private int probesDone;
+
+        Circuit(String key) {
+            this.key = key;
+        }
+
+        long acquire() throws CircuitBreakerOpenException {
+            List<State[]> transitions = new ArrayList<>(1);
+            lock.lock();
+            try {
+                if (state == State.OPEN) {
+                    long waited = System.nanoTime() - openedAtNanos;
+                    if (waited < openDurationNanos) {
+                        throw new CircuitBreakerOpenException(key, TimeUnit.NANOSECONDS.toMillis(openDurationNanos - waited));
+                    }
+                    transition(State.HALF_OPEN, transitions);
+                }
+                if (state == State.HALF_OPEN) {
+                    if (probesIssued >= halfOpenCalls) {
+                        throw new CircuitBreakerOpenException(key, 0);
+                    }
+                    probesIssued++;
+                }
+                return generation;
+            } finally {
+                lock.unlock();
+                CircuitBreaker.this.notify(key, transitions);
+            }
+        }
+
+        void record(long permit, byte outcome) {
+            List<State[]> transitions = new ArrayList<>(1);
+            lock.lock();
+            try {
+                if (permit != generation) {
+                    return;
+                }
+                if (size == windowSize) {
+                    // 移出窗口中最旧的结果
+                    forget(outcomes[next]);
+                } else {
+                    size++;
+                }
+                outcomes[next] = outcome;
+                next = (next + 1) % windowSize;
+                if ((outcome & FAILURE) != 0) {
+                    failures++;
+                }
+                if ((outcome & SLOW) != 0) {
+                    slowCalls++;
+                }
+                if (state == State.HALF_OPEN) {
+                    probesDone++;
+                    if (probesDone >= halfOpenCalls) {
+                        transition(exceedsThreshold(size) ? State.OPEN : State.CLOSED, transitions);
+                    }
+                } else if (size >= minimumCalls && exceedsThreshold(size)) {
+                    transition(State.OPEN, transitions);
+                }
+            } finally {
+                lock.unlock();
+            }
+            CircuitBreaker.this.notify(key, transitions);
+        }
+
+        void release(long permit) {
+            lock.lock();
+            try {
+                if (permit == generation && state == State.HALF_OPEN && probesIssued > probesDone) {
+                    probesIssued--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean exceedsThreshold(int calls) {
+            return failures * 100 >= failureRateThreshold * calls
+                    || (slowCallDurationNanos > 0 && slowCalls * 100 >= slowCallRateThreshold * calls);
+        }
+
+        private void forget(byte outcome) {
+            if ((outcome & FAILURE) != 0) {
+                failures--;
+            }
+            if ((outcome & SLOW) != 0) {
+                slowCalls--;
+            }
+        }
+
+        /**
+         * 切换状态并清空窗口，必须持有锁
+         * Switch state and reset the window; the lock must be held
+         */
+        private void transition(State target, List<State[]> transitions) {
+            transitions.add(new State[]{state, target});
+            state = target;
+            generation++;
+            next = 0;
+            size = 0;
+            failures = 0;
+            slowCalls = 0;
+            probesIssued = 0;
+            probesDone = 0;
+            if (target == State.OPEN) {
+                openedAtNanos = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Builder class for CircuitBreaker
+     * CircuitBreaker的构建器类
+     */
+    public static class Builder {
+        private int failureRateThreshold = 50;  // Default opens at 50% failures / 默认失败率50%时打开
+        private int slowCallRateThreshold = 50; // Default opens at 50% slow calls / 默认慢调用率50%时打开
+        private long slowCallDurationMillis;    // Slow-call detection is off by default / 默认不统计慢调用
+        private int windowSize = 100;           // Default window of 100 calls / 默认统计最近100次调用
+        private int minimumCalls = 20;          // Default 20 calls before the rate is evaluated / 默认至少20次调用后才计算比率
+        private long openDurationMillis = 30_000; // Default 30s open / 默认打开30秒
+        private int halfOpenCalls = 5;          // Default 5 probes when half-open / 默认半开时放行5个探测请求
+        private CircuitBreakerListener listener; // Optional state listener / 可选的状态监听器
+
+        /**
+         * Sets the failure rate that opens the circuit
+         * 设置打开熔断器的失败率
+         * @param percent Failure rate in percent, 1-100 / 失败率百分比，1-100
+         */
+        public Builder failureRateThreshold(int percent) {
+            if (percent <= 0 || percent > 100) {
+                throw new IllegalArgumentException("Failure rate threshold must be between 1 and 100");
+            }
+            this.failureRateThreshold = percent;
+            return this;
+        }
+
+        /**
+         * Enables slow-call detection: calls longer than durationMillis count as slow, and the circuit opens
+         * when slow calls reach the given rate
+         * 启用慢调用统计：耗时超过durationMillis的调用计为慢调用，慢调用率达到阈值时打开熔断器
+         * @param durationMillis Slow-call threshold in milliseconds / 慢调用阈值（毫秒）
+         * @param percent Slow-call rate in percent, 1-100 / 慢调用率百分比，1-100
+         */
+        public Builder slowCall(long durationMillis, int percent) {
+            if (durationMillis <= 0) {
+                throw new IllegalArgumentException("Slow call duration must be greater than 0");
+            }
+            if (percent <= 0 || percent > 100) {
+                throw new IllegalArgumentException("Slow call rate threshold must be between 1 and 100");
+            }
+            this.slowCallDurationMillis = durationMillis;
+            this.slowCallRateThreshold = percent;
+            return this;
+        }
+
+        /**
+         * Sets how many recent calls the rates are computed over
+         * 设置计算比率的最近调用数
+         * @param windowSize Number of calls / 调用数
+         */
+        public Builder windowSize(int windowSize) {
+            if (windowSize <= 0) {
+                throw new IllegalArgumentException("Window size must be greater than 0");
+            }
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Sets how many calls are needed before the rates are evaluated
+         * 设置计算比率前至少需要的调用数
+         * @param minimumCalls Number of calls / 调用数
+         */
+        public Builder minimumCalls(int minimumCalls) {
+            if (minimumCalls <= 0) {
+                throw new IllegalArgumentException("Minimum calls must be greater than 0");
+            }
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * Sets how long the circuit stays open before probing
+         * 设置熔断器打开后多久开始探测
+         * @param openDurationMillis Open time in milliseconds / 打开时长（毫秒）
+         */
+        public Builder openDurationMillis(long openDurationMillis) {
+            if (openDurationMillis <= 0) {
+                throw new IllegalArgumentException("Open duration must be greater than 0");
+            }
+            this.openDurationMillis = openDurationMillis;
+            return this;
+        }
+
+        /**
+         * Sets the number of probe calls let through when half-open
+         * 设置半开状态下放行的探测请求数
+         * @param halfOpenCalls Number of probes / 探测请求数
+         */
+        public Builder halfOpenCalls(int halfOpenCalls) {
+            if (halfOpenCalls <= 0) {
+                throw new IllegalArgumentException("Half-open calls must be greater than 0");
+            }
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        /**
+         * Sets the listener notified on every state transition
+         * 设置每次状态切换时通知的监听器
+         * @param listener The listener, null to disable / 监听器，为null时不通知
+         */
+        public Builder listener(CircuitBreakerListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Builds the CircuitBreaker instance
+         * 构建CircuitBreaker实例
+         */
+        public CircuitBreaker build() {
+            return new CircuitBreaker(this);
+        }
+    }
+}
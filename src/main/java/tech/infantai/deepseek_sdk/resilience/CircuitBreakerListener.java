@@ -0,0 +1,24 @@
+package tech.infantai.deepseek_sdk.resilience;
+
+/**
+ * 熔断器状态切换回调
+ * Callback notified when a circuit changes state
+ *
+ * 在触发切换的调用线程上执行，应尽快返回
+ * Runs on the thread of the call that caused the transition and should return quickly
+ */
+public interface CircuitBreakerListener {
+
+    /**
+     * 状态切换时调用
+     * Called on every state transition
+     *
+     * @param key 熔断键（端点 + 模型）
+     *            The circuit key (endpoint + model)
+     * @param from 原状态
+     *             The previous state
+     * @param to 新状态
+     *           The new state
+     */
+    void onStateChange(String key, CircuitBreaker.State from, CircuitBreaker.State to);
+}
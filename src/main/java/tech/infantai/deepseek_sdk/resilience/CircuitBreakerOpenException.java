@@ -0,0 +1,34 @@
+package tech.infantai.deepseek_sdk.resilience;
+
+import java.io.IOException;
+
+/**
+ * 熔断器打开时拒绝请求抛出
+ * Thrown when an open circuit rejects a call without sending it
+ */
+public class CircuitBreakerOpenException extends IOException {
+    private final String key;
+    private final long retryAfterMillis;
+
+    public CircuitBreakerOpenException(String key, long retryAfterMillis) {
+        super("Circuit breaker is open for " + key);
+        this.key = key;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * 熔断键（端点 + 模型）
+     * The circuit key (endpoint + model)
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 预计多久后开始探测（毫秒），半开状态下探测名额已满时为0
+     * How long until the circuit starts probing, in milliseconds; 0 when half-open and all probes are taken
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
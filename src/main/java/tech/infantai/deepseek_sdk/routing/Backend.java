@@ -0,0 +1,153 @@
+package tech.infantai.deepseek_sdk.routing;
+
+import tech.infantai.deepseek_sdk.service.AbstractAIService;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 一个后端及其负载、延迟和健康状态
+ * One backend together with its load, latency and health state
+ *
+ * 连续失败达到阈值后摘除一段时间，时长随摘除次数翻倍；到期后重新参与选择，
+ * 此时再失败一次就会再次被摘除，成功一次则恢复正常并重置摘除时长。
+ * After a run of consecutive failures the backend is ejected for a while, doubling with each ejection.
+ * Once the ejection expires it takes traffic again; a single further failure ejects it again,
+ * while a success restores it and resets the ejection length.
+ */
+class Backend {
+    final String name;
+    final AbstractAIService service;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong ejections = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile double ewmaMillis;
+    private volatile long ejectedUntilNanos;
+    private volatile long lastSampleNanos;
+    private int ejectionStreak;
+
+    Backend(String name, AbstractAIService service) {
+        this.name = name;
+        this.service = service;
+    }
+
+    void onStart() {
+        outstanding.incrementAndGet();
+        requests.incrementAndGet();
+    }
+
+    /**
+     * 记录一次成功请求，按时间衰减更新EWMA
+     * Record a successful call and fold its latency into the time-decayed EWMA
+     */
+    void onSuccess(long latencyNanos, long decayNanos) {
+        outstanding.decrementAndGet();
+        consecutiveFailures.set(0);
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            ejectionStreak = 0;
+            double sample = latencyNanos / 1_000_000.0;
+            if (lastSampleNanos == 0) {
+                ewmaMillis = sample;
+            } else {
+                double weight = Math.exp(-(double) (now - lastSampleNanos) / decayNanos);
+                ewmaMillis = ewmaMillis * weight + sample * (1 - weight);
+            }
+            lastSampleNanos = now;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 记录一次后端故障，达到阈值时摘除
+     * Record a backend failure and eject the backend once the threshold is reached
+     */
+    void onFailure(int failureThreshold, long ejectionNanos, long maxEjectionNanos) {
+        outstanding.decrementAndGet();
+        failures.incrementAndGet();
+        if (consecutiveFailures.incrementAndGet() < failureThreshold) {
+            return;
+        }
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (ejectedUntilNanos - now > 0) {
+                // 已被其他请求摘除
+                return;
+            }
+            long length = Math.min(maxEjectionNanos, ejectionNanos << Math.min(ejectionStreak, 30));
+            ejectionStreak++;
+            ejectedUntilNanos = now + length;
+            ejections.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 请求被取消或属于调用方错误，不影响健康状态
+     * The call was cancelled or failed through the caller's fault; health is unaffected
+     */
+    void onIgnored() {
+        outstanding.decrementAndGet();
+    }
+
+    boolean isEjected(long now) {
+        return ejectedUntilNanos - now > 0;
+    }
+
+    long ejectedUntilNanos() {
+        return ejectedUntilNanos;
+    }
+
+    int outstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * 是否已有成功请求的延迟样本
+     * Whether at least one successful call has been sampled
+     */
+    boolean hasSamples() {
+        return lastSampleNanos != 0;
+    }
+
+    /**
+     * 最近一次样本时的EWMA，不做衰减
+     * The EWMA as of the last sample, without decay
+     */
+    double rawEwmaMillis() {
+        return ewmaMillis;
+    }
+
+    /**
+     * 用于选择后端的EWMA：没有样本时取先验值；长时间没有新样本时向先验值衰减，
+     * 使曾经变慢的后端在恢复后能重新分到流量，而挂起不返回的后端也不会因为没有样本而显得最快
+     * EWMA used for picking backends. Without samples it is the prior; while no samples arrive it decays towards
+     * the prior, so a backend that was slow once is eventually tried again, while one that hangs without ever
+     * answering does not look fastest just for lacking samples
+     *
+     * @param prior 先验延迟（毫秒）
+     *              The prior latency in milliseconds
+     */
+    double ewmaMillis(long now, long decayNanos, double prior) {
+        long last = lastSampleNanos;
+        if (last == 0) {
+            return prior;
+        }
+        double weight = Math.exp(-(double) (now - last) / decayNanos);
+        return prior + (ewmaMillis - prior) * weight;
+    }
+
+    BackendStats stats() {
+        return new BackendStats(name, outstanding.get(), ewmaMillis, isEjected(System.nanoTime()),
+                requests.get(), failures.get(), ejections.get());
+    }
+}
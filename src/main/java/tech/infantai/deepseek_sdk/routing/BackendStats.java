@@ -0,0 +1,76 @@
+package tech.infantai.deepseek_sdk.routing;
+
+/**
+ * 单个后端的状态快照
+ * Snapshot of one backend's state
+ */
+public final class BackendStats {
+    private final String name;
+    private final int outstanding;
+    private final double ewmaLatencyMillis;
+    private final boolean ejected;
+    private final long requests;
+    private final long failures;
+    private final long ejections;
+
+    BackendStats(String name, int outstanding, double ewmaLatencyMillis, boolean ejected,
+                 long requests, long failures, long ejections) {
+        this.name = name;
+        this.outstanding = outstanding;
+        this.ewmaLatencyMillis = ewmaLatencyMillis;
+        this.ejected = ejected;
+        this.requests = requests;
+        this.failures = failures;
+        this.ejections = ejections;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 进行中的请求数
+     * Requests currently in flight
+     */
+    public int getOutstanding() {
+        return outstanding;
+    }
+
+    /**
+     * 成功请求延迟的指数加权移动平均（毫秒）
+     * Exponentially weighted moving average of successful call latency, in milliseconds
+     */
+    public double getEwmaLatencyMillis() {
+        return ewmaLatencyMillis;
+    }
+
+    /**
+     * 是否因连续失败而被摘除
+     * Whether the backend is currently ejected after consecutive failures
+     */
+    public boolean isEjected() {
+        return ejected;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * 累计被摘除的次数
+     * Number of times the backend has been ejected
+     */
+    public long getEjections() {
+        return ejections;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BackendStats{name=%s, outstanding=%d, ewmaLatencyMillis=%.1f, ejected=%s, requests=%d, failures=%d, ejections=%d}",
+                name, outstanding, ewmaLatencyMillis, ejected, requests, failures, ejections);
+    }
+}
@@ -0,0 +1,474 @@
+package tech.infantai.deepseek_sdk.routing;
+
+import tech.infantai.deepseek_sdk.exception.ApiException;
+import tech.infantai.deepseek_sdk.exception.DeadlineExceededException;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.model.Message;
+import tech.infantai.deepseek_sdk.service.AbstractAIService;
+import tech.infantai.deepseek_sdk.util.Deadline;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 多后端路由客户端：在多个服务之间分配负载，并在故障时切换
+ * Routing client that spreads load over several services and fails over when one misbehaves
+ *
+ * 后端可以是不同API Key的DeepseekAIService、不同地区的端点、OpenAI兼容的备用提供商或自建服务。
+ * 每个请求按RoutingStrategy选择一个后端；遇到网络错误、401/403/408/429或5xx时换一个后端重试，
+ * 400等调用方错误直接返回。连续失败的后端会被暂时摘除。请求的总超时和截止时间由所有尝试共享，
+ * 截止时间已过时直接返回，不再切换。
+ * Backends may be DeepseekAIService instances with different API keys, endpoints in different regions,
+ * an OpenAI-compatible fallback or a self-hosted server. Each request goes to the backend picked by the
+ * RoutingStrategy; network errors, 401/403/408/429 and 5xx fail over to another backend, while caller errors
+ * such as 400 are returned as is. Backends that keep failing are ejected for a while. A request's timeout and
+ * deadline are shared by all of its attempts; once the deadline has passed the failure is returned without failing
+ * over.
+ *
+ * 跨提供商路由时，请求中不要指定模型，由各服务使用各自配置的默认模型
+ * When routing across providers leave the model unset so that each service uses its own configured model
+ */
+public class RoutingChatClient {
+    /**
+     * 计分时加到EWMA上的最小延迟，保证EWMA接近0时进行中的请求仍然计入
+     * Floor added to the EWMA when scoring, so requests in flight still count while the EWMA is near zero
+     */
+    private static final double MIN_LATENCY_MILLIS = 1;
+
+    private final List<Backend> backends;
+    private final RoutingStrategy strategy;
+    private final int maxAttempts;
+    private final int failureThreshold;
+    private final long ejectionNanos;
+    private final long maxEjectionNanos;
+    private final long decayNanos;
+    private final double initialLatencyMillis;
+
+    private RoutingChatClient(Builder builder) {
+        List<Backend> backends = new ArrayList<>(builder.backends.size());
+        for (Backend backend : builder.backends) {
+            // 每个客户端各自统计后端状态，Builder可以重复使用
+            backends.add(new Backend(backend.name, backend.service));
+        }
+        this.backends = Collections.unmodifiableList(backends);
+        this.strategy = builder.strategy;
+        this.maxAttempts = builder.maxAttempts > 0 ? builder.maxAttempts : backends.size();
+        this.failureThreshold = builder.failureThreshold;
+        this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(builder.ejectionMillis);
+        this.maxEjectionNanos = TimeUnit.MILLISECONDS.toNanos(builder.maxEjectionMillis);
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(builder.decayMillis);
+        this.initialLatencyMillis = builder.initialLatencyMillis;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 使用自定义消息列表发起请求
+     * Send a request with a custom message list
+     *
+     * @param messages 消息列表
+     *                 List of messages to send
+     * @return 可取消的CompletableFuture，取消时会取消进行中的请求
+     *         A cancellable future; cancelling it cancels the call in flight
+     */
+    public CompletableFuture<ChatResponse> chatWithMessagesAsync(List<Message> messages) {
+        if (messages == null || messages.isEmpty()) {
+            throw new IllegalArgumentException("Messages cannot be null or empty");
+        }
+        return execute(service -> service.chatWithMessagesAsync(messages), null);
+    }
+
+    /**
+     * 使用调用方构建的请求发起请求
+     * Send a request built by the caller
+     *
+     * @param chatRequest 聊天请求
+     *                    The chat request
+     * @return 可取消的CompletableFuture，取消时会取消进行中的请求
+     *         A cancellable future; cancelling it cancels the call in flight
+     */
+    public CompletableFuture<ChatResponse> chatAsync(ChatRequest chatRequest) {
+        if (chatRequest == null) {
+            throw new IllegalArgumentException("ChatRequest cannot be null");
+        }
+        // 总超时换算成一个截止时间，所有后端共享，而不是每个后端重新计时
+        ChatRequest request = chatRequest.withAbsoluteDeadline();
+        return execute(service -> service.chatAsync(request), request.getDeadline());
+    }
+
+    /**
+     * 同步发起请求
+     * Send a request and wait for the result
+     *
+     * @param messages 消息列表
+     *                 List of messages to send
+     * @return ChatResponse
+     * @throws IOException 如果所有尝试都失败，抛出最后一次的异常
+     *                     the last failure if every attempt failed
+     */
+    public ChatResponse chatWithMessages(List<Message> messages) throws IOException {
+        return await(chatWithMessagesAsync(messages));
+    }
+
+    /**
+     * 同步发起调用方构建的请求
+     * Send a request built by the caller and wait for the result
+     *
+     * @param chatRequest 聊天请求
+     *                    The chat request
+     * @return ChatResponse
+     * @throws IOException 如果所有尝试都失败，抛出最后一次的异常
+     *                     the last failure if every attempt failed
+     */
+    public ChatResponse chat(ChatRequest chatRequest) throws IOException {
+        return await(chatAsync(chatRequest));
+    }
+
+    /**
+     * 各后端的状态快照，顺序与添加顺序一致
+     * A snapshot of every backend, in the order they were added
+     */
+    public List<BackendStats> getBackendStats() {
+        List<BackendStats> stats = new ArrayList<>(backends.size());
+        for (Backend backend : backends) {
+            stats.add(backend.stats());
+        }
+        return stats;
+    }
+
+    private CompletableFuture<ChatResponse> execute(Function<AbstractAIService, CompletableFuture<ChatResponse>> call,
+                                                    Deadline deadline) {
+        RoutedFuture result = new RoutedFuture(call, deadline);
+        result.attempt();
+        return result;
+    }
+
+    private static ChatResponse await(CompletableFuture<ChatResponse> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for routed request");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * 选择一个后端，跳过本次请求已经尝试过的和被摘除的。
+     * 所有候选都被摘除时，选择最早恢复的那个，而不是拒绝请求
+     * Pick a backend, skipping those already tried for this request and those ejected.
+     * When every candidate is ejected, fall back to the one whose ejection ends first rather than refuse the request
+     */
+    private int choose(boolean[] tried) {
+        long now = System.nanoTime();
+        int size = backends.size();
+        // 从随机位置开始扫描，分数相同时不会总是落到第一个后端
+        int offset = ThreadLocalRandom.current().nextInt(size);
+        int best = -1;
+        double bestScore = Double.MAX_VALUE;
+        int soonest = -1;
+        double prior = priorLatencyMillis();
+        for (int i = 0; i < size; i++) {
+            int index = (offset + i) % size;
+            if (tried[index]) {
+                continue;
+            }
+            Backend backend = backends.get(index);
+            if (backend.isEjected(now)) {
+                if (soonest < 0 || backend.ejectedUntilNanos() - backends.get(soonest).ejectedUntilNanos() < 0) {
+                    soonest = index;
+                }
+                continue;
+            }
+            double score = score(backend, now, prior);
+            if (score < bestScore) {
+                best = index;
+                bestScore = score;
+            }
+        }
+        return best >= 0 ? best : soonest;
+    }
+
+    private double score(Backend backend, long now, double prior) {
+        double ewma = backend.ewmaMillis(now, decayNanos, prior);
+        if (strategy == RoutingStrategy.LEAST_OUTSTANDING) {
+            // 整数部分为进行中请求数，小数部分按延迟排序
+            return backend.outstanding() + ewma / (ewma + 1_000_000);
+        }
+        return (ewma + MIN_LATENCY_MILLIS) * (backend.outstanding() + 1);
+    }
+
+    /**
+     * 没有样本的后端使用的先验延迟：已有样本的后端的平均EWMA，都没有样本时使用配置的初始延迟
+     * Prior latency for backends without samples: the mean EWMA of the sampled backends, or the configured
+     * initial latency when none has been sampled yet
+     */
+    private double priorLatencyMillis() {
+        double sum = 0;
+        int sampled = 0;
+        for (Backend backend : backends) {
+            if (backend.hasSamples()) {
+                sum += backend.rawEwmaMillis();
+                sampled++;
+            }
+        }
+        return sampled > 0 ? sum / sampled : initialLatencyMillis;
+    }
+
+    /**
+     * 是否应视为后端故障并切换到其他后端
+     * Whether a failure counts against the backend and should fail over
+     *
+     * 截止时间已过和调用被中断属于调用方的时间预算用完，与取消一样不计入后端故障，也不切换；
+     * 连接和读取超时（SocketTimeoutException）仍然是后端没有响应
+     * An expired deadline or an interrupted call means the caller's time budget ran out: like cancellation it is
+     * not held against the backend and does not fail over. Connect and read timeouts (SocketTimeoutException)
+     * still mean the backend did not answer
+     */
+    private static boolean isBackendFailure(Throwable failure) {
+        if (failure instanceof DeadlineExceededException
+                || failure instanceof InterruptedIOException && !(failure instanceof SocketTimeoutException)) {
+            return false;
+        }
+        if (failure instanceof ApiException) {
+            int status = ((ApiException) failure).getStatusCode();
+            return status == 401 || status == 403 || status == 408 || status == 429 || status >= 500;
+        }
+        // 网络错误、超时、客户端限流
+        return failure instanceof IOException;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    /**
+     * 依次尝试各后端的Future
+     * Future driving the attempts across backends
+     */
+    private class RoutedFuture extends CompletableFuture<ChatResponse> {
+        private final Function<AbstractAIService, CompletableFuture<ChatResponse>> call;
+        private final Deadline deadline;
+        private final boolean[] tried = new boolean[backends.size()];
+        private volatile CompletableFuture<ChatResponse> current;
+        private int attempts;
+
+        RoutedFuture(Function<AbstractAIService, CompletableFuture<ChatResponse>> call, Deadline deadline) {
+            this.call = call;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 发起下一次尝试；每次尝试只在上一次完成后发起，因此不需要加锁
+         * Start the next attempt; attempts never overlap, so no locking is needed
+         */
+        void attempt() {
+            int index = choose(tried);
+            tried[index] = true;
+            Backend backend = backends.get(index);
+            attempts++;
+            backend.onStart();
+            long startNanos = System.nanoTime();
+            CompletableFuture<ChatResponse> future;
+            try {
+                future = call.apply(backend.service);
+            } catch (RuntimeException e) {
+                backend.onIgnored();
+                completeExceptionally(e);
+                return;
+            }
+            current = future;
+            if (isDone()) {
+                future.cancel(true);
+            }
+            future.whenComplete((response, failure) -> onComplete(backend, startNanos, response, unwrap(failure)));
+        }
+
+        private void onComplete(Backend backend, long startNanos, ChatResponse response, Throwable failure) {
+            if (failure == null) {
+                backend.onSuccess(System.nanoTime() - startNanos, decayNanos);
+                complete(response);
+                return;
+            }
+            if (failure instanceof CancellationException || !isBackendFailure(failure)) {
+                backend.onIgnored();
+                completeExceptionally(failure);
+                return;
+            }
+            backend.onFailure(failureThreshold, ejectionNanos, maxEjectionNanos);
+            if (isDone() || attempts >= maxAttempts || attempts >= backends.size()
+                    || deadline != null && deadline.isExpired()) {
+                completeExceptionally(failure);
+                return;
+            }
+            attempt();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            CompletableFuture<ChatResponse> future = current;
+            if (future != null) {
+                future.cancel(true);
+            }
+            return cancelled;
+        }
+    }
+
+    /**
+     * Builder class for RoutingChatClient
+     * RoutingChatClient的构建器类
+     */
+    public static class Builder {
+        private final List<Backend> backends = new ArrayList<>();
+        private RoutingStrategy strategy = RoutingStrategy.EWMA_LATENCY; // Default EWMA latency / 默认按EWMA延迟选择
+        private int maxAttempts;                // 0 tries every backend once / 0表示每个后端最多尝试一次
+        private int failureThreshold = 5;       // Default 5 consecutive failures before ejection / 默认连续失败5次后摘除
+        private long ejectionMillis = 30_000;   // Default first ejection 30s / 默认首次摘除30秒
+        private long maxEjectionMillis = 300_000; // Default ejection cap 5min / 默认最长摘除5分钟
+        private long decayMillis = 10_000;      // Default EWMA decay time 10s / 默认EWMA衰减时间10秒
+        private long initialLatencyMillis = 1_000; // Default prior latency 1s before any sample / 默认无样本时按1秒估计
+
+        /**
+         * Adds a backend, named after its position
+         * 添加一个后端，以添加顺序命名
+         * @param service The backend service / 后端服务
+         */
+        public Builder backend(AbstractAIService service) {
+            return backend("backend-" + backends.size(), service);
+        }
+
+        /**
+         * Adds a named backend; the name appears in getBackendStats()
+         * 添加一个命名的后端，名称用于getBackendStats()
+         * @param name The backend name / 后端名称
+         * @param service The backend service / 后端服务
+         * @throws IllegalArgumentException if name or service is missing / 如果名称或服务为空则抛出异常
+         */
+        public Builder backend(String name, AbstractAIService service) {
+            if (name == null || name.isEmpty()) {
+                throw new IllegalArgumentException("Backend name cannot be null or empty");
+            }
+            if (service == null) {
+                throw new IllegalArgumentException("Backend service cannot be null");
+            }
+            backends.add(new Backend(name, service));
+            return this;
+        }
+
+        /**
+         * Sets how a backend is picked for each request
+         * 设置每个请求选择后端的策略
+         * @param strategy The routing strategy / 路由策略
+         */
+        public Builder strategy(RoutingStrategy strategy) {
+            if (strategy == null) {
+                throw new IllegalArgumentException("Routing strategy cannot be null");
+            }
+            this.strategy = strategy;
+            return this;
+        }
+
+        /**
+         * Sets how many backends one request may try; each backend is tried at most once
+         * 设置一个请求最多尝试的后端数，每个后端最多尝试一次
+         * @param maxAttempts Attempts per request, 0 for every backend / 每个请求的尝试次数，0表示所有后端
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 0) {
+                throw new IllegalArgumentException("Max attempts cannot be negative");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the number of consecutive failures that ejects a backend
+         * 设置摘除后端所需的连续失败次数
+         * @param failureThreshold Consecutive failures / 连续失败次数
+         */
+        public Builder failureThreshold(int failureThreshold) {
+            if (failureThreshold <= 0) {
+                throw new IllegalArgumentException("Failure threshold must be greater than 0");
+            }
+            this.failureThreshold = failureThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the first ejection length and its cap; each repeated ejection doubles the length
+         * 设置首次摘除时长及上限，每次重复摘除时长翻倍
+         * @param ejectionMillis First ejection in milliseconds / 首次摘除时长（毫秒）
+         * @param maxEjectionMillis Longest ejection in milliseconds / 最长摘除时长（毫秒）
+         */
+        public Builder ejection(long ejectionMillis, long maxEjectionMillis) {
+            if (ejectionMillis <= 0) {
+                throw new IllegalArgumentException("Ejection time must be greater than 0");
+            }
+            if (maxEjectionMillis < ejectionMillis) {
+                throw new IllegalArgumentException("Max ejection time must not be less than ejection time");
+            }
+            this.ejectionMillis = ejectionMillis;
+            this.maxEjectionMillis = maxEjectionMillis;
+            return this;
+        }
+
+        /**
+         * Sets the EWMA decay time; older samples lose weight as exp(-age / decay)
+         * 设置EWMA衰减时间，旧样本的权重按 exp(-间隔 / 衰减时间) 递减
+         * @param decayMillis Decay time in milliseconds / 衰减时间（毫秒）
+         */
+        public Builder decayMillis(long decayMillis) {
+            if (decayMillis <= 0) {
+                throw new IllegalArgumentException("Decay time must be greater than 0");
+            }
+            this.decayMillis = decayMillis;
+            return this;
+        }
+
+        /**
+         * Sets the latency assumed for backends before any of them has a successful sample;
+         * once some backends are sampled, the others are assumed to be as fast as their mean
+         * 设置所有后端都还没有成功样本时假定的延迟；有后端产生样本后，其余后端按它们的平均值估计
+         * @param initialLatencyMillis Prior latency in milliseconds / 先验延迟（毫秒）
+         */
+        public Builder initialLatencyMillis(long initialLatencyMillis) {
+            if (initialLatencyMillis <= 0) {
+                throw new IllegalArgumentException("Initial latency must be greater than 0");
+            }
+            this.initialLatencyMillis = initialLatencyMillis;
+            return this;
+        }
+
+        /**
+         * Builds the RoutingChatClient instance
+         * 构建RoutingChatClient实例
+         * @throws IllegalArgumentException if no backend was added / 如果没有添加后端则抛出异常
+         */
+        public RoutingChatClient build() {
+            if (backends.isEmpty()) {
+                throw new IllegalArgumentException("At least one backend must be set");
+            }
+            return new RoutingChatClient(this);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package tech.infantai.deepseek_sdk.routing;
+
+/**
+ * 后端选择策略
+ * How RoutingChatClient picks a backend for each request
+ */
+public enum RoutingStrategy {
+    /**
+     * 选择进行中请求最少的后端，相同时选择EWMA延迟较低的
+     * The backend with the fewest requests in flight, ties broken by EWMA latency
+     */
+    LEAST_OUTSTANDING,
+
+    /**
+     * 选择 EWMA延迟 ×（进行中请求数 + 1）最小的后端，兼顾速度和负载，变慢的后端会自动分到更少的流量
+     * The backend minimising EWMA latency × (requests in flight + 1), so a backend that slows down
+     * automatically receives less traffic.
+     * 没有样本的后端按其他后端的平均延迟计算
+     * Backends without samples are scored at the mean latency of the others
+     */
+    EWMA_LATENCY
+}
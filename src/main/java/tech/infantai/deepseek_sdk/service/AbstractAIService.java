@@ -1,35 +1,103 @@
 package tech.infantai.deepseek_sdk.service;
 
-import com.alibaba.fastjson.JSONObject;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import okhttp3.*;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import tech.infantai.deepseek_sdk.cache.CacheKey;
+import tech.infantai.deepseek_sdk.client.GzipRequestBody;
+import tech.infantai.deepseek_sdk.client.HttpClientProvider;
 import tech.infantai.deepseek_sdk.config.GPTConfig;
+import tech.infantai.deepseek_sdk.config.RetryPolicy;
+import tech.infantai.deepseek_sdk.exception.ApiException;
+import tech.infantai.deepseek_sdk.exception.DeadlineExceededException;
+import tech.infantai.deepseek_sdk.json.ChatCodec;
+import tech.infantai.deepseek_sdk.json.JsonRequestBody;
+import tech.infantai.deepseek_sdk.metrics.ChatCallMetrics;
+import tech.infantai.deepseek_sdk.metrics.ChatInstrumentation;
+import tech.infantai.deepseek_sdk.metrics.MetricsEventListener;
+import tech.infantai.deepseek_sdk.metrics.MetricsRecorder;
+import tech.infantai.deepseek_sdk.model.ChatCompletionChunk;
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
 import tech.infantai.deepseek_sdk.model.ChatRequest;
 import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.model.ErrorResponse;
 import tech.infantai.deepseek_sdk.model.Message;
+import tech.infantai.deepseek_sdk.ratelimit.RateLimiter;
+import tech.infantai.deepseek_sdk.util.Deadline;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
 
 public abstract class AbstractAIService {
-    protected GPTConfig config;
-    protected OkHttpClient httpClient;
-    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+    protected final GPTConfig config;
+    protected final OkHttpClient httpClient;
+    private final ChatInstrumentation instrumentation;
+    private final SingleFlight singleFlight = new SingleFlight();
     protected static final String CHAT_COMPLETION_PATH = "/chat/completions";
+    private static final String SSE_DATA_PREFIX = "data:";
+    private static final String SSE_DONE = "[DONE]";
 
+    /**
+     * 一次同步尝试
+     * One synchronous attempt
+     */
+    private interface Attempt {
+        /**
+         * @param timeoutMillis 本次尝试的超时，0表示不限制
+         *                      Timeout for this attempt, 0 for none
+         */
+        ChatResponse execute(long timeoutMillis) throws IOException;
+    }
+
+    /**
+     * 使用共享的HTTP客户端创建服务，同一端点的所有服务实例共用连接池和线程池
+     * Create a service on the shared HTTP client; all services pointing at the same endpoint share one connection pool and dispatcher
+     *
+     * @param config 配置
+     *               The configuration
+     */
     public AbstractAIService(GPTConfig config) {
+        this(config, HttpClientProvider.get(config));
+    }
+
+    /**
+     * 使用自定义的HTTP客户端创建服务
+     * Create a service on a caller-supplied HTTP client
+     *
+     * @param config 配置
+     *               The configuration
+     * @param httpClient HTTP客户端
+     *                   The HTTP client to use
+     */
+    public AbstractAIService(GPTConfig config, OkHttpClient httpClient) {
         if (config == null) {
             throw new IllegalArgumentException("GPTConfig cannot be null");
         }
+        if (httpClient == null) {
+            throw new IllegalArgumentException("OkHttpClient cannot be null");
+        }
         this.config = config;
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(config.getConnectTimeout(), TimeUnit.SECONDS)
-                .readTimeout(config.getReadTimeout(), TimeUnit.SECONDS)
-                .writeTimeout(config.getWriteTimeout(), TimeUnit.SECONDS)
-                .build();
+        this.instrumentation = config.getInstrumentation();
+        // 只在启用度量时安装监听器；newBuilder()共享原客户端的连接池和调度器
+        this.httpClient = instrumentation == null ? httpClient
+                : httpClient.newBuilder().eventListener(MetricsEventListener.INSTANCE).build();
     }
 
     /**
@@ -46,7 +114,7 @@ public abstract class AbstractAIService {
         if (messages == null || messages.isEmpty()) {
             throw new IllegalArgumentException("Messages cannot be null or empty");
         }
-        ChatRequest chatRequest = createChatRequestWithMessages(messages);
+        ChatRequest chatRequest = createChatRequestWithMessages(config.getModel(), messages);
         return executeRequest(chatRequest, buildUrl());
     }
 
@@ -69,13 +137,35 @@ public abstract class AbstractAIService {
         if (StringUtils.isBlank(systemMessage)) {
             throw new IllegalArgumentException("System message cannot be null or empty");
         }
-        ChatRequest chatRequest = createChatRequest(userMessage, systemMessage);
+        ChatRequest chatRequest = createChatRequest(config.getModel(), userMessage, systemMessage);
         return executeRequest(chatRequest, buildUrl());
     }
 
+    /**
+     * 使用调用方构建的请求进行聊天，请求中的模型、温度等参数仅对本次调用生效
+     * Chat with a caller-built request; model, temperature and other parameters apply to this call only
+     *
+     * 未指定模型时使用配置中的默认模型
+     * Falls back to the configured model when the request has none
+     *
+     * @param chatRequest 聊天请求
+     *                    The chat request
+     * @return ChatResponse
+     * @throws IOException 如果API调用失败
+     *                     if the API call fails
+     * @throws IllegalArgumentException 如果请求开启了stream，流式请求需使用chatStream
+     *                                  if the request has stream enabled; streaming requests go through chatStream
+     */
+    public ChatResponse chat(ChatRequest chatRequest) throws IOException {
+        return executeRequest(resolveUnaryRequest(chatRequest), buildUrl());
+    }
+
     /**
      * 使用指定的模型进行聊天
-     * Chat with a specified model (temporary model switch)
+     * Chat with a specified model
+     *
+     * 模型只作用于本次请求，不会修改共享的配置，因此可以在多个线程中并发调用
+     * The model applies to this request only and the shared configuration is never modified, so concurrent calls are safe
      *
      * @param userMessage 用户消息
      *                    The message from user
@@ -91,22 +181,22 @@ public abstract class AbstractAIService {
         if (StringUtils.isBlank(model)) {
             throw new IllegalArgumentException("Model cannot be null or empty");
         }
-        
-        // 保存原始模型
-        String originalModel = config.getModel();
-        try {
-            // 临时切换模型
-            config.setModel(model);
-            return chat(userMessage, systemMessage);
-        } finally {
-            // 恢复原始模型
-            config.setModel(originalModel);
+        if (StringUtils.isBlank(userMessage)) {
+            throw new IllegalArgumentException("User message cannot be null or empty");
         }
+        if (StringUtils.isBlank(systemMessage)) {
+            throw new IllegalArgumentException("System message cannot be null or empty");
+        }
+        ChatRequest chatRequest = createChatRequest(model, userMessage, systemMessage);
+        return executeRequest(chatRequest, buildUrl());
     }
 
     /**
      * 使用指定的模型和自定义消息列表进行聊天
-     * Chat with custom messages using a specified model (temporary model switch)
+     * Chat with custom messages using a specified model
+     *
+     * 模型只作用于本次请求，不会修改共享的配置
+     * The model applies to this request only and the shared configuration is never modified
      *
      * @param messages 消息列表
      *                List of messages to send
@@ -120,17 +210,222 @@ public abstract class AbstractAIService {
         if (StringUtils.isBlank(model)) {
             throw new IllegalArgumentException("Model cannot be null or empty");
         }
-        
-        // 保存原始模型
-        String originalModel = config.getModel();
-        try {
-            // 临时切换模型
-            config.setModel(model);
-            return chatWithMessages(messages);
-        } finally {
-            // 恢复原始模型
-            config.setModel(originalModel);
+        if (messages == null || messages.isEmpty()) {
+            throw new IllegalArgumentException("Messages cannot be null or empty");
+        }
+        ChatRequest chatRequest = createChatRequestWithMessages(model, messages);
+        return executeRequest(chatRequest, buildUrl());
+    }
+
+    /**
+     * 使用调用方构建的请求异步聊天
+     * Chat asynchronously with a caller-built request
+     *
+     * @param chatRequest 聊天请求
+     *                    The chat request
+     * @return 可取消的CompletableFuture
+     *         A cancellable CompletableFuture
+     */
+    public CompletableFuture<ChatResponse> chatAsync(ChatRequest chatRequest) {
+        return chatAsync(chatRequest, null);
+    }
+
+    /**
+     * 使用调用方构建的请求异步聊天，并在指定的执行器上完成Future
+     * Chat asynchronously with a caller-built request, completing the future on the given executor
+     *
+     * @param chatRequest 聊天请求
+     *                    The chat request
+     * @param executor 完成回调的执行器，为null时在OkHttp线程上完成
+     *                 Executor for completion callbacks; null completes on the OkHttp thread
+     * @return 可取消的CompletableFuture
+     *         A cancellable CompletableFuture
+     * @throws IllegalArgumentException 如果请求开启了stream，流式请求需使用chatStream
+     *                                  if the request has stream enabled; streaming requests go through chatStream
+     */
+    public CompletableFuture<ChatResponse> chatAsync(ChatRequest chatRequest, Executor executor) {
+        return executeRequestAsync(resolveUnaryRequest(chatRequest), buildUrl(), executor);
+    }
+
+    /**
+     * 异步调用chat completions API，基于OkHttp的enqueue实现，不占用调用线程
+     * Call chat completions API asynchronously on top of OkHttp enqueue, without pinning a thread per call
+     *
+     * 取消返回的Future会取消底层的HTTP请求；完成回调在OkHttp的Dispatcher线程上执行
+     * Cancelling the returned future cancels the underlying HTTP call; completion runs on the OkHttp dispatcher thread
+     *
+     * @param userMessage 用户消息
+     *                    The message from user
+     * @param systemMessage 系统消息
+     *                      The system instruction message
+     * @return 可取消的CompletableFuture
+     *         A cancellable CompletableFuture
+     */
+    public CompletableFuture<ChatResponse> chatAsync(String userMessage, String systemMessage) {
+        return chatAsync(userMessage, systemMessage, null);
+    }
+
+    /**
+     * 异步调用chat completions API，并在指定的执行器上完成Future
+     * Call chat completions API asynchronously, completing the future on the given executor
+     *
+     * @param userMessage 用户消息
+     *                    The message from user
+     * @param systemMessage 系统消息
+     *                      The system instruction message
+     * @param executor 完成回调的执行器，为null时在OkHttp线程上完成
+     *                 Executor for completion callbacks; null completes on the OkHttp thread
+     * @return 可取消的CompletableFuture
+     *         A cancellable CompletableFuture
+     */
+    public CompletableFuture<ChatResponse> chatAsync(String userMessage, String systemMessage, Executor executor) {
+        if (StringUtils.isBlank(userMessage)) {
+            throw new IllegalArgumentException("User message cannot be null or empty");
+        }
+        if (StringUtils.isBlank(systemMessage)) {
+            throw new IllegalArgumentException("System message cannot be null or empty");
+        }
+        ChatRequest chatRequest = createChatRequest(config.getModel(), userMessage, systemMessage);
+        return executeRequestAsync(chatRequest, buildUrl(), executor);
+    }
+
+    /**
+     * 使用自定义消息列表异步调用API
+     * Call API asynchronously with custom message list
+     *
+     * @param messages 自定义消息列表
+     *                List of messages to send
+     * @return 可取消的CompletableFuture
+     *         A cancellable CompletableFuture
+     */
+    public CompletableFuture<ChatResponse> chatWithMessagesAsync(List<Message> messages) {
+        return chatWithMessagesAsync(messages, null);
+    }
+
+    /**
+     * 使用自定义消息列表异步调用API，并在指定的执行器上完成Future
+     * Call API asynchronously with custom message list, completing the future on the given executor
+     *
+     * @param messages 自定义消息列表
+     *                List of messages to send
+     * @param executor 完成回调的执行器，为null时在OkHttp线程上完成
+     *                 Executor for completion callbacks; null completes on the OkHttp thread
+     * @return 可取消的CompletableFuture
+     *         A cancellable CompletableFuture
+     */
+    public CompletableFuture<ChatResponse> chatWithMessagesAsync(List<Message> messages, Executor executor) {
+        if (messages == null || messages.isEmpty()) {
+            throw new IllegalArgumentException("Messages cannot be null or empty");
+        }
+        ChatRequest chatRequest = createChatRequestWithMessages(config.getModel(), messages);
+        return executeRequestAsync(chatRequest, buildUrl(), executor);
+    }
+
+    /**
+     * 以流式方式调用chat completions API，每生成一段内容即回调一次
+     * Call chat completions API in streaming mode, invoking the listener as each piece of content arrives
+     *
+     * @param userMessage 用户消息
+     *                    The message from user
+     * @param systemMessage 系统消息
+     *                      The system instruction message
+     * @param listener 流式回调
+     *                 The listener receiving deltas and the final response
+     * @return 拼装完成的ChatResponse，包含usage
+     *         The assembled ChatResponse, including usage
+     * @throws IOException 如果API调用失败
+     *                     if the API call fails
+     */
+    public ChatResponse chatStream(String userMessage, String systemMessage, StreamListener listener) throws IOException {
+        if (StringUtils.isBlank(userMessage)) {
+            throw new IllegalArgumentException("User message cannot be null or empty");
+        }
+        if (StringUtils.isBlank(systemMessage)) {
+            throw new IllegalArgumentException("System message cannot be null or empty");
+        }
+        ChatRequest chatRequest = createChatRequest(config.getModel(), userMessage, systemMessage);
+        return executeStreamRequest(chatRequest, buildUrl(), listener);
+    }
+
+    /**
+     * 使用自定义消息列表以流式方式调用API
+     * Call API in streaming mode with custom message list
+     *
+     * @param messages 自定义消息列表
+     *                List of messages to send
+     * @param listener 流式回调
+     *                 The listener receiving deltas and the final response
+     * @return 拼装完成的ChatResponse，包含usage
+     *         The assembled ChatResponse, including usage
+     * @throws IOException 如果API调用失败
+     *                     if the API call fails
+     */
+    public ChatResponse chatWithMessagesStream(List<Message> messages, StreamListener listener) throws IOException {
+        if (messages == null || messages.isEmpty()) {
+            throw new IllegalArgumentException("Messages cannot be null or empty");
+        }
+        ChatRequest chatRequest = createChatRequestWithMessages(config.getModel(), messages);
+        return executeStreamRequest(chatRequest, buildUrl(), listener);
+    }
+
+    /**
+     * 使用调用方构建的请求以流式方式聊天
+     * Chat in streaming mode with a caller-built request
+     *
+     * @param chatRequest 聊天请求
+     *                    The chat request
+     * @param listener 流式回调
+     *                 The listener receiving deltas and the final response
+     * @return 拼装完成的ChatResponse，包含usage
+     *         The assembled ChatResponse, including usage
+     * @throws IOException 如果API调用失败
+     *                     if the API call fails
+     */
+    public ChatResponse chatStream(ChatRequest chatRequest, StreamListener listener) throws IOException {
+        return executeStreamRequest(resolveRequest(chatRequest), buildUrl(), listener);
+    }
+
+    /**
+     * 计算消息的输入token数，不发出请求；精确程度取决于配置的TokenEstimator
+     * Count the prompt tokens of the messages without sending anything; as exact as the configured TokenEstimator
+     *
+     * @param messages 消息列表
+     *                 The messages
+     * @return token数
+     *         The token count
+     */
+    public int countTokens(List<Message> messages) {
+        if (messages == null) {
+            throw new IllegalArgumentException("Messages cannot be null");
         }
+        return config.getTokenEstimator().countTokens(messages);
+    }
+
+    /**
+     * 校验调用方构建的请求，未指定模型时使用配置中的默认模型
+     * Validate a caller-built request, falling back to the configured model when none is set
+     */
+    private ChatRequest resolveRequest(ChatRequest chatRequest) {
+        if (chatRequest == null) {
+            throw new IllegalArgumentException("ChatRequest cannot be null");
+        }
+        if (chatRequest.getMessages() == null || chatRequest.getMessages().isEmpty()) {
+            throw new IllegalArgumentException("Messages cannot be null or empty");
+        }
+        return StringUtils.isBlank(chatRequest.getModel()) ? chatRequest.withModel(config.getModel()) : chatRequest;
+    }
+
+    /**
+     * 非流式调用拒绝开启了stream的请求，否则SSE响应体会被当作JSON解析，只留下难以理解的解析错误
+     * Non-streaming calls refuse requests with stream enabled; the SSE body would otherwise be parsed as JSON and
+     * fail with a confusing parse error
+     */
+    private ChatRequest resolveUnaryRequest(ChatRequest chatRequest) {
+        ChatRequest resolved = resolveRequest(chatRequest);
+        if (resolved.isStreaming()) {
+            throw new IllegalArgumentException("Streaming requests must be sent with chatStream");
+        }
+        return resolved;
     }
 
     /**
@@ -152,29 +447,752 @@ public abstract class AbstractAIService {
         if (StringUtils.isBlank(url)) {
             throw new IllegalArgumentException("URL cannot be null or empty");
         }
+        if (isCoalesced(chatRequest)) {
+            return await(singleFlight.execute(CacheKey.of(config.getEndpoint(), chatRequest),
+                    () -> sendAsync(chatRequest, url, null), null));
+        }
 
-        String requestBody = JSONObject.toJSONString(chatRequest);
-        Request request = new Request.Builder()
-                .url(url)
-                .headers(Headers.of(getHeaders()))
-                .post(RequestBody.create(requestBody, JSON))
-                .build();
+        Deadline deadline = deadlineOf(chatRequest);
+        ChatCallMetrics metrics = newMetrics(chatRequest);
+        // 缓存命中时不占用限流配额
+        String cacheKey = cacheKey(chatRequest);
+        ChatResponse cached = cacheKey == null ? null : getCached(cacheKey);
+        if (cached != null) {
+            reportCacheHit(metrics, cached);
+            return cached;
+        }
+
+        RateLimiter rateLimiter = config.getRateLimiter();
+        String limitKey = rateLimiter == null ? null : rateLimitKey(chatRequest);
+        ChatResponse result = null;
+        Throwable failure = null;
+        CallGuard guard = null;
+        try {
+            int reservedTokens = rateLimiter == null ? 0 : rateLimiter.acquire(limitKey, chatRequest, config.getTokenEstimator(), maxWaitMillis(deadline));
+            try {
+                guard = CallGuard.acquire(config, chatRequest.getModel(), maxWaitMillis(deadline));
+                checkDeadline(deadline);
+                Request request = buildHttpRequest(chatRequest, url, metrics);
+                result = executeWithRetry(timeoutMillis -> {
+                    try (Response response = newCall(request, timeoutMillis).execute()) {
+                        return handleResponse(response);
+                    }
+                }, () -> true, deadline, retryCharge(rateLimiter, limitKey));
+                putCached(cacheKey, result);
+                return result;
+            } finally {
+                if (rateLimiter != null) {
+                    rateLimiter.release(limitKey, reservedTokens, usageOf(result));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (guard != null) {
+                guard.complete(result, failure, true);
+            }
+            report(metrics, result, failure);
+        }
+    }
+
+    /**
+     * 异步执行API请求，不占用调用线程
+     * Execute the API request asynchronously without blocking the calling thread
+     *
+     * @param chatRequest 聊天请求对象
+     *                    The chat request object
+     * @param url 完整的API URL
+     *            The complete API URL
+     * @param executor 完成回调的执行器，可为null
+     *                 Executor for completion callbacks, may be null
+     * @return 可取消的CompletableFuture
+     *         A cancellable CompletableFuture
+     */
+    private CompletableFuture<ChatResponse> executeRequestAsync(ChatRequest chatRequest, String url, Executor executor) {
+        if (chatRequest == null) {
+            throw new IllegalArgumentException("ChatRequest cannot be null");
+        }
+        if (StringUtils.isBlank(url)) {
+            throw new IllegalArgumentException("URL cannot be null or empty");
+        }
+        if (isCoalesced(chatRequest)) {
+            return singleFlight.execute(CacheKey.of(config.getEndpoint(), chatRequest),
+                    () -> sendAsync(chatRequest, url, null), executor);
+        }
+        return sendAsync(chatRequest, url, executor);
+    }
+
+    /**
+     * 发起一次异步调用，依次经过缓存、限流和重试
+     * Start one asynchronous call through the cache, the rate limiter and the retry policy
+     */
+    private CompletableFuture<ChatResponse> sendAsync(ChatRequest chatRequest, String url, Executor executor) {
+        Deadline deadline = deadlineOf(chatRequest);
+        ChatCallMetrics metrics = newMetrics(chatRequest);
+        String cacheKey = cacheKey(chatRequest);
+        ChatResponse cached = cacheKey == null ? null : getCached(cacheKey);
+        if (cached != null) {
+            reportCacheHit(metrics, cached);
+            return CompletableFuture.completedFuture(cached);
+        }
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful() || response.body() == null) {
-                throw new IOException("Unexpected response " + response);
+        // 限流在调用线程上进行：BLOCK模式下调用方会在此处等待配额，形成自然的背压
+        RateLimiter rateLimiter = config.getRateLimiter();
+        String limitKey = rateLimiter == null ? null : rateLimitKey(chatRequest);
+        int reservedTokens;
+        try {
+            reservedTokens = rateLimiter == null ? 0 : rateLimiter.acquire(limitKey, chatRequest, config.getTokenEstimator(), maxWaitMillis(deadline));
+        } catch (IOException e) {
+            report(metrics, null, e);
+            return failedFuture(e);
+        }
+        // 熔断器和隔舱同样在调用线程上检查，隔舱满时调用方在此等待名额
+        CallGuard guard;
+        try {
+            guard = CallGuard.acquire(config, chatRequest.getModel(), maxWaitMillis(deadline));
+        } catch (IOException e) {
+            if (rateLimiter != null) {
+                rateLimiter.release(limitKey, reservedTokens, null);
             }
-            
-            String responseBody = response.body().string();
-            if (StringUtils.isBlank(responseBody)) {
+            report(metrics, null, e);
+            return failedFuture(e);
+        }
+        try {
+            checkDeadline(deadline);
+        } catch (DeadlineExceededException e) {
+            if (rateLimiter != null) {
+                rateLimiter.release(limitKey, reservedTokens, null);
+            }
+            if (guard != null) {
+                guard.complete(null, e, true);
+            }
+            report(metrics, null, e);
+            return failedFuture(e);
+        }
+
+        Request request = buildHttpRequest(chatRequest, url, metrics);
+        RetryPolicy retryPolicy = config.getRetryPolicy();
+        CompletableFuture<ChatResponse> future;
+        if (retryPolicy.getMaxAttempts() <= 1 && retryPolicy.getTotalTimeoutMillis() <= 0) {
+            future = new CallFuture<>(newCall(request, attemptTimeoutMillis(0, deadline)), this::handleResponse, executor).enqueue();
+        } else {
+            future = new RetryingFuture(retryPolicy, timeoutMillis ->
+                    new CallFuture<>(newCall(request, attemptTimeoutMillis(timeoutMillis, deadline)), this::handleResponse, null).enqueue(),
+                    deadline, retryCharge(rateLimiter, limitKey), executor).start();
+        }
+        if (rateLimiter != null) {
+            future.whenComplete((result, failure) -> rateLimiter.release(limitKey, reservedTokens, usageOf(result)));
+        }
+        if (guard != null) {
+            future.whenComplete((result, failure) -> guard.complete(result, failure, true));
+        }
+        if (cacheKey != null) {
+            future.whenComplete((result, failure) -> putCached(cacheKey, result));
+        }
+        if (metrics != null) {
+            future.whenComplete((result, failure) -> report(metrics, result, failure));
+        }
+        // 返回原始Future，保证cancel能传递到底层的Call
+        return future;
+    }
+
+    private static CompletableFuture<ChatResponse> failedFuture(Throwable failure) {
+        CompletableFuture<ChatResponse> future = new CompletableFuture<>();
+        future.completeExceptionally(failure);
+        return future;
+    }
+
+    /**
+     * 按重试策略执行同步请求
+     * Run a synchronous call under the configured retry policy
+     *
+     * @param attempt 一次尝试
+     *                One attempt
+     * @param canRetry 当前是否仍允许重试，例如流式输出尚未向调用方交付任何内容
+     *                 Whether a retry is still allowed, e.g. a stream has not delivered anything to the caller yet
+     * @param deadline 请求的截止时间，可为null
+     *                 The request deadline, may be null
+     * @param beforeRetry 每次重试前调用，可为null
+     *                    Run before each retry, may be null
+     * @return ChatResponse
+     * @throws IOException 最后一次尝试的异常
+     *                     the failure of the last attempt
+     */
+    private ChatResponse executeWithRetry(Attempt attempt, BooleanSupplier canRetry, Deadline deadline,
+                                          Runnable beforeRetry) throws IOException {
+        RetryPolicy retryPolicy = config.getRetryPolicy();
+        long startNanos = System.nanoTime();
+        for (int attempts = 1; ; attempts++) {
+            ChatResponse response;
+            long delay;
+            if (attempts > 1 && beforeRetry != null) {
+                beforeRetry.run();
+            }
+            try {
+                response = attempt.execute(attemptTimeoutMillis(retryPolicy.remainingMillis(millisSince(startNanos)), deadline));
+            } catch (IOException e) {
+                delay = canRetry.getAsBoolean() ? retryPolicy.nextDelayMillis(attempts, millisSince(startNanos), e, null) : -1;
+                if (delay < 0 || exceeds(delay, deadline)) {
+                    throw e;
+                }
+                sleep(delay);
+                continue;
+            }
+            if (response.isSuccess() || !canRetry.getAsBoolean()) {
+                return response;
+            }
+            delay = retryPolicy.nextDelayMillis(attempts, millisSince(startNanos), null, response.getErrorResponse());
+            if (delay < 0 || exceeds(delay, deadline)) {
+                return response;
+            }
+            sleep(delay);
+        }
+    }
+
+    /**
+     * 重试同样计入限流器的请求次数
+     * Retries count against the rate limiter's request quota too
+     */
+    private static Runnable retryCharge(RateLimiter rateLimiter, String limitKey) {
+        return rateLimiter == null ? null : () -> rateLimiter.acquireRetry(limitKey);
+    }
+
+    /**
+     * 请求的截止时间：timeoutMillis从现在起算，与显式设置的deadline取较早者；两者都未设置时返回null
+     * The request deadline: timeoutMillis counts from now and the earlier of it and an explicit deadline wins;
+     * null when neither is set
+     */
+    private static Deadline deadlineOf(ChatRequest chatRequest) {
+        if (chatRequest.getTimeoutMillis() > 0) {
+            return Deadline.after(chatRequest.getTimeoutMillis(), TimeUnit.MILLISECONDS).min(chatRequest.getDeadline());
+        }
+        return chatRequest.getDeadline();
+    }
+
+    /**
+     * 截止时间已过时不再发出请求，例如限流器和隔舱的等待恰好用完了剩余时间
+     * Do not send once the deadline has passed, e.g. when waiting in the rate limiter and the bulkhead used up
+     * exactly the time that was left
+     */
+    private static void checkDeadline(Deadline deadline) throws DeadlineExceededException {
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException("Deadline exceeded before the request was sent");
+        }
+    }
+
+    /**
+     * 在限流器和隔舱中最多还能等待的时间：截止时间的剩余部分，没有截止时间时由它们各自的配置决定
+     * How long the rate limiter and the bulkhead may still wait: what is left before the deadline, or their own
+     * configured maximum when there is no deadline
+     */
+    private static long maxWaitMillis(Deadline deadline) {
+        return deadline == null ? Long.MAX_VALUE : deadline.remainingMillis();
+    }
+
+    /**
+     * 本次尝试的超时：配置的callTimeout、重试总时长的剩余部分和截止时间的剩余部分中最小的一个，0表示不限制
+     * Timeout for one attempt: the smallest of the configured call timeout, what is left of the retry budget and
+     * what is left before the deadline; 0 for none
+     */
+    private long attemptTimeoutMillis(long retryBudgetMillis, Deadline deadline) {
+        long timeout = minPositive(config.getCallTimeoutMillis(), retryBudgetMillis);
+        if (deadline != null) {
+            // 截止时间在两次检查之间到期时至少保留1毫秒，让本次尝试以超时失败而不是不受限制
+            timeout = minPositive(timeout, Math.max(1, deadline.remainingMillis()));
+        }
+        return timeout;
+    }
+
+    /**
+     * 退避等待结束时截止时间是否已过，已过则不再重试
+     * Whether the deadline would pass during the backoff, in which case there is no point retrying
+     */
+    private static boolean exceeds(long delayMillis, Deadline deadline) {
+        return deadline != null && delayMillis >= deadline.remainingMillis();
+    }
+
+    private static long minPositive(long a, long b) {
+        if (a <= 0) {
+            return b;
+        }
+        return b <= 0 ? a : Math.min(a, b);
+    }
+
+    /**
+     * 创建Call，并在需要时设置本次调用的超时
+     * Create a call, applying a per-call timeout when one is given
+     */
+    private Call newCall(Request request, long timeoutMillis) {
+        Call call = httpClient.newCall(request);
+        if (timeoutMillis > 0) {
+            call.timeout().timeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return call;
+    }
+
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+
+    /**
+     * 限流键：同一API密钥和模型共享配额
+     * Rate limit key: requests with the same API key and model share one quota
+     */
+    private String rateLimitKey(ChatRequest chatRequest) {
+        return config.getApiKey() + '|' + chatRequest.getModel();
+    }
+
+    /**
+     * 是否与相同的进行中请求合并，跳过缓存或带有超时、截止时间的请求不合并，以免共用他人的时间预算；
+     * 显式要求不合并的请求（例如对冲请求）同样不合并
+     * Whether the request is coalesced with identical calls in flight. Requests that skip the cache or carry
+     * their own timeout or deadline are not, so they never run on another caller's time budget; neither are
+     * requests that opt out explicitly, such as hedged duplicates
+     */
+    private boolean isCoalesced(ChatRequest chatRequest) {
+        return config.isSingleFlight() && !chatRequest.isSkipCache() && !chatRequest.isSkipSingleFlight()
+                && chatRequest.getTimeoutMillis() <= 0 && chatRequest.getDeadline() == null;
+    }
+
+    /**
+     * 同步等待合并后的调用，被中断时只退出当前等待者
+     * Wait for a coalesced call; on interrupt only this waiter detaches
+     */
+    private static ChatResponse await(CompletableFuture<ChatResponse> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a coalesced request");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * 计算请求的缓存键，未配置缓存、请求选择跳过缓存或请求是采样请求且未开启cacheSampledResponses时返回null
+     * Compute the cache key of a request, or null when no cache is configured, the request opts out, or the request
+     * is sampled and cacheSampledResponses is off
+     *
+     * temperature未设置时服务端按1.0采样，同样算作采样请求
+     * An unset temperature means the server samples at 1.0, so it counts as sampled too
+     */
+    private String cacheKey(ChatRequest chatRequest) {
+        if (config.getResponseCache() == null || chatRequest.isSkipCache()) {
+            return null;
+        }
+        boolean deterministic = chatRequest.getTemperature() != null && chatRequest.getTemperature() == 0;
+        if (!deterministic && !config.isCacheSampledResponses()) {
+            return null;
+        }
+        return CacheKey.of(config.getEndpoint(), chatRequest);
+    }
+
+    private ChatResponse getCached(String cacheKey) {
+        ChatCompletionResponse cached = config.getResponseCache().get(cacheKey);
+        return cached == null ? null : parseResponse(cached);
+    }
+
+    /**
+     * 只缓存成功的响应
+     * Only successful responses are cached
+     */
+    private void putCached(String cacheKey, ChatResponse response) {
+        if (cacheKey != null && response != null && response.isSuccess() && response.getRawResponse() != null) {
+            config.getResponseCache().put(cacheKey, response.getRawResponse());
+        }
+    }
+
+    /**
+     * 启用度量时为本次调用创建度量对象，否则返回null，不产生任何分配
+     * Create the measurements for a call when instrumentation is enabled; otherwise return null without allocating
+     */
+    private ChatCallMetrics newMetrics(ChatRequest chatRequest) {
+        return instrumentation == null ? null : new ChatCallMetrics(chatRequest.getModel(), chatRequest.isStreaming());
+    }
+
+    private void reportCacheHit(ChatCallMetrics metrics, ChatResponse cached) {
+        if (metrics != null) {
+            MetricsRecorder.cacheHit(metrics);
+            report(metrics, cached, null);
+        }
+    }
+
+    /**
+     * 结束计时并通知度量回调，回调抛出的异常不会影响调用结果
+     * Stop the clock and notify the instrumentation; exceptions it throws never affect the call
+     */
+    private void report(ChatCallMetrics metrics, ChatResponse response, Throwable failure) {
+        if (metrics == null) {
+            return;
+        }
+        MetricsRecorder.finish(metrics, response,
+                failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+        try {
+            instrumentation.onCallComplete(metrics);
+        } catch (RuntimeException ignored) {
+            // 度量不能影响业务调用
+        }
+    }
+
+    /**
+     * 获取响应中的用量，失败时返回null
+     * Get the usage from a response, or null if there is none
+     */
+    private static ChatCompletionResponse.Usage usageOf(ChatResponse response) {
+        return response != null && response.getRawResponse() != null ? response.getRawResponse().getUsage() : null;
+    }
+
+    /**
+     * 处理非流式响应
+     * Handle a non-streaming response
+     *
+     * @param response HTTP响应
+     *                 The HTTP response
+     * @return ChatResponse
+     * @throws IOException 如果响应不成功或为空
+     *                     if the response is unsuccessful or empty
+     */
+    private ChatResponse handleResponse(Response response) throws IOException {
+        if (!response.isSuccessful() || response.body() == null) {
+            throw toApiException(response);
+        }
+
+        ChatCallMetrics metrics = instrumentation == null ? null : response.request().tag(ChatCallMetrics.class);
+        long parseStart = metrics == null ? 0 : System.nanoTime();
+        // 直接从响应流中一次性解析到模型对象，不再经过String和JSON树
+        ChatCompletionResponse completion = new ChatCompletionResponse();
+        ErrorResponse errorResponse;
+        try (InputStream body = bodySource(response).inputStream();
+             JsonParser parser = ChatCodec.FACTORY.createParser(body)) {
+            JsonToken first = parser.nextToken();
+            if (first == null || first == JsonToken.VALUE_NULL) {
                 throw new IOException("Empty response body");
             }
-            
-            JSONObject jsonResponse = JSONObject.parseObject(responseBody);
-            return parseResponse(jsonResponse);
+            errorResponse = ChatCodec.readCompletion(parser, completion);
+        } finally {
+            if (metrics != null) {
+                MetricsRecorder.parsed(metrics, System.nanoTime() - parseStart);
+            }
+        }
+        if (errorResponse != null) {
+            return new ChatResponse(errorResponse);
+        }
+        return parseResponse(completion);
+    }
+
+    /**
+     * 执行流式API请求，逐行读取SSE事件并回调
+     * Execute the API request as a server-sent-event stream, dispatching each event as it is read
+     *
+     * @param chatRequest 聊天请求对象
+     *                    The chat request object
+     * @param url 完整的API URL
+     *            The complete API URL
+     * @param listener 流式回调
+     *                 The stream listener
+     * @return 拼装完成的ChatResponse
+     *         The assembled ChatResponse
+     * @throws IOException 如果API调用失败
+     *                     if the API call fails
+     */
+    private ChatResponse executeStreamRequest(ChatRequest chatRequest, String url, StreamListener listener) throws IOException {
+        if (chatRequest == null) {
+            throw new IllegalArgumentException("ChatRequest cannot be null");
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("StreamListener cannot be null");
+        }
+        if (StringUtils.isBlank(url)) {
+            throw new IllegalArgumentException("URL cannot be null or empty");
+        }
+
+        // 复制一份再打开stream，避免修改调用方可能共享的请求对象
+        Deadline deadline = deadlineOf(chatRequest);
+        ChatRequest streamRequest = chatRequest.withModel(chatRequest.getModel());
+        streamRequest.setStream(true);
+        streamRequest.setStreamOptions(new ChatRequest.StreamOptions(true));
+        ChatCallMetrics metrics = newMetrics(streamRequest);
+        Request request = buildHttpRequest(streamRequest, url, metrics).newBuilder()
+                .header("Accept", "text/event-stream")
+                .build();
+
+        RateLimiter rateLimiter = config.getRateLimiter();
+        String limitKey = rateLimiter == null ? null : rateLimitKey(chatRequest);
+        int reservedTokens;
+        try {
+            reservedTokens = rateLimiter == null ? 0 : rateLimiter.acquire(limitKey, chatRequest, config.getTokenEstimator(), maxWaitMillis(deadline));
+        } catch (IOException e) {
+            report(metrics, null, e);
+            throw e;
+        }
+        // 已向调用方交付内容后不能再重试，否则会重复输出
+        AtomicBoolean delivered = new AtomicBoolean();
+        StreamListener tracking = (content, chunk) -> {
+            delivered.set(true);
+            listener.onDelta(content, chunk);
+        };
+        ChatResponse result = null;
+        Throwable failure = null;
+        CallGuard guard = null;
+        try {
+            guard = CallGuard.acquire(config, chatRequest.getModel(), maxWaitMillis(deadline));
+            checkDeadline(deadline);
+            result = executeWithRetry(timeoutMillis -> {
+                Call call = newCall(request, timeoutMillis);
+                FirstTokenTimeout firstToken = FirstTokenTimeout.start(call, config.getFirstTokenTimeoutMillis());
+                try (Response response = call.execute()) {
+                    return readStream(response, tracking, firstToken);
+                } catch (IOException e) {
+                    throw firstToken == null ? e : firstToken.finish(e);
+                } finally {
+                    if (firstToken != null) {
+                        firstToken.finish(null);
+                    }
+                }
+            }, () -> !delivered.get(), deadline, retryCharge(rateLimiter, limitKey));
+            // 在重试结束后调用，成功和流中的错误事件都只通知一次
+            listener.onComplete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (guard != null) {
+                guard.complete(result, failure, false);
+            }
+            if (rateLimiter != null) {
+                rateLimiter.release(limitKey, reservedTokens, usageOf(result));
+            }
+            report(metrics, result, failure);
         }
     }
 
+    /**
+     * 逐行读取SSE事件流
+     * Read the server-sent-event stream line by line
+     *
+     * @param response HTTP响应
+     *                 The HTTP response
+     * @param listener 流式回调
+     *                 The stream listener
+     * @param firstToken 首token超时，收到第一个事件时停止计时，可为null
+     *                   The first-token timeout, stopped when the first event arrives; may be null
+     * @return 拼装完成的ChatResponse
+     *         The assembled ChatResponse
+     * @throws IOException 如果响应不成功或读取失败
+     *                     if the response is unsuccessful or reading fails
+     */
+    private ChatResponse readStream(Response response, StreamListener listener, FirstTokenTimeout firstToken) throws IOException {
+        if (!response.isSuccessful() || response.body() == null) {
+            throw toApiException(response);
+        }
+
+        StreamAccumulator accumulator = new StreamAccumulator();
+        BufferedSource source = bodySource(response);
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = source.readUtf8Line()) != null) {
+            // 数据行可能跨多行，空行表示一个事件结束
+            if (line.startsWith(SSE_DATA_PREFIX)) {
+                if (data.length() > 0) {
+                    data.append('\n');
+                }
+                data.append(line, line.startsWith("data: ") ? 6 : SSE_DATA_PREFIX.length(), line.length());
+                continue;
+            }
+            if (!line.isEmpty() || data.length() == 0) {
+                // 注释行（如": keep-alive"）以及其他字段直接忽略
+                continue;
+            }
+            if (firstToken != null) {
+                firstToken.received();
+            }
+            String event = data.toString();
+            data.setLength(0);
+            if (SSE_DONE.equals(event)) {
+                break;
+            }
+            ChatResponse error = dispatchStreamEvent(event, accumulator, listener);
+            if (error != null) {
+                return error;
+            }
+        }
+        // 服务端未以空行结束最后一个事件
+        if (data.length() > 0 && !SSE_DONE.equals(data.toString())) {
+            ChatResponse error = dispatchStreamEvent(data.toString(), accumulator, listener);
+            if (error != null) {
+                return error;
+            }
+        }
+
+        ChatCompletionResponse completionResponse = accumulator.toResponse();
+        return new ChatResponse(accumulator.content(), completionResponse);
+    }
+
+    /**
+     * 响应体的数据源；启用度量且响应经过gzip压缩时，统计解压后的字节数
+     * The response body source; counts decompressed bytes when instrumentation is on and the response was gzip-compressed
+     */
+    private static BufferedSource bodySource(Response response) {
+        BufferedSource source = response.body().source();
+        ChatCallMetrics metrics = response.request().tag(ChatCallMetrics.class);
+        if (metrics == null || !metrics.isResponseCompressed()) {
+            return source;
+        }
+        return Okio.buffer(new ForwardingSource(source) {
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                long read = super.read(sink, byteCount);
+                if (read > 0) {
+                    MetricsRecorder.decompressed(metrics, read);
+                }
+                return read;
+            }
+        });
+    }
+
+    /**
+     * 将非2xx响应转换为ApiException，并尽量解析响应体中的错误信息
+     * Convert a non-2xx response into an ApiException, parsing the error body when possible
+     */
+    private static ApiException toApiException(Response response) throws IOException {
+        ErrorResponse errorResponse = null;
+        if (response.body() != null) {
+            try (InputStream body = bodySource(response).inputStream();
+                 JsonParser parser = ChatCodec.FACTORY.createParser(body)) {
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    errorResponse = ChatCodec.readError(parser);
+                }
+            } catch (JsonProcessingException ignored) {
+                // 响应体为空或不是JSON，例如网关返回的HTML错误页
+            }
+        }
+        return new ApiException("Unexpected response " + response, response.code(), errorResponse,
+                ApiException.parseRetryAfterMillis(response.header("Retry-After")));
+    }
+
+    /**
+     * 解析并分发一个SSE事件
+     * Parse one SSE event and hand its content to the listener
+     *
+     * @return 如果事件是错误响应则返回对应的ChatResponse，否则返回null
+     *         A failed ChatResponse if the event carries an error, null otherwise
+     */
+    private ChatResponse dispatchStreamEvent(String event, StreamAccumulator accumulator, StreamListener listener) throws IOException {
+        ChatCompletionChunk chunk = new ChatCompletionChunk();
+        ErrorResponse errorResponse;
+        try (JsonParser parser = ChatCodec.FACTORY.createParser(event)) {
+            errorResponse = ChatCodec.readChunk(parser, chunk);
+        }
+        if (errorResponse != null) {
+            return new ChatResponse(errorResponse);
+        }
+        String content = accumulator.accept(chunk);
+        if (content != null) {
+            listener.onDelta(content, chunk);
+        }
+        return null;
+    }
+
+    /**
+     * 请求体字节数的下限：消息内容按UTF-8编码后的字节数，JSON的其余部分和转义只会让请求体更大
+     * A lower bound on the request body size: the UTF-8 encoded length of the message contents; the rest of the JSON
+     * and any escaping only make the body larger
+     *
+     * 请求体边序列化边发送，是否压缩必须在序列化之前决定
+     * The body is serialized while it is sent, so compression has to be decided before serializing
+     */
+    static long minimumBodyBytes(ChatRequest chatRequest) {
+        long bytes = 0;
+        for (Message message : chatRequest.getMessages()) {
+            if (message != null && message.getContent() != null) {
+                bytes += utf8Length(message.getContent());
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 字符串按UTF-8编码后的字节数，不实际编码
+     * The number of bytes the string takes when encoded as UTF-8, computed without encoding it
+     *
+     * 中文等BMP字符占3个字节，代理对（如emoji）共占4个字节，单独的代理字符按3个字节计
+     * CJK and other BMP characters take 3 bytes, a surrogate pair (such as an emoji) 4 bytes in total, and a lone
+     * surrogate is counted as 3
+     */
+    static long utf8Length(String text) {
+        long bytes = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 构建HTTP请求
+     * Build the HTTP request for a chat request
+     *
+     * @param chatRequest 聊天请求对象
+     *                    The chat request object
+     * @param url 完整的API URL
+     *            The complete API URL
+     * @param metrics 本次调用的度量数据，未启用度量时为null
+     *                Measurements of the call, null when instrumentation is disabled
+     * @return OkHttp请求
+     *         The OkHttp request
+     */
+    private Request buildHttpRequest(ChatRequest chatRequest, String url, ChatCallMetrics metrics) {
+        // 请求体在发送时直接写入连接，不会先生成完整的JSON字符串
+        Request.Builder builder = new Request.Builder()
+                .url(url)
+                .headers(Headers.of(getHeaders()));
+        RequestBody body = new JsonRequestBody(chatRequest);
+        int threshold = config.getRequestCompressionThreshold();
+        if (threshold > 0 && minimumBodyBytes(chatRequest) >= threshold) {
+            builder.header("Content-Encoding", "gzip").post(new GzipRequestBody(body));
+        } else {
+            builder.post(body);
+        }
+        if (!config.isResponseCompression()) {
+            // 显式设置后OkHttp不再添加Accept-Encoding: gzip
+            builder.header("Accept-Encoding", "identity");
+        }
+        if (metrics != null) {
+            // 通过tag把度量数据带给MetricsEventListener
+            builder.tag(ChatCallMetrics.class, metrics);
+        }
+        return builder.build();
+    }
+
     /**
      * 构建完整的 API URL
      * Build the complete API URL by combining endpoint and chat completion path
@@ -209,31 +1227,38 @@ public abstract class AbstractAIService {
      * 使用自定义消息列表创建聊天请求
      * Create a chat request with custom message list
      *
+     * @param model 模型名称
+     *              The model name for this request
      * @param messages 消息列表
      *                List of messages to include in the request
      * @return ChatRequest
      */
-    protected abstract ChatRequest createChatRequestWithMessages(List<Message> messages);
+    protected abstract ChatRequest createChatRequestWithMessages(String model, List<Message> messages);
 
     /**
      * 使用系统消息和用户消息创建聊天请求
      * Create a chat request with system and user messages
      *
+     * @param model 模型名称
+     *              The model name for this request
      * @param userMessage 用户消息
      *                    The message from user
      * @param systemMessage 系统消息
      *                      The system instruction message
      * @return ChatRequest
      */
-    protected abstract ChatRequest createChatRequest(String userMessage, String systemMessage);
+    protected abstract ChatRequest createChatRequest(String model, String userMessage, String systemMessage);
 
     /**
      * 解析API响应
      * Parse the API response
      *
-     * @param response JSON响应
-     *                 JSON response from the API
+     * 错误响应已由基类处理，这里只会收到正常的completion
+     * Error bodies are handled by the base class; only successful completions reach this method
+     *
+     * @param response 解析后的响应
+     *                 The parsed completion response
      * @return ChatResponse
      */
-    protected abstract ChatResponse parseResponse(JSONObject response);
+    protected abstract ChatResponse parseResponse(ChatCompletionResponse response);
 } 
\ No newline at end of file
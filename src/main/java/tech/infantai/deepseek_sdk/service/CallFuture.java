@@ -0,0 +1,99 @@
+package tech.infantai.deepseek_sdk.service;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 绑定到OkHttp Call的CompletableFuture，取消Future会同时取消底层的Call
+ * A CompletableFuture bound to an OkHttp Call; cancelling the future cancels the underlying call
+ *
+ * @param <T> 结果类型
+ *            The result type
+ */
+class CallFuture<T> extends CompletableFuture<T> implements Callback {
+
+    /**
+     * 响应处理函数
+     * Converts an HTTP response into the result, running on the OkHttp dispatcher thread
+     */
+    interface ResponseHandler<T> {
+        T handle(Response response) throws IOException;
+    }
+
+    private final Call call;
+    private final ResponseHandler<T> handler;
+    private final Executor executor;
+
+    /**
+     * @param call 底层请求
+     *             The underlying call
+     * @param handler 响应处理函数
+     *                The response handler
+     * @param executor 完成回调的执行器，为null时在OkHttp线程上完成
+     *                 Executor for completion callbacks; null completes on the OkHttp thread
+     */
+    CallFuture(Call call, ResponseHandler<T> handler, Executor executor) {
+        this.call = call;
+        this.handler = handler;
+        this.executor = executor;
+    }
+
+    /**
+     * 发起异步请求
+     * Enqueue the call and return this future
+     */
+    CallFuture<T> enqueue() {
+        call.enqueue(this);
+        return this;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        call.cancel();
+        return super.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    public void onFailure(Call call, IOException e) {
+        completeOn(null, e);
+    }
+
+    @Override
+    public void onResponse(Call call, Response response) {
+        T result;
+        try (Response r = response) {
+            result = handler.handle(r);
+        } catch (Throwable t) {
+            completeOn(null, t);
+            return;
+        }
+        completeOn(result, null);
+    }
+
+    private void completeOn(T result, Throwable failure) {
+        if (executor == null) {
+            finish(result, failure);
+            return;
+        }
+        try {
+            executor.execute(() -> finish(result, failure));
+        } catch (RejectedExecutionException e) {
+            // 执行器已关闭时直接在当前线程完成，避免调用方永远等待
+            finish(result, failure);
+        }
+    }
+
+    private void finish(T result, Throwable failure) {
+        if (failure != null) {
+            completeExceptionally(failure);
+        } else {
+            complete(result);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package tech.infantai.deepseek_sdk.service;
+
+import tech.infantai.deepseek_sdk.config.GPTConfig;
+import tech.infantai.deepseek_sdk.exception.ApiException;
+import tech.infantai.deepseek_sdk.exception.DeadlineExceededException;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.ratelimit.RateLimitExceededException;
+import tech.infantai.deepseek_sdk.resilience.Bulkhead;
+import tech.infantai.deepseek_sdk.resilience.CircuitBreaker;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 一次调用持有的熔断器许可和隔舱名额
+ * The circuit breaker permit and bulkhead slot held by one call
+ *
+ * 熔断器先于隔舱检查，打开时不会占用隔舱名额。一次逻辑调用（包括其重试）只记录一个结果。
+ * The breaker is checked before the bulkhead, so an open circuit never takes a slot.
+ * One logical call, retries included, records a single outcome.
+ */
+final class CallGuard {
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final String key;
+    private final long permit;
+    private final long startNanos;
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    private CallGuard(CircuitBreaker circuitBreaker, Bulkhead bulkhead, String key, long permit) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.key = key;
+        this.permit = permit;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * 申请熔断器许可和隔舱名额，两者都未配置时返回null
+     * Take the breaker permit and the bulkhead slot; returns null when neither is configured
+     *
+     * @param maxWaitMillis 最多等待隔舱名额的时间，通常是截止时间的剩余部分
+     *                      The longest to wait for a bulkhead slot, usually what is left before the deadline
+     * @throws IOException 熔断器打开、隔舱已满或等待时被中断
+     *                     if the circuit is open, the bulkhead is full or the wait was interrupted
+     */
+    static CallGuard acquire(GPTConfig config, String model, long maxWaitMillis) throws IOException {
+        CircuitBreaker circuitBreaker = config.getCircuitBreaker();
+        Bulkhead bulkhead = config.getBulkhead();
+        if (circuitBreaker == null && bulkhead == null) {
+            return null;
+        }
+        String key = config.getEndpoint() + '|' + model;
+        long permit = circuitBreaker == null ? 0 : circuitBreaker.acquire(key);
+        if (bulkhead != null) {
+            try {
+                bulkhead.acquire(key, maxWaitMillis);
+            } catch (IOException e) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.release(key, permit);
+                }
+                throw e;
+            }
+        }
+        return new CallGuard(circuitBreaker, bulkhead, key, permit);
+    }
+
+    /**
+     * 调用结束：归还名额并向熔断器记录结果，多次调用时只有第一次生效
+     * The call has ended: return the slot and record the outcome; only the first call has any effect
+     *
+     * @param timed 是否参与慢调用统计，流式调用的总耗时取决于回复长度，不参与
+     *              Whether the duration counts towards the slow-call rate; streams do not,
+     *              as their length depends on the reply
+     */
+    void complete(ChatResponse response, Throwable failure, boolean timed) {
+        if (!completed.compareAndSet(false, true)) {
+            return;
+        }
+        if (bulkhead != null) {
+            bulkhead.release(key);
+        }
+        if (circuitBreaker == null) {
+            return;
+        }
+        long duration = timed ? System.nanoTime() - startNanos : 0;
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause == null) {
+            if (response != null && !response.isSuccess()) {
+                circuitBreaker.recordFailure(key, permit, duration);
+            } else {
+                circuitBreaker.recordSuccess(key, permit, duration);
+            }
+        } else if (cause instanceof CancellationException || cause instanceof RateLimitExceededException
+                || cause instanceof DeadlineExceededException || isInterrupted(cause)) {
+            // 调用方取消、中断、截止时间已到或客户端限流，与上游健康无关
+            circuitBreaker.release(key, permit);
+        } else if (isUpstreamFailure(cause)) {
+            circuitBreaker.recordFailure(key, permit, duration);
+        } else {
+            // 400等调用方错误说明上游正常响应
+            circuitBreaker.recordSuccess(key, permit, duration);
+        }
+    }
+
+    /**
+     * 线程中断或Call被取消。SocketTimeoutException是子类，OkHttp的callTimeout到期时抛出消息为"timeout"的
+     * InterruptedIOException，两者都算上游超时，不在此列
+     * The thread was interrupted or the Call cancelled. SocketTimeoutException is a subclass and OkHttp's call timeout
+     * throws an InterruptedIOException with the message "timeout"; both are upstream timeouts and excluded here
+     */
+    private static boolean isInterrupted(Throwable failure) {
+        return failure.getClass() == InterruptedIOException.class && !"timeout".equals(failure.getMessage());
+    }
+
+    private static boolean isUpstreamFailure(Throwable failure) {
+        if (failure instanceof ApiException) {
+            int status = ((ApiException) failure).getStatusCode();
+            return status == 408 || status == 429 || status >= 500;
+        }
+        return failure instanceof IOException;
+    }
+}
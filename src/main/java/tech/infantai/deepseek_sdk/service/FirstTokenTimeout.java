@@ -0,0 +1,67 @@
+package tech.infantai.deepseek_sdk.service;
+
+import okhttp3.Call;
+import tech.infantai.deepseek_sdk.util.Schedulers;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 流式调用的首token超时：在限定时间内没有收到第一个事件就取消Call
+ * First-token timeout of a streamed call: cancels the Call if no event has arrived in time
+ *
+ * OkHttp的readTimeout在每次读取时重新计时，callTimeout覆盖整个生成过程，两者都无法单独限制首个token的等待时间
+ * OkHttp's readTimeout restarts on every read and callTimeout spans the whole generation, so neither can bound
+ * the wait for the first token on its own
+ */
+final class FirstTokenTimeout {
+    private final long timeoutMillis;
+    private final AtomicBoolean received = new AtomicBoolean();
+    private final AtomicBoolean fired = new AtomicBoolean();
+    private final ScheduledFuture<?> timer;
+
+    private FirstTokenTimeout(Call call, long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.timer = Schedulers.shared().schedule(() -> {
+            if (!received.get() && fired.compareAndSet(false, true)) {
+                call.cancel();
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 为Call启动计时，timeoutMillis不大于0时返回null
+     * Start the clock for a call; returns null when timeoutMillis is not positive
+     */
+    static FirstTokenTimeout start(Call call, long timeoutMillis) {
+        return timeoutMillis > 0 ? new FirstTokenTimeout(call, timeoutMillis) : null;
+    }
+
+    /**
+     * 收到第一个事件
+     * The first event has arrived
+     */
+    void received() {
+        if (received.compareAndSet(false, true)) {
+            timer.cancel(false);
+        }
+    }
+
+    /**
+     * 调用结束时停止计时；若是本计时器取消了Call，把取消产生的异常换成SocketTimeoutException，以便按超时重试
+     * Stop the clock when the call ends. If this timer cancelled the call, replace the resulting exception with a
+     * SocketTimeoutException so the retry policy treats it as a timeout
+     */
+    IOException finish(IOException failure) {
+        timer.cancel(false);
+        if (failure == null || !fired.get()) {
+            return failure;
+        }
+        SocketTimeoutException timeout = new SocketTimeoutException("No stream event within " + timeoutMillis + " ms");
+        timeout.initCause(failure);
+        return timeout;
+    }
+}
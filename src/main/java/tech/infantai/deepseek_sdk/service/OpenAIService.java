@@ -1,11 +1,10 @@
 package tech.infantai.deepseek_sdk.service;
 
-import com.alibaba.fastjson.JSONObject;
+import okhttp3.OkHttpClient;
 import tech.infantai.deepseek_sdk.config.GPTConfig;
 import tech.infantai.deepseek_sdk.model.ChatRequest;
 import tech.infantai.deepseek_sdk.model.ChatResponse;
 import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
-import tech.infantai.deepseek_sdk.model.ErrorResponse;
 import tech.infantai.deepseek_sdk.model.Message;
 
 import java.util.List;
@@ -16,9 +15,13 @@ public class OpenAIService extends AbstractAIService {
         super(config);
     }
 
+    public OpenAIService(GPTConfig config, OkHttpClient httpClient) {
+        super(config, httpClient);
+    }
+
     @Override
-    protected ChatRequest createChatRequestWithMessages(List<Message> messages) {
-        ChatRequest request = new ChatRequest(config.getModel());
+    protected ChatRequest createChatRequestWithMessages(String model, List<Message> messages) {
+        ChatRequest request = new ChatRequest(model);
         messages.forEach(request::addMessage);
         //request.setTemperature(0.7);
         //request.setMaxTokens(2000);
@@ -26,8 +29,8 @@ public class OpenAIService extends AbstractAIService {
     }
 
     @Override
-    protected ChatRequest createChatRequest(String userMessage, String systemMessage) {
-        ChatRequest request = new ChatRequest(config.getModel());
+    protected ChatRequest createChatRequest(String model, String userMessage, String systemMessage) {
+        ChatRequest request = new ChatRequest(model);
         request.addSystemMessage(systemMessage);
         request.addUserMessage(userMessage);
 //        request.setTemperature(0.7);
@@ -36,15 +39,7 @@ public class OpenAIService extends AbstractAIService {
     }
 
     @Override
-    protected ChatResponse parseResponse(JSONObject response) {
-        // 检查是否存在错误响应
-        if (response.containsKey("error")) {
-            ErrorResponse errorResponse = JSONObject.toJavaObject(response, ErrorResponse.class);
-            return new ChatResponse(errorResponse);
-        }
-        
-        // 正常响应处理
-        ChatCompletionResponse completionResponse = JSONObject.toJavaObject(response, ChatCompletionResponse.class);
+    protected ChatResponse parseResponse(ChatCompletionResponse completionResponse) {
         String content = completionResponse.getChoices().get(0).getMessage().getContent();
         return new ChatResponse(content, completionResponse);
     }
@@ -0,0 +1,140 @@
+package tech.infantai.deepseek_sdk.service;
+
+import tech.infantai.deepseek_sdk.config.RetryPolicy;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.util.Deadline;
+import tech.infantai.deepseek_sdk.util.Schedulers;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按重试策略反复发起异步请求的Future，退避等待通过定时器完成，不占用线程
+ * A future that re-issues an async call according to a RetryPolicy; backoff waits use a timer rather than a blocked thread
+ *
+ * 取消该Future会取消当前正在进行的尝试；退避等待会越过截止时间时不再重试
+ * Cancelling this future cancels the attempt currently in flight. No retry is made when the backoff would run
+ * past the deadline
+ */
+class RetryingFuture extends CompletableFuture<ChatResponse> {
+
+    /**
+     * 发起一次尝试
+     * Starts one attempt
+     */
+    interface Attempt {
+        /**
+         * @param timeoutMillis 本次尝试的超时，0表示不限制
+         *                      Timeout for this attempt, 0 for none
+         */
+        CompletableFuture<ChatResponse> start(long timeoutMillis);
+    }
+
+    private final RetryPolicy retryPolicy;
+    private final Attempt attempt;
+    private final Deadline deadline;
+    private final Runnable beforeRetry;
+    private final Executor executor;
+    private final long startNanos = System.nanoTime();
+    private volatile CompletableFuture<ChatResponse> current;
+    private volatile int attempts;
+
+    /**
+     * @param beforeRetry 每次重试发起前调用，可为null
+     *                    Run before each retry is started, may be null
+     */
+    RetryingFuture(RetryPolicy retryPolicy, Attempt attempt, Deadline deadline, Runnable beforeRetry, Executor executor) {
+        this.retryPolicy = retryPolicy;
+        this.attempt = attempt;
+        this.deadline = deadline;
+        this.beforeRetry = beforeRetry;
+        this.executor = executor;
+    }
+
+    /**
+     * 发起第一次尝试并返回自身
+     * Start the first attempt and return this future
+     */
+    RetryingFuture start() {
+        run();
+        return this;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        CompletableFuture<ChatResponse> inFlight = current;
+        if (inFlight != null) {
+            inFlight.cancel(mayInterruptIfRunning);
+        }
+        return super.cancel(mayInterruptIfRunning);
+    }
+
+    private void run() {
+        if (isDone()) {
+            return;
+        }
+        attempts++;
+        CompletableFuture<ChatResponse> inFlight;
+        try {
+            if (attempts > 1 && beforeRetry != null) {
+                beforeRetry.run();
+            }
+            inFlight = attempt.start(retryPolicy.remainingMillis(elapsedMillis()));
+        } catch (RuntimeException e) {
+            finish(null, e);
+            return;
+        }
+        current = inFlight;
+        if (isCancelled()) {
+            // 在发起尝试的同时被取消
+            inFlight.cancel(true);
+            return;
+        }
+        inFlight.whenComplete(this::onAttemptComplete);
+    }
+
+    private void onAttemptComplete(ChatResponse response, Throwable failure) {
+        if (isDone()) {
+            return;
+        }
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        long delay = -1;
+        if (cause instanceof IOException) {
+            delay = retryPolicy.nextDelayMillis(attempts, elapsedMillis(), (IOException) cause, null);
+        } else if (cause == null && !response.isSuccess()) {
+            delay = retryPolicy.nextDelayMillis(attempts, elapsedMillis(), null, response.getErrorResponse());
+        }
+        if (delay < 0 || (deadline != null && delay >= deadline.remainingMillis())) {
+            finish(response, cause);
+            return;
+        }
+        Schedulers.shared().schedule(this::run, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private void finish(ChatResponse response, Throwable failure) {
+        Runnable completion = () -> {
+            if (failure != null) {
+                completeExceptionally(failure);
+            } else {
+                complete(response);
+            }
+        };
+        if (executor == null) {
+            completion.run();
+            return;
+        }
+        try {
+            executor.execute(completion);
+        } catch (RejectedExecutionException e) {
+            completion.run();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package tech.infantai.deepseek_sdk.service;
+
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 合并相同的进行中请求：同一个键同时只发出一次上游调用，所有等待者拿到同一个结果
+ * Coalesces identical in-flight requests: one upstream call per key at a time, and every waiter gets the same result
+ *
+ * 每个等待者拿到自己的Future。取消某个等待者只会让它退出；当所有等待者都取消后才取消上游调用。
+ * 上游完成（成功或失败）后立即移除该键，之后的请求会重新发起调用。
+ * Each waiter receives its own future. Cancelling one only detaches that waiter; the upstream call is cancelled once
+ * every waiter has gone. The key is removed as soon as the upstream call completes, successfully or not, so later
+ * requests start a fresh call.
+ */
+class SingleFlight {
+    private final ConcurrentHashMap<String, Flight> flights;
+
+    SingleFlight() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    /**
+     * 使用指定的表保存进行中的调用，供测试在发布与加入之间插入操作
+     * Keep in-flight calls in the given map, so tests can interleave work between publishing a call and joining it
+     */
+    SingleFlight(ConcurrentHashMap<String, Flight> flights) {
+        this.flights = flights;
+    }
+
+    /**
+     * 加入已有的调用，或者作为第一个请求发起调用
+     * Join the call already in flight for the key, or start it as the first caller
+     *
+     * @param key 请求的规范化键
+     *            The canonical request key
+     * @param call 发起上游调用，只有第一个请求会执行
+     *             Starts the upstream call; only run by the first caller
+     * @param executor 等待者完成回调的执行器，可为null
+     *                 Executor for this waiter's completion, may be null
+     * @return 当前等待者的Future
+     *         This waiter's future
+     */
+    CompletableFuture<ChatResponse> execute(String key, Supplier<CompletableFuture<ChatResponse>> call, Executor executor) {
+        while (true) {
+            // 发布之前先把发起者算作等待者，否则其他等待者加入后立即取消会让调用在发起者加入前被放弃
+            Flight flight = new Flight(key);
+            CompletableFuture<ChatResponse> creator = flight.waiter(executor);
+            Flight existing = flights.putIfAbsent(key, flight);
+            if (existing != null) {
+                CompletableFuture<ChatResponse> waiter = existing.join(executor);
+                if (waiter != null) {
+                    return waiter;
+                }
+                // 该调用刚被所有等待者放弃，重新尝试
+                continue;
+            }
+            flight.start(call);
+            return creator;
+        }
+    }
+
+    /**
+     * 当前正在进行的上游调用数
+     * Number of upstream calls currently in flight
+     */
+    int inFlight() {
+        return flights.size();
+    }
+
+    /**
+     * 一次上游调用及其等待者
+     * One upstream call and its waiters
+     */
+    final class Flight {
+        private final String key;
+        private final CompletableFuture<ChatResponse> result = new CompletableFuture<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private CompletableFuture<ChatResponse> upstream;
+        // 创建时即包含发起者 / Counts the creator from the start
+        private int waiters = 1;
+        private boolean abandoned;
+
+        Flight(String key) {
+            this.key = key;
+        }
+
+        void start(Supplier<CompletableFuture<ChatResponse>> call) {
+            CompletableFuture<ChatResponse> future;
+            try {
+                future = call.get();
+            } catch (RuntimeException e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            lock.lock();
+            try {
+                upstream = future;
+                if (abandoned) {
+                    // 发起调用期间所有等待者都已取消
+                    future.cancel(true);
+                }
+            } finally {
+                lock.unlock();
+            }
+            future.whenComplete((response, failure) -> {
+                flights.remove(key, this);
+                if (failure != null) {
+                    result.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause() : failure);
+                } else {
+                    result.complete(response);
+                }
+            });
+        }
+
+        /**
+         * @return 等待者的Future，调用已被放弃时返回null
+         *         The waiter's future, or null if the call has been abandoned
+         */
+        CompletableFuture<ChatResponse> join(Executor executor) {
+            lock.lock();
+            try {
+                if (abandoned) {
+                    return null;
+                }
+                waiters++;
+            } finally {
+                lock.unlock();
+            }
+            return waiter(executor);
+        }
+
+        /**
+         * 创建等待者的Future，调用方需已计入waiters
+         * Create a waiter's future; the caller must already be counted in waiters
+         */
+        CompletableFuture<ChatResponse> waiter(Executor executor) {
+            Waiter waiter = new Waiter(this);
+            result.whenComplete((response, failure) -> waiter.completeOn(executor, response, failure));
+            return waiter;
+        }
+
+        void leave() {
+            CompletableFuture<ChatResponse> toCancel = null;
+            lock.lock();
+            try {
+                if (--waiters == 0 && !result.isDone()) {
+                    abandoned = true;
+                    flights.remove(key, this);
+                    toCancel = upstream;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (toCancel != null) {
+                toCancel.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 单个等待者的Future，取消时只退出自己
+     * A single waiter's future; cancelling it only detaches this waiter
+     */
+    private static final class Waiter extends CompletableFuture<ChatResponse> {
+        private final Flight flight;
+
+        Waiter(Flight flight) {
+            this.flight = flight;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                flight.leave();
+            }
+            return cancelled;
+        }
+
+        void completeOn(Executor executor, ChatResponse response, Throwable failure) {
+            Runnable completion = () -> {
+                if (failure != null) {
+                    completeExceptionally(failure);
+                } else {
+                    complete(response);
+                }
+            };
+            if (executor == null) {
+                completion.run();
+                return;
+            }
+            try {
+                executor.execute(completion);
+            } catch (RejectedExecutionException e) {
+                completion.run();
+            }
+        }
+    }
+}
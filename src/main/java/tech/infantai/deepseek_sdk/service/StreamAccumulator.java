@@ -0,0 +1,120 @@
+package tech.infantai.deepseek_sdk.service;
+
+import tech.infantai.deepseek_sdk.model.ChatCompletionChunk;
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+import tech.infantai.deepseek_sdk.model.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 将流式数据块拼装为完整的ChatCompletionResponse
+ * Assembles streamed chunks back into a complete ChatCompletionResponse
+ */
+class StreamAccumulator {
+    private static final String DEFAULT_ROLE = "assistant";
+
+    private String id;
+    private Long created;
+    private String model;
+    private String systemFingerprint;
+    private ChatCompletionResponse.Usage usage;
+    private final Map<Integer, ChoiceState> choices = new TreeMap<>();
+
+    private static class ChoiceState {
+        private String role = DEFAULT_ROLE;
+        private final StringBuilder content = new StringBuilder();
+        private String finishReason;
+    }
+
+    /**
+     * 合并一个数据块
+     * Merge one chunk into the running state
+     *
+     * @param chunk 数据块
+     *              The chunk to merge
+     * @return 本块中第一个选择（index为0）的新增内容，没有则返回null；n大于1时其他选择的内容只参与拼装
+     *         The content added to the first choice (index 0) by this chunk, or null if none; with n greater
+     *         than 1 the other choices are only assembled
+     */
+    String accept(ChatCompletionChunk chunk) {
+        if (chunk.getId() != null) {
+            id = chunk.getId();
+        }
+        if (chunk.getCreated() != null) {
+            created = chunk.getCreated();
+        }
+        if (chunk.getModel() != null) {
+            model = chunk.getModel();
+        }
+        if (chunk.getSystemFingerprint() != null) {
+            systemFingerprint = chunk.getSystemFingerprint();
+        }
+        if (chunk.getUsage() != null) {
+            usage = chunk.getUsage();
+        }
+        if (chunk.getChoices() == null) {
+            return null;
+        }
+
+        String added = null;
+        for (ChatCompletionChunk.Choice choice : chunk.getChoices()) {
+            int index = choice.getIndex() == null ? 0 : choice.getIndex();
+            ChoiceState state = choices.computeIfAbsent(index, k -> new ChoiceState());
+            ChatCompletionChunk.Delta delta = choice.getDelta();
+            if (delta != null) {
+                if (delta.getRole() != null) {
+                    state.role = delta.getRole();
+                }
+                if (delta.getContent() != null && !delta.getContent().isEmpty()) {
+                    state.content.append(delta.getContent());
+                    if (index == 0) {
+                        added = delta.getContent();
+                    }
+                }
+            }
+            if (choice.getFinishReason() != null) {
+                state.finishReason = choice.getFinishReason();
+            }
+        }
+        return added;
+    }
+
+    /**
+     * 获取第一个选择（index为0）目前已拼装的内容
+     * The content assembled so far for the first choice (index 0)
+     */
+    String content() {
+        ChoiceState first = choices.get(0);
+        return first == null ? "" : first.content.toString();
+    }
+
+    /**
+     * 构建完整响应
+     * Build the assembled response
+     */
+    ChatCompletionResponse toResponse() {
+        ChatCompletionResponse response = new ChatCompletionResponse();
+        response.setId(id);
+        response.setObject("chat.completion");
+        response.setCreated(created);
+        response.setModel(model);
+        response.setSystemFingerprint(systemFingerprint);
+        response.setUsage(usage);
+
+        List<ChatCompletionResponse.Choice> result = new ArrayList<>(choices.size());
+        for (Map.Entry<Integer, ChoiceState> entry : choices.entrySet()) {
+            ChoiceState state = entry.getValue();
+            ChatCompletionResponse.Choice choice = new ChatCompletionResponse.Choice();
+            choice.setIndex(entry.getKey());
+            // 内容可以为空或只有空白，例如只返回了finish_reason的情况，不能走校验参数的构造函数
+            choice.setMessage(Message.parsed(state.role, state.content.toString()));
+            choice.setFinishReason(state.finishReason);
+            result.add(choice);
+        }
+        response.setChoices(result);
+        return response;
+    }
+}
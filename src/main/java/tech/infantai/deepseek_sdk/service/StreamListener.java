@@ -0,0 +1,39 @@
+package tech.infantai.deepseek_sdk.service;
+
+import tech.infantai.deepseek_sdk.model.ChatCompletionChunk;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+
+/**
+ * 流式输出回调
+ * Callback receiving a streamed chat completion as it is generated
+ *
+ * 所有回调都在发起请求的线程上按顺序执行
+ * All callbacks run sequentially on the thread that issued the request
+ */
+public interface StreamListener {
+
+    /**
+     * 收到一段增量内容时调用；请求多个选择（n大于1）时只传递第一个选择的内容，其余选择在onComplete的响应中
+     * Called for every chunk that carries new content. When several choices are requested (n greater than 1) only
+     * the first choice is delivered here; the others are in the response passed to onComplete
+     *
+     * @param content 本次新增的文本
+     *                The newly generated text
+     * @param chunk 原始数据块
+     *              The raw chunk as sent by the server
+     */
+    void onDelta(String content, ChatCompletionChunk chunk);
+
+    /**
+     * 流结束时调用一次，携带拼装完成的响应（包含usage）；流以错误事件结束时携带该错误，isSuccess()为false。
+     * 连接或读取失败时不调用，异常由chatStream直接抛出
+     * Called once the stream has finished, with the assembled response including usage. When the stream ends with
+     * an error event the response carries that error and isSuccess() is false. Not called when the connection or a
+     * read fails; chatStream throws the exception instead
+     *
+     * @param response 完整响应，或流中返回的错误
+     *                 The assembled response, or the error sent in the stream
+     */
+    default void onComplete(ChatResponse response) {
+    }
+}
@@ -0,0 +1,536 @@
+package tech.infantai.deepseek_sdk.tokenizer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import tech.infantai.deepseek_sdk.json.Json;
+import tech.infantai.deepseek_sdk.model.Message;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 进程内的字节级BPE分词器，用于发送前精确计算token数
+ * In-process byte-level BPE tokenizer for exact token counts before a request is sent
+ *
+ * 词表只加载一次，之后保存在几个基本类型数组中：所有token的字节首尾相连存放，用开放寻址的int数组做哈希表。
+ * 计数时按线程复用Matcher和临时数组，除首次使用外不为每个token分配对象。实例是线程安全的，应在应用内共享。
+ * The vocabulary is loaded once into a few primitive arrays: the bytes of all tokens back to back, indexed by an
+ * open-addressing int hash table. Counting reuses a per-thread Matcher and scratch arrays, so beyond first use
+ * nothing is allocated per token. Instances are thread-safe and meant to be shared across the application.
+ *
+ * 支持tiktoken格式的词表（如OpenAI的cl100k_base.tiktoken）和Hugging Face的tokenizer.json（如DeepSeek发布的）。
+ * 后者按token id作为合并优先级，对按合并顺序编号的字节级BPE词表与官方实现一致。
+ * Reads tiktoken vocabularies (e.g. OpenAI's cl100k_base.tiktoken) and Hugging Face tokenizer.json files
+ * (e.g. the one DeepSeek publishes). For the latter the token id serves as the merge priority, which matches
+ * the reference implementation for byte-level BPE vocabularies numbered in merge order.
+ */
+public final class BpeTokenizer implements TokenEstimator {
+
+    /**
+     * cl100k_base（GPT-4、GPT-3.5）的预分词规则，使用此规则时由手写的切分代替正则
+     * Pre-tokenization pattern of cl100k_base (GPT-4, GPT-3.5); a hand-written splitter replaces the regex for it
+     */
+    public static final String CL100K_PATTERN = "(?i:'s|'t|'re|'ve|'m|'ll|'d)|[^\\r\\n\\p{L}\\p{N}]?\\p{L}+"
+            + "|\\p{N}{1,3}| ?[^\\s\\p{L}\\p{N}]+[\\r\\n]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+";
+
+    /**
+     * DeepSeek V3/R1的预分词规则。官方按数字、中日文、其余文本三步依次切分，这里合并为一个正则，结果基本一致
+     * Pre-tokenization pattern of DeepSeek V3/R1. The reference splits digits, CJK and the remaining text in three
+     * passes; they are folded into one pattern here, which gives practically the same pieces
+     */
+    public static final String DEEPSEEK_PATTERN = "\\p{N}{1,3}|[\\u4e00-\\u9fa5\\u3040-\\u309f\\u30a0-\\u30ff]+"
+            + "|[!\"#$%&'()*+,\\-./:;<=>?@\\[\\\\\\]^_`{|}~][A-Za-z]+"
+            + "|[^\\r\\n\\p{L}\\p{P}\\p{S}]?[\\p{L}\\p{M}&&[^\\u4e00-\\u9fa5\\u3040-\\u309f\\u30a0-\\u30ff]]+"
+            + "| ?[\\p{P}\\p{S}]+[\\r\\n]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+";
+
+    private static final int TOKENS_PER_MESSAGE = 3;   // 消息边界和role的开销
+    private static final int TOKENS_PER_REPLY = 3;     // 回复前缀的开销
+    private static final int[] BASE64 = new int[128];
+    private static final int[] BYTE_LEVEL = new int[324];
+
+    static {
+        Arrays.fill(BASE64, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64[alphabet.charAt(i)] = i;
+        }
+        // GPT-2的bytes_to_unicode：可见字符映射为自身，其余字节依次映射到256之后
+        Arrays.fill(BYTE_LEVEL, -1);
+        int next = 256;
+        for (int b = 0; b < 256; b++) {
+            boolean printable = (b >= '!' && b <= '~') || (b >= 0xA1 && b <= 0xAC) || (b >= 0xAE && b <= 0xFF);
+            BYTE_LEVEL[printable ? b : next++] = b;
+        }
+    }
+
+    private final Pattern pattern;
+    private final boolean cl100k;
+    private final byte[] bytes;
+    private final int[] offsets;
+    private final int[] ranks;
+    private final int[] table;
+    private final int mask;
+    private final ThreadLocal<Scratch> scratch;
+
+    private BpeTokenizer(Vocabulary vocabulary, String pattern) {
+        this.pattern = Pattern.compile(pattern, Pattern.UNICODE_CHARACTER_CLASS);
+        this.cl100k = CL100K_PATTERN.equals(pattern);
+        this.bytes = Arrays.copyOf(vocabulary.bytes, vocabulary.offsets[vocabulary.size]);
+        this.offsets = Arrays.copyOf(vocabulary.offsets, vocabulary.size + 1);
+        this.ranks = Arrays.copyOf(vocabulary.ranks, vocabulary.size);
+        int capacity = Integer.highestOneBit(Math.max(2, vocabulary.size) * 2 - 1) << 1;
+        this.table = new int[capacity];
+        this.mask = capacity - 1;
+        for (int token = 0; token < vocabulary.size; token++) {
+            insert(token);
+        }
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(this.pattern.matcher("")));
+    }
+
+    /**
+     * 以内存映射方式读取tiktoken格式的词表（每行为base64编码的token和它的合并优先级）
+     * Read a tiktoken vocabulary (one base64 token and its merge rank per line) through a memory mapping
+     *
+     * @param vocabulary 词表文件，如cl100k_base.tiktoken
+     *                   The vocabulary file, e.g. cl100k_base.tiktoken
+     * @param pattern 预分词正则，如CL100K_PATTERN
+     *                The pre-tokenization pattern, e.g. CL100K_PATTERN
+     * @throws IOException 读取失败或格式错误
+     *                     if the file cannot be read or is malformed
+     */
+    public static BpeTokenizer fromTiktoken(Path vocabulary, String pattern) throws IOException {
+        checkArguments(vocabulary, pattern);
+        try (FileChannel channel = FileChannel.open(vocabulary, StandardOpenOption.READ)) {
+            return new BpeTokenizer(parseTiktoken(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())), pattern);
+        }
+    }
+
+    /**
+     * 从输入流读取tiktoken格式的词表，例如打包在classpath中的资源；不会关闭输入流
+     * Read a tiktoken vocabulary from a stream, e.g. a classpath resource; the stream is not closed
+     *
+     * @param vocabulary 词表内容
+     *                   The vocabulary content
+     * @param pattern 预分词正则
+     *                The pre-tokenization pattern
+     * @throws IOException 读取失败或格式错误
+     *                     if the stream cannot be read or is malformed
+     */
+    public static BpeTokenizer fromTiktoken(InputStream vocabulary, String pattern) throws IOException {
+        checkArguments(vocabulary, pattern);
+        ByteArrayOutputStream content = new ByteArrayOutputStream(1 << 20);
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = vocabulary.read(buffer)) != -1) {
+            content.write(buffer, 0, read);
+        }
+        return new BpeTokenizer(parseTiktoken(ByteBuffer.wrap(content.toByteArray())), pattern);
+    }
+
+    /**
+     * 读取Hugging Face的tokenizer.json中的字节级BPE词表（model.vocab），流式解析，不构建整棵JSON树
+     * Read the byte-level BPE vocabulary (model.vocab) of a Hugging Face tokenizer.json, parsed as a stream
+     * without building the whole JSON tree
+     *
+     * @param tokenizerJson tokenizer.json文件
+     *                      The tokenizer.json file
+     * @param pattern 预分词正则，DeepSeek模型使用DEEPSEEK_PATTERN
+     *                The pre-tokenization pattern; DEEPSEEK_PATTERN for DeepSeek models
+     * @throws IOException 读取失败或没有model.vocab
+     *                     if the file cannot be read or has no model.vocab
+     */
+    public static BpeTokenizer fromHuggingFace(Path tokenizerJson, String pattern) throws IOException {
+        checkArguments(tokenizerJson, pattern);
+        Vocabulary vocabulary = new Vocabulary();
+        byte[] token = new byte[64];
+        try (JsonParser parser = Json.MAPPER.getFactory().createParser(tokenizerJson.toFile())) {
+            if (!seek(parser, "model") || !seek(parser, "vocab") || parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("No model.vocab in " + tokenizerJson);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String text = parser.currentName();
+                parser.nextToken();
+                if (token.length < text.length()) {
+                    token = new byte[text.length()];
+                }
+                int length = decodeByteLevel(text, token);
+                // 特殊token（如<｜begin▁of▁sentence｜>）不是字节级编码，跳过
+                if (length > 0) {
+                    vocabulary.add(token, length, parser.getIntValue());
+                }
+            }
+        }
+        return new BpeTokenizer(vocabulary, pattern);
+    }
+
+    /**
+     * 词表中的token数
+     * Number of tokens in the vocabulary
+     */
+    public int getVocabularySize() {
+        return ranks.length;
+    }
+
+    /**
+     * 计算一组消息的token数，包括每条消息的格式开销和回复前缀
+     * Count the prompt tokens of the given messages, including per-message formatting and the reply prefix
+     */
+    @Override
+    public int countTokens(List<Message> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return 0;
+        }
+        long tokens = TOKENS_PER_REPLY;
+        for (Message message : messages) {
+            tokens += TOKENS_PER_MESSAGE + countTokens(message.getRole()) + countTokens(message.getContent());
+        }
+        return (int) Math.min(Integer.MAX_VALUE, tokens);
+    }
+
+    /**
+     * 计算一段文本的token数
+     * Count the tokens of a piece of text
+     *
+     * @param text 文本
+     *             The text
+     * @return token数
+     *         The token count
+     */
+    public int countTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        Scratch s = scratch.get();
+        int tokens = 0;
+        if (cl100k) {
+            for (int start = 0, end; start < text.length(); start = end) {
+                end = Cl100kSplitter.next(text, start);
+                tokens += countPiece(s, encodeUtf8(text, start, end, s));
+            }
+            return tokens;
+        }
+        Matcher matcher = s.matcher.reset(text);
+        try {
+            while (matcher.find()) {
+                tokens += countPiece(s, encodeUtf8(text, matcher.start(), matcher.end(), s));
+            }
+            return tokens;
+        } finally {
+            // 不保留对调用方文本的引用
+            matcher.reset("");
+        }
+    }
+
+    /**
+     * 对一个预分词片段做BPE合并，返回合并后的token数；片段的UTF-8字节在scratch.bytes中
+     * Run BPE merges over one pre-tokenized piece held in scratch.bytes and return the resulting token count
+     */
+    private int countPiece(Scratch s, int length) {
+        byte[] piece = s.bytes;
+        if (length <= 1 || rank(piece, 0, length) >= 0) {
+            return length == 0 ? 0 : 1;
+        }
+        int[] starts = s.starts(length + 1);
+        int[] pairs = s.pairs(length);
+        for (int i = 0; i <= length; i++) {
+            starts[i] = i;
+        }
+        for (int i = 0; i < length - 1; i++) {
+            pairs[i] = rank(piece, i, 2);
+        }
+        // parts个片段，starts[0..parts]为边界，pairs[i]为片段i与i+1合并后的优先级
+        int parts = length;
+        while (parts > 1) {
+            int best = -1;
+            int bestRank = Integer.MAX_VALUE;
+            for (int i = 0; i < parts - 1; i++) {
+                if (pairs[i] >= 0 && pairs[i] < bestRank) {
+                    bestRank = pairs[i];
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            System.arraycopy(starts, best + 2, starts, best + 1, parts - best - 1);
+            System.arraycopy(pairs, best + 1, pairs, best, parts - best - 2);
+            parts--;
+            if (best < parts - 1) {
+                pairs[best] = rank(piece, starts[best], starts[best + 2] - starts[best]);
+            }
+            if (best > 0) {
+                pairs[best - 1] = rank(piece, starts[best - 1], starts[best + 1] - starts[best - 1]);
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * 查找字节序列的合并优先级，不在词表中时返回-1
+     * Look up the merge rank of a byte sequence; -1 when it is not in the vocabulary
+     */
+    private int rank(byte[] source, int offset, int length) {
+        for (int slot = hash(source, offset, length) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            int token = entry - 1;
+            if (matches(token, source, offset, length)) {
+                return ranks[token];
+            }
+        }
+    }
+
+    private void insert(int token) {
+        int start = offsets[token];
+        int length = offsets[token + 1] - start;
+        for (int slot = hash(bytes, start, length) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            // 重复的token以后出现的为准
+            if (entry == 0 || matches(entry - 1, bytes, start, length)) {
+                table[slot] = token + 1;
+                return;
+            }
+        }
+    }
+
+    private boolean matches(int token, byte[] source, int offset, int length) {
+        int start = offsets[token];
+        if (offsets[token + 1] - start != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes[start + i] != source[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(byte[] source, int offset, int length) {
+        int h = 0x811C9DC5;
+        for (int i = offset; i < offset + length; i++) {
+            h = (h ^ (source[i] & 0xFF)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 把text[start, end)编码为UTF-8写入scratch.bytes，返回字节数
+     * Encode text[start, end) as UTF-8 into scratch.bytes and return the byte count
+     */
+    private static int encodeUtf8(String text, int start, int end, Scratch s) {
+        byte[] out = s.bytes(3 * (end - start));
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                out[n++] = (byte) c;
+            } else if (c < 0x800) {
+                out[n++] = (byte) (0xC0 | c >> 6);
+                out[n++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                out[n++] = (byte) (0xF0 | codePoint >> 18);
+                out[n++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                out[n++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                out[n++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // 孤立的代理项编码为'?'，与String.getBytes(UTF_8)一致
+                out[n++] = '?';
+            } else {
+                out[n++] = (byte) (0xE0 | c >> 12);
+                out[n++] = (byte) (0x80 | c >> 6 & 0x3F);
+                out[n++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return n;
+    }
+
+    private static Vocabulary parseTiktoken(ByteBuffer data) throws IOException {
+        Vocabulary vocabulary = new Vocabulary();
+        byte[] token = new byte[64];
+        int limit = data.limit();
+        int line = 1;
+        for (int pos = data.position(); pos < limit; line++) {
+            int space = -1;
+            int eol = pos;
+            while (eol < limit && data.get(eol) != '\n') {
+                if (space < 0 && data.get(eol) == ' ') {
+                    space = eol;
+                }
+                eol++;
+            }
+            int end = eol > pos && data.get(eol - 1) == '\r' ? eol - 1 : eol;
+            if (end > pos) {
+                if (space < 0 || space == pos || space + 1 >= end) {
+                    throw new IOException("Malformed vocabulary at line " + line);
+                }
+                if (token.length < space - pos) {
+                    token = new byte[space - pos];
+                }
+                int length = decodeBase64(data, pos, space, token);
+                int rank = parseInt(data, space + 1, end);
+                if (length <= 0 || rank < 0) {
+                    throw new IOException("Malformed vocabulary at line " + line);
+                }
+                vocabulary.add(token, length, rank);
+            }
+            pos = eol + 1;
+        }
+        return vocabulary;
+    }
+
+    /**
+     * 解码data[start, end)中的base64，格式错误时返回-1
+     * Decode the base64 in data[start, end); returns -1 when malformed
+     */
+    private static int decodeBase64(ByteBuffer data, int start, int end, byte[] out) {
+        int bits = 0;
+        int count = 0;
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            int c = data.get(i);
+            if (c == '=') {
+                break;
+            }
+            int value = c >= 0 && c < 128 ? BASE64[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = bits << 6 | value;
+            count += 6;
+            if (count >= 8) {
+                count -= 8;
+                out[n++] = (byte) (bits >> count);
+            }
+        }
+        return n;
+    }
+
+    private static int parseInt(ByteBuffer data, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = data.get(i) - '0';
+            if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value > Integer.MAX_VALUE ? -1 : (int) value;
+    }
+
+    /**
+     * 把GPT-2字节级编码的token文本还原为字节，遇到不属于该编码的字符时返回-1
+     * Map a token written in GPT-2's byte-level alphabet back to bytes; returns -1 for any other character
+     */
+    private static int decodeByteLevel(String text, byte[] out) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= BYTE_LEVEL.length || BYTE_LEVEL[c] < 0) {
+                return -1;
+            }
+            out[i] = (byte) BYTE_LEVEL[c];
+        }
+        return text.length();
+    }
+
+    /**
+     * 在当前对象中找到指定字段，停在字段值之前；parser应位于该对象的START_OBJECT之前
+     * Find the named field of the next object and stop before its value; the parser must sit just before the
+     * object's START_OBJECT
+     */
+    private static boolean seek(JsonParser parser, String name) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (name.equals(parser.currentName())) {
+                return true;
+            }
+            parser.nextToken();
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static void checkArguments(Object vocabulary, String pattern) {
+        if (vocabulary == null) {
+            throw new IllegalArgumentException("Vocabulary cannot be null");
+        }
+        if (pattern == null || pattern.isEmpty()) {
+            throw new IllegalArgumentException("Pattern cannot be null or empty");
+        }
+    }
+
+    /**
+     * 加载过程中使用的可增长数组
+     * Growable arrays used while loading
+     */
+    private static final class Vocabulary {
+        private byte[] bytes = new byte[1 << 20];
+        private int[] offsets = new int[1 << 16];
+        private int[] ranks = new int[1 << 16];
+        private int size;
+
+        void add(byte[] token, int length, int rank) {
+            int start = offsets[size];
+            if (start + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, start + length));
+            }
+            if (size + 1 >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                ranks = Arrays.copyOf(ranks, ranks.length * 2);
+            }
+            System.arraycopy(token, 0, bytes, start, length);
+            ranks[size] = rank;
+            offsets[++size] = start + length;
+        }
+    }
+
+    /**
+     * 每个线程复用的Matcher和临时数组
+     * Matcher and scratch arrays reused per thread
+     */
+    private static final class Scratch {
+        private final Matcher matcher;
+        private byte[] bytes = new byte[256];
+        private int[] starts = new int[256];
+        private int[] pairs = new int[256];
+
+        Scratch(Matcher matcher) {
+            this.matcher = matcher;
+        }
+
+        byte[] bytes(int capacity) {
+            if (bytes.length < capacity) {
+                bytes = new byte[Math.max(capacity, bytes.length * 2)];
+            }
+            return bytes;
+        }
+
+        int[] starts(int capacity) {
+            if (starts.length < capacity) {
+                starts = new int[Math.max(capacity, starts.length * 2)];
+            }
+            return starts;
+        }
+
+        int[] pairs(int capacity) {
+            if (pairs.length < capacity) {
+                pairs = new int[Math.max(capacity, pairs.length * 2)];
+            }
+            return pairs;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package tech.infantai.deepseek_sdk.tokenizer;
+
+import tech.infantai.deepseek_sdk.model.Message;
+
+import java.util.List;
+
+/**
+ * 基于字符数的粗略估算，无需词表
+ * Rough character-based estimate that needs no vocabulary
+ *
+ * ASCII字符按约4个字符一个token计算，其他字符（如中文）按每个字符一个token计算，
+ * 每条消息另加固定的格式开销。结果偏保守，适合用于限流等预估场景。
+ * ASCII text is counted at about 4 characters per token and any other character (e.g. CJK) as one token,
+ * plus a fixed per-message formatting overhead. The result errs on the high side, which suits rate limiting.
+ */
+public class CharacterTokenEstimator implements TokenEstimator {
+    public static final CharacterTokenEstimator INSTANCE = new CharacterTokenEstimator();
+
+    private static final int ASCII_CHARS_PER_TOKEN = 4;
+    private static final int TOKENS_PER_MESSAGE = 4;   // role和分隔符的开销
+    private static final int TOKENS_PER_REPLY = 3;     // 回复前缀的开销
+
+    @Override
+    public int countTokens(List<Message> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return 0;
+        }
+        long tokens = TOKENS_PER_REPLY;
+        for (Message message : messages) {
+            tokens += TOKENS_PER_MESSAGE + countTokens(message.getContent());
+        }
+        return (int) Math.min(Integer.MAX_VALUE, tokens);
+    }
+
+    /**
+     * 估算一段文本的token数
+     * Estimate the token count of a piece of text
+     *
+     * @param text 文本
+     *             The text
+     * @return 估算的token数
+     *         The estimated token count
+     */
+    public int countTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 0x80) {
+                ascii++;
+            } else if (!Character.isLowSurrogate(text.charAt(i))) {
+                other++;
+            }
+        }
+        return (ascii + ASCII_CHARS_PER_TOKEN - 1) / ASCII_CHARS_PER_TOKEN + other;
+    }
+}
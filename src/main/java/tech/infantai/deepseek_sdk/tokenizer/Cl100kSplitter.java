@@ -0,0 +1,156 @@
+package tech.infantai.deepseek_sdk.tokenizer;
+
+/**
+ * BpeTokenizer.CL100K_PATTERN的手写实现，切分结果与该正则相同，但不经过正则引擎
+ * Hand-written equivalent of BpeTokenizer.CL100K_PATTERN: the same pieces without going through the regex engine
+ *
+ * 预分词是计数中最耗时的一步，正则的回溯和Unicode字符类判断占了大部分时间
+ * Pre-tokenization dominates counting, and most of that is regex backtracking and Unicode class checks
+ */
+final class Cl100kSplitter {
+
+    private Cl100kSplitter() {
+    }
+
+    /**
+     * 返回从start开始的片段的结束位置，按正则各分支的顺序依次尝试
+     * Return the end of the piece starting at start, trying the pattern's alternatives in order
+     */
+    static int next(String text, int start) {
+        int end = text.length();
+        int c = text.codePointAt(start);
+        int afterFirst = start + Character.charCount(c);
+
+        // (?i:'s|'t|'re|'ve|'m|'ll|'d)
+        if (c == '\'' && afterFirst < end) {
+            int length = contraction(text, afterFirst, end);
+            if (length > 0) {
+                return afterFirst + length;
+            }
+        }
+        // [^\r\n\p{L}\p{N}]?\p{L}+
+        if (isLetter(c)) {
+            return skipLetters(text, afterFirst, end);
+        }
+        if (c != '\r' && c != '\n' && !isNumber(c) && afterFirst < end && isLetter(text.codePointAt(afterFirst))) {
+            return skipLetters(text, afterFirst, end);
+        }
+        // \p{N}{1,3}
+        if (isNumber(c)) {
+            int pos = afterFirst;
+            for (int i = 1; i < 3 && pos < end; i++) {
+                int next = text.codePointAt(pos);
+                if (!isNumber(next)) {
+                    break;
+                }
+                pos += Character.charCount(next);
+            }
+            return pos;
+        }
+        // ' ?[^\s\p{L}\p{N}]+[\r\n]*'
+        int pos = start;
+        if (c == ' ' && afterFirst < end && isOther(text.codePointAt(afterFirst))) {
+            pos = afterFirst;
+        }
+        if (pos < end && isOther(text.codePointAt(pos))) {
+            while (pos < end) {
+                int next = text.codePointAt(pos);
+                if (!isOther(next)) {
+                    break;
+                }
+                pos += Character.charCount(next);
+            }
+            while (pos < end && (text.charAt(pos) == '\r' || text.charAt(pos) == '\n')) {
+                pos++;
+            }
+            return pos;
+        }
+        // 余下的都是空白；空白字符都在BMP内，每个占一个char
+        int whitespaceEnd = start;
+        int lastNewline = -1;
+        while (whitespaceEnd < end && isWhitespace(text.charAt(whitespaceEnd))) {
+            char w = text.charAt(whitespaceEnd);
+            if (w == '\r' || w == '\n') {
+                lastNewline = whitespaceEnd;
+            }
+            whitespaceEnd++;
+        }
+        // \s*[\r\n]+
+        if (lastNewline >= 0) {
+            return lastNewline + 1;
+        }
+        // \s+(?!\S)
+        if (whitespaceEnd == end) {
+            return end;
+        }
+        if (whitespaceEnd - 1 > start) {
+            return whitespaceEnd - 1;
+        }
+        // \s+
+        return whitespaceEnd;
+    }
+
+    private static int contraction(String text, int pos, int end) {
+        char first = fold(text.charAt(pos));
+        if (first == 's' || first == 't' || first == 'm' || first == 'd') {
+            return 1;
+        }
+        if (pos + 1 < end) {
+            char second = fold(text.charAt(pos + 1));
+            if ((first == 'r' || first == 'v') && second == 'e' || first == 'l' && second == 'l') {
+                return 2;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 与Unicode大小写不敏感匹配一致的折叠，例如'ſ'折叠为's'
+     * Case folding as Unicode case-insensitive matching does it, e.g. 'ſ' folds to 's'
+     */
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static int skipLetters(String text, int pos, int end) {
+        while (pos < end) {
+            int c = text.codePointAt(pos);
+            if (!isLetter(c)) {
+                break;
+            }
+            pos += Character.charCount(c);
+        }
+        return pos;
+    }
+
+    private static boolean isLetter(int c) {
+        if (c < 0x80) {
+            return (c | 0x20) >= 'a' && (c | 0x20) <= 'z';
+        }
+        return Character.isLetter(c);
+    }
+
+    private static boolean isNumber(int c) {
+        if (c < 0x80) {
+            return c >= '0' && c <= '9';
+        }
+        int type = Character.getType(c);
+        return type == Character.DECIMAL_DIGIT_NUMBER || type == Character.LETTER_NUMBER || type == Character.OTHER_NUMBER;
+    }
+
+    private static boolean isOther(int c) {
+        return !isLetter(c) && !isNumber(c) && !(c < 0x10000 && isWhitespace((char) c));
+    }
+
+    /**
+     * Unicode的White_Space属性，即UNICODE_CHARACTER_CLASS模式下的\s
+     * The Unicode White_Space property, i.e. \s under UNICODE_CHARACTER_CLASS
+     */
+    private static boolean isWhitespace(char c) {
+        if (c < 0x80) {
+            return c == ' ' || (c >= '\t' && c <= '\r');
+        }
+        return c == 0x85 || c == 0xA0 || c == 0x1680 || (c >= 0x2000 && c <= 0x200A)
+                || c == 0x2028 || c == 0x2029 || c == 0x202F || c == 0x205F || c == 0x3000;
+    }
+}
@@ -0,0 +1,23 @@
+package tech.infantai.deepseek_sdk.tokenizer;
+
+import tech.infantai.deepseek_sdk.model.Message;
+
+import java.util.List;
+
+/**
+ * 发送前估算消息的token数
+ * Estimates the token count of messages before they are sent
+ */
+public interface TokenEstimator {
+
+    /**
+     * 估算一组消息的token数
+     * Estimate the number of prompt tokens for the given messages
+     *
+     * @param messages 消息列表
+     *                 The messages
+     * @return 估算的token数
+     *         The estimated token count
+     */
+    int countTokens(List<Message> messages);
+}
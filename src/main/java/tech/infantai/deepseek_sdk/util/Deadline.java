@@ -0,0 +1,65 @@
+package tech.infantai.deepseek_sdk.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 绝对截止时间，基于System.nanoTime()，用于把调用方的时间预算传递给SDK调用及其重试
+ * An absolute point in time based on System.nanoTime(), used to pass the caller's time budget down to an SDK call
+ * and all of its retries
+ *
+ * 例如处理一个必须在2秒内返回的HTTP请求时，在入口处创建Deadline，再传给每个下游调用
+ * For example, when serving an HTTP request that must answer within 2 seconds, create the Deadline on entry
+ * and hand it to every downstream call
+ */
+public final class Deadline {
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * 从现在起经过指定时长后的截止时间
+     * A deadline the given duration from now
+     *
+     * @param duration 时长
+     *                 The duration
+     * @param unit 时间单位
+     *             The time unit
+     */
+    public static Deadline after(long duration, TimeUnit unit) {
+        if (unit == null) {
+            throw new IllegalArgumentException("Time unit cannot be null");
+        }
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * 剩余毫秒数，已过期时小于等于0
+     * Milliseconds left; zero or negative once expired
+     */
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * 是否已过期
+     * Whether the deadline has passed
+     */
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * 两个截止时间中较早的一个，other为null时返回自身
+     * The earlier of two deadlines; returns this one when other is null
+     */
+    public Deadline min(Deadline other) {
+        return other == null || deadlineNanos - other.deadlineNanos <= 0 ? this : other;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remainingMillis=" + remainingMillis() + '}';
+    }
+}
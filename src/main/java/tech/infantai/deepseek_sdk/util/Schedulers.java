@@ -0,0 +1,60 @@
+package tech.infantai.deepseek_sdk.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SDK内部共享的定时器，用于重试退避、对冲请求等延迟任务
+ * Timer shared inside the SDK for delayed work such as retry backoff and hedged requests
+ *
+ * 定时任务只负责发起异步请求，不应在其中执行阻塞操作
+ * Scheduled tasks only kick off async calls and must never block
+ */
+public final class Schedulers {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "deepseek-sdk-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final int LAUNCHER_POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final int LAUNCHER_QUEUE_SIZE = 1024;
+    private static final AtomicInteger LAUNCHER_THREADS = new AtomicInteger();
+    private static final ThreadPoolExecutor LAUNCHER = new ThreadPoolExecutor(
+            LAUNCHER_POOL_SIZE, LAUNCHER_POOL_SIZE, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(LAUNCHER_QUEUE_SIZE), r -> {
+        Thread thread = new Thread(r, "deepseek-sdk-launcher-" + LAUNCHER_THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        LAUNCHER.allowCoreThreadTimeOut(true);
+    }
+
+    private Schedulers() {
+    }
+
+    public static ScheduledExecutorService shared() {
+        return SCHEDULER;
+    }
+
+    /**
+     * 定时任务到期后在这里发起请求
+     * Where scheduled tasks start their calls once they fire
+     *
+     * 发起请求可能在限流器、舱壁或磁盘缓存上等待，不能占用定时器的唯一线程。线程数不超过max(4, CPU核数)，
+     * 空闲60秒后回收；排队任务超过1024个时execute抛出RejectedExecutionException，调用方应放弃这次可选的请求。
+     * Starting a call may wait on the rate limiter, the bulkhead or the disk cache, so it must not hold the timer's
+     * only thread. At most max(4, CPU count) threads run, released after 60 idle seconds; once 1024 tasks are queued
+     * execute throws RejectedExecutionException and the caller should drop the optional call.
+     */
+    public static Executor launcher() {
+        return LAUNCHER;
+    }
+}
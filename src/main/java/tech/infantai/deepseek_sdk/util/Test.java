@@ -2,13 +2,18 @@ package tech.infantai.deepseek_sdk.util;
 
 import tech.infantai.deepseek_sdk.config.GPTConfig;
 import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
 import tech.infantai.deepseek_sdk.model.Message;
 import tech.infantai.deepseek_sdk.service.DeepseekAIService;
 
+import java.io.IOException;
+
 public class Test {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         GPTConfig config = GPTConfig.builder()
                 .apiKey("your-api-key")
+                .endpoint("https://api.deepseek.com")
+                .model("deepseek-chat")
                 .build();
         // 创建服务实例
         DeepseekAIService service = new DeepseekAIService(config);
@@ -17,7 +22,7 @@ public class Test {
                 .message(new Message("user", "你好，请介绍一下你自己"))
                 .build();
         // 发送请求
-        String response = service.chat(request);
-        System.out.println(response);
+        ChatResponse response = service.chat(request);
+        System.out.println(response.getContent());
     }
-}
+} 
@@ -0,0 +1,105 @@
+package tech.infantai.deepseek_sdk.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 虚拟线程支持（JDK 21+）
+ * Virtual thread support on JDK 21 and later
+ *
+ * SDK以Java 8为编译目标，因此通过反射访问Thread.ofVirtual()和Executors.newThreadPerTaskExecutor()，
+ * 在旧版本JDK上isSupported()返回false，其余方法回退到平台线程。
+ * The SDK targets Java 8, so Thread.ofVirtual() and Executors.newThreadPerTaskExecutor() are reached through
+ * reflection. On older JDKs isSupported() returns false and the other methods fall back to platform threads.
+ *
+ * JDK 19/20上虚拟线程是预览特性，方法存在但未开启--enable-preview时调用会抛异常，因此在类加载时实际创建一次线程工厂来判断
+ * On JDK 19 and 20 virtual threads are a preview feature: the methods exist but throw unless --enable-preview is set,
+ * so support is decided by actually building a thread factory once when the class loads
+ */
+public final class VirtualThreads {
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            factory.invoke(name.invoke(ofVirtual.invoke(null), "probe-", 0L));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // JDK 19之前没有虚拟线程；JDK 19/20未开启预览特性时调用失败
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前JDK是否支持并启用了虚拟线程
+     * Whether the running JDK supports virtual threads and they are enabled
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 创建虚拟线程工厂，线程名为 prefix-0、prefix-1 ...；不支持时返回创建守护平台线程的工厂
+     * Create a factory of virtual threads named prefix-0, prefix-1 and so on;
+     * falls back to daemon platform threads when unsupported
+     *
+     * @param prefix 线程名前缀
+     *               Thread name prefix
+     */
+    public static ThreadFactory newThreadFactory(String prefix) {
+        if (!isSupported()) {
+            AtomicLong counter = new AtomicLong();
+            return runnable -> {
+                Thread thread = new Thread(runnable, prefix + "-" + counter.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix + "-", 0L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread factory", e);
+        }
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的执行器；不支持时返回不限大小的平台线程池
+     * Create an executor that starts one virtual thread per task;
+     * falls back to an unbounded cached pool of platform threads when unsupported
+     *
+     * @param prefix 线程名前缀
+     *               Thread name prefix
+     */
+    public static ExecutorService newExecutor(String prefix) {
+        ThreadFactory factory = newThreadFactory(prefix);
+        if (!isSupported()) {
+            return Executors.newCachedThreadPool(factory);
+        }
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+}
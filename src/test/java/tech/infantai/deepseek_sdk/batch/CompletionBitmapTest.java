@@ -0,0 +1,110 @@
+package tech.infantai.deepseek_sdk.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompletionBitmapTest {
+
+    @Test
+    void countsEachLineOnce() {
+        CompletionBitmap bitmap = new CompletionBitmap();
+        bitmap.set(0);
+        bitmap.set(63);
+        bitmap.set(64);
+        bitmap.set(63);
+
+        assertTrue(bitmap.get(0));
+        assertTrue(bitmap.get(63));
+        assertTrue(bitmap.get(64));
+        assertFalse(bitmap.get(1));
+        assertFalse(bitmap.get(65));
+        assertEquals(3, bitmap.count());
+    }
+
+    @Test
+    void growsPastItsInitialSize() {
+        CompletionBitmap bitmap = new CompletionBitmap();
+        // 初始容量为1024个字，即65536行
+        assertFalse(bitmap.get(10_000_000));
+
+        bitmap.set(65_536);
+        bitmap.set(10_000_000);
+
+        assertTrue(bitmap.get(65_536));
+        assertTrue(bitmap.get(10_000_000));
+        assertFalse(bitmap.get(9_999_999));
+        assertEquals(2, bitmap.count());
+    }
+
+    @Test
+    void aCopyIsIndependent() {
+        CompletionBitmap bitmap = new CompletionBitmap();
+        bitmap.set(5);
+        CompletionBitmap copy = bitmap.copy();
+
+        copy.set(6);
+
+        assertFalse(bitmap.get(6));
+        assertEquals(1, bitmap.count());
+        assertTrue(copy.get(5));
+        assertEquals(2, copy.count());
+    }
+
+    @Test
+    void roundTripsAndLeavesOutTrailingZeroWords() throws IOException {
+        CompletionBitmap bitmap = new CompletionBitmap();
+        bitmap.set(1);
+        bitmap.set(130);
+
+        byte[] written = write(bitmap);
+        // count + 字数 + 3个字；其余1021个全0的字不写出
+        assertEquals(8 + 4 + 3 * 8, written.length);
+
+        CompletionBitmap read = CompletionBitmap.readFrom(new DataInputStream(new ByteArrayInputStream(written)));
+        assertEquals(2, read.count());
+        assertTrue(read.get(1));
+        assertTrue(read.get(130));
+        assertFalse(read.get(129));
+        // 读回的位图仍然可以继续写入
+        read.set(200_000);
+        assertTrue(read.get(200_000));
+    }
+
+    @Test
+    void anEmptyBitmapRoundTrips() throws IOException {
+        CompletionBitmap read = CompletionBitmap.readFrom(
+                new DataInputStream(new ByteArrayInputStream(write(new CompletionBitmap()))));
+
+        assertEquals(0, read.count());
+        assertFalse(read.get(0));
+    }
+
+    @Test
+    void rejectsACorruptHeader() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(1);
+        out.writeInt(-1);
+
+        assertThrows(IOException.class,
+                () -> CompletionBitmap.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+
+    private static byte[] write(CompletionBitmap bitmap) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        bitmap.writeTo(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+}
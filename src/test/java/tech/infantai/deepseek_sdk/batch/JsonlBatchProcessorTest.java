@@ -0,0 +1,228 @@
+package tech.infantai.deepseek_sdk.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.infantai.deepseek_sdk.config.GPTConfig;
+import tech.infantai.deepseek_sdk.json.Json;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.service.DeepseekAIService;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonlBatchProcessorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesOneResultPerLine() throws Exception {
+        Path input = input(
+                "{\"custom_id\": \"q-0\", \"messages\": [{\"role\": \"user\", \"content\": \"hello\"}]}",
+                "",
+                "{\"custom_id\": \"q-2\", \"messages\": [{\"role\": \"user\", \"content\": \"fail please\"}]}",
+                "not json",
+                "{\"messages\": [{\"role\": \"user\", \"content\": \"bye\"}], \"temperature\": 0.0}");
+        Path output = dir.resolve("out.jsonl");
+        EchoService service = new EchoService();
+
+        BatchFileSummary summary = processor(service, 1000).process(input, output);
+
+        assertEquals(5, summary.getLines());
+        assertEquals(0, summary.getSkipped());
+        assertEquals(2, summary.getSucceeded());
+        assertEquals(2, summary.getFailed());
+        assertEquals(3, service.calls.get());
+
+        List<JsonNode> results = read(output);
+        assertEquals(4, results.size());
+        assertEquals("q-0", results.get(0).get("custom_id").asText());
+        assertEquals("echo: hello", results.get(0).get("content").asText());
+        assertEquals(2, results.get(1).get("line").asInt());
+        assertEquals("upstream failed", results.get(1).get("error").get("message").asText());
+        // 无法解析的行不发送请求，记为失败
+        assertEquals(3, results.get(2).get("line").asInt());
+        assertTrue(results.get(2).has("error"));
+        assertEquals("echo: bye", results.get(3).get("content").asText());
+        assertTrue(Files.exists(dir.resolve("out.jsonl.checkpoint")));
+    }
+
+    @Test
+    void resumesFromTheLastCheckpointAfterACrash() throws Exception {
+        Path input = input(requests(10));
+        Path output = dir.resolve("out.jsonl");
+        Path checkpoint = dir.resolve("out.jsonl.checkpoint");
+        Path saved = dir.resolve("saved.checkpoint");
+
+        // 第一次运行：每4行保存一次检查点，留下第4行完成后的检查点
+        JsonlBatchProcessor first = JsonlBatchProcessor.builder()
+                .service(new EchoService())
+                .maxConcurrency(1)
+                .checkpointInterval(4)
+                .progressListener((line, response, completed, total) -> {
+                    if (completed == 4) {
+                        copy(checkpoint, saved);
+                    }
+                })
+                .build();
+        first.process(input, output);
+        assertEquals(10, read(output).size());
+
+        // 模拟在第4行的检查点之后崩溃：输出中已有检查点之后的结果，最后一行只写了一半
+        Files.copy(saved, checkpoint, StandardCopyOption.REPLACE_EXISTING);
+        Files.write(output, "{\"line\": 10, \"cont".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        EchoService service = new EchoService();
+        BatchFileSummary summary = processor(service, 4).process(input, output);
+
+        assertEquals(10, summary.getLines());
+        assertEquals(4, summary.getSkipped());
+        assertEquals(6, summary.getSucceeded());
+        assertEquals(6, service.calls.get());
+        List<JsonNode> results = read(output);
+        assertEquals(10, results.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, results.get(i).get("line").asInt());
+            assertEquals("echo: request " + i, results.get(i).get("content").asText());
+        }
+    }
+
+    @Test
+    void rerunningAFinishedJobSendsNothing() throws Exception {
+        Path input = input(requests(3));
+        Path output = dir.resolve("out.jsonl");
+        processor(new EchoService(), 2).process(input, output);
+        byte[] before = Files.readAllBytes(output);
+
+        EchoService service = new EchoService();
+        BatchFileSummary summary = processor(service, 2).process(input, output);
+
+        assertEquals(0, service.calls.get());
+        assertEquals(3, summary.getSkipped());
+        assertArrayEquals(before, Files.readAllBytes(output));
+    }
+
+    @Test
+    void rejectsACheckpointWrittenForAnotherInput() throws Exception {
+        Path input = input(requests(3));
+        Path output = dir.resolve("out.jsonl");
+        processor(new EchoService(), 2).process(input, output);
+
+        Files.write(input, requests(4), StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> processor(new EchoService(), 2).process(input, output));
+    }
+
+    @Test
+    void rejectsACheckpointWhenTheInputWasEditedInPlace() throws Exception {
+        Path input = input(requests(3));
+        Path output = dir.resolve("out.jsonl");
+        processor(new EchoService(), 2).process(input, output);
+
+        // 大小和修改时间都不变，只有内容不同
+        FileTime modified = Files.getLastModifiedTime(input);
+        List<String> edited = requests(3);
+        edited.set(1, edited.get(1).replace("request 1", "request 9"));
+        Files.write(input, edited, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(input, modified);
+
+        assertThrows(IOException.class, () -> processor(new EchoService(), 2).process(input, output));
+    }
+
+    @Test
+    void rejectsACheckpointWhenTheInputWasRewritten() throws Exception {
+        Path input = input(requests(3));
+        Path output = dir.resolve("out.jsonl");
+        processor(new EchoService(), 2).process(input, output);
+
+        Files.setLastModifiedTime(input, FileTime.fromMillis(Files.getLastModifiedTime(input).toMillis() + 1000));
+
+        assertThrows(IOException.class, () -> processor(new EchoService(), 2).process(input, output));
+    }
+
+    private static JsonlBatchProcessor processor(EchoService service, int checkpointInterval) {
+        return JsonlBatchProcessor.builder()
+                .service(service)
+                .maxConcurrency(1)
+                .checkpointInterval(checkpointInterval)
+                .build();
+    }
+
+    private static List<String> requests(int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add("{\"custom_id\": \"q-" + i + "\", \"messages\": [{\"role\": \"user\", \"content\": \"request " + i + "\"}]}");
+        }
+        return lines;
+    }
+
+    private Path input(String... lines) throws IOException {
+        return input(Arrays.asList(lines));
+    }
+
+    private Path input(List<String> lines) throws IOException {
+        Path input = dir.resolve("in.jsonl");
+        Files.write(input, lines, StandardCharsets.UTF_8);
+        return input;
+    }
+
+    private static List<JsonNode> read(Path output) throws IOException {
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : Files.readAllLines(output, StandardCharsets.UTF_8)) {
+            results.add(Json.MAPPER.readTree(line));
+        }
+        return results;
+    }
+
+    private static void copy(Path from, Path to) {
+        try {
+            Files.copy(from, to, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 不发出网络请求的服务：回显最后一条消息，内容以fail开头时失败
+     * A service that never touches the network: echoes the last message and fails when it starts with "fail"
+     */
+    private static class EchoService extends DeepseekAIService {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        EchoService() {
+            super(GPTConfig.builder().apiKey("sk-test").endpoint("http://localhost:1").model("deepseek-chat").build(),
+                    new OkHttpClient());
+        }
+
+        @Override
+        public CompletableFuture<ChatResponse> chatAsync(ChatRequest chatRequest) {
+            calls.incrementAndGet();
+            String content = chatRequest.getMessages().get(chatRequest.getMessages().size() - 1).getContent();
+            CompletableFuture<ChatResponse> future = new CompletableFuture<>();
+            if (content.startsWith("fail")) {
+                future.completeExceptionally(new IOException("upstream failed"));
+            } else {
+                future.complete(new ChatResponse("echo: " + content, null));
+            }
+            return future;
+        }
+    }
+}
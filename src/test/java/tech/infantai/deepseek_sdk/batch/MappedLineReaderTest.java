@@ -0,0 +1,103 @@
+package tech.infantai.deepseek_sdk.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedLineReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsLinesAcrossWindowBoundaries() throws IOException {
+        String text = "alpha\nbeta\r\ngamma delta epsilon\n\nzeta\nlast";
+
+        // 窗口比行短时，读每一行都要重新映射
+        for (int window : new int[] {1, 3, 8, 16, 1024}) {
+            assertEquals(Arrays.asList("alpha", "beta", "gamma delta epsilon", "", "zeta", "last"),
+                    readAll(text, window), "window " + window);
+        }
+    }
+
+    @Test
+    void aLineMuchLongerThanTheWindowWidensIt() throws IOException {
+        StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            longLine.append((char) ('a' + i % 26));
+        }
+
+        assertEquals(Arrays.asList("x", longLine.toString(), "y"), readAll("x\n" + longLine + "\ny\n", 4));
+    }
+
+    @Test
+    void aTrailingNewlineDoesNotAddAnEmptyLine() throws IOException {
+        assertEquals(Arrays.asList("one", "two"), readAll("one\ntwo\n", 4));
+        assertEquals(Collections.singletonList(""), readAll("\n", 4));
+    }
+
+    @Test
+    void anEmptyFileHasNoLines() throws IOException {
+        assertEquals(Collections.emptyList(), readAll("", 4));
+    }
+
+    @Test
+    void numbersLinesAndDetectsBlankOnes() throws IOException {
+        try (FileChannel channel = open("{}\n  \t\r\n\n{\"a\":1}\n")) {
+            MappedLineReader reader = new MappedLineReader(channel, 5);
+
+            assertTrue(reader.next());
+            assertEquals(0, reader.line());
+            assertFalse(reader.isBlank());
+            assertTrue(reader.next());
+            assertEquals(1, reader.line());
+            assertEquals(3, reader.length());
+            assertTrue(reader.isBlank());
+            assertTrue(reader.next());
+            assertTrue(reader.isBlank());
+            assertTrue(reader.next());
+            assertEquals(3, reader.line());
+            assertEquals(7, reader.length());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void keepsMultiByteCharactersIntact() throws IOException {
+        assertEquals(Arrays.asList("你好，世界", "😀"), readAll("你好，世界\n😀", 2));
+    }
+
+    private List<String> readAll(String text, int windowSize) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (FileChannel channel = open(text)) {
+            MappedLineReader reader = new MappedLineReader(channel, windowSize);
+            while (reader.next()) {
+                assertEquals(lines.size(), reader.line());
+                byte[] buffer = new byte[reader.length()];
+                reader.copyTo(buffer);
+                lines.add(new String(buffer, StandardCharsets.UTF_8));
+            }
+        }
+        return lines;
+    }
+
+    private FileChannel open(String text) throws IOException {
+        Path file = Files.createTempFile(dir, "lines", ".jsonl");
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+}
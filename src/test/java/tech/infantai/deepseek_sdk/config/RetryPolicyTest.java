@@ -0,0 +1,127 @@
+package tech.infantai.deepseek_sdk.config;
+
+import org.junit.jupiter.api.Test;
+import tech.infantai.deepseek_sdk.exception.ApiException;
+import tech.infantai.deepseek_sdk.model.ErrorResponse;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest {
+    private static final IOException TIMEOUT = new SocketTimeoutException("timeout");
+
+    private static RetryPolicy.Builder noJitter() {
+        return RetryPolicy.builder().maxAttempts(5).baseDelayMillis(100).maxDelayMillis(1000).jitter(0);
+    }
+
+    @Test
+    void backsOffExponentiallyUpToTheCap() {
+        RetryPolicy policy = noJitter().build();
+
+        assertEquals(100, policy.nextDelayMillis(1, 0, TIMEOUT, null));
+        assertEquals(200, policy.nextDelayMillis(2, 0, TIMEOUT, null));
+        assertEquals(400, policy.nextDelayMillis(3, 0, TIMEOUT, null));
+        assertEquals(800, policy.nextDelayMillis(4, 0, TIMEOUT, null));
+        assertEquals(1000, noJitter().maxAttempts(10).build().nextDelayMillis(8, 0, TIMEOUT, null));
+    }
+
+    @Test
+    void jitterOnlyShortensTheDelay() {
+        RetryPolicy policy = noJitter().jitter(0.5).build();
+
+        for (int i = 0; i < 100; i++) {
+            long delay = policy.nextDelayMillis(3, 0, TIMEOUT, null);
+            assertTrue(delay >= 200 && delay <= 400, "delay " + delay);
+        }
+    }
+
+    @Test
+    void stopsAfterMaxAttempts() {
+        RetryPolicy policy = noJitter().maxAttempts(3).build();
+
+        assertTrue(policy.nextDelayMillis(2, 0, TIMEOUT, null) >= 0);
+        assertEquals(-1, policy.nextDelayMillis(3, 0, TIMEOUT, null));
+        assertEquals(-1, RetryPolicy.NONE.nextDelayMillis(1, 0, TIMEOUT, null));
+    }
+
+    @Test
+    void stopsWhenTheDelayWouldExhaustTheTotalTimeout() {
+        RetryPolicy policy = noJitter().totalTimeoutMillis(1000).build();
+
+        assertEquals(100, policy.nextDelayMillis(1, 800, TIMEOUT, null));
+        assertEquals(-1, policy.nextDelayMillis(1, 900, TIMEOUT, null));
+        assertEquals(200, policy.remainingMillis(800));
+        assertEquals(1, policy.remainingMillis(5000));
+        assertEquals(0, noJitter().build().remainingMillis(5000));
+    }
+
+    @Test
+    void usesRetryAfterWithinTheCap() {
+        RetryPolicy policy = noJitter().build();
+
+        assertEquals(700, policy.nextDelayMillis(1, 0, apiException(429, null, 700), null));
+        assertEquals(0, policy.nextDelayMillis(1, 0, apiException(503, null, 0), null));
+    }
+
+    @Test
+    void givesUpWhenRetryAfterExceedsTheCap() {
+        RetryPolicy policy = noJitter().build();
+
+        assertEquals(-1, policy.nextDelayMillis(1, 0, apiException(429, null, 3_600_000), null));
+    }
+
+    @Test
+    void ignoresRetryAfterWhenAskedTo() {
+        RetryPolicy policy = noJitter().respectRetryAfter(false).build();
+
+        assertEquals(100, policy.nextDelayMillis(1, 0, apiException(429, null, 3_600_000), null));
+    }
+
+    @Test
+    void classifiesByStatusCode() {
+        RetryPolicy policy = RetryPolicy.builder().build();
+
+        for (int status : new int[]{408, 429, 500, 502, 503, 504}) {
+            assertTrue(policy.isRetryable(apiException(status, null, -1)), "status " + status);
+        }
+        for (int status : new int[]{400, 401, 403, 404, 422}) {
+            assertFalse(policy.isRetryable(apiException(status, null, -1)), "status " + status);
+        }
+    }
+
+    @Test
+    void classifiesByErrorCodeAndType() {
+        RetryPolicy policy = RetryPolicy.builder().build();
+
+        assertTrue(policy.isRetryable(ErrorResponse.of("busy", "server_error", null)));
+        assertTrue(policy.isRetryable(ErrorResponse.of("slow down", "invalid_request_error", "rate_limit_exceeded")));
+        assertFalse(policy.isRetryable(ErrorResponse.of("bad input", "invalid_request_error", "invalid_value")));
+        assertFalse(policy.isRetryable((ErrorResponse) null));
+        // 额度用尽不会因为等待而恢复，即使状态码是429
+        assertFalse(policy.isRetryable(apiException(429,
+                ErrorResponse.of("quota", "insufficient_quota", "insufficient_quota"), -1)));
+        // 2xx响应体中的错误
+        assertEquals(-1, noJitter().build().nextDelayMillis(1, 0, null,
+                ErrorResponse.of("bad input", "invalid_request_error", null)));
+        assertEquals(100, noJitter().build().nextDelayMillis(1, 0, null, ErrorResponse.of("busy", "server_error", null)));
+    }
+
+    @Test
+    void classifiesIoExceptionsByType() {
+        RetryPolicy policy = RetryPolicy.builder().build();
+
+        assertTrue(policy.isRetryable(TIMEOUT));
+        assertTrue(policy.isRetryable(new ConnectException("refused")));
+        assertFalse(policy.isRetryable(new IOException("malformed body")));
+        assertFalse(RetryPolicy.builder().retryableExceptions(ConnectException.class).build().isRetryable(TIMEOUT));
+    }
+
+    private static ApiException apiException(int status, ErrorResponse error, long retryAfterMillis) {
+        return new ApiException("HTTP " + status, status, error, retryAfterMillis);
+    }
+}
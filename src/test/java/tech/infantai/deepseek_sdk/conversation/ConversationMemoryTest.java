@@ -0,0 +1,247 @@
+package tech.infantai.deepseek_sdk.conversation;
+
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+import tech.infantai.deepseek_sdk.config.GPTConfig;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.model.Message;
+import tech.infantai.deepseek_sdk.service.DeepseekAIService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConversationMemoryTest {
+
+    @Test
+    void dropsTheOldestTurnsDownToTheTarget() {
+        ConversationMemory memory = memory().build();
+        memory.pin(message("system", 10));
+        addTurns(memory, 2);
+        assertEquals(90, memory.getTokenCount());
+
+        memory.add(message("user", 20));
+
+        // 110超过100，移出最早的一轮后降到70
+        assertEquals(70, memory.getTokenCount());
+        assertEquals(Arrays.asList("system", "user", "assistant", "user"), roles(memory));
+        MemoryStats stats = memory.getStats();
+        assertEquals(2, stats.getEvictedMessages());
+        assertEquals(40, stats.getEvictedTokens());
+        assertEquals(110, stats.getTotalTokens());
+    }
+
+    @Test
+    void keepsThePrefixUnchangedUntilTheNextEviction() {
+        ConversationMemory memory = memory().build();
+        memory.pin(message("system", 10));
+        addTurns(memory, 2);
+        memory.add(message("user", 20));
+        List<Message> afterEviction = memory.getMessages();
+
+        memory.add(message("assistant", 20));
+
+        // 仍在预算之内，之前的消息原样保留，请求前缀不变
+        assertEquals(90, memory.getTokenCount());
+        assertEquals(afterEviction, memory.getMessages().subList(0, afterEviction.size()));
+    }
+
+    @Test
+    void theRemainingHistoryStartsWithAUserMessage() {
+        ConversationMemory memory = memory().build();
+        memory.pin(message("system", 10));
+        memory.add(message("user", 10));
+        memory.add(message("assistant", 50));
+        memory.add(message("user", 10));
+        memory.add(message("assistant", 30));
+
+        // 只移出第一条用户消息就能降到目标以下，但不能让历史从助手消息开始
+        assertEquals(Arrays.asList("system", "user", "assistant"), roles(memory));
+        assertEquals(50, memory.getTokenCount());
+    }
+
+    @Test
+    void neverEvictsPinnedMessagesOrTheLastTurn() {
+        ConversationMemory memory = memory().build();
+        memory.pin(message("system", 60));
+        memory.add(message("user", 30));
+        memory.add(message("assistant", 30));
+
+        assertEquals(Arrays.asList("system", "user", "assistant"), roles(memory));
+        assertEquals(120, memory.getTokenCount());
+        assertEquals(0, memory.getStats().getEvictedMessages());
+    }
+
+    @Test
+    void clearKeepsPinnedMessages() {
+        ConversationMemory memory = memory().build();
+        memory.pin(message("system", 10));
+        addTurns(memory, 2);
+
+        memory.clear();
+
+        assertEquals(Collections.singletonList("system"), roles(memory));
+        assertEquals(10, memory.getTokenCount());
+    }
+
+    @Test
+    void summarizesTheEvictedTurns() {
+        ConversationMemory memory = overBudget(new FakeSummarizer("they met"));
+
+        // 有摘要服务时add不会丢弃，等待compact
+        assertEquals(330, memory.getTokenCount());
+        assertTrue(memory.needsCompaction());
+
+        memory.compact();
+
+        List<Message> messages = memory.getMessages();
+        assertEquals(Arrays.asList("system", "system", "user", "assistant", "user"), roles(memory));
+        String summary = messages.get(1).getContent();
+        assertTrue(summary.endsWith("they met"), summary);
+        assertEquals(210 + summary.length(), memory.getTokenCount());
+        assertFalse(memory.needsCompaction());
+        MemoryStats stats = memory.getStats();
+        assertEquals(1, stats.getSummaries());
+        assertEquals(120, stats.getSummarizedTokens());
+        assertEquals(summary.length(), stats.getSummaryTokens());
+        assertEquals(0, stats.getEvictedMessages());
+    }
+
+    @Test
+    void aLaterSummaryFoldsInTheEarlierOne() {
+        FakeSummarizer summarizer = new FakeSummarizer("s");
+        ConversationMemory memory = overBudget(summarizer);
+        memory.compact();
+        String first = memory.getMessages().get(1).getContent();
+
+        addTurns(memory, 1, 60);
+        assertTrue(memory.needsCompaction());
+        memory.compact();
+
+        // 第二次摘要请求的记录从第一次的摘要开始；新摘要替换旧摘要，之后只剩最后一轮
+        String transcript = summarizer.requests.get(1).getMessages().get(1).getContent();
+        assertTrue(transcript.startsWith("system: " + first), transcript);
+        assertEquals(2, memory.getStats().getSummaries());
+        assertEquals(Arrays.asList("system", "system", "user", "assistant"), roles(memory));
+    }
+
+    @Test
+    void dropsTheTurnsWhenSummarizationFails() {
+        ConversationMemory memory = overBudget(new FakeSummarizer(null));
+
+        memory.compact();
+
+        assertEquals(Arrays.asList("system", "user", "assistant", "user"), roles(memory));
+        assertEquals(210, memory.getTokenCount());
+        assertEquals(1, memory.getStats().getSummaryFailures());
+        assertEquals(2, memory.getStats().getEvictedMessages());
+    }
+
+    @Test
+    void cancellingAnAsyncCompactionLeavesTheHistoryAlone() {
+        ConversationMemory memory = overBudget(new FakeSummarizer("never"));
+        List<Message> before = memory.getMessages();
+
+        CompletableFuture<Void> compaction = memory.compactAsync();
+        assertFalse(memory.needsCompaction());
+        compaction.cancel(true);
+
+        assertEquals(before, memory.getMessages());
+        assertEquals(330, memory.getTokenCount());
+        assertTrue(memory.needsCompaction());
+    }
+
+    /**
+     * 摘要消息带有约40个token的前缀，摘要相关的测试使用三倍的预算和消息大小
+     * Summary messages carry a prefix of about 40 tokens, so the summarizer tests triple the budget and message sizes
+     */
+    private static ConversationMemory.Builder summarizedMemory(FakeSummarizer summarizer) {
+        return memory().maxTokens(300).targetTokens(210).summarizer(summarizer);
+    }
+
+    /**
+     * 固定消息30、两轮每条60，再加一条用户消息后超出300的预算
+     * 30 pinned, two turns of 60 each, then one more user message to go over the budget of 300
+     */
+    private static ConversationMemory overBudget(FakeSummarizer summarizer) {
+        ConversationMemory memory = summarizedMemory(summarizer).build();
+        memory.pin(message("system", 30));
+        addTurns(memory, 2, 60);
+        memory.add(message("user", 60));
+        return memory;
+    }
+
+    /** token数等于内容长度，预算100、目标70 / Tokens equal content length; budget 100, target 70 */
+    private static ConversationMemory.Builder memory() {
+        return ConversationMemory.builder()
+                .maxTokens(100)
+                .targetTokens(70)
+                .tokenEstimator(messages -> messages.get(0).getContent().length());
+    }
+
+    private static void addTurns(ConversationMemory memory, int turns) {
+        addTurns(memory, turns, 20);
+    }
+
+    private static void addTurns(ConversationMemory memory, int turns, int tokensPerMessage) {
+        for (int i = 0; i < turns; i++) {
+            memory.add(message("user", tokensPerMessage));
+            memory.add(message("assistant", tokensPerMessage));
+        }
+    }
+
+    private static Message message(String role, int tokens) {
+        StringBuilder content = new StringBuilder(tokens);
+        for (int i = 0; i < tokens; i++) {
+            content.append((char) ('a' + i % 26));
+        }
+        return new Message(role, content.toString());
+    }
+
+    private static List<String> roles(ConversationMemory memory) {
+        List<String> roles = new ArrayList<>();
+        for (Message message : memory.getMessages()) {
+            roles.add(message.getRole());
+        }
+        return roles;
+    }
+
+    /**
+     * 不发出网络请求的摘要服务：summary为null时同步调用失败，异步调用永不完成
+     * A summarizer that never touches the network: with a null summary the sync call fails; async calls never
+     * complete
+     */
+    private static class FakeSummarizer extends DeepseekAIService {
+        private final String summary;
+        private final List<ChatRequest> requests = new ArrayList<>();
+
+        FakeSummarizer(String summary) {
+            super(GPTConfig.builder().apiKey("sk-test").endpoint("http://localhost:1").model("deepseek-chat").build(),
+                    new OkHttpClient());
+            this.summary = summary;
+        }
+
+        @Override
+        public ChatResponse chat(ChatRequest chatRequest) throws IOException {
+            requests.add(chatRequest);
+            if (summary == null) {
+                throw new IOException("summarizer unavailable");
+            }
+            return new ChatResponse(summary, null);
+        }
+
+        @Override
+        public CompletableFuture<ChatResponse> chatAsync(ChatRequest chatRequest) {
+            requests.add(chatRequest);
+            return new CompletableFuture<>();
+        }
+    }
+}
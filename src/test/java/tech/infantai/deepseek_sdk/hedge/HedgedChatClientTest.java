@@ -0,0 +1,206 @@
+package tech.infantai.deepseek_sdk.hedge;
+
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+import tech.infantai.deepseek_sdk.config.GPTConfig;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.model.Message;
+import tech.infantai.deepseek_sdk.service.DeepseekAIService;
+import tech.infantai.deepseek_sdk.util.Deadline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgedChatClientTest {
+    private static final long HEDGE_DELAY_MILLIS = 20;
+
+    @Test
+    void hedgesASlowPrimaryAndCancelsItWhenTheHedgeWins() throws Exception {
+        FakeService primary = new FakeService(null);
+        FakeService secondary = new FakeService(() -> answered("hedge"));
+        HedgedChatClient client = client(primary, secondary, 1.0);
+
+        ChatResponse response = client.chatAsync(request()).get(5, TimeUnit.SECONDS);
+
+        assertEquals("hedge", response.getContent());
+        // 胜出的结果先交给调用方，随后取消落后的请求
+        await(() -> primary.calls.get(0).isCancelled());
+        assertEquals(1, client.getHedgeCount());
+        assertEquals(1, client.getHedgeWinCount());
+        // 对冲请求不与进行中的主请求合并
+        assertTrue(secondary.requests.get(0).isSkipSingleFlight());
+    }
+
+    @Test
+    void doesNotHedgeAFastPrimary() throws Exception {
+        FakeService primary = new FakeService(() -> answered("primary"));
+        FakeService secondary = new FakeService(() -> answered("hedge"));
+        HedgedChatClient client = client(primary, secondary, 1.0);
+
+        assertEquals("primary", client.chatAsync(request()).get(5, TimeUnit.SECONDS).getContent());
+        Thread.sleep(5 * HEDGE_DELAY_MILLIS);
+
+        assertTrue(secondary.calls.isEmpty());
+        assertEquals(0, client.getHedgeCount());
+    }
+
+    @Test
+    void cancelsTheHedgeWhenThePrimaryWins() throws Exception {
+        FakeService primary = new FakeService(null);
+        FakeService secondary = new FakeService(null);
+        HedgedChatClient client = client(primary, secondary, 1.0);
+
+        CompletableFuture<ChatResponse> result = client.chatAsync(request());
+        await(() -> secondary.calls.size() == 1);
+        primary.calls.get(0).complete(new ChatResponse("primary", null));
+
+        assertEquals("primary", result.get(5, TimeUnit.SECONDS).getContent());
+        await(() -> secondary.calls.get(0).isCancelled());
+        assertEquals(1, client.getHedgeCount());
+        assertEquals(0, client.getHedgeWinCount());
+    }
+
+    @Test
+    void cancellingTheResultCancelsEveryCallInFlight() throws Exception {
+        FakeService primary = new FakeService(null);
+        FakeService secondary = new FakeService(null);
+        HedgedChatClient client = client(primary, secondary, 1.0);
+
+        CompletableFuture<ChatResponse> result = client.chatAsync(request());
+        await(() -> secondary.calls.size() == 1);
+
+        assertTrue(result.cancel(true));
+        assertTrue(primary.calls.get(0).isCancelled());
+        assertTrue(secondary.calls.get(0).isCancelled());
+    }
+
+    @Test
+    void staysWithinTheHedgeBudget() throws Exception {
+        FakeService primary = new FakeService(null);
+        FakeService secondary = new FakeService(null);
+        HedgedChatClient client = client(primary, secondary, 0.5);
+
+        // 计时器到期前发出全部请求，预算为总请求数的一半
+        for (int i = 0; i < 8; i++) {
+            client.chatAsync(request());
+        }
+        await(() -> secondary.calls.size() == 4);
+        Thread.sleep(5 * HEDGE_DELAY_MILLIS);
+
+        assertEquals(4, secondary.calls.size());
+        assertEquals(4, client.getHedgeCount());
+        assertEquals(8, client.getRequestCount());
+    }
+
+    @Test
+    void theHedgeSharesTheCallersDeadline() throws Exception {
+        FakeService primary = new FakeService(null);
+        FakeService secondary = new FakeService(() -> answered("hedge"));
+        HedgedChatClient client = client(primary, secondary, 1.0);
+
+        ChatRequest request = ChatRequest.builder().message(new Message("user", "hello")).timeoutMillis(5_000).build();
+        client.chatAsync(request).get(5, TimeUnit.SECONDS);
+
+        // 总超时在发出主请求前换算成截止时间，对冲请求不会重新计时
+        ChatRequest first = primary.requests.get(0);
+        ChatRequest hedged = secondary.requests.get(0);
+        assertEquals(0, first.getTimeoutMillis());
+        assertEquals(0, hedged.getTimeoutMillis());
+        assertNotNull(first.getDeadline());
+        assertSame(first.getDeadline(), hedged.getDeadline());
+    }
+
+    @Test
+    void doesNotHedgeOnceTheDeadlineHasPassed() throws Exception {
+        FakeService primary = new FakeService(null);
+        FakeService secondary = new FakeService(() -> answered("hedge"));
+        HedgedChatClient client = client(primary, secondary, 1.0);
+
+        ChatRequest request = ChatRequest.builder().message(new Message("user", "hello"))
+                .deadline(Deadline.after(1, TimeUnit.MILLISECONDS)).build();
+        CompletableFuture<ChatResponse> result = client.chatAsync(request);
+        Thread.sleep(5 * HEDGE_DELAY_MILLIS);
+
+        assertTrue(secondary.calls.isEmpty());
+        assertEquals(0, client.getHedgeCount());
+        assertFalse(result.isDone());
+        result.cancel(true);
+    }
+
+    @Test
+    void rethrowsRuntimeFailuresUnwrapped() {
+        FakeService primary = new FakeService(() -> {
+            CompletableFuture<ChatResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("boom"));
+            return future;
+        });
+        HedgedChatClient client = client(primary, new FakeService(null), 1.0);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> client.chatWithMessages(Collections.singletonList(new Message("user", "hello"))));
+        assertEquals("boom", e.getMessage());
+    }
+
+    private static HedgedChatClient client(FakeService primary, FakeService secondary, double maxHedgeRatio) {
+        return HedgedChatClient.builder()
+                .primary(primary)
+                .secondary(secondary)
+                .policy(HedgePolicy.builder().delayMillis(HEDGE_DELAY_MILLIS).maxHedgeRatio(maxHedgeRatio).build())
+                .build();
+    }
+
+    private static ChatRequest request() {
+        return ChatRequest.builder().message(new Message("user", "hello")).build();
+    }
+
+    private static CompletableFuture<ChatResponse> answered(String content) {
+        CompletableFuture<ChatResponse> future = new CompletableFuture<>();
+        future.complete(new ChatResponse(content, null));
+        return future;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5 seconds");
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * 不发出网络请求的服务：answer为null时请求一直挂起，由测试完成
+     * A service that never touches the network; with a null answer calls stay pending until the test completes them
+     */
+    static class FakeService extends DeepseekAIService {
+        final List<CompletableFuture<ChatResponse>> calls = Collections.synchronizedList(new ArrayList<>());
+        final List<ChatRequest> requests = Collections.synchronizedList(new ArrayList<>());
+        private final Supplier<CompletableFuture<ChatResponse>> answer;
+
+        FakeService(Supplier<CompletableFuture<ChatResponse>> answer) {
+            super(GPTConfig.builder().apiKey("sk-test").endpoint("http://localhost:1").model("deepseek-chat").build(),
+                    new OkHttpClient());
+            this.answer = answer;
+        }
+
+        @Override
+        public CompletableFuture<ChatResponse> chatAsync(ChatRequest chatRequest) {
+            CompletableFuture<ChatResponse> future = answer == null ? new CompletableFuture<>() : answer.get();
+            requests.add(chatRequest);
+            calls.add(future);
+            return future;
+        }
+    }
+}
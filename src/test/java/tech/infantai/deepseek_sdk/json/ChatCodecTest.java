@@ -0,0 +1,137 @@
+package tech.infantai.deepseek_sdk.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.Test;
+import tech.infantai.deepseek_sdk.model.ChatCompletionChunk;
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.model.ErrorResponse;
+import tech.infantai.deepseek_sdk.model.Message;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ChatCodecTest {
+
+    @Test
+    void writesRequestsExactlyLikeTheObjectMapper() throws IOException {
+        ChatRequest request = ChatRequest.builder()
+                .model("deepseek-chat")
+                .messages(Arrays.asList(new Message("system", "你是一个助手"), new Message("user", "Say \"hi\"\n ")))
+                .temperature(0.0)
+                .maxTokens(256)
+                .stream(true)
+                .build();
+
+        assertEquals(Json.MAPPER.writeValueAsString(request), write(request));
+    }
+
+    @Test
+    void roundTripsACompletion() throws IOException {
+        String body = "{\"id\":\"c-1\",\"object\":\"chat.completion\",\"created\":1700000000,\"model\":\"deepseek-chat\","
+                + "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"你好\",\"tool_calls\":[]},"
+                + "\"logprobs\":null,\"finish_reason\":\"stop\"}],"
+                + "\"usage\":{\"prompt_tokens\":10,\"completion_tokens\":2,\"total_tokens\":12,"
+                + "\"prompt_tokens_details\":{\"cached_tokens\":8},\"prompt_cache_hit_tokens\":8,\"prompt_cache_miss_tokens\":2},"
+                + "\"system_fingerprint\":\"fp\",\"unknown\":{\"nested\":[1,2]}}";
+
+        ChatCompletionResponse completion = readCompletion(body);
+
+        assertEquals("c-1", completion.getId());
+        assertEquals(1700000000L, (long) completion.getCreated());
+        assertEquals("fp", completion.getSystemFingerprint());
+        ChatCompletionResponse.Choice choice = completion.getChoices().get(0);
+        assertEquals("assistant", choice.getMessage().getRole());
+        assertEquals("你好", choice.getMessage().getContent());
+        assertEquals("stop", choice.getFinishReason());
+        assertEquals(12, (int) completion.getUsage().getTotalTokens());
+        assertEquals(8, (int) completion.getUsage().getPromptTokensDetails().getCachedTokens());
+        assertEquals(Json.MAPPER.writeValueAsString(Json.MAPPER.readValue(body, ChatCompletionResponse.class)),
+                Json.MAPPER.writeValueAsString(completion));
+    }
+
+    @Test
+    void decodesEmptyContent() throws IOException {
+        ChatCompletionResponse completion = readCompletion(completionWithContent("\"\"", "length"));
+
+        Message message = completion.getChoices().get(0).getMessage();
+        assertEquals("assistant", message.getRole());
+        assertEquals("", message.getContent());
+        assertEquals("length", completion.getChoices().get(0).getFinishReason());
+    }
+
+    @Test
+    void decodesNullContent() throws IOException {
+        ChatCompletionResponse completion = readCompletion(completionWithContent("null", "tool_calls"));
+
+        Message message = completion.getChoices().get(0).getMessage();
+        assertEquals("assistant", message.getRole());
+        assertNull(message.getContent());
+    }
+
+    @Test
+    void decodesWhitespaceContent() throws IOException {
+        ChatCompletionResponse completion = readCompletion(completionWithContent("\" \\n \"", "stop"));
+
+        assertEquals(" \n ", completion.getChoices().get(0).getMessage().getContent());
+    }
+
+    @Test
+    void decodesAChunk() throws IOException {
+        ChatCompletionChunk chunk = new ChatCompletionChunk();
+        ErrorResponse error;
+        try (JsonParser parser = ChatCodec.FACTORY.createParser("{\"id\":\"c-1\",\"choices\":[{\"index\":0,"
+                + "\"delta\":{\"role\":\"assistant\",\"content\":\"\"},\"finish_reason\":null}]}")) {
+            error = ChatCodec.readChunk(parser, chunk);
+        }
+
+        assertNull(error);
+        assertEquals("c-1", chunk.getId());
+        ChatCompletionChunk.Delta delta = chunk.getChoices().get(0).getDelta();
+        assertEquals("assistant", delta.getRole());
+        assertEquals("", delta.getContent());
+        assertNull(chunk.getChoices().get(0).getFinishReason());
+    }
+
+    @Test
+    void returnsTheErrorOfAnErrorBody() throws IOException {
+        ChatCompletionResponse completion = new ChatCompletionResponse();
+        ErrorResponse error;
+        try (JsonParser parser = ChatCodec.FACTORY.createParser("{\"error\":{\"message\":\"Rate limit reached\","
+                + "\"type\":\"rate_limit_error\",\"param\":null,\"code\":\"429\"}}")) {
+            error = ChatCodec.readCompletion(parser, completion);
+        }
+
+        assertNotNull(error);
+        assertEquals("Rate limit reached", error.getError().getMessage());
+        assertEquals("rate_limit_error", error.getError().getType());
+        assertEquals("429", error.getError().getCode());
+    }
+
+    private static String completionWithContent(String content, String finishReason) {
+        return "{\"id\":\"c-1\",\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":" + content
+                + "},\"finish_reason\":\"" + finishReason + "\"}]}";
+    }
+
+    private static ChatCompletionResponse readCompletion(String body) throws IOException {
+        ChatCompletionResponse completion = new ChatCompletionResponse();
+        try (JsonParser parser = ChatCodec.FACTORY.createParser(body)) {
+            assertNull(ChatCodec.readCompletion(parser, completion));
+        }
+        return completion;
+    }
+
+    private static String write(ChatRequest request) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = ChatCodec.FACTORY.createGenerator(writer)) {
+            ChatCodec.writeRequest(request, generator);
+        }
+        return writer.toString();
+    }
+}
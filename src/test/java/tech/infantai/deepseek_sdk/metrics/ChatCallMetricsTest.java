@@ -0,0 +1,108 @@
+package tech.infantai.deepseek_sdk.metrics;
+
+import org.junit.jupiter.api.Test;
+import tech.infantai.deepseek_sdk.exception.ApiException;
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatCallMetricsTest {
+
+    @Test
+    void aCallReportsStatusBytesAndTokens() {
+        ChatCallMetrics metrics = new ChatCallMetrics("deepseek-chat", false);
+
+        // 按MetricsEventListener和服务的调用顺序记录一次未压缩的调用
+        metrics.attemptStart();
+        metrics.requestBodyStart();
+        metrics.requestBodyEnd(120, -1);
+        metrics.responseHeadersStart();
+        metrics.responseHeadersEnd(200, false);
+        metrics.responseBodyEnd(300);
+        MetricsRecorder.parsed(metrics, 1_000);
+        MetricsRecorder.finish(metrics, response(10, 2, 4), null);
+
+        assertTrue(metrics.isSuccess());
+        assertNull(metrics.getFailure());
+        assertEquals(200, metrics.getStatusCode());
+        assertEquals(1, metrics.getAttempts());
+        assertEquals(0, metrics.getRetries());
+        assertEquals(120, metrics.getRequestBytes());
+        assertEquals(120, metrics.getUncompressedRequestBytes());
+        assertEquals(300, metrics.getResponseBytes());
+        assertEquals(300, metrics.getUncompressedResponseBytes());
+        assertEquals(1_000, metrics.getParseNanos());
+        assertEquals(10, metrics.getPromptTokens());
+        assertEquals(2, metrics.getCompletionTokens());
+        assertEquals(4, metrics.getCacheHitTokens());
+        assertTrue(metrics.getTotalNanos() > 0);
+    }
+
+    @Test
+    void compressedBodiesReportWireAndUncompressedBytesSeparately() {
+        ChatCallMetrics metrics = new ChatCallMetrics("deepseek-chat", false);
+
+        metrics.attemptStart();
+        metrics.requestBodyStart();
+        metrics.requestBodyEnd(200, 1_500);
+        metrics.responseHeadersStart();
+        metrics.responseHeadersEnd(200, true);
+        metrics.responseBodyEnd(80);
+        // 压缩的响应只通过decompressed()计入解压后的字节数
+        MetricsRecorder.decompressed(metrics, 400);
+        MetricsRecorder.finish(metrics, response(1, 1, 0), null);
+
+        assertTrue(metrics.isRequestCompressed());
+        assertTrue(metrics.isResponseCompressed());
+        assertEquals(200, metrics.getRequestBytes());
+        assertEquals(1_500, metrics.getUncompressedRequestBytes());
+        assertEquals(80, metrics.getResponseBytes());
+        assertEquals(400, metrics.getUncompressedResponseBytes());
+    }
+
+    @Test
+    void aFailureWithoutAResponseTakesItsStatusFromTheException() {
+        ChatCallMetrics metrics = new ChatCallMetrics("deepseek-chat", true);
+        ApiException failure = new ApiException("HTTP 503", 503, null, -1);
+
+        metrics.attemptStart();
+        metrics.attemptStart();
+        MetricsRecorder.finish(metrics, null, failure);
+
+        assertFalse(metrics.isSuccess());
+        assertSame(failure, metrics.getFailure());
+        assertEquals(503, metrics.getStatusCode());
+        assertEquals(1, metrics.getRetries());
+        assertEquals(0, metrics.getPromptTokens());
+    }
+
+    @Test
+    void aCacheHitHasNoNetworkMeasurements() {
+        ChatCallMetrics metrics = new ChatCallMetrics("deepseek-chat", false);
+
+        MetricsRecorder.cacheHit(metrics);
+        MetricsRecorder.finish(metrics, response(10, 2, 0), null);
+
+        assertTrue(metrics.isCacheHit());
+        assertTrue(metrics.isSuccess());
+        assertEquals(0, metrics.getAttempts());
+        assertEquals(0, metrics.getStatusCode());
+        assertEquals(0, metrics.getRequestBytes());
+        assertEquals(10, metrics.getPromptTokens());
+    }
+
+    private static ChatResponse response(int promptTokens, int completionTokens, int cacheHitTokens) {
+        ChatCompletionResponse.Usage usage = new ChatCompletionResponse.Usage();
+        usage.setPromptTokens(promptTokens);
+        usage.setCompletionTokens(completionTokens);
+        usage.setPromptCacheHitTokens(cacheHitTokens);
+        ChatCompletionResponse raw = new ChatCompletionResponse();
+        raw.setUsage(usage);
+        return new ChatResponse("ok", raw);
+    }
+}
@@ -0,0 +1,192 @@
+package tech.infantai.deepseek_sdk.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.model.Message;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void allowsABurstUpToTheRequestsPerMinute() throws Exception {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder()
+                .requestsPerMinute(3)
+                .mode(TokenBucketRateLimiter.Mode.FAIL_FAST)
+                .build();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("k", request("hello"));
+        }
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire("k", request("hello")));
+        // 每20秒补充一个请求
+        assertTrue(e.getRetryAfterMillis() > 19000 && e.getRetryAfterMillis() <= 20000, "retry after " + e.getRetryAfterMillis());
+    }
+
+    @Test
+    void keysHaveTheirOwnBuckets() throws Exception {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder()
+                .requestsPerMinute(1)
+                .mode(TokenBucketRateLimiter.Mode.FAIL_FAST)
+                .build();
+        limiter.acquire("a", request("hello"));
+
+        limiter.acquire("b", request("hello"));
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire("a", request("hello")));
+    }
+
+    @Test
+    void reservesTheEstimatePlusMaxTokens() throws Exception {
+        TokenBucketRateLimiter limiter = tokenLimiter(1000, 40);
+        ChatRequest request = ChatRequest.builder().model("deepseek-chat").message(new Message("user", "hello"))
+                .maxTokens(60).build();
+
+        assertEquals(100, limiter.acquire("k", request));
+    }
+
+    @Test
+    void capsAReservationLargerThanTheBucketAtItsCapacity() throws Exception {
+        TokenBucketRateLimiter limiter = tokenLimiter(100, 500);
+
+        assertEquals(100, limiter.acquire("k", request("hello")));
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire("k", request("hello")));
+    }
+
+    @Test
+    void aFailedCallGivesItsReservationBack() throws Exception {
+        TokenBucketRateLimiter limiter = tokenLimiter(100, 40);
+        int first = limiter.acquire("k", request("hello"));
+        limiter.acquire("k", request("hello"));
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire("k", request("hello")));
+
+        limiter.release("k", first, null);
+
+        assertEquals(40, limiter.acquire("k", request("hello")));
+    }
+
+    @Test
+    void reconcilesTheReservationWithActualUsage() throws Exception {
+        TokenBucketRateLimiter limiter = tokenLimiter(100, 40);
+        int first = limiter.acquire("k", request("hello"));
+        limiter.acquire("k", request("hello"));
+
+        // 实际只用了10个token，退还30个，桶里有50个
+        limiter.release("k", first, usage(10));
+        limiter.acquire("k", request("hello"));
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire("k", request("hello")));
+    }
+
+    @Test
+    void usageAboveTheEstimateLeavesTheBucketInDebt() throws Exception {
+        TokenBucketRateLimiter limiter = tokenLimiter(100, 40);
+        int reserved = limiter.acquire("k", request("hello"));
+
+        // 实际用了90个token，桶里只剩10个
+        limiter.release("k", reserved, usage(90));
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire("k", request("hello")));
+        // 还差约30个token，每分钟补充100个
+        assertTrue(e.getRetryAfterMillis() > 17000 && e.getRetryAfterMillis() <= 18000, "retry after " + e.getRetryAfterMillis());
+    }
+
+    @Test
+    void blocksUntilTheBucketRefills() throws Exception {
+        // 每100毫秒补充一个请求
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder().requestsPerMinute(600).maxWaitMillis(1000).build();
+        for (int i = 0; i < 600; i++) {
+            limiter.acquire("k", request("hello"));
+        }
+
+        long start = System.nanoTime();
+        limiter.acquire("k", request("hello"));
+
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(waited >= 50 && waited < 1000, "waited " + waited);
+    }
+
+    @Test
+    void givesUpWhenTheWaitExceedsTheConfiguredMaximum() throws Exception {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder().requestsPerMinute(1).maxWaitMillis(100).build();
+        limiter.acquire("k", request("hello"));
+
+        long start = System.nanoTime();
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire("k", request("hello")));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    }
+
+    @Test
+    void waitsNoLongerThanTheCallerHasLeft() throws Exception {
+        // 每分钟1个请求，第二个请求需要等待约60秒
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder().requestsPerMinute(1).build();
+        limiter.acquire("k", request("hello"));
+
+        long start = System.nanoTime();
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire("k", request("hello"), 2000));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertTrue(e.getRetryAfterMillis() > 2000);
+    }
+
+    @Test
+    void retriesCountAgainstTheRequestsPerMinuteWithoutWaiting() throws Exception {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder()
+                .requestsPerMinute(3)
+                .mode(TokenBucketRateLimiter.Mode.FAIL_FAST)
+                .build();
+        limiter.acquire("k", request("hello"));
+        limiter.acquireRetry("k");
+        limiter.acquireRetry("k");
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire("k", request("hello")));
+
+        // 配额用完后的重试不阻塞也不失败，而是形成欠账：下一个请求要等两个请求的补充时间
+        limiter.acquireRetry("k");
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire("k", request("hello")));
+        assertTrue(e.getRetryAfterMillis() > 39000, "retry after " + e.getRetryAfterMillis());
+    }
+
+    @Test
+    void estimatesWithTheServicesEstimatorUnlessItHasItsOwn() throws Exception {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.builder()
+                .tokensPerMinute(1000)
+                .build();
+        assertEquals(77, limiter.acquire("k", request("hello"), messages -> 77, Long.MAX_VALUE));
+
+        // 单独设置的估算器优先于服务配置中的估算器
+        assertEquals(40, tokenLimiter(1000, 40).acquire("k", request("hello"), messages -> 77, Long.MAX_VALUE));
+    }
+
+    @Test
+    void requiresAtLeastOneLimit() {
+        assertThrows(IllegalArgumentException.class, () -> TokenBucketRateLimiter.builder().build());
+        assertThrows(IllegalArgumentException.class, () -> TokenBucketRateLimiter.builder().requestsPerMinute(-1));
+        assertThrows(IllegalArgumentException.class, () -> TokenBucketRateLimiter.builder().tokensPerMinute(-1));
+    }
+
+    static ChatRequest request(String content) {
+        return ChatRequest.builder().model("deepseek-chat").message(new Message("user", content)).build();
+    }
+
+    /** 只限制TPM、每个请求估算为固定token数的限流器 / A TPM-only limiter whose estimator returns a fixed count */
+    private static TokenBucketRateLimiter tokenLimiter(int tokensPerMinute, int estimate) {
+        return TokenBucketRateLimiter.builder()
+                .tokensPerMinute(tokensPerMinute)
+                .mode(TokenBucketRateLimiter.Mode.FAIL_FAST)
+                .tokenEstimator(messages -> estimate)
+                .build();
+    }
+
+    private static ChatCompletionResponse.Usage usage(int totalTokens) {
+        ChatCompletionResponse.Usage usage = new ChatCompletionResponse.Usage();
+        usage.setTotalTokens(totalTokens);
+        return usage;
+    }
+}
@@ -0,0 +1,81 @@
+package tech.infantai.deepseek_sdk.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkheadTest {
+
+    @Test
+    void rejectsAtOnceWithoutAWaitQueue() throws Exception {
+        Bulkhead bulkhead = Bulkhead.builder().maxConcurrentCalls(1).build();
+        bulkhead.acquire("k");
+
+        assertThrows(BulkheadFullException.class, () -> bulkhead.acquire("k"));
+        assertEquals(1, bulkhead.getActiveCalls("k"));
+        assertEquals(1, bulkhead.getRejectedCount("k"));
+
+        bulkhead.release("k");
+        bulkhead.acquire("k");
+        assertEquals(1, bulkhead.getActiveCalls("k"));
+    }
+
+    @Test
+    void keysDoNotShareSlots() throws Exception {
+        Bulkhead bulkhead = Bulkhead.builder().maxConcurrentCalls(1).build();
+        bulkhead.acquire("a");
+        bulkhead.acquire("b");
+
+        assertEquals(1, bulkhead.getActiveCalls("a"));
+        assertEquals(1, bulkhead.getActiveCalls("b"));
+    }
+
+    @Test
+    void waitsNoLongerThanTheCallerHasLeft() throws Exception {
+        Bulkhead bulkhead = Bulkhead.builder().maxConcurrentCalls(1).waitQueue(1, 60000).build();
+        bulkhead.acquire("k");
+
+        long start = System.nanoTime();
+        assertThrows(BulkheadFullException.class, () -> bulkhead.acquire("k", 100));
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(waited >= 90 && waited < 5000, "waited " + waited + " ms");
+        assertEquals(0, bulkhead.getWaitingCalls("k"));
+    }
+
+    @Test
+    void aCallerWithNoTimeLeftDoesNotWait() throws Exception {
+        Bulkhead bulkhead = Bulkhead.builder().maxConcurrentCalls(1).waitQueue(1, 60000).build();
+        bulkhead.acquire("k");
+
+        long start = System.nanoTime();
+        assertThrows(BulkheadFullException.class, () -> bulkhead.acquire("k", 0));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertEquals(0, bulkhead.getWaitingCalls("k"));
+    }
+
+    @Test
+    void aWaitingCallGetsTheReleasedSlot() throws Exception {
+        Bulkhead bulkhead = Bulkhead.builder().maxConcurrentCalls(1).waitQueue(1, 5000).build();
+        bulkhead.acquire("k");
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+                // 测试结束
+            }
+            bulkhead.release("k");
+        });
+        releaser.start();
+
+        bulkhead.acquire("k");
+        releaser.join();
+        assertEquals(1, bulkhead.getActiveCalls("k"));
+        assertEquals(0, bulkhead.getRejectedCount("k"));
+    }
+}
@@ -0,0 +1,217 @@
+package tech.infantai.deepseek_sdk.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final List<String> transitions = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void staysClosedUntilTheMinimumNumberOfCalls() throws Exception {
+        CircuitBreaker breaker = breaker().build();
+
+        for (int i = 0; i < 3; i++) {
+            fail(breaker, "k");
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("k"));
+
+        fail(breaker, "k");
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState("k"));
+        assertEquals(Collections.singletonList("k:CLOSED->OPEN"), transitions);
+    }
+
+    @Test
+    void staysClosedBelowTheFailureRate() throws Exception {
+        CircuitBreaker breaker = breaker().build();
+
+        // 10次中4次失败，任何时候都低于50%
+        for (int i = 0; i < 10; i++) {
+            if (i % 5 >= 3) {
+                fail(breaker, "k");
+            } else {
+                succeed(breaker, "k", FAST);
+            }
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("k"));
+    }
+
+    @Test
+    void newOutcomesPushOldOnesOutOfTheWindow() throws Exception {
+        CircuitBreaker breaker = breaker().build();
+        for (int i = 0; i < 10; i++) {
+            succeed(breaker, "k", FAST);
+        }
+
+        // 每次失败挤出一次成功，第5次失败时达到5/10
+        for (int i = 0; i < 4; i++) {
+            fail(breaker, "k");
+            assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("k"));
+        }
+        fail(breaker, "k");
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState("k"));
+    }
+
+    @Test
+    void rejectsWhileOpenWithTheRemainingTime() throws Exception {
+        CircuitBreaker breaker = breaker().openDurationMillis(10_000).build();
+        open(breaker, "k");
+
+        CircuitBreakerOpenException e = assertThrows(CircuitBreakerOpenException.class, () -> breaker.acquire("k"));
+        assertEquals("k", e.getKey());
+        assertTrue(e.getRetryAfterMillis() > 9000 && e.getRetryAfterMillis() <= 10_000, "retry after " + e.getRetryAfterMillis());
+    }
+
+    @Test
+    void halfOpensAfterTheOpenDurationAndLimitsProbes() throws Exception {
+        CircuitBreaker breaker = breaker().openDurationMillis(50).halfOpenCalls(2).build();
+        open(breaker, "k");
+        Thread.sleep(80);
+
+        breaker.acquire("k");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState("k"));
+        breaker.acquire("k");
+
+        CircuitBreakerOpenException e = assertThrows(CircuitBreakerOpenException.class, () -> breaker.acquire("k"));
+        assertEquals(0, e.getRetryAfterMillis());
+    }
+
+    @Test
+    void closesWhenTheProbesSucceed() throws Exception {
+        CircuitBreaker breaker = breaker().openDurationMillis(50).halfOpenCalls(2).build();
+        open(breaker, "k");
+        Thread.sleep(80);
+
+        long first = breaker.acquire("k");
+        long second = breaker.acquire("k");
+        breaker.recordSuccess("k", first, FAST);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState("k"));
+        breaker.recordSuccess("k", second, FAST);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("k"));
+        assertEquals(3, transitions.size());
+        assertEquals("k:HALF_OPEN->CLOSED", transitions.get(2));
+    }
+
+    @Test
+    void opensAgainWhenTheProbesFail() throws Exception {
+        CircuitBreaker breaker = breaker().openDurationMillis(50).halfOpenCalls(2).build();
+        open(breaker, "k");
+        Thread.sleep(80);
+
+        long first = breaker.acquire("k");
+        long second = breaker.acquire("k");
+        breaker.recordSuccess("k", first, FAST);
+        breaker.recordFailure("k", second, FAST);
+
+        // 1/2失败达到50%阈值
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState("k"));
+        assertEquals("k:HALF_OPEN->OPEN", transitions.get(transitions.size() - 1));
+        assertThrows(CircuitBreakerOpenException.class, () -> breaker.acquire("k"));
+    }
+
+    @Test
+    void aReleasedProbeFreesItsSlot() throws Exception {
+        CircuitBreaker breaker = breaker().openDurationMillis(50).halfOpenCalls(1).build();
+        open(breaker, "k");
+        Thread.sleep(80);
+
+        long probe = breaker.acquire("k");
+        assertThrows(CircuitBreakerOpenException.class, () -> breaker.acquire("k"));
+        breaker.release("k", probe);
+
+        long next = breaker.acquire("k");
+        breaker.recordSuccess("k", next, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("k"));
+    }
+
+    @Test
+    void ignoresOutcomesOfPermitsIssuedBeforeATransition() throws Exception {
+        CircuitBreaker breaker = breaker().openDurationMillis(50).halfOpenCalls(1).build();
+        long stale = breaker.acquire("k");
+        open(breaker, "k");
+        Thread.sleep(80);
+
+        long probe = breaker.acquire("k");
+        // 打开之前发出的调用现在才失败，不能算作探测结果
+        breaker.recordFailure("k", stale, FAST);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState("k"));
+
+        breaker.recordSuccess("k", probe, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("k"));
+    }
+
+    @Test
+    void opensOnSlowCalls() throws Exception {
+        CircuitBreaker breaker = breaker().slowCall(100, 50).build();
+        long slow = TimeUnit.MILLISECONDS.toNanos(150);
+
+        succeed(breaker, "k", FAST);
+        succeed(breaker, "k", slow);
+        succeed(breaker, "k", FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("k"));
+
+        succeed(breaker, "k", slow);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState("k"));
+    }
+
+    @Test
+    void keysHaveSeparateCircuits() throws Exception {
+        CircuitBreaker breaker = breaker().build();
+        open(breaker, "a");
+        succeed(breaker, "b", FAST);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState("a"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("b"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("never-called"));
+        assertEquals(2, breaker.getStates().size());
+        breaker.acquire("b");
+    }
+
+    @Test
+    void aThrowingListenerDoesNotBreakTheCall() throws Exception {
+        CircuitBreaker breaker = CircuitBreaker.builder().windowSize(2).minimumCalls(2)
+                .listener((key, from, to) -> {
+                    throw new IllegalStateException("listener failed");
+                })
+                .build();
+
+        fail(breaker, "k");
+        fail(breaker, "k");
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState("k"));
+    }
+
+    /** 窗口10次、至少4次、50%失败率，记录状态切换 / Window of 10, minimum 4, 50% failures, recording transitions */
+    private CircuitBreaker.Builder breaker() {
+        return CircuitBreaker.builder()
+                .windowSize(10)
+                .minimumCalls(4)
+                .failureRateThreshold(50)
+                .listener((key, from, to) -> transitions.add(key + ":" + from + "->" + to));
+    }
+
+    private static void open(CircuitBreaker breaker, String key) throws CircuitBreakerOpenException {
+        while (breaker.getState(key) != CircuitBreaker.State.OPEN) {
+            fail(breaker, key);
+        }
+    }
+
+    private static void fail(CircuitBreaker breaker, String key) throws CircuitBreakerOpenException {
+        breaker.recordFailure(key, breaker.acquire(key), FAST);
+    }
+
+    private static void succeed(CircuitBreaker breaker, String key, long durationNanos) throws CircuitBreakerOpenException {
+        breaker.recordSuccess(key, breaker.acquire(key), durationNanos);
+    }
+}
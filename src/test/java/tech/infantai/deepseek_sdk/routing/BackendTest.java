@@ -0,0 +1,88 @@
+package tech.infantai.deepseek_sdk.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackendTest {
+    private static final long EJECTION = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long MAX_EJECTION = TimeUnit.MILLISECONDS.toNanos(8);
+    private static final long DECAY = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    void ejectsOnlyAtTheThreshold() {
+        Backend backend = new Backend("b", null);
+
+        fail(backend, 3);
+        fail(backend, 3);
+        assertFalse(backend.isEjected(System.nanoTime()));
+
+        fail(backend, 3);
+        assertTrue(backend.isEjected(System.nanoTime()));
+        assertEquals(1, backend.stats().getEjections());
+    }
+
+    @Test
+    void eachRepeatedEjectionDoublesUpToTheCap() throws InterruptedException {
+        Backend backend = new Backend("b", null);
+
+        assertEjectedFor(backend, EJECTION);
+        assertEjectedFor(backend, 2 * EJECTION);
+        assertEjectedFor(backend, 4 * EJECTION);
+        assertEjectedFor(backend, MAX_EJECTION);
+        assertEquals(4, backend.stats().getEjections());
+    }
+
+    @Test
+    void aSuccessResetsTheEjectionLength() throws InterruptedException {
+        Backend backend = new Backend("b", null);
+        assertEjectedFor(backend, EJECTION);
+        assertEjectedFor(backend, 2 * EJECTION);
+
+        backend.onStart();
+        backend.onSuccess(TimeUnit.MILLISECONDS.toNanos(5), DECAY);
+
+        assertEjectedFor(backend, EJECTION);
+    }
+
+    @Test
+    void withoutSamplesTheEwmaIsThePrior() {
+        Backend backend = new Backend("b", null);
+        assertFalse(backend.hasSamples());
+        assertEquals(250.0, backend.ewmaMillis(System.nanoTime(), DECAY, 250), 0.0);
+
+        backend.onStart();
+        backend.onSuccess(TimeUnit.MILLISECONDS.toNanos(40), DECAY);
+
+        assertTrue(backend.hasSamples());
+        assertEquals(40.0, backend.rawEwmaMillis(), 0.001);
+        // 长时间没有样本后衰减到先验值，而不是0
+        assertEquals(250.0, backend.ewmaMillis(System.nanoTime() + 100 * DECAY, DECAY, 250), 0.001);
+    }
+
+    /**
+     * 等上一次摘除到期后再失败一次，检查新的摘除时长
+     * Wait for the current ejection to expire, fail once more and check the new ejection length
+     */
+    private static void assertEjectedFor(Backend backend, long expected) throws InterruptedException {
+        while (backend.isEjected(System.nanoTime())) {
+            Thread.sleep(1);
+        }
+        long before = System.nanoTime();
+        fail(backend, 1);
+        long after = System.nanoTime();
+        // 摘除开始于before与after之间
+        long until = backend.ejectedUntilNanos();
+        assertTrue(until - after <= expected && expected <= until - before,
+                "expected " + expected + " within [" + (until - after) + ", " + (until - before) + "]");
+    }
+
+    private static void fail(Backend backend, int threshold) {
+        backend.onStart();
+        backend.onFailure(threshold, EJECTION, MAX_EJECTION);
+    }
+}
@@ -0,0 +1,314 @@
+package tech.infantai.deepseek_sdk.routing;
+
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+import tech.infantai.deepseek_sdk.config.GPTConfig;
+import tech.infantai.deepseek_sdk.exception.ApiException;
+import tech.infantai.deepseek_sdk.exception.DeadlineExceededException;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.model.Message;
+import tech.infantai.deepseek_sdk.service.DeepseekAIService;
+import tech.infantai.deepseek_sdk.util.Deadline;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoutingChatClientTest {
+
+    @Test
+    void leastOutstandingSpreadsConcurrentRequests() {
+        FakeBackend a = new FakeBackend(null);
+        FakeBackend b = new FakeBackend(null);
+        RoutingChatClient client = RoutingChatClient.builder()
+                .backend("a", a)
+                .backend("b", b)
+                .strategy(RoutingStrategy.LEAST_OUTSTANDING)
+                .build();
+
+        for (int i = 0; i < 6; i++) {
+            client.chatAsync(request());
+        }
+
+        assertEquals(3, a.calls.size());
+        assertEquals(3, b.calls.size());
+    }
+
+    @Test
+    void aBackendWithoutSamplesDoesNotTakeEveryConcurrentRequest() throws Exception {
+        FakeBackend a = new FakeBackend(null);
+        FakeBackend b = new FakeBackend(null);
+        RoutingChatClient client = RoutingChatClient.builder()
+                .backend("a", a)
+                .backend("b", b)
+                .build();
+
+        // 先让其中一个后端产生一个约20毫秒的样本
+        CompletableFuture<ChatResponse> warmup = client.chatAsync(request());
+        FakeBackend warm = a.calls.isEmpty() ? b : a;
+        FakeBackend cold = warm == a ? b : a;
+        Thread.sleep(20);
+        warm.calls.get(0).complete(new ChatResponse("warm", null));
+        warmup.join();
+
+        // 没有样本的后端按平均延迟计分，进行中的请求同样计入，不会因为EWMA为0而吃下所有流量
+        for (int i = 0; i < 10; i++) {
+            client.chatAsync(request());
+        }
+
+        assertEquals(5, cold.calls.size());
+        assertEquals(6, warm.calls.size());
+    }
+
+    @Test
+    void failsOverOnServerErrors() throws Exception {
+        FakeBackend down = new FakeBackend(() -> failed(503));
+        FakeBackend up = new FakeBackend(() -> answered("up"));
+        RoutingChatClient client = RoutingChatClient.builder()
+                .backend("down", down)
+                .backend("up", up)
+                .failureThreshold(100)
+                .build();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("up", client.chat(request()).getContent());
+        }
+
+        // 每个请求都由up完成，down失败的次数计入统计
+        assertEquals(10, up.calls.size());
+        assertTrue(down.calls.size() > 0);
+        List<BackendStats> stats = client.getBackendStats();
+        assertEquals(down.calls.size(), stats.get(0).getFailures());
+        assertEquals(0, stats.get(1).getFailures());
+    }
+
+    @Test
+    void returnsCallerErrorsWithoutFailingOver() {
+        FakeBackend a = new FakeBackend(() -> failed(400));
+        FakeBackend b = new FakeBackend(() -> failed(400));
+        RoutingChatClient client = RoutingChatClient.builder()
+                .backend("a", a)
+                .backend("b", b)
+                .build();
+
+        ApiException failure = assertThrows(ApiException.class, () -> client.chat(request()));
+
+        assertEquals(400, failure.getStatusCode());
+        assertEquals(1, a.calls.size() + b.calls.size());
+        for (BackendStats stats : client.getBackendStats()) {
+            assertEquals(0, stats.getFailures());
+            assertEquals(0, stats.getOutstanding());
+        }
+    }
+
+    @Test
+    void ejectsABackendAfterConsecutiveFailures() throws Exception {
+        FakeBackend down = new FakeBackend(() -> failed(500));
+        FakeBackend up = new FakeBackend(() -> answered("up"));
+        RoutingChatClient client = RoutingChatClient.builder()
+                .backend("down", down)
+                .backend("up", up)
+                .failureThreshold(2)
+                .build();
+
+        for (int i = 0; i < 30; i++) {
+            client.chat(request());
+        }
+
+        // 连续失败2次后被摘除，之后不再分到请求
+        assertEquals(2, down.calls.size());
+        BackendStats stats = client.getBackendStats().get(0);
+        assertTrue(stats.isEjected());
+        assertEquals(1, stats.getEjections());
+    }
+
+    @Test
+    void fallsBackToTheSoonestEjectedBackendWhenEveryoneIsEjected() {
+        FakeBackend a = new FakeBackend(() -> failed(500));
+        RoutingChatClient client = RoutingChatClient.builder()
+                .backend("a", a)
+                .failureThreshold(1)
+                .build();
+
+        assertThrows(ApiException.class, () -> client.chat(request()));
+        assertTrue(client.getBackendStats().get(0).isEjected());
+
+        // 唯一的后端被摘除时仍然发送，而不是直接拒绝
+        assertThrows(ApiException.class, () -> client.chat(request()));
+        assertEquals(2, a.calls.size());
+    }
+
+    @Test
+    void cancellingTheRoutedFutureCancelsTheCallInFlight() {
+        FakeBackend a = new FakeBackend(null);
+        FakeBackend b = new FakeBackend(null);
+        RoutingChatClient client = RoutingChatClient.builder()
+                .backend("a", a)
+                .backend("b", b)
+                .build();
+
+        CompletableFuture<ChatResponse> routed = client.chatAsync(request());
+        FakeBackend chosen = a.calls.isEmpty() ? b : a;
+        FakeBackend other = chosen == a ? b : a;
+
+        assertTrue(routed.cancel(true));
+
+        // 取消不算后端故障，也不会切换到其他后端
+        assertTrue(chosen.calls.get(0).isCancelled());
+        assertTrue(other.calls.isEmpty());
+        for (BackendStats stats : client.getBackendStats()) {
+            assertEquals(0, stats.getOutstanding());
+            assertEquals(0, stats.getFailures());
+            assertFalse(stats.isEjected());
+        }
+    }
+
+    @Test
+    void anExpiredDeadlineIsNotABackendFailure() {
+        FakeBackend a = new FakeBackend(() -> failed(new DeadlineExceededException("Deadline exceeded")));
+        FakeBackend b = new FakeBackend(() -> failed(new DeadlineExceededException("Deadline exceeded")));
+        RoutingChatClient client = RoutingChatClient.builder()
+                .backend("a", a)
+                .backend("b", b)
+                .failureThreshold(1)
+                .build();
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(DeadlineExceededException.class, () -> client.chat(request()));
+        }
+
+        // 截止时间已过不切换、不计入故障，健康的后端不会因为调用方的预算用完而被摘除
+        assertEquals(5, a.calls.size() + b.calls.size());
+        for (BackendStats stats : client.getBackendStats()) {
+            assertEquals(0, stats.getFailures());
+            assertFalse(stats.isEjected());
+        }
+    }
+
+    @Test
+    void anInterruptedCallDoesNotFailOverButASocketTimeoutDoes() throws Exception {
+        FakeBackend interrupted = new FakeBackend(() -> failed(new InterruptedIOException("timeout")));
+        RoutingChatClient client = RoutingChatClient.builder()
+                .backend("interrupted", interrupted)
+                .backend("spare", new FakeBackend(() -> answered("spare")))
+                .failureThreshold(100)
+                .build();
+        for (int i = 0; i < 10; i++) {
+            try {
+                client.chat(request());
+            } catch (InterruptedIOException e) {
+                // 发往interrupted的请求原样返回
+            }
+        }
+        assertTrue(interrupted.calls.size() > 0);
+        assertEquals(0, client.getBackendStats().get(0).getFailures());
+
+        FakeBackend slow = new FakeBackend(() -> failed(new SocketTimeoutException("Read timed out")));
+        RoutingChatClient failover = RoutingChatClient.builder()
+                .backend("slow", slow)
+                .backend("spare", new FakeBackend(() -> answered("spare")))
+                .failureThreshold(100)
+                .build();
+        for (int i = 0; i < 10; i++) {
+            assertEquals("spare", failover.chat(request()).getContent());
+        }
+        assertEquals(slow.calls.size(), failover.getBackendStats().get(0).getFailures());
+    }
+
+    @Test
+    void everyAttemptSharesOneDeadline() throws Exception {
+        FakeBackend down = new FakeBackend(() -> failed(503));
+        FakeBackend up = new FakeBackend(() -> answered("up"));
+        RoutingChatClient client = RoutingChatClient.builder()
+                .backend("down", down)
+                .backend("up", up)
+                .failureThreshold(100)
+                .build();
+
+        while (down.requests.isEmpty()) {
+            client.chat(ChatRequest.builder().message(new Message("user", "hello")).timeoutMillis(5_000).build());
+        }
+
+        // 总超时在路由时换算成截止时间，后端不会各自重新计时
+        ChatRequest failed = down.requests.get(0);
+        ChatRequest retried = up.requests.get(up.requests.size() - 1);
+        assertEquals(0, failed.getTimeoutMillis());
+        assertNotNull(failed.getDeadline());
+        assertSame(failed.getDeadline(), retried.getDeadline());
+    }
+
+    @Test
+    void doesNotFailOverOnceTheDeadlineHasPassed() {
+        FakeBackend a = new FakeBackend(() -> failed(503));
+        FakeBackend b = new FakeBackend(() -> failed(503));
+        RoutingChatClient client = RoutingChatClient.builder()
+                .backend("a", a)
+                .backend("b", b)
+                .build();
+
+        ChatRequest expired = ChatRequest.builder().message(new Message("user", "hello"))
+                .deadline(Deadline.after(0, TimeUnit.MILLISECONDS)).build();
+        ApiException failure = assertThrows(ApiException.class, () -> client.chat(expired));
+
+        assertEquals(503, failure.getStatusCode());
+        assertEquals(1, a.calls.size() + b.calls.size());
+    }
+
+    private static ChatRequest request() {
+        return ChatRequest.builder().message(new Message("user", "hello")).build();
+    }
+
+    private static CompletableFuture<ChatResponse> answered(String content) {
+        CompletableFuture<ChatResponse> future = new CompletableFuture<>();
+        future.complete(new ChatResponse(content, null));
+        return future;
+    }
+
+    private static CompletableFuture<ChatResponse> failed(int status) {
+        return failed(new ApiException("HTTP " + status, status, null, -1));
+    }
+
+    private static CompletableFuture<ChatResponse> failed(IOException failure) {
+        CompletableFuture<ChatResponse> future = new CompletableFuture<>();
+        future.completeExceptionally(failure);
+        return future;
+    }
+
+    /**
+     * 不发出网络请求的后端：answer为null时请求一直挂起，由测试完成
+     * A backend that never touches the network; with a null answer calls stay pending until the test completes them
+     */
+    static class FakeBackend extends DeepseekAIService {
+        final List<CompletableFuture<ChatResponse>> calls = Collections.synchronizedList(new ArrayList<>());
+        final List<ChatRequest> requests = Collections.synchronizedList(new ArrayList<>());
+        private final Supplier<CompletableFuture<ChatResponse>> answer;
+
+        FakeBackend(Supplier<CompletableFuture<ChatResponse>> answer) {
+            super(GPTConfig.builder().apiKey("sk-test").endpoint("http://localhost:1").model("deepseek-chat").build(),
+                    new OkHttpClient());
+            this.answer = answer;
+        }
+
+        @Override
+        public CompletableFuture<ChatResponse> chatAsync(ChatRequest chatRequest) {
+            CompletableFuture<ChatResponse> future = answer == null ? new CompletableFuture<>() : answer.get();
+            requests.add(chatRequest);
+            calls.add(future);
+            return future;
+        }
+    }
+}
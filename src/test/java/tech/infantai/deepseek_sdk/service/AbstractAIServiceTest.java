@@ -0,0 +1,175 @@
+package tech.infantai.deepseek_sdk.service;
+
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+import tech.infantai.deepseek_sdk.cache.ResponseCache;
+import tech.infantai.deepseek_sdk.config.GPTConfig;
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+import tech.infantai.deepseek_sdk.model.ChatRequest;
+import tech.infantai.deepseek_sdk.model.Message;
+import tech.infantai.deepseek_sdk.ratelimit.RateLimitExceededException;
+import tech.infantai.deepseek_sdk.ratelimit.RateLimiter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AbstractAIServiceTest {
+
+    @Test
+    void passesWhatIsLeftOfTheDeadlineToTheRateLimiter() {
+        RecordingRateLimiter limiter = new RecordingRateLimiter();
+        DeepseekAIService service = service(GPTConfig.builder().rateLimiter(limiter));
+
+        assertThrows(RateLimitExceededException.class, () -> service.chat(request("hello", 2000)));
+        long maxWait = limiter.maxWaitMillis.get();
+        assertTrue(maxWait > 0 && maxWait <= 2000, "max wait " + maxWait);
+
+        CompletionException e = assertThrows(CompletionException.class, () -> service.chatAsync(request("hello", 2000)).join());
+        assertTrue(e.getCause() instanceof RateLimitExceededException);
+        maxWait = limiter.maxWaitMillis.get();
+        assertTrue(maxWait > 0 && maxWait <= 2000, "max wait " + maxWait);
+    }
+
+    @Test
+    void aRequestWithoutADeadlineLeavesTheWaitToTheRateLimiter() {
+        RecordingRateLimiter limiter = new RecordingRateLimiter();
+        DeepseekAIService service = service(GPTConfig.builder().rateLimiter(limiter));
+
+        assertThrows(RateLimitExceededException.class, () -> service.chat(request("hello", 0)));
+        assertEquals(Long.MAX_VALUE, limiter.maxWaitMillis.get());
+    }
+
+    @Test
+    void rejectsStreamingRequestsOutsideChatStream() {
+        DeepseekAIService service = service(GPTConfig.builder());
+        ChatRequest streaming = ChatRequest.builder().model("deepseek-chat").message(new Message("user", "hello"))
+                .stream(true).build();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> service.chat(streaming));
+        assertTrue(e.getMessage().contains("chatStream"));
+        assertThrows(IllegalArgumentException.class, () -> service.chatAsync(streaming));
+    }
+
+    @Test
+    void cachesOnlyDeterministicRequestsByDefault() throws Exception {
+        RecordingCache cache = new RecordingCache();
+        DeepseekAIService service = service(GPTConfig.builder().responseCache(cache).rateLimiter(new RecordingRateLimiter()));
+
+        assertEquals("cached", service.chat(sampled(0.0)).getContent());
+        assertEquals(1, cache.lookups.get());
+
+        // 采样请求不查缓存，直接走到拒绝一切的限流器
+        assertThrows(RateLimitExceededException.class, () -> service.chat(sampled(null)));
+        assertThrows(RateLimitExceededException.class, () -> service.chat(sampled(0.7)));
+        assertEquals(1, cache.lookups.get());
+    }
+
+    @Test
+    void cachesSampledRequestsWhenOptedIn() throws Exception {
+        RecordingCache cache = new RecordingCache();
+        DeepseekAIService service = service(GPTConfig.builder().responseCache(cache).cacheSampledResponses(true));
+
+        assertEquals("cached", service.chat(sampled(null)).getContent());
+        assertEquals("cached", service.chat(sampled(0.7)).getContent());
+        assertEquals(2, cache.lookups.get());
+    }
+
+    @Test
+    void measuresContentInUtf8Bytes() {
+        for (String text : new String[] {"", "hello", "café", "你好，世界", "emoji 😀 and 𠀀", "mixed ascii 中文 ü 🎉"}) {
+            assertEquals(text.getBytes(StandardCharsets.UTF_8).length, AbstractAIService.utf8Length(text), text);
+        }
+        // 单独的代理字符按3个字节计
+        assertEquals(3, AbstractAIService.utf8Length("\uD83D"));
+        assertEquals(4, AbstractAIService.utf8Length("a\uDE00"));
+    }
+
+    @Test
+    void compressionThresholdCountsBytesNotChars() {
+        StringBuilder chinese = new StringBuilder();
+        for (int i = 0; i < 400; i++) {
+            chinese.append('文');
+        }
+        ChatRequest request = ChatRequest.builder().model("deepseek-chat")
+                .messages(Arrays.asList(new Message("system", chinese.toString()), new Message("user", "hi")))
+                .build();
+
+        // 400个汉字在UTF-8下占1200字节
+        assertEquals(1202, AbstractAIService.minimumBodyBytes(request));
+    }
+
+    @Test
+    void installsNoEventListenerWhenInstrumentationIsOff() {
+        OkHttpClient client = new OkHttpClient();
+        DeepseekAIService service = new DeepseekAIService(
+                GPTConfig.builder().apiKey("sk-test").endpoint("http://localhost:1").model("deepseek-chat").build(), client);
+
+        // 不启用度量时直接使用调用方的客户端，不派生带MetricsEventListener的副本
+        assertSame(client, service.httpClient);
+    }
+
+    static DeepseekAIService service(GPTConfig.Builder config) {
+        // 端口1上没有服务，请求即使发出也会立即失败
+        return new DeepseekAIService(config.apiKey("sk-test").endpoint("http://localhost:1").model("deepseek-chat").build(),
+                new OkHttpClient());
+    }
+
+    static ChatRequest request(String content, long timeoutMillis) {
+        return ChatRequest.builder().model("deepseek-chat").message(new Message("user", content))
+                .timeoutMillis(timeoutMillis).build();
+    }
+
+    private static ChatRequest sampled(Double temperature) {
+        return ChatRequest.builder().model("deepseek-chat").message(new Message("user", "讲个笑话"))
+                .temperature(temperature).build();
+    }
+
+    /**
+     * 对所有请求都命中的缓存，记录查询次数
+     * A cache that hits for every request and counts the lookups
+     */
+    private static class RecordingCache implements ResponseCache {
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        @Override
+        public ChatCompletionResponse get(String key) {
+            lookups.incrementAndGet();
+            ChatCompletionResponse.Choice choice = new ChatCompletionResponse.Choice();
+            choice.setMessage(new Message("assistant", "cached"));
+            ChatCompletionResponse response = new ChatCompletionResponse();
+            response.setChoices(Collections.singletonList(choice));
+            return response;
+        }
+
+        @Override
+        public void put(String key, ChatCompletionResponse response) {
+        }
+    }
+
+    /**
+     * 记录调用方允许的等待时间并拒绝请求
+     * Records how long the caller allows it to wait, then rejects the request
+     */
+    private static class RecordingRateLimiter implements RateLimiter {
+        private final AtomicLong maxWaitMillis = new AtomicLong(-1);
+
+        @Override
+        public int acquire(String key, ChatRequest request, long maxWaitMillis) throws RateLimitExceededException {
+            this.maxWaitMillis.set(maxWaitMillis);
+            throw new RateLimitExceededException("No quota", 60000);
+        }
+
+        @Override
+        public void release(String key, int reservedTokens, ChatCompletionResponse.Usage usage) {
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package tech.infantai.deepseek_sdk.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.GzipSource;
+import okio.Okio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.infantai.deepseek_sdk.config.GPTConfig;
+import tech.infantai.deepseek_sdk.json.Json;
+import tech.infantai.deepseek_sdk.metrics.ChatCallMetrics;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+import tech.infantai.deepseek_sdk.model.Message;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressionTest {
+    private static final String COMPLETION = "{\"id\":\"c-1\",\"object\":\"chat.completion\",\"created\":1700000000,"
+            + "\"model\":\"deepseek-chat\",\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"摘要\"},"
+            + "\"finish_reason\":\"stop\"}],\"usage\":{\"prompt_tokens\":10,\"completion_tokens\":2,\"total_tokens\":12}}";
+
+    private final AtomicReference<ChatCallMetrics> metrics = new AtomicReference<>();
+    private MockWebServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void gzipRequestBodyRoundTripsAndBytesAreReported() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setHeader("Content-Encoding", "gzip")
+                .setBody(gzip(COMPLETION)));
+        String document = document(2048);
+
+        ChatResponse response = service(1024, true).chatWithMessages(messages(document));
+
+        assertTrue(response.isSuccess(), response.getErrorMessage());
+        assertEquals("摘要", response.getContent());
+
+        RecordedRequest recorded = server.takeRequest(5, TimeUnit.SECONDS);
+        assertNotNull(recorded);
+        assertEquals("gzip", recorded.getHeader("Content-Encoding"));
+        byte[] inflated = inflate(recorded.getBody());
+        JsonNode json = Json.MAPPER.readTree(inflated);
+        assertEquals("deepseek-chat", json.get("model").asText());
+        assertEquals(document, json.get("messages").get(0).get("content").asText());
+        assertEquals("Summarize the document.", json.get("messages").get(1).get("content").asText());
+
+        ChatCallMetrics reported = metrics.get();
+        assertNotNull(reported);
+        assertTrue(reported.isRequestCompressed());
+        assertEquals(recorded.getBodySize(), reported.getRequestBytes());
+        assertEquals(inflated.length, reported.getUncompressedRequestBytes());
+        assertTrue(reported.getRequestBytes() < reported.getUncompressedRequestBytes());
+        assertTrue(reported.isResponseCompressed());
+    }
+
+    @Test
+    void bodiesBelowTheThresholdAreSentAsIs() throws Exception {
+        server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody(COMPLETION));
+
+        ChatResponse response = service(64 * 1024, true).chatWithMessages(messages(document(2048)));
+
+        assertTrue(response.isSuccess(), response.getErrorMessage());
+        RecordedRequest recorded = server.takeRequest(5, TimeUnit.SECONDS);
+        assertNull(recorded.getHeader("Content-Encoding"));
+        ChatCallMetrics reported = metrics.get();
+        assertFalse(reported.isRequestCompressed());
+        assertEquals(recorded.getBodySize(), reported.getRequestBytes());
+        assertEquals(reported.getRequestBytes(), reported.getUncompressedRequestBytes());
+        assertEquals(COMPLETION.getBytes("UTF-8").length, reported.getUncompressedResponseBytes());
+    }
+
+    @Test
+    void asksForIdentityWhenResponseCompressionIsDisabled() throws Exception {
+        server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody(COMPLETION));
+
+        service(0, false).chatWithMessages(messages("hello"));
+
+        assertEquals("identity", server.takeRequest(5, TimeUnit.SECONDS).getHeader("Accept-Encoding"));
+        assertFalse(metrics.get().isResponseCompressed());
+    }
+
+    private DeepseekAIService service(int requestCompressionThreshold, boolean responseCompression) {
+        GPTConfig config = GPTConfig.builder()
+                .apiKey("sk-test")
+                .endpoint(server.url("/").toString())
+                .model("deepseek-chat")
+                .requestCompressionThreshold(requestCompressionThreshold)
+                .responseCompression(responseCompression)
+                .instrumentation(metrics::set)
+                .build();
+        return new DeepseekAIService(config, new OkHttpClient());
+    }
+
+    private static List<Message> messages(String document) {
+        return Arrays.asList(new Message("system", document), new Message("user", "Summarize the document."));
+    }
+
+    /** 中英混排的文档，至少length个字符 / A mixed Chinese and English document of at least length characters */
+    private static String document(int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; text.length() < length; i++) {
+            text.append("第").append(i).append("段：the quick brown fox jumps over the lazy dog \"quoted\"\n");
+        }
+        return text.toString();
+    }
+
+    private static byte[] inflate(Buffer body) throws IOException {
+        Buffer inflated = new Buffer();
+        try (GzipSource source = new GzipSource(body)) {
+            while (source.read(inflated, 8192) != -1) {
+                // 读到gzip尾部为止，CRC或长度不符时抛出异常
+            }
+        }
+        return inflated.readByteArray();
+    }
+
+    private static Buffer gzip(String text) throws IOException {
+        Buffer compressed = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(compressed))) {
+            sink.writeUtf8(text);
+        }
+        return compressed;
+    }
+}
@@ -0,0 +1,184 @@
+package tech.infantai.deepseek_sdk.service;
+
+import org.junit.jupiter.api.Test;
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+import tech.infantai.deepseek_sdk.model.ChatResponse;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CompletableFuture<ChatResponse> upstream = new CompletableFuture<>();
+
+    private CompletableFuture<ChatResponse> call() {
+        calls.incrementAndGet();
+        return upstream;
+    }
+
+    @Test
+    void identicalRequestsShareOneUpstreamCall() {
+        CompletableFuture<ChatResponse> first = singleFlight.execute("k", this::call, null);
+        CompletableFuture<ChatResponse> second = singleFlight.execute("k", this::call, null);
+        assertEquals(1, calls.get());
+        assertEquals(1, singleFlight.inFlight());
+
+        ChatResponse response = new ChatResponse("hi", new ChatCompletionResponse());
+        upstream.complete(response);
+
+        assertSame(response, first.join());
+        assertSame(response, second.join());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void differentKeysDoNotShareCalls() {
+        singleFlight.execute("a", this::call, null);
+        singleFlight.execute("b", this::call, null);
+
+        assertEquals(2, calls.get());
+        assertEquals(2, singleFlight.inFlight());
+    }
+
+    @Test
+    void cancellingOneWaiterLeavesTheCallRunning() {
+        CompletableFuture<ChatResponse> first = singleFlight.execute("k", this::call, null);
+        CompletableFuture<ChatResponse> second = singleFlight.execute("k", this::call, null);
+
+        assertTrue(first.cancel(true));
+
+        assertFalse(upstream.isCancelled());
+        ChatResponse response = new ChatResponse("hi", new ChatCompletionResponse());
+        upstream.complete(response);
+        assertSame(response, second.join());
+    }
+
+    @Test
+    void cancellingEveryWaiterCancelsTheCall() {
+        CompletableFuture<ChatResponse> first = singleFlight.execute("k", this::call, null);
+        CompletableFuture<ChatResponse> second = singleFlight.execute("k", this::call, null);
+
+        first.cancel(true);
+        second.cancel(true);
+
+        assertTrue(upstream.isCancelled());
+        assertEquals(0, singleFlight.inFlight());
+
+        // 之后的请求重新发起调用
+        CompletableFuture<ChatResponse> fresh = new CompletableFuture<>();
+        CompletableFuture<ChatResponse> third = singleFlight.execute("k", () -> fresh, null);
+        assertEquals(1, singleFlight.inFlight());
+        ChatResponse response = new ChatResponse("again", new ChatCompletionResponse());
+        fresh.complete(response);
+        assertSame(response, third.join());
+    }
+
+    @Test
+    void aFailureReachesEveryWaiterAndClearsTheKey() {
+        CompletableFuture<ChatResponse> first = singleFlight.execute("k", this::call, null);
+        CompletableFuture<ChatResponse> second = singleFlight.execute("k", this::call, null);
+
+        IOException failure = new IOException("reset");
+        upstream.completeExceptionally(failure);
+
+        assertSame(failure, assertThrows(CompletionException.class, first::join).getCause());
+        assertSame(failure, assertThrows(CompletionException.class, second::join).getCause());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void aCallThatThrowsFailsItsWaiter() {
+        CompletableFuture<ChatResponse> waiter = singleFlight.execute("k", () -> {
+            throw new IllegalStateException("boom");
+        }, null);
+
+        assertTrue(assertThrows(CompletionException.class, waiter::join).getCause() instanceof IllegalStateException);
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void aWaiterThatJoinsAndCancelsRightAfterPublishDoesNotAbandonTheCall() {
+        // 发起者发布调用后，另一个等待者立即加入并取消，此时发起者还没有返回
+        AtomicReference<SingleFlight> flights = new AtomicReference<>();
+        flights.set(new SingleFlight(new ConcurrentHashMap<String, SingleFlight.Flight>() {
+            private boolean interleaved;
+
+            @Override
+            public SingleFlight.Flight putIfAbsent(String key, SingleFlight.Flight value) {
+                SingleFlight.Flight existing = super.putIfAbsent(key, value);
+                if (existing == null && !interleaved) {
+                    interleaved = true;
+                    flights.get().execute(key, SingleFlightTest.this::call, null).cancel(true);
+                }
+                return existing;
+            }
+        }));
+
+        CompletableFuture<ChatResponse> creator = flights.get().execute("k", this::call, null);
+
+        assertNotNull(creator);
+        assertEquals(1, calls.get());
+        assertFalse(upstream.isCancelled());
+        ChatResponse response = new ChatResponse("hi", new ChatCompletionResponse());
+        upstream.complete(response);
+        assertSame(response, creator.join());
+    }
+
+    @Test
+    void concurrentJoinAndCancelNeverLeaveTheCreatorWithoutAFuture() throws Exception {
+        for (int round = 0; round < 2_000; round++) {
+            SingleFlight flights = new SingleFlight();
+            AtomicReference<CompletableFuture<ChatResponse>> latest = new AtomicReference<>();
+            Supplier<CompletableFuture<ChatResponse>> call = () -> {
+                CompletableFuture<ChatResponse> future = new CompletableFuture<>();
+                latest.set(future);
+                return future;
+            };
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicReference<CompletableFuture<ChatResponse>> creator = new AtomicReference<>();
+            Thread first = new Thread(() -> {
+                await(start);
+                creator.set(flights.execute("k", call, null));
+            });
+            Thread second = new Thread(() -> {
+                await(start);
+                flights.execute("k", call, null).cancel(true);
+            });
+            first.start();
+            second.start();
+            start.countDown();
+            first.join();
+            second.join();
+
+            // 无论谁先发布，未取消的请求都拿到有效的Future，并等待仍在进行的上游调用
+            CompletableFuture<ChatResponse> future = creator.get();
+            assertNotNull(future, "round " + round);
+            assertFalse(latest.get().isCancelled(), "round " + round);
+            ChatResponse response = new ChatResponse("hi", new ChatCompletionResponse());
+            latest.get().complete(response);
+            assertSame(response, future.join(), "round " + round);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package tech.infantai.deepseek_sdk.service;
+
+import org.junit.jupiter.api.Test;
+import tech.infantai.deepseek_sdk.model.ChatCompletionChunk;
+import tech.infantai.deepseek_sdk.model.ChatCompletionResponse;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StreamAccumulatorTest {
+
+    @Test
+    void assemblesDeltasInOrder() {
+        StreamAccumulator accumulator = new StreamAccumulator();
+
+        assertNull(accumulator.accept(chunk("assistant", "", null)));
+        assertEquals("你", accumulator.accept(chunk(null, "你", null)));
+        assertEquals("好", accumulator.accept(chunk(null, "好", null)));
+        assertNull(accumulator.accept(chunk(null, null, "stop")));
+
+        ChatCompletionResponse response = accumulator.toResponse();
+        assertEquals("c-1", response.getId());
+        ChatCompletionResponse.Choice choice = response.getChoices().get(0);
+        assertEquals("assistant", choice.getMessage().getRole());
+        assertEquals("你好", choice.getMessage().getContent());
+        assertEquals("stop", choice.getFinishReason());
+    }
+
+    @Test
+    void assemblesAStreamWithoutContent() {
+        StreamAccumulator accumulator = new StreamAccumulator();
+        accumulator.accept(chunk("assistant", null, null));
+        accumulator.accept(chunk(null, null, "length"));
+
+        ChatCompletionResponse.Choice choice = accumulator.toResponse().getChoices().get(0);
+        assertEquals("", choice.getMessage().getContent());
+        assertEquals("length", choice.getFinishReason());
+    }
+
+    @Test
+    void assemblesWhitespaceOnlyContent() {
+        StreamAccumulator accumulator = new StreamAccumulator();
+        accumulator.accept(chunk("assistant", "\n", null));
+        accumulator.accept(chunk(null, " ", "stop"));
+
+        assertEquals("\n ", accumulator.toResponse().getChoices().get(0).getMessage().getContent());
+    }
+
+    @Test
+    void deliversOnlyTheFirstChoiceWhenSeveralAreStreamed() {
+        StreamAccumulator accumulator = new StreamAccumulator();
+
+        // 第二个选择先到，不能当作主内容交付
+        assertNull(accumulator.accept(choices(choice(1, "B"))));
+        assertEquals("A", accumulator.accept(choices(choice(1, "b"), choice(0, "A"))));
+        assertEquals("a", accumulator.accept(choices(choice(0, "a"))));
+
+        assertEquals("Aa", accumulator.content());
+        ChatCompletionResponse response = accumulator.toResponse();
+        assertEquals("Aa", response.getChoices().get(0).getMessage().getContent());
+        assertEquals("Bb", response.getChoices().get(1).getMessage().getContent());
+    }
+
+    @Test
+    void theContentIsEmptyWhileOnlyOtherChoicesHaveArrived() {
+        StreamAccumulator accumulator = new StreamAccumulator();
+        accumulator.accept(choices(choice(2, "C")));
+
+        assertEquals("", accumulator.content());
+    }
+
+    private static ChatCompletionChunk.Choice choice(int index, String content) {
+        ChatCompletionChunk.Delta delta = new ChatCompletionChunk.Delta();
+        delta.setContent(content);
+        ChatCompletionChunk.Choice choice = new ChatCompletionChunk.Choice();
+        choice.setIndex(index);
+        choice.setDelta(delta);
+        return choice;
+    }
+
+    private static ChatCompletionChunk choices(ChatCompletionChunk.Choice... choices) {
+        ChatCompletionChunk chunk = new ChatCompletionChunk();
+        chunk.setId("c-1");
+        chunk.setChoices(Arrays.asList(choices));
+        return chunk;
+    }
+
+    private static ChatCompletionChunk chunk(String role, String content, String finishReason) {
+        ChatCompletionChunk.Delta delta = new ChatCompletionChunk.Delta();
+        delta.setRole(role);
+        delta.setContent(content);
+        ChatCompletionChunk.Choice choice = new ChatCompletionChunk.Choice();
+        choice.setIndex(0);
+        choice.setDelta(delta);
+        choice.setFinishReason(finishReason);
+        ChatCompletionChunk chunk = new ChatCompletionChunk();
+        chunk.setId("c-1");
+        chunk.setChoices(Collections.singletonList(choice));
+        return chunk;
+    }
+}
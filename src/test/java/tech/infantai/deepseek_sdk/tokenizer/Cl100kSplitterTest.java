@@ -0,0 +1,89 @@
+package tech.infantai.deepseek_sdk.tokenizer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Cl100kSplitterTest {
+    private static final Pattern CL100K = Pattern.compile(BpeTokenizer.CL100K_PATTERN, Pattern.UNICODE_CHARACTER_CLASS);
+
+    /** 每个正则分支及其边界都至少出现一次的码点 / Code points that exercise every branch of the pattern and its edges */
+    private static final int[] ALPHABET = {
+            'a', 'Z', 's', 't', 'r', 'e', 'v', 'm', 'l', 'd', 'S', 'L', '\'', 'ſ', 'é', '中', 'ß',
+            '0', '7', '٣', 'Ⅷ', '½', 0x1D7D8,
+            ' ', '\t', '\n', '\r', 0x0B, 0x0C, 0x85, 0xA0, 0x2003, 0x2028, 0x3000,
+            '!', '.', '"', '-', '_', 0x0301, 0x1F600, 0x200B
+    };
+
+    @Test
+    void matchesThePatternOnHandPickedText() {
+        for (String text : Arrays.asList(
+                "Hello world",
+                "I'm sure they'll say we'd've done it, isn't it? THEY'RE ſo 'S",
+                "'' 'x ' s",
+                "1234567 is 12,345.6789 and ٣٣٣٣ or ⅧⅧ½",
+                "  leading, trailing  ",
+                "line one\nline two\r\n\r\n  indented\n\n\n",
+                "tabs\t\tand\u00A0no-break\u3000ideographic space",
+                "emoji 😀😀 and math 𝟘𝟙𝟚𝟛 digits",
+                "你好，世界！这是一个测试。GPT-4 的 token 数",
+                "code: for (int i = 0; i < n; i++) { sum += values[i]; }\n",
+                "e\u0301 combining, zero\u200Bwidth",
+                "!!!\n\n???\r\n...",
+                " ",
+                "\n",
+                "x")) {
+            assertEquals(regexPieces(text), splitterPieces(text), text);
+        }
+    }
+
+    @Test
+    void matchesThePatternOnRandomText() {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        for (int round = 0; round < 20_000; round++) {
+            text.setLength(0);
+            int length = 1 + random.nextInt(24);
+            for (int i = 0; i < length; i++) {
+                text.appendCodePoint(ALPHABET[random.nextInt(ALPHABET.length)]);
+            }
+            String s = text.toString();
+            assertEquals(regexPieces(s), splitterPieces(s), escape(s));
+        }
+    }
+
+    private static List<String> regexPieces(String text) {
+        List<String> pieces = new ArrayList<>();
+        Matcher matcher = CL100K.matcher(text);
+        int last = 0;
+        while (matcher.find()) {
+            // 正则覆盖所有字符，片段之间不应有空隙
+            assertEquals(last, matcher.start(), "gap in " + escape(text));
+            pieces.add(matcher.group());
+            last = matcher.end();
+        }
+        return pieces;
+    }
+
+    private static List<String> splitterPieces(String text) {
+        List<String> pieces = new ArrayList<>();
+        for (int start = 0, end; start < text.length(); start = end) {
+            end = Cl100kSplitter.next(text, start);
+            pieces.add(text.substring(start, end));
+        }
+        return pieces;
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder();
+        text.codePoints().forEach(c -> escaped.append(c < 0x20 || c > 0x7e ? String.format("\\u{%x}", c) : String.valueOf((char) c)));
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package tech.infantai.deepseek_sdk.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadsTest {
+
+    @Test
+    void numbersTheThreadsItCreates() {
+        // 虚拟线程和回退的平台线程都按 prefix-0、prefix-1 命名
+        ThreadFactory factory = VirtualThreads.newThreadFactory("worker");
+        Thread first = factory.newThread(() -> { });
+        Thread second = factory.newThread(() -> { });
+
+        assertEquals("worker-0", first.getName());
+        assertEquals("worker-1", second.getName());
+        assertTrue(first.isDaemon());
+    }
+
+    @Test
+    void theExecutorRunsTasksOnItsOwnThreads() throws Exception {
+        ExecutorService executor = VirtualThreads.newExecutor("task");
+        try {
+            Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+            assertTrue(name.get().startsWith("task-"), name.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}